@@ -0,0 +1,82 @@
+package org.backend.backendfacilgim.config;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Prepara la tabla {@code generador_ids} que usan {@code Entrenamiento},
+ * {@code EntrenamientoEjercicio} y {@code Serie} para generar sus identificadores.
+ * <p>
+ * Hibernate reserva los IDs por bloques con el optimizador pooled, de modo que conoce el ID
+ * antes del INSERT y puede agrupar las inserciones en lotes JDBC, algo que IDENTITY impide.
+ * </p>
+ * <p>
+ * Estas entidades usaban IDENTITY, por lo que en una base de datos existente el valor
+ * del generador debe quedar por encima del mayor ID ya asignado. Con el optimizador
+ * pooled, un valor almacenado {@code V} reserva los IDs {@code (V - bloque, V]}, así que
+ * se garantiza que {@code V >= max(id) + bloque}. Se ejecuta al crear el bean, una vez
+ * Hibernate ha creado o actualizado el esquema y antes de que la aplicación empiece a
+ * atender peticiones.
+ * </p>
+ *
+ * @author Francisco Santana
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class GeneradorIdsInicializador {
+
+    /**
+     * Debe coincidir con el {@code allocationSize} de los {@code @TableGenerator} de las entidades.
+     */
+    static final int TAMANO_BLOQUE = 50;
+
+    /**
+     * Fila del generador → {tabla, columna de ID} de la entidad que la usa.
+     */
+    private static final Map<String, String[]> ENTIDADES = Map.of(
+            "entrenamiento", new String[]{"entrenamiento", "id_entrenamiento"},
+            "entrenamiento_ejercicio", new String[]{"entrenamiento_ejercicio", "id"},
+            "serie", new String[]{"serie", "id"}
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructor.
+     *
+     * @param jdbcTemplate Acceso JDBC a la base de datos.
+     */
+    public GeneradorIdsInicializador(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Crea la tabla del generador si no existe y sitúa cada fila por encima del mayor ID actual.
+     */
+    @PostConstruct
+    public void inicializar() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS generador_ids ("
+                + "entidad VARCHAR(255) NOT NULL PRIMARY KEY, siguiente_valor BIGINT)");
+
+        ENTIDADES.forEach((entidad, tablaYColumna) -> {
+            Long maximo = jdbcTemplate.queryForObject(
+                    "SELECT COALESCE(MAX(" + tablaYColumna[1] + "), 0) FROM " + tablaYColumna[0], Long.class);
+            long minimo = (maximo != null ? maximo : 0) + TAMANO_BLOQUE;
+
+            Long actual = jdbcTemplate.query(
+                    "SELECT siguiente_valor FROM generador_ids WHERE entidad = ?",
+                    rs -> rs.next() ? rs.getLong(1) : null, entidad);
+            if (actual == null) {
+                jdbcTemplate.update("INSERT INTO generador_ids (entidad, siguiente_valor) VALUES (?, ?)",
+                        entidad, minimo);
+            } else if (actual < minimo) {
+                jdbcTemplate.update("UPDATE generador_ids SET siguiente_valor = ? WHERE entidad = ?",
+                        minimo, entidad);
+            }
+        });
+    }
+}
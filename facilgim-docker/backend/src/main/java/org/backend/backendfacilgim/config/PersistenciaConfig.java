@@ -0,0 +1,65 @@
+package org.backend.backendfacilgim.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuración de escritura por lotes de Hibernate y del driver JDBC.
+ * <p>
+ * Con identificadores generados por tabla (en lugar de IDENTITY), Hibernate puede agrupar
+ * los INSERT y UPDATE de un mismo tipo de entidad en lotes JDBC. Ordenarlos por entidad
+ * evita que los lotes se corten al intercalar entrenamientos, relaciones y series.
+ * En MySQL, además, {@code rewriteBatchedStatements} convierte cada lote en un único
+ * INSERT multi-fila, y {@code useCursorFetch} permite que las consultas de exportación
+ * lean los resultados por bloques en lugar de cargarlos enteros en memoria.
+ * </p>
+ *
+ * @author Francisco Santana
+ */
+@Configuration
+public class PersistenciaConfig {
+
+    /**
+     * Ajusta las propiedades de Hibernate relacionadas con el envío por lotes.
+     *
+     * @param tamanoLote Número máximo de sentencias por lote JDBC.
+     * @return Personalizador de propiedades de Hibernate.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer loteHibernateCustomizer(
+            @Value("${app.jpa.tamano-lote:50}") int tamanoLote) {
+        return propiedades -> {
+            propiedades.putIfAbsent("hibernate.jdbc.batch_size", tamanoLote);
+            propiedades.putIfAbsent("hibernate.order_inserts", true);
+            propiedades.putIfAbsent("hibernate.order_updates", true);
+            propiedades.putIfAbsent("hibernate.jdbc.batch_versioned_data", true);
+        };
+    }
+
+    /**
+     * Activa {@code rewriteBatchedStatements} y {@code useCursorFetch} en el pool Hikari cuando
+     * la base de datos es MySQL. Sin la primera, el driver de MySQL envía las sentencias de un
+     * lote una a una; sin la segunda, ignora el fetch size y lee todo el resultado de golpe.
+     *
+     * @return Post-procesador que añade las propiedades al {@link HikariDataSource}.
+     */
+    @Bean
+    public static BeanPostProcessor mysqlPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikari
+                        && hikari.getJdbcUrl() != null
+                        && hikari.getJdbcUrl().startsWith("jdbc:mysql:")) {
+                    hikari.addDataSourceProperty("rewriteBatchedStatements", "true");
+                    hikari.addDataSourceProperty("useCursorFetch", "true");
+                }
+                return bean;
+            }
+        };
+    }
+}
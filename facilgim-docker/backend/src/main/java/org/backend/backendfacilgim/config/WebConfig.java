@@ -1,36 +1,38 @@
 package org.backend.backendfacilgim.config;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.multipart.MultipartResolver;
+import org.springframework.web.multipart.support.StandardServletMultipartResolver;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
-import java.nio.file.Paths;
-
 /**
- * Configuración de recursos estáticos para servir archivos cargados.
- * Hace que los archivos almacenados en el directorio local "uploads"
- * sean accesibles mediante la ruta {@code /uploads/**} en la aplicación.
+ * Configuración de Spring MVC: recursos estáticos de la documentación de la API,
+ * resolución multipart diferida y tiempo máximo de las respuestas asíncronas.
  *
  *  @author Francisco Santana
  */
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    @Value("${app.async.tiempo-maximo-ms:600000}")
+    private long tiempoMaximoAsincrono;
+
     /**
-     * Registra un recurso estático que mapea todas las peticiones a {@code /uploads/**}
-     * al directorio físico "uploads" en el sistema de archivos.
-     * Esto permite que, por ejemplo, la URL {@code /uploads/imagen.jpg} sirva
-     * el archivo {@code uploads/imagen.jpg} ubicado en el disco.
+     * Registra los recursos estáticos de Swagger UI y de los webjars.
+     * <p>
+     * Los archivos subidos ({@code /uploads/**}) no se registran aquí: los sirve
+     * {@link org.backend.backendfacilgim.controller.SubidasController}, con caché inmutable
+     * y rangos de bytes.
+     * </p>
      *
      * @param registry Registro de recursos al que se añaden los mapeos.
      */
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        String uploadPath = Paths.get("uploads").toAbsolutePath().toString();
-        System.out.println("Static resource map: /uploads -> " +  uploadPath);
-        registry.addResourceHandler("/uploads/**")
-                .addResourceLocations("file:" + uploadPath + "/");
-
         registry
                 .addResourceHandler("/swagger-ui/**")
                 .addResourceLocations("classpath:/META-INF/resources/webjars/swagger-ui/4.15.5/");
@@ -39,4 +41,32 @@ public class WebConfig implements WebMvcConfigurer {
                 .addResourceHandler("/webjars/**")
                 .addResourceLocations("classpath:/META-INF/resources/webjars/");
     }
+
+    /**
+     * Resolutor multipart que sólo procesa las partes cuando el controlador las pide.
+     * <p>
+     * Así {@code POST /api/ejercicios} puede leer la subida en streaming desde la petición
+     * (ver {@link org.backend.backendfacilgim.utilities.ReceptorSubidas}) sin que el contenedor
+     * la haya guardado antes entera; los controladores con {@code @RequestPart} no cambian.
+     * </p>
+     *
+     * @return El {@link MultipartResolver} de la aplicación.
+     */
+    @Bean
+    public MultipartResolver multipartResolver() {
+        StandardServletMultipartResolver resolver = new StandardServletMultipartResolver();
+        resolver.setResolveLazily(true);
+        return resolver;
+    }
+
+    /**
+     * Amplía el tiempo máximo de las respuestas asíncronas, como las exportaciones en
+     * streaming, que con el valor por defecto del contenedor se cortarían a los 30 segundos.
+     *
+     * @param configurer Configurador del soporte asíncrono de Spring MVC.
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setDefaultTimeout(tiempoMaximoAsincrono);
+    }
 }
@@ -1,20 +1,24 @@
 package org.backend.backendfacilgim.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.backend.backendfacilgim.dto.*;
 import org.backend.backendfacilgim.entity.Ejercicio;
 import org.backend.backendfacilgim.exception.CustomException;
 import org.springframework.beans.factory.annotation.Value;
 import org.backend.backendfacilgim.service.EjercicioService;
+import org.backend.backendfacilgim.service.ProcesamientoImagenService;
+import org.backend.backendfacilgim.utilities.AlmacenImagenes;
+import org.backend.backendfacilgim.utilities.ReceptorSubidas;
+import org.backend.backendfacilgim.utilities.RespuestaSerializada;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.io.IOException;
-import java.nio.file.*;
 import java.util.List;
 
 /**
@@ -31,18 +35,28 @@ import java.util.List;
 @RequestMapping("/api/ejercicios")
 public class EjercicioController {
 
+    private static final int LIMITE_BUSQUEDA_MAXIMO = 50;
+
     private final EjercicioService ejercicioService;
+    private final ProcesamientoImagenService procesamientoImagenService;
+    private final ReceptorSubidas receptorSubidas;
     private final ObjectMapper objectMapper;
     @Value("${app.base-url}")
     private String baseUrl;
 
     /**
-     * Constructor que inyecta el servicio de ejercicios y crea el ObjectMapper.
+     * Constructor que inyecta los servicios y crea el ObjectMapper.
      *
-     * @param ejercicioService Servicio que maneja la lógica de negocio de ejercicios.
+     * @param ejercicioService           Servicio que maneja la lógica de negocio de ejercicios.
+     * @param procesamientoImagenService Servicio que genera en segundo plano las versiones de las imágenes.
+     * @param receptorSubidas            Componente que recibe en streaming las subidas multipart.
      */
-    public EjercicioController(EjercicioService ejercicioService) {
+    public EjercicioController(EjercicioService ejercicioService,
+                               ProcesamientoImagenService procesamientoImagenService,
+                               ReceptorSubidas receptorSubidas) {
         this.ejercicioService = ejercicioService;
+        this.procesamientoImagenService = procesamientoImagenService;
+        this.receptorSubidas = receptorSubidas;
         this.objectMapper = new ObjectMapper();
     }
 
@@ -50,13 +64,59 @@ public class EjercicioController {
 
     /**
      * Obtiene la lista completa de ejercicios del catálogo.
+     * <p>
+     * El JSON se sirve ya serializado desde la caché, con un ETag fuerte y comprimido con
+     * gzip si el cliente lo acepta. Si {@code If-None-Match} coincide con la versión vigente,
+     * responde 304 sin cuerpo.
+     * </p>
      *
-     * @return ResponseEntity con lista de {@link Ejercicio} y estado 200 OK.
+     * @param ifNoneMatch    Cabecera {@code If-None-Match} de la petición, opcional.
+     * @param acceptEncoding Cabecera {@code Accept-Encoding} de la petición, opcional.
+     * @return ResponseEntity con la lista de {@link EjercicioCatalogoDTO} serializada y estado 200 OK,
+     *         o 304 Not Modified si el cliente ya tiene esta versión.
      */
     @GetMapping
-    public ResponseEntity<List<Ejercicio>> listarCatalogo() {
-        List<Ejercicio> lista = ejercicioService.listarEjercicios();
-        return ResponseEntity.ok(lista);
+    public ResponseEntity<byte[]> listarCatalogo(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+    ) {
+        RespuestaSerializada catalogo = ejercicioService.listarEjerciciosSerializados();
+        return catalogo.responder(ifNoneMatch, acceptEncoding);
+    }
+
+    /**
+     * Busca ejercicios del catálogo por nombre para autocompletar.
+     * <p>
+     * No distingue tildes ni mayúsculas, admite prefijos y pequeñas erratas, y devuelve
+     * los resultados ordenados por relevancia.
+     * </p>
+     *
+     * @param q      Texto a buscar.
+     * @param limite Número máximo de resultados (entre 1 y {@value #LIMITE_BUSQUEDA_MAXIMO}; 10 por defecto).
+     * @return ResponseEntity con la lista de {@link EjercicioCatalogoDTO} y estado 200 OK.
+     */
+    @GetMapping("/buscar")
+    public ResponseEntity<List<EjercicioCatalogoDTO>> buscarCatalogo(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limite
+    ) {
+        int acotado = Math.max(1, Math.min(limite, LIMITE_BUSQUEDA_MAXIMO));
+        return ResponseEntity.ok(ejercicioService.buscarEjercicios(q, acotado));
+    }
+
+    /**
+     * Obtiene los ejercicios del catálogo más usados en entrenamientos, cada uno con su
+     * número de usos.
+     *
+     * @param limite Número máximo de resultados (entre 1 y {@value #LIMITE_BUSQUEDA_MAXIMO}; 10 por defecto).
+     * @return ResponseEntity con la lista de {@link EjercicioPopularDTO} y estado 200 OK.
+     */
+    @GetMapping("/populares")
+    public ResponseEntity<List<EjercicioPopularDTO>> listarPopulares(
+            @RequestParam(defaultValue = "10") int limite
+    ) {
+        int acotado = Math.max(1, Math.min(limite, LIMITE_BUSQUEDA_MAXIMO));
+        return ResponseEntity.ok(ejercicioService.listarPopulares(acotado));
     }
 
     /**
@@ -77,35 +137,38 @@ public class EjercicioController {
      * Crea un nuevo ejercicio en el catálogo o actualiza uno existente.
      * Recibe un JSON en el campo "ejercicio" y opcionalmente un archivo de imagen
      * en el campo "imagen" dentro de una petición multipart/form-data.
+     * <p>
+     * La respuesta no espera a que se procese la imagen: el ejercicio se devuelve con la URL
+     * de la original y la miniatura, la versión media y el póster se generan en segundo plano.
+     * </p>
+     * <p>
+     * Las partes se leen en streaming con {@link ReceptorSubidas}: la imagen va directamente
+     * a disco, con un tamaño máximo, y el número de subidas simultáneas está acotado.
+     * </p>
      *
-     * @param ejercicioJson Cadena JSON que representa el objeto {@link Ejercicio}.
-     * @param imagen        Archivo de imagen asociado; puede ser nulo o vacío.
+     * @param peticion Petición multipart con la parte "ejercicio" (JSON del {@link Ejercicio})
+     *                 y, opcionalmente, la parte "imagen".
      * @return ResponseEntity con el {@link Ejercicio} creado o actualizado y estado 201 Created,
-     *         o 400 Bad Request si faltan campos obligatorios.
+     *         400 Bad Request si faltan campos obligatorios, 413 Payload Too Large si la imagen
+     *         es demasiado grande o 429 Too Many Requests si hay demasiadas subidas en curso.
      * @throws IOException En caso de error al procesar el archivo de imagen.
      */
     @PostMapping(consumes = "multipart/form-data")
-    public ResponseEntity<?> crearOActualizarCatalogo(
-            @RequestPart("ejercicio") String ejercicioJson,
-            @RequestPart(value = "imagen", required = false) MultipartFile imagen
-    ) throws IOException {
-        if (imagen != null && !imagen.isEmpty()) {
-            System.out.println(">>> LLEGÓ fichero: originalFilename = "
-                    + imagen.getOriginalFilename()
-                    + ", contentType = " + imagen.getContentType()
-                    + ", size = " + imagen.getSize());
-        } else {
-            System.out.println(">>> NO llegó imagen o está vacía");
+    public ResponseEntity<?> crearOActualizarCatalogo(HttpServletRequest peticion) throws IOException {
+        ReceptorSubidas.SubidaEjercicio subida = receptorSubidas.recibir(peticion);
+        if (subida.getEjercicioJson() == null) {
+            return ResponseEntity.badRequest().body("Falta la parte 'ejercicio'.");
         }
-        Ejercicio datos = objectMapper.readValue(ejercicioJson, Ejercicio.class);
+        Ejercicio datos = objectMapper.readValue(subida.getEjercicioJson(), Ejercicio.class);
 
         if (datos.getNombre() == null || datos.getNombre().isBlank()) {
             return ResponseEntity.badRequest().body("El nombre es obligatorio.");
         }
 
-        // Gestión de imagen: guarda y asigna URL si se proporciona
-        if (imagen != null && !imagen.isEmpty()) {
-            datos.setImagenUrl(guardarImagen(imagen));
+        // Gestión de imagen: asigna la URL de la imagen recibida, si se proporciona
+        AlmacenImagenes.ImagenGuardada imagenGuardada = subida.getImagen();
+        if (imagenGuardada != null) {
+            datos.setImagenUrl(urlPublica(imagenGuardada.getRuta()));
         }
 
         Ejercicio resultado;
@@ -117,6 +180,10 @@ public class EjercicioController {
             resultado = ejercicioService.crearEjercicio(datos);
         }
 
+        if (imagenGuardada != null) {
+            procesamientoImagenService.encolar(resultado.getIdEjercicio(), resultado.getImagenUrl(), imagenGuardada.getArchivo());
+        }
+
         return ResponseEntity.status(HttpStatus.CREATED).body(resultado);
     }
 
@@ -204,28 +271,14 @@ public class EjercicioController {
     }
 
     /**
-     * Guarda el archivo de imagen en el sistema de archivos local y devuelve su URL accesible.
-     * <p>
-     * - Crea el directorio "uploads" si no existe.
-     * - Genera un nombre único basado en la marca de tiempo.
-     * - Copia el contenido del MultipartFile al directorio.
-     * - Construye la URL pública usando el contexto de la aplicación.
-     * </p>
+     * Construye la URL pública de un archivo del directorio "uploads" usando el contexto de la aplicación.
      *
-     * @param imagen MultipartFile con la imagen a almacenar.
-     * @return Cadena con la URL pública para acceder a la imagen guardada.
-     * @throws IOException Si ocurre un error al leer o escribir el archivo.
+     * @param ruta Ruta del archivo relativa al directorio "uploads".
+     * @return Cadena con la URL pública para acceder al archivo.
      */
-    private String guardarImagen(MultipartFile imagen) throws IOException {
-        Path uploadDir = Paths.get("uploads/");
-        Files.createDirectories(uploadDir); // crea el directorio si no existe
-
-        String filename = System.currentTimeMillis() + "_" + imagen.getOriginalFilename();
-        Path path = uploadDir.resolve(filename);
-        Files.copy(imagen.getInputStream(), path, StandardCopyOption.REPLACE_EXISTING);
-
+    private String urlPublica(String ruta) {
         String baseUrl = ServletUriComponentsBuilder.fromCurrentContextPath().build().toUriString();
-        return baseUrl + "/uploads/" + filename;
+        return baseUrl + "/uploads/" + ruta;
     }
 
 }
@@ -1,15 +1,26 @@
 package org.backend.backendfacilgim.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
+import org.backend.backendfacilgim.utilities.ExportadorHistorial;
+import org.backend.backendfacilgim.utilities.FormatoExportacion;
 import org.backend.backendfacilgim.utilities.Utils;
+import org.backend.backendfacilgim.dto.EntrenamientoCompletoDTO;
 import org.backend.backendfacilgim.dto.EntrenamientoDTO;
+import org.backend.backendfacilgim.dto.EntrenamientoResumenDTO;
+import org.backend.backendfacilgim.dto.LoteEntrenamientosDTO;
+import org.backend.backendfacilgim.dto.PaginaDTO;
+import org.backend.backendfacilgim.dto.ResultadoLoteDTO;
 import org.backend.backendfacilgim.entity.Entrenamiento;
 import org.backend.backendfacilgim.service.EntrenamientoService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -21,6 +32,8 @@ import java.util.List;
  * <ul>
  *   <li>Obtener todos los entrenamientos o filtrarlos por fechas, usuario o nombre.</li>
  *   <li>Crear, actualizar (por ID o nombre) y eliminar entrenamientos.</li>
+ *   <li>Crear varios entrenamientos en lote.</li>
+ *   <li>Exportar en streaming el historial completo de un usuario.</li>
  * </ul>
  * </p>
  *
@@ -31,40 +44,63 @@ import java.util.List;
 public class EntrenamientoController {
 
     private final EntrenamientoService entrenamientoService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.paginacion.tamano-defecto:50}")
+    private int tamanoPaginaDefecto;
+
+    @Value("${app.paginacion.tamano-maximo:200}")
+    private int tamanoPaginaMaximo;
 
     /**
      * Constructor que inyecta el servicio de entrenamientos.
      *
      * @param entrenamientoService Servicio que contiene la lógica de negocio de entrenamientos.
+     * @param objectMapper         {@link ObjectMapper} de la aplicación, usado en la exportación NDJSON.
      */
-    public EntrenamientoController(EntrenamientoService entrenamientoService) {
+    public EntrenamientoController(EntrenamientoService entrenamientoService, ObjectMapper objectMapper) {
         this.entrenamientoService = entrenamientoService;
+        this.objectMapper = objectMapper;
     }
 
     /**
-     * Obtiene la lista completa de entrenamientos.
+     * Obtiene una página de entrenamientos ordenados por fecha e ID.
+     * <p>
+     * Si existen más resultados, la respuesta incluye la cabecera {@code Link} con
+     * {@code rel="next"} y la URL de la página siguiente.
+     * </p>
      *
-     * @return ResponseEntity con la lista de {@link Entrenamiento} y estado 200 OK.
+     * @param cursor Cursor opaco de la página anterior (opcional).
+     * @param size   Tamaño de página (opcional, acotado por configuración).
+     * @return ResponseEntity con la lista de {@link EntrenamientoResumenDTO} y estado 200 OK.
      */
     @GetMapping
-    public ResponseEntity<List<Entrenamiento>> obtenerTodosLosEntrenamiento() {
-        List<Entrenamiento> lista = entrenamientoService.obtenerTodosLosEntrenamientos();
-        return ResponseEntity.ok(lista);
+    public ResponseEntity<List<EntrenamientoResumenDTO>> obtenerTodosLosEntrenamiento(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", required = false) Integer size) {
+        PaginaDTO<EntrenamientoResumenDTO> pagina = entrenamientoService.obtenerTodosLosEntrenamientos(cursor, tamano(size));
+        return Utils.paginada(pagina);
     }
 
     /**
-     * Obtiene los entrenamientos cuya fecha está entre los parámetros {@code fechaInicio} y {@code fechaFin}.
+     * Obtiene una página de los entrenamientos cuya fecha está entre los parámetros
+     * {@code fechaInicio} y {@code fechaFin}.
      *
      * @param fechaInicio Fecha inicial (inclusive) en formato ISO (yyyy-MM-dd).
      * @param fechaFin    Fecha final (inclusive) en formato ISO (yyyy-MM-dd).
-     * @return ResponseEntity con la lista de {@link Entrenamiento} filtrados y estado 200 OK.
+     * @param cursor      Cursor opaco de la página anterior (opcional).
+     * @param size        Tamaño de página (opcional, acotado por configuración).
+     * @return ResponseEntity con la lista de {@link EntrenamientoResumenDTO} filtrados y estado 200 OK.
      */
     @GetMapping("/fecha")
-    public ResponseEntity<List<Entrenamiento>> obtenerEntrenamientosEntreDosFechas(
+    public ResponseEntity<List<EntrenamientoResumenDTO>> obtenerEntrenamientosEntreDosFechas(
             @RequestParam("fechaInicio") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaInicio,
-            @RequestParam("fechaFin")    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin) {
-        List<Entrenamiento> lista = entrenamientoService.obtenerEntrenamientosEntreDosFechas(fechaInicio, fechaFin);
-        return ResponseEntity.ok(lista);
+            @RequestParam("fechaFin")    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", required = false) Integer size) {
+        PaginaDTO<EntrenamientoResumenDTO> pagina = entrenamientoService
+                .obtenerEntrenamientosEntreDosFechas(fechaInicio, fechaFin, cursor, tamano(size));
+        return Utils.paginada(pagina);
     }
 
     /**
@@ -82,27 +118,88 @@ public class EntrenamientoController {
     }
 
     /**
-     * Obtiene la lista de entrenamientos de un usuario específico.
+     * Obtiene un entrenamiento completo: datos básicos, tipo y ejercicios ordenados
+     * con sus series, cargado con un número fijo de consultas.
+     *
+     * @param id Identificador del entrenamiento.
+     * @return ResponseEntity con el {@link EntrenamientoCompletoDTO} si existe (200 OK),
+     *         o 404 Not Found si no se encuentra.
+     */
+    @GetMapping("/{id}/completo")
+    public ResponseEntity<EntrenamientoCompletoDTO> obtenerEntrenamientoCompleto(@PathVariable Integer id) {
+        return entrenamientoService.obtenerEntrenamientoCompleto(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Obtiene una página de la línea de tiempo de un usuario, del entrenamiento más reciente
+     * al más antiguo, opcionalmente limitada a una ventana de fechas.
      *
-     * @param id Identificador del usuario.
-     * @return ResponseEntity con la lista de {@link Entrenamiento} y estado 200 OK.
+     * @param id     Identificador del usuario.
+     * @param desde  Fecha inicial (inclusive) en formato ISO (yyyy-MM-dd) (opcional).
+     * @param hasta  Fecha final (inclusive) en formato ISO (yyyy-MM-dd) (opcional).
+     * @param cursor Cursor opaco de la página anterior (opcional).
+     * @param size   Tamaño de página (opcional, acotado por configuración).
+     * @return ResponseEntity con la lista de {@link EntrenamientoResumenDTO} y estado 200 OK.
      */
     @GetMapping("/usuarioId/{id}")
-    public ResponseEntity<List<Entrenamiento>> obtenerEntrenamientosUsuario(@PathVariable Integer id) {
-        List<Entrenamiento> lista = entrenamientoService.encontrarEntrenamientoPorIdUsuario(id);
-        return ResponseEntity.ok(lista);
+    public ResponseEntity<List<EntrenamientoResumenDTO>> obtenerEntrenamientosUsuario(
+            @PathVariable Integer id,
+            @RequestParam(value = "desde", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(value = "hasta", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", required = false) Integer size) {
+        PaginaDTO<EntrenamientoResumenDTO> pagina = entrenamientoService
+                .encontrarEntrenamientoPorIdUsuario(id, desde, hasta, cursor, tamano(size));
+        return Utils.paginada(pagina);
     }
 
     /**
-     * Obtiene la lista de entrenamientos cuyo nombre coincide con el parámetro.
+     * Exporta el historial completo de un usuario (entrenamientos, ejercicios y series).
+     * <p>
+     * La respuesta se escribe en streaming mientras se recorre la consulta, por lo que la
+     * memoria usada no depende del tamaño del historial. En NDJSON cada línea es un
+     * entrenamiento con sus ejercicios y series anidados; en CSV cada fila es una serie.
+     * </p>
      *
-     * @param nombre Nombre (o parte de él) de los entrenamientos a buscar.
-     * @return ResponseEntity con la lista de {@link Entrenamiento} y estado 200 OK.
+     * @param id      Identificador del usuario.
+     * @param formato Formato de salida: {@code ndjson} (por defecto) o {@code csv}.
+     * @return ResponseEntity con el cuerpo en streaming y estado 200 OK.
+     */
+    @GetMapping("/usuarioId/{id}/exportar")
+    public ResponseEntity<StreamingResponseBody> exportarHistorialUsuario(
+            @PathVariable Integer id,
+            @RequestParam(value = "formato", defaultValue = "ndjson") String formato) {
+        FormatoExportacion formatoExportacion = FormatoExportacion.desde(formato);
+        StreamingResponseBody cuerpo = salida -> {
+            ExportadorHistorial exportador = ExportadorHistorial.crear(formatoExportacion, salida, objectMapper);
+            entrenamientoService.recorrerHistorial(id, exportador);
+            exportador.terminar();
+        };
+        return ResponseEntity.ok()
+                .contentType(formatoExportacion.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"historial-" + id + "." + formatoExportacion.getExtension() + "\"")
+                .body(cuerpo);
+    }
+
+    /**
+     * Obtiene una página de los entrenamientos cuyo nombre coincide con el parámetro.
+     *
+     * @param nombre Nombre de los entrenamientos a buscar.
+     * @param cursor Cursor opaco de la página anterior (opcional).
+     * @param size   Tamaño de página (opcional, acotado por configuración).
+     * @return ResponseEntity con la lista de {@link EntrenamientoResumenDTO} y estado 200 OK.
      */
     @GetMapping("/nombre/{nombre}")
-    public ResponseEntity<List<Entrenamiento>> obtenerEntrenamientosPorNombre(@PathVariable String nombre) {
-        List<Entrenamiento> lista = entrenamientoService.obtenerEntrenamientosPorNombre(nombre);
-        return ResponseEntity.ok(lista);
+    public ResponseEntity<List<EntrenamientoResumenDTO>> obtenerEntrenamientosPorNombre(
+            @PathVariable String nombre,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", required = false) Integer size) {
+        PaginaDTO<EntrenamientoResumenDTO> pagina = entrenamientoService
+                .obtenerEntrenamientosPorNombre(nombre, cursor, tamano(size));
+        return Utils.paginada(pagina);
     }
 
     /**
@@ -128,6 +225,33 @@ public class EntrenamientoController {
         return ResponseEntity.status(HttpStatus.CREATED).body(entrenamiento);
     }
 
+    /**
+     * Crea varios entrenamientos en una sola petición y transacción.
+     * <p>
+     * Valida el lote y, si contiene errores, retorna una respuesta de validación.
+     * Cada entrenamiento se valida en el servicio: en modo todo o nada, cualquier
+     * entrenamiento inválido o referencia inexistente hace que no se cree ninguno
+     * (400 Bad Request). En modo parcial se crean los válidos y la respuesta es
+     * 207 Multi-Status con el error de cada uno de los que han fallado.
+     * </p>
+     *
+     * @param lote   Objeto {@link LoteEntrenamientosDTO} con los entrenamientos y el modo de fallo.
+     * @param result BindingResult que contiene errores de validación del lote.
+     * @return ResponseEntity con el {@link ResultadoLoteDTO} y estado 201 Created si se han creado todos,
+     *         207 Multi-Status si alguno ha fallado, o un ResponseEntity de validación en caso de error.
+     */
+    @PostMapping("/lote")
+    public ResponseEntity<?> crearLoteEntrenamientos(
+            @Valid @RequestBody LoteEntrenamientosDTO lote,
+            BindingResult result) {
+        if (result.hasErrors()) {
+            return Utils.validation(result);
+        }
+        ResultadoLoteDTO resultado = entrenamientoService.crearLoteDesdeDTO(lote.getEntrenamientos(), lote.isParcial());
+        HttpStatus estado = resultado.getFallidos() == 0 ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS;
+        return ResponseEntity.status(estado).body(resultado);
+    }
+
     /**
      * Actualiza un entrenamiento existente identificado por {@code id}.
      * <p>
@@ -228,4 +352,14 @@ public class EntrenamientoController {
         entrenamientoService.eliminarEntrenamientoPorNombre(nombre);
         return ResponseEntity.noContent().build();
     }
+
+    /**
+     * Calcula el tamaño de página efectivo a partir del solicitado y de la configuración.
+     *
+     * @param size Tamaño solicitado por el cliente, o {@code null}.
+     * @return Tamaño de página entre 1 y el máximo configurado.
+     */
+    private int tamano(Integer size) {
+        return Utils.tamanoPagina(size, tamanoPaginaDefecto, tamanoPaginaMaximo);
+    }
 }
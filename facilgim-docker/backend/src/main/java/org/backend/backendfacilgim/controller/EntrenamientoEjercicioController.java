@@ -2,6 +2,7 @@ package org.backend.backendfacilgim.controller;
 
 import jakarta.validation.Valid;
 import org.backend.backendfacilgim.dto.EntrenamientoEjercicioDTO;
+import org.backend.backendfacilgim.dto.EntrenamientoEjercicioResumenDTO;
 import org.backend.backendfacilgim.entity.Entrenamiento;
 import org.backend.backendfacilgim.entity.Ejercicio;
 import org.backend.backendfacilgim.entity.EntrenamientoEjercicio;
@@ -55,12 +56,22 @@ public class EntrenamientoEjercicioController {
 
     /**
      * Lista todas las instancias {@link EntrenamientoEjercicio} existentes.
+     * <p>
+     * Por defecto devuelve el resumen de cada relación, sin series. Con
+     * {@code incluirSeries=true} devuelve las relaciones completas, con su entrenamiento,
+     * su ejercicio y sus series, como antes del resumen.
+     * </p>
      *
-     * @return ResponseEntity con lista de {@link EntrenamientoEjercicio} y estado 200 OK.
+     * @param incluirSeries {@code true} para devolver las relaciones completas con sus series.
+     * @return ResponseEntity con lista de {@link EntrenamientoEjercicioResumenDTO}, o de
+     *         {@link EntrenamientoEjercicio} si se piden las series, y estado 200 OK.
      */
     @GetMapping
-    public ResponseEntity<List<EntrenamientoEjercicio>> listarTodos() {
-        List<EntrenamientoEjercicio> lista = entrenamientoEjercicioService.obtenerTodos();
+    public ResponseEntity<?> listarTodos(@RequestParam(defaultValue = "false") boolean incluirSeries) {
+        if (incluirSeries) {
+            return ResponseEntity.ok(entrenamientoEjercicioService.obtenerTodosConSeries());
+        }
+        List<EntrenamientoEjercicioResumenDTO> lista = entrenamientoEjercicioService.obtenerTodos();
         return ResponseEntity.ok(lista);
     }
 
@@ -91,13 +102,23 @@ public class EntrenamientoEjercicioController {
     /**
      * Busca todas las instancias {@link EntrenamientoEjercicio} asociadas
      * a un entrenamiento específico.
+     * <p>
+     * Con {@code incluirSeries=true} devuelve las relaciones completas con sus series,
+     * igual que {@link #listarTodos(boolean)}.
+     * </p>
      *
      * @param idEntrenamiento ID del entrenamiento cuyas instancias se desean obtener.
-     * @return ResponseEntity con lista de {@link EntrenamientoEjercicio} y estado 200 OK.
+     * @param incluirSeries   {@code true} para devolver las relaciones completas con sus series.
+     * @return ResponseEntity con lista de {@link EntrenamientoEjercicioResumenDTO}, o de
+     *         {@link EntrenamientoEjercicio} si se piden las series, y estado 200 OK.
      */
     @GetMapping("/entrenamiento/{idEntrenamiento}")
-    public ResponseEntity<List<EntrenamientoEjercicio>> buscarPorEntrenamiento(@PathVariable Integer idEntrenamiento) {
-        List<EntrenamientoEjercicio> lista = entrenamientoEjercicioService.obtenerPorIdEntrenamiento(idEntrenamiento);
+    public ResponseEntity<?> buscarPorEntrenamiento(@PathVariable Integer idEntrenamiento,
+                                                    @RequestParam(defaultValue = "false") boolean incluirSeries) {
+        if (incluirSeries) {
+            return ResponseEntity.ok(entrenamientoEjercicioService.obtenerPorIdEntrenamientoConSeries(idEntrenamiento));
+        }
+        List<EntrenamientoEjercicioResumenDTO> lista = entrenamientoEjercicioService.obtenerPorIdEntrenamiento(idEntrenamiento);
         return ResponseEntity.ok(lista);
     }
 }
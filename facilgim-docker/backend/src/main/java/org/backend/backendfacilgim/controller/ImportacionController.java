@@ -0,0 +1,93 @@
+package org.backend.backendfacilgim.controller;
+
+import org.backend.backendfacilgim.dto.ImportacionDTO;
+import org.backend.backendfacilgim.service.ImportacionService;
+import org.backend.backendfacilgim.utilities.FormatoExportacion;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.net.URI;
+
+/**
+ * Controlador REST para importar historiales de entrenamientos desde archivos CSV o NDJSON.
+ * <p>
+ * Expone endpoints para:
+ * <ul>
+ *   <li>Subir un archivo y lanzar su importación en segundo plano.</li>
+ *   <li>Consultar el estado y el progreso de una importación.</li>
+ *   <li>Reanudar una importación fallida o interrumpida.</li>
+ * </ul>
+ * </p>
+ *
+ * Autor: Francisco Santana
+ */
+@RestController
+@RequestMapping("/api/importaciones")
+public class ImportacionController {
+
+    private final ImportacionService importacionService;
+
+    /**
+     * Constructor que inyecta el servicio de importaciones.
+     *
+     * @param importacionService Servicio que gestiona las importaciones de historial.
+     */
+    public ImportacionController(ImportacionService importacionService) {
+        this.importacionService = importacionService;
+    }
+
+    /**
+     * Sube un archivo de historial y lanza su importación en segundo plano.
+     * <p>
+     * Si no se indica el formato, se deduce de la extensión del archivo.
+     * El progreso puede consultarse en la URL de la cabecera {@code Location}.
+     * </p>
+     *
+     * @param idUsuario ID del usuario al que se asignan los entrenamientos.
+     * @param archivo   Archivo CSV o NDJSON con el historial.
+     * @param formato   Formato del archivo: {@code csv} o {@code ndjson} (opcional).
+     * @return ResponseEntity con el {@link ImportacionDTO} y estado 202 Accepted.
+     */
+    @PostMapping(consumes = "multipart/form-data")
+    public ResponseEntity<ImportacionDTO> iniciarImportacion(
+            @RequestParam("idUsuario") Integer idUsuario,
+            @RequestPart("archivo") MultipartFile archivo,
+            @RequestParam(value = "formato", required = false) String formato) {
+        String nombreFormato = formato != null
+                ? formato
+                : StringUtils.getFilenameExtension(archivo.getOriginalFilename());
+        ImportacionDTO importacion = importacionService.iniciarImportacion(
+                idUsuario, FormatoExportacion.desde(nombreFormato), archivo);
+        URI ubicacion = ServletUriComponentsBuilder.fromCurrentRequest()
+                .path("/{id}").buildAndExpand(importacion.getIdImportacion()).toUri();
+        return ResponseEntity.accepted().location(ubicacion).body(importacion);
+    }
+
+    /**
+     * Obtiene el estado y el progreso de una importación.
+     *
+     * @param id Identificador de la importación.
+     * @return ResponseEntity con el {@link ImportacionDTO} si existe (200 OK),
+     *         o 404 Not Found si no se encuentra.
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<ImportacionDTO> obtenerImportacion(@PathVariable Integer id) {
+        return importacionService.obtenerImportacion(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Reanuda una importación fallida o interrumpida desde el primer lote no confirmado.
+     *
+     * @param id Identificador de la importación.
+     * @return ResponseEntity con el {@link ImportacionDTO} y estado 202 Accepted.
+     */
+    @PostMapping("/{id}/reanudar")
+    public ResponseEntity<ImportacionDTO> reanudarImportacion(@PathVariable Integer id) {
+        return ResponseEntity.accepted().body(importacionService.reanudarImportacion(id));
+    }
+}
@@ -0,0 +1,52 @@
+package org.backend.backendfacilgim.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.backend.backendfacilgim.utilities.ServidorSubidas;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+
+/**
+ * Controlador que sirve las imágenes subidas bajo {@code /uploads/**}.
+ * <p>
+ * Sustituye al mapeo de recursos estáticos por defecto: delega en {@link ServidorSubidas},
+ * que envía los archivos sin copiarlos en memoria, con caché inmutable para los nombres
+ * direccionados por contenido y con soporte de rangos de bytes.
+ * </p>
+ *
+ * Autor: Francisco Santana
+ */
+@RestController
+public class SubidasController {
+
+    private static final String PREFIJO = "/uploads/";
+
+    private final ServidorSubidas servidorSubidas;
+
+    /**
+     * Constructor que inyecta el servidor de archivos subidos.
+     *
+     * @param servidorSubidas Componente que sirve los archivos del directorio de subidas.
+     */
+    public SubidasController(ServidorSubidas servidorSubidas) {
+        this.servidorSubidas = servidorSubidas;
+    }
+
+    /**
+     * Sirve un archivo subido. Responde 200 con el archivo, 206 con un rango, 304 si el cliente
+     * ya tiene la versión vigente, 416 si el rango no es válido y 404 si el archivo no existe.
+     * Las peticiones HEAD se atienden igual, pero sin cuerpo.
+     *
+     * @param peticion  Petición HTTP.
+     * @param respuesta Respuesta HTTP.
+     * @throws IOException Si ocurre un error al leer el archivo o al escribir la respuesta.
+     */
+    @GetMapping("/uploads/**")
+    public void servir(HttpServletRequest peticion, HttpServletResponse respuesta) throws IOException {
+        String ruta = UrlPathHelper.defaultInstance.getPathWithinApplication(peticion);
+        servidorSubidas.servir(ruta.startsWith(PREFIJO) ? ruta.substring(PREFIJO.length()) : null, peticion, respuesta);
+    }
+}
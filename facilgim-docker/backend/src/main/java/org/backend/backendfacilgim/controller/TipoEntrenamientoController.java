@@ -1,19 +1,18 @@
 package org.backend.backendfacilgim.controller;
 
 import jakarta.validation.Valid;
+import org.backend.backendfacilgim.utilities.RespuestaSerializada;
 import org.backend.backendfacilgim.utilities.Utils;
 import org.backend.backendfacilgim.dto.TipoEntrenamientoDTO;
 import org.backend.backendfacilgim.entity.TipoEntrenamiento;
 import org.backend.backendfacilgim.mapper.TipoEntrenamientoMapper;
 import org.backend.backendfacilgim.service.TipoEntrenamientoService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-import java.util.stream.Collectors;
-
 /**
  * Controlador REST para gestionar los tipos de entrenamiento.
  * <p>
@@ -46,15 +45,24 @@ public class TipoEntrenamientoController {
 
     /**
      * Lista todos los tipos de entrenamiento disponibles.
+     * <p>
+     * El JSON se sirve ya serializado desde la caché, con un ETag fuerte y comprimido con
+     * gzip si el cliente lo acepta. Si {@code If-None-Match} coincide con la versión vigente,
+     * responde 304 sin cuerpo.
+     * </p>
      *
-     * @return ResponseEntity con la lista de {@link TipoEntrenamientoDTO} y estado 200 OK.
+     * @param ifNoneMatch    Cabecera {@code If-None-Match} de la petición, opcional.
+     * @param acceptEncoding Cabecera {@code Accept-Encoding} de la petición, opcional.
+     * @return ResponseEntity con la lista de {@link TipoEntrenamientoDTO} serializada y estado 200 OK,
+     *         o 304 Not Modified si el cliente ya tiene esta versión.
      */
     @GetMapping
-    public ResponseEntity<List<TipoEntrenamientoDTO>> listar() {
-        List<TipoEntrenamientoDTO> tipos = service.listarTipos().stream()
-                .map(TipoEntrenamientoMapper::toDTO)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(tipos);
+    public ResponseEntity<byte[]> listar(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+    ) {
+        RespuestaSerializada tipos = service.listarTiposSerializados();
+        return tipos.responder(ifNoneMatch, acceptEncoding);
     }
 
     /**
@@ -0,0 +1,66 @@
+package org.backend.backendfacilgim.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO de lectura que representa un ejercicio del catálogo global, sin series ni relaciones.
+ *
+ * Autor: Francisco Santana
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EjercicioCatalogoDTO {
+
+    /**
+     * Identificador único del ejercicio en el catálogo.
+     */
+    private Integer idEjercicio;
+
+    /**
+     * Nombre descriptivo del ejercicio.
+     */
+    private String nombre;
+
+    /**
+     * URL de la imagen representativa del ejercicio.
+     */
+    private String imagenUrl;
+
+    /**
+     * URL de la miniatura de la imagen, o {@code null} si aún no se ha generado.
+     */
+    private String imagenMiniaturaUrl;
+
+    /**
+     * URL de la versión de tamaño medio de la imagen, o {@code null} si aún no se ha generado.
+     */
+    private String imagenMediaUrl;
+
+    /**
+     * URL del póster estático de la imagen, o {@code null} si aún no se ha generado.
+     */
+    private String imagenPosterUrl;
+
+    /**
+     * Número de entrenamientos en los que se usa el ejercicio. No se serializa con el
+     * catálogo, para que su ETag no cambie con cada entrenamiento guardado; se expone en
+     * {@link EjercicioPopularDTO}.
+     */
+    @JsonIgnore
+    private long usos;
+
+    /**
+     * Constructor para un ejercicio sin versiones reducidas de su imagen ni usos.
+     *
+     * @param idEjercicio Identificador del ejercicio.
+     * @param nombre      Nombre del ejercicio.
+     * @param imagenUrl   URL de la imagen original.
+     */
+    public EjercicioCatalogoDTO(Integer idEjercicio, String nombre, String imagenUrl) {
+        this(idEjercicio, nombre, imagenUrl, null, null, null, 0);
+    }
+}
@@ -0,0 +1,43 @@
+package org.backend.backendfacilgim.dto;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO de lectura que representa un ejercicio del catálogo junto con su número de usos, para
+ * el listado de ejercicios populares.
+ * <p>
+ * Los usos van aparte de {@link EjercicioCatalogoDTO} para que el catálogo serializado (y su
+ * ETag) no cambie cada vez que se guarda un entrenamiento.
+ * </p>
+ *
+ * Autor: Francisco Santana
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EjercicioPopularDTO {
+
+    /**
+     * Ejercicio del catálogo; sus campos se serializan al mismo nivel que {@link #usos}.
+     */
+    @JsonUnwrapped
+    private EjercicioCatalogoDTO ejercicio;
+
+    /**
+     * Número de entrenamientos en los que se usa el ejercicio.
+     */
+    private long usos;
+
+    /**
+     * Crea el DTO a partir de un ejercicio del catálogo, con los usos de su instantánea.
+     *
+     * @param ejercicio Ejercicio del catálogo.
+     * @return El {@link EjercicioPopularDTO} correspondiente.
+     */
+    public static EjercicioPopularDTO de(EjercicioCatalogoDTO ejercicio) {
+        return new EjercicioPopularDTO(ejercicio, ejercicio.getUsos());
+    }
+}
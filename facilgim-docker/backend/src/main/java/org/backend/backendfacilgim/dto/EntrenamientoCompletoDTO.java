@@ -0,0 +1,68 @@
+package org.backend.backendfacilgim.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * DTO de lectura que representa un entrenamiento completo: sus datos básicos,
+ * el tipo de entrenamiento y la lista ordenada de ejercicios con sus series.
+ * <p>
+ * Del usuario propietario solo se expone el identificador y el nombre de usuario.
+ * </p>
+ *
+ * Autor: Francisco Santana
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EntrenamientoCompletoDTO {
+
+    /**
+     * Identificador único del entrenamiento.
+     */
+    private Integer idEntrenamiento;
+
+    /**
+     * Nombre del entrenamiento.
+     */
+    private String nombre;
+
+    /**
+     * Fecha en la que se realiza el entrenamiento.
+     */
+    private LocalDate fechaEntrenamiento;
+
+    /**
+     * Descripción del entrenamiento.
+     */
+    private String descripcion;
+
+    /**
+     * Duración del entrenamiento en minutos.
+     */
+    private int duracion;
+
+    /**
+     * Tipo de entrenamiento.
+     */
+    private TipoEntrenamientoDTO tipoEntrenamiento;
+
+    /**
+     * Identificador del usuario propietario.
+     */
+    private Integer idUsuario;
+
+    /**
+     * Nombre de usuario del propietario.
+     */
+    private String username;
+
+    /**
+     * Ejercicios del entrenamiento, ordenados por su campo {@code orden}.
+     */
+    private List<InstanciaEjercicioDTO> ejercicios;
+}
@@ -19,6 +19,15 @@ import java.util.List;
 @AllArgsConstructor
 public class EntrenamientoEjercicioDTO {
 
+    /**
+     * Identificador de la relación entrenamiento–ejercicio.
+     * <p>
+     * Puede ser nulo al crear una relación nueva. Al actualizar un entrenamiento
+     * permite emparejar la relación con la ya existente en lugar de recrearla.
+     * </p>
+     */
+    private Integer id;
+
     /**
      * Datos completos del ejercicio asignado al entrenamiento.
      * <p>
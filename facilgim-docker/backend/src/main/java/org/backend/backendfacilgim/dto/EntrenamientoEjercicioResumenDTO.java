@@ -0,0 +1,45 @@
+package org.backend.backendfacilgim.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO de lectura con los datos de una relación entrenamiento–ejercicio que se muestran en los listados.
+ * <p>
+ * Se construye directamente desde las consultas JPQL, sin cargar el entrenamiento ni el
+ * ejercicio completos. Las series de la relación se obtienen con el entrenamiento completo.
+ * </p>
+ *
+ * Autor: Francisco Santana
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EntrenamientoEjercicioResumenDTO {
+
+    /**
+     * Identificador de la relación.
+     */
+    private Integer id;
+
+    /**
+     * Identificador del entrenamiento al que pertenece la relación.
+     */
+    private Integer idEntrenamiento;
+
+    /**
+     * Identificador del ejercicio asociado.
+     */
+    private Integer idEjercicio;
+
+    /**
+     * Nombre del ejercicio asociado.
+     */
+    private String nombreEjercicio;
+
+    /**
+     * Posición del ejercicio dentro del entrenamiento.
+     */
+    private Integer orden;
+}
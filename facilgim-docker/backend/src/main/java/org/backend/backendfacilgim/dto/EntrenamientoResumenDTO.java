@@ -0,0 +1,78 @@
+package org.backend.backendfacilgim.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * DTO de lectura con los datos de un entrenamiento que se muestran en los listados.
+ * <p>
+ * Se construye directamente desde las consultas JPQL ({@code SELECT new ...}), por lo que
+ * solo se leen las columnas necesarias y no se inicializa ninguna asociación perezosa.
+ * Del usuario propietario solo se incluye su identificador.
+ * </p>
+ *
+ * Autor: Francisco Santana
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EntrenamientoResumenDTO {
+
+    /**
+     * Identificador único del entrenamiento.
+     */
+    private Integer idEntrenamiento;
+
+    /**
+     * Nombre del entrenamiento.
+     */
+    private String nombre;
+
+    /**
+     * Fecha en la que se realiza el entrenamiento.
+     */
+    private LocalDate fechaEntrenamiento;
+
+    /**
+     * Descripción del entrenamiento.
+     */
+    private String descripcion;
+
+    /**
+     * Duración del entrenamiento en minutos.
+     */
+    private int duracion;
+
+    /**
+     * Tipo de entrenamiento (identificador y nombre).
+     */
+    private TipoEntrenamientoDTO tipoEntrenamiento;
+
+    /**
+     * Identificador del usuario propietario.
+     */
+    private Integer idUsuario;
+
+    /**
+     * Constructor usado por las expresiones de constructor JPQL, que no admiten
+     * objetos anidados: recibe las columnas del tipo de entrenamiento por separado.
+     *
+     * @param idEntrenamiento    Identificador del entrenamiento.
+     * @param nombre             Nombre del entrenamiento.
+     * @param fechaEntrenamiento Fecha del entrenamiento.
+     * @param descripcion        Descripción del entrenamiento.
+     * @param duracion           Duración en minutos.
+     * @param idTipo             Identificador del tipo de entrenamiento.
+     * @param nombreTipo         Nombre del tipo de entrenamiento.
+     * @param idUsuario          Identificador del usuario propietario.
+     */
+    public EntrenamientoResumenDTO(Integer idEntrenamiento, String nombre, LocalDate fechaEntrenamiento,
+                                   String descripcion, int duracion, Long idTipo, String nombreTipo,
+                                   Integer idUsuario) {
+        this(idEntrenamiento, nombre, fechaEntrenamiento, descripcion, duracion,
+                new TipoEntrenamientoDTO(idTipo, nombreTipo), idUsuario);
+    }
+}
@@ -0,0 +1,94 @@
+package org.backend.backendfacilgim.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * DTO plano que representa una fila del historial de entrenamientos de un usuario:
+ * una serie junto con los datos de su ejercicio y de su entrenamiento.
+ * <p>
+ * Se obtiene directamente de una consulta JPQL para exportar el historial sin cargar
+ * entidades. Los campos de relación y de serie son nulos cuando el entrenamiento no
+ * tiene ejercicios o el ejercicio no tiene series.
+ * </p>
+ *
+ * Autor: Francisco Santana
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FilaHistorialDTO {
+
+    /**
+     * Identificador del entrenamiento.
+     */
+    private Integer idEntrenamiento;
+
+    /**
+     * Nombre del entrenamiento.
+     */
+    private String nombre;
+
+    /**
+     * Fecha del entrenamiento.
+     */
+    private LocalDate fechaEntrenamiento;
+
+    /**
+     * Descripción del entrenamiento.
+     */
+    private String descripcion;
+
+    /**
+     * Duración del entrenamiento en minutos.
+     */
+    private Integer duracion;
+
+    /**
+     * Nombre del tipo de entrenamiento.
+     */
+    private String tipoEntrenamiento;
+
+    /**
+     * Identificador de la relación entrenamiento–ejercicio, o {@code null} si el entrenamiento no tiene ejercicios.
+     */
+    private Integer idEntrenamientoEjercicio;
+
+    /**
+     * Posición del ejercicio dentro del entrenamiento.
+     */
+    private Integer orden;
+
+    /**
+     * Identificador del ejercicio en el catálogo.
+     */
+    private Integer idEjercicio;
+
+    /**
+     * Nombre del ejercicio.
+     */
+    private String nombreEjercicio;
+
+    /**
+     * Identificador de la serie, o {@code null} si el ejercicio no tiene series.
+     */
+    private Integer idSerie;
+
+    /**
+     * Número de la serie dentro del ejercicio.
+     */
+    private Integer numeroSerie;
+
+    /**
+     * Repeticiones realizadas en la serie.
+     */
+    private Integer repeticiones;
+
+    /**
+     * Peso utilizado en la serie.
+     */
+    private Double peso;
+}
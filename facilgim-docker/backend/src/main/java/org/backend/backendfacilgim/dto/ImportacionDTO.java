@@ -0,0 +1,69 @@
+package org.backend.backendfacilgim.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.backend.backendfacilgim.entity.Importacion;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO con el estado y el progreso de una importación de historial.
+ *
+ * Autor: Francisco Santana
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportacionDTO {
+
+    /**
+     * Identificador de la importación.
+     */
+    private Integer idImportacion;
+
+    /**
+     * Identificador del usuario al que se asignan los entrenamientos.
+     */
+    private Integer idUsuario;
+
+    /**
+     * Nombre original del archivo importado.
+     */
+    private String nombreArchivo;
+
+    /**
+     * Estado actual de la importación.
+     */
+    private Importacion.Estado estado;
+
+    /**
+     * Entrenamientos leídos y confirmados hasta el momento.
+     */
+    private int entrenamientosProcesados;
+
+    /**
+     * Entrenamientos creados hasta el momento.
+     */
+    private int entrenamientosCreados;
+
+    /**
+     * Entrenamientos omitidos hasta el momento.
+     */
+    private int entrenamientosOmitidos;
+
+    /**
+     * Lotes confirmados hasta el momento.
+     */
+    private int lotesConfirmados;
+
+    /**
+     * Último error registrado, o {@code null} si no ha habido ninguno.
+     */
+    private String ultimoError;
+
+    /**
+     * Momento de la última actualización del progreso.
+     */
+    private LocalDateTime fechaActualizacion;
+}
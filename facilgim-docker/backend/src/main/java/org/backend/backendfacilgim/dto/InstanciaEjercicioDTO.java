@@ -0,0 +1,49 @@
+package org.backend.backendfacilgim.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO que representa un ejercicio tal y como aparece dentro de un entrenamiento concreto:
+ * la relación entrenamiento–ejercicio, los datos del ejercicio del catálogo y sus series.
+ *
+ * Autor: Francisco Santana
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InstanciaEjercicioDTO {
+
+    /**
+     * Identificador de la relación entrenamiento–ejercicio.
+     */
+    private Integer idEntrenamientoEjercicio;
+
+    /**
+     * Posición del ejercicio dentro del entrenamiento.
+     */
+    private Integer orden;
+
+    /**
+     * Identificador del ejercicio en el catálogo.
+     */
+    private Integer idEjercicio;
+
+    /**
+     * Nombre del ejercicio.
+     */
+    private String nombre;
+
+    /**
+     * URL de la imagen representativa del ejercicio.
+     */
+    private String imagenUrl;
+
+    /**
+     * Series del ejercicio, ordenadas por número de serie.
+     */
+    private List<SerieDTO> series;
+}
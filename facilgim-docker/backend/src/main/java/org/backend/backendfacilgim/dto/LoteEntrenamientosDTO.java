@@ -0,0 +1,48 @@
+package org.backend.backendfacilgim.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO utilizado para crear varios entrenamientos en una sola petición,
+ * por ejemplo al sincronizar los entrenamientos registrados sin conexión.
+ *
+ * Autor: Francisco Santana
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LoteEntrenamientosDTO {
+
+    /**
+     * Número máximo de entrenamientos admitidos en un mismo lote.
+     */
+    public static final int MAXIMO_ENTRENAMIENTOS = 100;
+
+    /**
+     * Entrenamientos a crear, en el orden en que se devolverán sus resultados.
+     * <p>
+     * Campo obligatorio: debe contener entre 1 y {@value #MAXIMO_ENTRENAMIENTOS} elementos.
+     * Cada uno lo valida el servicio como un {@link EntrenamientoDTO} individual, para poder
+     * informar de sus errores por separado en modo parcial.
+     * </p>
+     */
+    @NotEmpty(message = "Debe haber al menos un entrenamiento")
+    @Size(max = MAXIMO_ENTRENAMIENTOS, message = "No se pueden crear más de " + MAXIMO_ENTRENAMIENTOS + " entrenamientos por lote")
+    private List<EntrenamientoDTO> entrenamientos;
+
+    /**
+     * Modo de fallo parcial.
+     * <p>
+     * Si es {@code false} (por defecto), el lote es todo o nada: cualquier entrenamiento
+     * inválido hace que no se cree ninguno. Si es {@code true}, se crean los válidos
+     * y se informa del error de cada uno de los demás.
+     * </p>
+     */
+    private boolean parcial;
+}
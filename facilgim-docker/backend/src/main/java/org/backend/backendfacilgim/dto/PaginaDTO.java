@@ -0,0 +1,34 @@
+package org.backend.backendfacilgim.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO que representa una página de resultados obtenida mediante paginación por cursor.
+ * <p>
+ * Contiene los elementos de la página y el cursor opaco que el cliente debe enviar
+ * para obtener la página siguiente. Si {@code siguienteCursor} es nulo, no hay más páginas.
+ * </p>
+ *
+ * @param <T> Tipo de los elementos contenidos en la página.
+ *
+ * Autor: Francisco Santana
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaginaDTO<T> {
+
+    /**
+     * Elementos de la página actual, en el orden de la paginación.
+     */
+    private List<T> contenido;
+
+    /**
+     * Cursor opaco para solicitar la siguiente página, o {@code null} si esta es la última.
+     */
+    private String siguienteCursor;
+}
@@ -0,0 +1,35 @@
+package org.backend.backendfacilgim.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con el resultado de un entrenamiento concreto dentro de un lote.
+ * <p>
+ * Si se ha creado, {@code idEntrenamiento} contiene su ID y {@code error} es nulo;
+ * en caso contrario, {@code idEntrenamiento} es nulo y {@code error} describe el motivo.
+ * </p>
+ *
+ * Autor: Francisco Santana
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ResultadoItemLoteDTO {
+
+    /**
+     * Posición (desde 0) del entrenamiento dentro del lote recibido.
+     */
+    private int indice;
+
+    /**
+     * ID asignado al entrenamiento creado, o {@code null} si ha fallado.
+     */
+    private Integer idEntrenamiento;
+
+    /**
+     * Motivo del fallo, o {@code null} si se ha creado correctamente.
+     */
+    private String error;
+}
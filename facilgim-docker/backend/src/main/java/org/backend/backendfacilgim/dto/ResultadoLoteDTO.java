@@ -0,0 +1,33 @@
+package org.backend.backendfacilgim.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO con el resultado de la creación de un lote de entrenamientos.
+ *
+ * Autor: Francisco Santana
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ResultadoLoteDTO {
+
+    /**
+     * Número de entrenamientos creados.
+     */
+    private int creados;
+
+    /**
+     * Número de entrenamientos que no se han podido crear.
+     */
+    private int fallidos;
+
+    /**
+     * Resultado de cada entrenamiento, en el mismo orden que el lote recibido.
+     */
+    private List<ResultadoItemLoteDTO> resultados;
+}
@@ -0,0 +1,58 @@
+package org.backend.backendfacilgim.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad que representa un archivo de imagen subido, almacenado por el hash de su contenido.
+ * <p>
+ * Dos subidas con el mismo contenido comparten archivo; {@code referencias} cuenta cuántos
+ * ejercicios lo usan como {@code imagenUrl}, de modo que un archivo sin referencias puede
+ * eliminarse sin afectar a ningún otro ejercicio.
+ * </p>
+ *
+ * Autor: Francisco Santana
+ */
+@Entity
+@Table(name = "archivo_imagen")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivoImagen {
+
+    /**
+     * Ruta del archivo relativa al directorio de subidas, por ejemplo {@code 3f/a2/3fa2….gif}.
+     * Es también la parte final de su URL pública, tras {@code /uploads/}.
+     */
+    @Id
+    @Column(length = 200)
+    private String ruta;
+
+    /**
+     * Hash SHA-256 del contenido, en hexadecimal.
+     */
+    @Column(nullable = false, length = 64)
+    private String hash;
+
+    /**
+     * Tamaño del archivo en bytes.
+     */
+    @Column(nullable = false)
+    private long tamano;
+
+    /**
+     * Número de ejercicios cuya imagen es este archivo.
+     */
+    @Column(nullable = false)
+    private int referencias;
+
+    /**
+     * Momento en que se subió por primera vez.
+     */
+    @Column(name = "fecha_creacion", nullable = false)
+    private LocalDateTime fechaCreacion;
+}
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -59,6 +60,45 @@ public class Ejercicio {
      */
     private String imagenUrl;
 
+    /**
+     * URL de la miniatura de la imagen (animada si el original es un GIF).
+     * <p>
+     * La genera en segundo plano el procesamiento de imágenes; es nula mientras
+     * no haya terminado o si el ejercicio no tiene imagen.
+     * </p>
+     */
+    @Column(name = "imagen_miniatura_url")
+    private String imagenMiniaturaUrl;
+
+    /**
+     * URL de la versión de tamaño medio de la imagen, pensada para móviles.
+     * <p>
+     * Nula mientras el procesamiento de imágenes no haya terminado.
+     * </p>
+     */
+    @Column(name = "imagen_media_url")
+    private String imagenMediaUrl;
+
+    /**
+     * URL del póster estático (PNG del primer fotograma) de la imagen.
+     * <p>
+     * Nula mientras el procesamiento de imágenes no haya terminado.
+     * </p>
+     */
+    @Column(name = "imagen_poster_url")
+    private String imagenPosterUrl;
+
+    /**
+     * Número de entrenamientos en los que se usa el ejercicio (relaciones que lo incluyen).
+     * <p>
+     * Lo mantiene {@link org.backend.backendfacilgim.utilities.ContadorUsosEjercicios} con
+     * actualizaciones en bloque, por lo que nunca se escribe al insertar o guardar la entidad.
+     * </p>
+     */
+    @Column(nullable = false, insertable = false, updatable = false)
+    @ColumnDefault("0")
+    private long usos;
+
     /**
      * Conjunto de relaciones {@link EntrenamientoEjercicio} que vinculan este ejercicio
      * con entrenamientos. Se ignora en la serialización JSON para evitar bucles de referencia.
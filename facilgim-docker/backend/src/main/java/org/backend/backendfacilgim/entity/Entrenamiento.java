@@ -23,7 +23,11 @@ import java.util.Set;
  * Autor: Francisco Santana
  */
 @Entity
-@Table(name = "entrenamiento")
+@Table(name = "entrenamiento", indexes = {
+        // Línea de tiempo por usuario: recorrido por rango en (usuario, fecha), con el ID como desempate
+        @Index(name = "idx_entrenamiento_usuario_fecha",
+                columnList = "id_usuario, fecha_entrenamiento, id_entrenamiento")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -32,13 +36,12 @@ import java.util.Set;
 public class Entrenamiento {
 
     /**
-     * Identificador único del entrenamiento.
-     * <p>
-     * Generado automáticamente por la base de datos.
-     * </p>
+     * Identificador único del entrenamiento, tomado de la tabla {@code generador_ids}.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "entrenamiento_gen")
+    @TableGenerator(name = "entrenamiento_gen", table = "generador_ids", pkColumnName = "entidad",
+            valueColumnName = "siguiente_valor", pkColumnValue = "entrenamiento", allocationSize = 50)
     @Column(name = "id_entrenamiento")
     @EqualsAndHashCode.Include
     private Integer idEntrenamiento;
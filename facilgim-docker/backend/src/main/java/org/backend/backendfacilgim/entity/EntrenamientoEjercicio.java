@@ -20,19 +20,21 @@ import java.util.List;
 @Setter
 @Getter
 @Entity
-@Table(name = "entrenamiento_ejercicio")
+@Table(name = "entrenamiento_ejercicio", indexes = {
+        // Comprobación de propiedad por ejercicio: de la relación se llega al entrenamiento sin leer la fila
+        @Index(name = "idx_entrenamiento_ejercicio_ejercicio", columnList = "id_ejercicio, id_entrenamiento")
+})
 @NoArgsConstructor
 @AllArgsConstructor
 public class EntrenamientoEjercicio {
 
     /**
-     * Identificador único de la relación entrenamiento–ejercicio.
-     * <p>
-     * Generado automáticamente por la base de datos.
-     * </p>
+     * Identificador único de la relación entrenamiento–ejercicio, tomado de la tabla {@code generador_ids}.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "entrenamiento_ejercicio_gen")
+    @TableGenerator(name = "entrenamiento_ejercicio_gen", table = "generador_ids", pkColumnName = "entidad",
+            valueColumnName = "siguiente_valor", pkColumnValue = "entrenamiento_ejercicio", allocationSize = 50)
     private Integer id;
 
     /**
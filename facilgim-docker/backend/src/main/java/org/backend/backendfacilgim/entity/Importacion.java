@@ -0,0 +1,121 @@
+package org.backend.backendfacilgim.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.backend.backendfacilgim.utilities.FormatoExportacion;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad que representa una importación de historial de entrenamientos desde un archivo
+ * CSV o NDJSON, procesada en segundo plano por lotes.
+ * <p>
+ * Guarda el progreso confirmado junto con cada lote, de modo que una importación
+ * interrumpida puede reanudarse a partir del primer entrenamiento no confirmado.
+ * </p>
+ *
+ * Autor: Francisco Santana
+ */
+@Entity
+@Table(name = "importacion")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Importacion {
+
+    /**
+     * Estados por los que pasa una importación.
+     */
+    public enum Estado {
+        PENDIENTE, EN_CURSO, COMPLETADA, FALLIDA
+    }
+
+    /**
+     * Identificador único de la importación.
+     * <p>
+     * Se genera automáticamente en la base de datos (IDENTITY).
+     * </p>
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id_importacion")
+    private Integer idImportacion;
+
+    /**
+     * Usuario al que se asignan los entrenamientos importados.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "id_usuario", nullable = false)
+    private Usuario usuario;
+
+    /**
+     * Formato del archivo importado.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private FormatoExportacion formato;
+
+    /**
+     * Nombre original del archivo subido por el usuario.
+     */
+    @Column(name = "nombre_archivo")
+    private String nombreArchivo;
+
+    /**
+     * Ruta del archivo guardado en el servidor, necesaria para reanudar la importación.
+     */
+    @Column(name = "ruta_archivo", nullable = false)
+    private String rutaArchivo;
+
+    /**
+     * Estado actual de la importación.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Estado estado;
+
+    /**
+     * Entrenamientos leídos del archivo y confirmados, creados u omitidos.
+     * Al reanudar, se saltan estos entrenamientos.
+     */
+    @Column(name = "entrenamientos_procesados", nullable = false)
+    private int entrenamientosProcesados;
+
+    /**
+     * Entrenamientos creados en la base de datos.
+     */
+    @Column(name = "entrenamientos_creados", nullable = false)
+    private int entrenamientosCreados;
+
+    /**
+     * Entrenamientos omitidos por referenciar ejercicios o tipos inexistentes o por datos inválidos.
+     */
+    @Column(name = "entrenamientos_omitidos", nullable = false)
+    private int entrenamientosOmitidos;
+
+    /**
+     * Número de lotes confirmados.
+     */
+    @Column(name = "lotes_confirmados", nullable = false)
+    private int lotesConfirmados;
+
+    /**
+     * Último error registrado: el motivo de la última omisión o el del fallo de la importación.
+     */
+    @Column(name = "ultimo_error", length = 1000)
+    private String ultimoError;
+
+    /**
+     * Momento en que se creó la importación.
+     */
+    @Column(name = "fecha_creacion", nullable = false)
+    private LocalDateTime fechaCreacion;
+
+    /**
+     * Momento de la última actualización del progreso.
+     */
+    @Column(name = "fecha_actualizacion", nullable = false)
+    private LocalDateTime fechaActualizacion;
+}
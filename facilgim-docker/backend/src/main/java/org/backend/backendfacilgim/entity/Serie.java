@@ -22,13 +22,12 @@ import lombok.NoArgsConstructor;
 public class Serie {
 
     /**
-     * Identificador único de la serie.
-     * <p>
-     * Generado automáticamente por la base de datos (IDENTITY).
-     * </p>
+     * Identificador único de la serie, tomado de la tabla {@code generador_ids}.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "serie_gen")
+    @TableGenerator(name = "serie_gen", table = "generador_ids", pkColumnName = "entidad",
+            valueColumnName = "siguiente_valor", pkColumnValue = "serie", allocationSize = 50)
     private Integer id;
 
     /**
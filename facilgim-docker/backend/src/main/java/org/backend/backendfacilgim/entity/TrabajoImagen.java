@@ -0,0 +1,95 @@
+package org.backend.backendfacilgim.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad que representa un trabajo de procesamiento de la imagen de un ejercicio:
+ * la generación en segundo plano de su miniatura, su versión media y su póster.
+ * <p>
+ * Se registra antes de encolarlo, de modo que los trabajos pendientes o interrumpidos
+ * (por un reinicio o por tener el pool saturado) se retoman al arrancar la aplicación.
+ * </p>
+ *
+ * Autor: Francisco Santana
+ */
+@Entity
+@Table(name = "trabajo_imagen")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrabajoImagen {
+
+    /**
+     * Estados por los que pasa un trabajo de imagen.
+     */
+    public enum Estado {
+        PENDIENTE, EN_CURSO, COMPLETADO, FALLIDO
+    }
+
+    /**
+     * Identificador único del trabajo.
+     * <p>
+     * Se genera automáticamente en la base de datos (IDENTITY).
+     * </p>
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id_trabajo_imagen")
+    private Integer idTrabajoImagen;
+
+    /**
+     * ID del ejercicio cuya imagen se procesa. Se guarda sin clave foránea para que
+     * eliminar el ejercicio no dependa de sus trabajos, que simplemente se descartan.
+     */
+    @Column(name = "id_ejercicio", nullable = false)
+    private Integer idEjercicio;
+
+    /**
+     * URL pública de la imagen original. Las versiones sólo se asignan al ejercicio
+     * si su imagen sigue siendo ésta cuando el trabajo termina.
+     */
+    @Column(name = "url_original", nullable = false, length = 1000)
+    private String urlOriginal;
+
+    /**
+     * Ruta del archivo original en el servidor.
+     */
+    @Column(name = "ruta_original", nullable = false, length = 1000)
+    private String rutaOriginal;
+
+    /**
+     * Estado actual del trabajo.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Estado estado;
+
+    /**
+     * Número de veces que se ha empezado a procesar.
+     */
+    @Column(nullable = false)
+    private int intentos;
+
+    /**
+     * Motivo del último fallo, si lo hubo.
+     */
+    @Column(name = "ultimo_error", length = 1000)
+    private String ultimoError;
+
+    /**
+     * Momento en que se registró el trabajo.
+     */
+    @Column(name = "fecha_creacion", nullable = false)
+    private LocalDateTime fechaCreacion;
+
+    /**
+     * Momento del último cambio de estado.
+     */
+    @Column(name = "fecha_actualizacion", nullable = false)
+    private LocalDateTime fechaActualizacion;
+}
@@ -1,5 +1,6 @@
 package org.backend.backendfacilgim.exception;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.AuthenticationException;
@@ -26,6 +27,22 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
     }
 
+    /**
+     * Captura y maneja las peticiones rechazadas por superar un límite del servidor.
+     *
+     * @param ex Excepción lanzada en el sistema.
+     * @return Respuesta con el mensaje de error, el estado de la excepción (por ejemplo
+     *         413 PAYLOAD TOO LARGE o 429 TOO MANY REQUESTS) y, si procede, la cabecera Retry-After.
+     */
+    @ExceptionHandler(LimiteExcedidoException.class)
+    public ResponseEntity<?> manejarLimiteExcedido(LimiteExcedidoException ex) {
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.status(ex.getEstado());
+        if (ex.getSegundosReintento() != null) {
+            respuesta.header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getSegundosReintento()));
+        }
+        return respuesta.body(ex.getMessage());
+    }
+
     /**
      * Captura y maneja cualquier otra excepción no controlada.
      *
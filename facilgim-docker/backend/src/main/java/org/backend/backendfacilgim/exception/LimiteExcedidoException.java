@@ -0,0 +1,48 @@
+package org.backend.backendfacilgim.exception;
+
+import org.springframework.http.HttpStatus;
+
+import java.io.Serial;
+
+/**
+ * Excepción para rechazar una petición que supera un límite del servidor: demasiadas peticiones
+ * simultáneas o un cuerpo demasiado grande. A diferencia de {@link CustomException}, no es un
+ * error del negocio, y se responde con el estado indicado (por ejemplo 413 o 429) y, si procede,
+ * con la cabecera {@code Retry-After}.
+ */
+public class LimiteExcedidoException extends RuntimeException {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final HttpStatus estado;
+    private final Integer segundosReintento;
+
+    /**
+     * Constructor que recibe el estado HTTP de la respuesta y un mensaje de error.
+     *
+     * @param estado            Estado HTTP con el que se responde.
+     * @param mensaje           Mensaje detallado del error.
+     * @param segundosReintento Segundos tras los que el cliente puede reintentar, o {@code null}
+     *                          si reintentar no servirá de nada.
+     */
+    public LimiteExcedidoException(HttpStatus estado, String mensaje, Integer segundosReintento) {
+        super(mensaje);
+        this.estado = estado;
+        this.segundosReintento = segundosReintento;
+    }
+
+    /**
+     * @return Estado HTTP con el que se responde.
+     */
+    public HttpStatus getEstado() {
+        return estado;
+    }
+
+    /**
+     * @return Segundos tras los que el cliente puede reintentar, o {@code null}.
+     */
+    public Integer getSegundosReintento() {
+        return segundosReintento;
+    }
+}
@@ -1,11 +1,13 @@
 package org.backend.backendfacilgim.mapper;
 
 import lombok.experimental.UtilityClass;
+import org.backend.backendfacilgim.dto.EjercicioCatalogoDTO;
 import org.backend.backendfacilgim.dto.EjercicioDTO;
 import org.backend.backendfacilgim.dto.SerieDTO;
 import org.backend.backendfacilgim.entity.EntrenamientoEjercicio;
 import org.backend.backendfacilgim.entity.Ejercicio;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -41,4 +43,46 @@ public class EjercicioMapper {
                 seriesDTO
         );
     }
+
+    /**
+     * Convierte un ejercicio del catálogo en memoria y su relación EntrenamientoEjercicio
+     * en un EjercicioDTO, incluyendo las series asociadas.
+     *
+     * @param ejercicio              Ejercicio del catálogo (id, nombre, URL de imagen).
+     * @param entrenamientoEjercicio Relación que contiene las series del ejercicio en el entrenamiento.
+     * @return Un EjercicioDTO con los datos del ejercicio y la lista de SerieDTO correspondientes.
+     */
+    public static EjercicioDTO toDTO(EjercicioCatalogoDTO ejercicio, EntrenamientoEjercicio entrenamientoEjercicio) {
+        List<SerieDTO> seriesDTO = entrenamientoEjercicio.getSeries()
+                .stream()
+                .map(SerieMapper::toDTO)
+                .collect(Collectors.toList());
+
+        return new EjercicioDTO(
+                ejercicio.getIdEjercicio(),
+                ejercicio.getNombre(),
+                ejercicio.getImagenUrl(),
+                seriesDTO
+        );
+    }
+
+    /**
+     * Construye una entidad Ejercicio nueva, no gestionada por JPA, a partir de un
+     * ejercicio del catálogo en memoria.
+     *
+     * @param ejercicio Ejercicio del catálogo.
+     * @return Entidad Ejercicio con id, nombre y URLs de imagen, sin relaciones.
+     */
+    public static Ejercicio toEntity(EjercicioCatalogoDTO ejercicio) {
+        return new Ejercicio(
+                ejercicio.getIdEjercicio(),
+                ejercicio.getNombre(),
+                ejercicio.getImagenUrl(),
+                ejercicio.getImagenMiniaturaUrl(),
+                ejercicio.getImagenMediaUrl(),
+                ejercicio.getImagenPosterUrl(),
+                ejercicio.getUsos(),
+                new HashSet<>()
+        );
+    }
 }
@@ -0,0 +1,79 @@
+package org.backend.backendfacilgim.mapper;
+
+import lombok.experimental.UtilityClass;
+import org.backend.backendfacilgim.dto.EntrenamientoCompletoDTO;
+import org.backend.backendfacilgim.dto.InstanciaEjercicioDTO;
+import org.backend.backendfacilgim.dto.SerieDTO;
+import org.backend.backendfacilgim.entity.Entrenamiento;
+import org.backend.backendfacilgim.entity.EntrenamientoEjercicio;
+import org.backend.backendfacilgim.entity.Serie;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Mapper de utilidad para convertir un {@link Entrenamiento} con su grafo de
+ * ejercicios y series en un {@link EntrenamientoCompletoDTO}.
+ * <p>
+ * Espera que el grafo ya esté cargado; no dispara consultas por sí mismo.
+ * </p>
+ *
+ * @autor Francisco Santana
+ */
+@UtilityClass
+public class EntrenamientoMapper {
+
+    private static final Comparator<EntrenamientoEjercicio> POR_ORDEN = Comparator
+            .comparing(EntrenamientoEjercicio::getOrden, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(EntrenamientoEjercicio::getId, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    /**
+     * Convierte un entrenamiento y sus relaciones en un DTO completo, con los ejercicios
+     * ordenados por {@code orden} y las series por {@code numeroSerie}.
+     *
+     * @param entrenamiento Entidad con tipo, usuario, relaciones, ejercicios y series inicializados.
+     * @return Un {@link EntrenamientoCompletoDTO} con toda la información del entrenamiento.
+     */
+    public static EntrenamientoCompletoDTO toCompletoDTO(Entrenamiento entrenamiento) {
+        List<InstanciaEjercicioDTO> ejercicios = entrenamiento.getEntrenamientoEjercicios()
+                .stream()
+                .sorted(POR_ORDEN)
+                .map(EntrenamientoMapper::toInstanciaDTO)
+                .toList();
+
+        return new EntrenamientoCompletoDTO(
+                entrenamiento.getIdEntrenamiento(),
+                entrenamiento.getNombre(),
+                entrenamiento.getFechaEntrenamiento(),
+                entrenamiento.getDescripcion(),
+                entrenamiento.getDuracion(),
+                TipoEntrenamientoMapper.toDTO(entrenamiento.getTipoEntrenamiento()),
+                entrenamiento.getUsuario().getIdUsuario(),
+                entrenamiento.getUsuario().getUsername(),
+                ejercicios
+        );
+    }
+
+    /**
+     * Convierte una relación entrenamiento–ejercicio en su DTO de instancia.
+     *
+     * @param ee Relación con su ejercicio y series inicializados.
+     * @return Un {@link InstanciaEjercicioDTO} con las series ordenadas.
+     */
+    private static InstanciaEjercicioDTO toInstanciaDTO(EntrenamientoEjercicio ee) {
+        List<SerieDTO> series = ee.getSeries()
+                .stream()
+                .sorted(Comparator.comparingInt(Serie::getNumeroSerie))
+                .map(SerieMapper::toDTO)
+                .toList();
+
+        return new InstanciaEjercicioDTO(
+                ee.getId(),
+                ee.getOrden(),
+                ee.getEjercicio().getIdEjercicio(),
+                ee.getEjercicio().getNombre(),
+                ee.getEjercicio().getImagenUrl(),
+                series
+        );
+    }
+}
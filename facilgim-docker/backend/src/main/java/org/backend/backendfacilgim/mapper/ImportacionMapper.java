@@ -0,0 +1,34 @@
+package org.backend.backendfacilgim.mapper;
+
+import lombok.experimental.UtilityClass;
+import org.backend.backendfacilgim.dto.ImportacionDTO;
+import org.backend.backendfacilgim.entity.Importacion;
+
+/**
+ * Mapper de utilidad para convertir la entidad Importacion en su DTO.
+ *
+ * @autor Francisco Santana
+ */
+@UtilityClass
+public class ImportacionMapper {
+
+    /**
+     * Convierte una entidad {@link Importacion} a su DTO equivalente.
+     *
+     * @param importacion Entidad de importación a convertir.
+     * @return Un {@link ImportacionDTO} con el estado y el progreso de la importación.
+     */
+    public ImportacionDTO toDTO(Importacion importacion) {
+        return new ImportacionDTO(
+                importacion.getIdImportacion(),
+                importacion.getUsuario().getIdUsuario(),
+                importacion.getNombreArchivo(),
+                importacion.getEstado(),
+                importacion.getEntrenamientosProcesados(),
+                importacion.getEntrenamientosCreados(),
+                importacion.getEntrenamientosOmitidos(),
+                importacion.getLotesConfirmados(),
+                importacion.getUltimoError(),
+                importacion.getFechaActualizacion());
+    }
+}
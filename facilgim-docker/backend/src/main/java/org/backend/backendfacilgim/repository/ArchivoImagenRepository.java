@@ -0,0 +1,42 @@
+package org.backend.backendfacilgim.repository;
+
+import org.backend.backendfacilgim.entity.ArchivoImagen;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Repositorio para la entidad {@link ArchivoImagen}.
+ * Registra los archivos subidos y mantiene su contador de referencias.
+ *
+ * @autor Francisco Santana
+ */
+@Repository
+public interface ArchivoImagenRepository extends JpaRepository<ArchivoImagen, String> {
+
+    /**
+     * Busca los archivos con más referencias de las indicadas.
+     *
+     * @param referencias Número de referencias que deben superar.
+     * @return Lista de {@link ArchivoImagen}.
+     */
+    List<ArchivoImagen> findByReferenciasGreaterThan(int referencias);
+
+    /**
+     * Suma {@code delta} (positivo o negativo) a las referencias de un archivo con una única
+     * sentencia UPDATE, de modo que dos cambios simultáneos no se pisan.
+     *
+     * @param ruta  Ruta relativa del archivo.
+     * @param delta Cantidad a sumar.
+     * @return Número de filas actualizadas: 0 si el archivo no está registrado.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE ArchivoImagen a SET a.referencias = a.referencias + :delta WHERE a.ruta = :ruta")
+    int sumarReferencias(@Param("ruta") String ruta, @Param("delta") int delta);
+}
@@ -1,8 +1,16 @@
 package org.backend.backendfacilgim.repository;
 
+import org.backend.backendfacilgim.dto.EjercicioCatalogoDTO;
 import org.backend.backendfacilgim.entity.Ejercicio;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
 
 /**
  * Repositorio para la entidad {@link Ejercicio}.
@@ -29,4 +37,46 @@ public interface EjercicioRepository extends JpaRepository<Ejercicio, Integer> {
      */
     void deleteByNombre(String nombre);
 
+    /**
+     * Obtiene una proyección del catálogo de ejercicios, leyendo solo las columnas
+     * que necesita el listado y sin tocar sus relaciones.
+     *
+     * @return Lista de {@link EjercicioCatalogoDTO} ordenada por ID.
+     */
+    @Query("""
+            SELECT new org.backend.backendfacilgim.dto.EjercicioCatalogoDTO(
+                e.idEjercicio, e.nombre, e.imagenUrl,
+                e.imagenMiniaturaUrl, e.imagenMediaUrl, e.imagenPosterUrl, e.usos)
+            FROM Ejercicio e
+            ORDER BY e.idEjercicio ASC
+            """)
+    List<EjercicioCatalogoDTO> listarCatalogo();
+
+    /**
+     * Suma la misma cantidad al contador de usos de varios ejercicios en una sola sentencia.
+     *
+     * @param ids   IDs de los ejercicios.
+     * @param delta Cantidad a sumar (negativa para restar).
+     * @return Número de ejercicios actualizados.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Ejercicio e SET e.usos = e.usos + :delta WHERE e.idEjercicio IN :ids")
+    int sumarUsos(@Param("ids") Collection<Integer> ids, @Param("delta") long delta);
+
+    /**
+     * Recalcula el contador de usos de todos los ejercicios a partir de sus relaciones,
+     * escribiendo sólo los que no coinciden.
+     *
+     * @return Número de ejercicios corregidos.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+            UPDATE Ejercicio e
+            SET e.usos = (SELECT COUNT(ee) FROM EntrenamientoEjercicio ee WHERE ee.ejercicio = e)
+            WHERE e.usos <> (SELECT COUNT(ee) FROM EntrenamientoEjercicio ee WHERE ee.ejercicio = e)
+            """)
+    int recalcularUsos();
+
 }
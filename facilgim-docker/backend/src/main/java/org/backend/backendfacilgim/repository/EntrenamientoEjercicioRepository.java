@@ -1,8 +1,11 @@
 package org.backend.backendfacilgim.repository;
 
+import org.backend.backendfacilgim.dto.EntrenamientoEjercicioResumenDTO;
 import org.backend.backendfacilgim.entity.Entrenamiento;
 import org.backend.backendfacilgim.entity.EntrenamientoEjercicio;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -25,12 +28,96 @@ public interface EntrenamientoEjercicioRepository extends JpaRepository<Entrenam
     List<EntrenamientoEjercicio> findByEjercicio_IdEjercicio(Integer idEjercicio);
 
     /**
-     * Obtiene todas las relaciones de un entrenamiento dado, ordenadas por el campo "orden" de forma ascendente.
+     * Comprueba si un ejercicio forma parte de algún entrenamiento del usuario indicado.
+     * <p>
+     * Se resuelve en la base de datos con un {@code EXISTS}, que se detiene en la primera
+     * relación que encuentra: no carga relaciones, entrenamientos ni usuarios. Se apoya en el
+     * índice único de {@code usuario.username}, en {@code idx_entrenamiento_ejercicio_ejercicio}
+     * y en {@code idx_entrenamiento_usuario_fecha}.
+     * </p>
+     *
+     * @param idEjercicio Identificador del ejercicio.
+     * @param username    Nombre de usuario.
+     * @return {@code true} si al menos un entrenamiento del usuario incluye el ejercicio.
+     */
+    @Query("""
+            SELECT CASE WHEN COUNT(u) > 0 THEN true ELSE false END
+            FROM Usuario u
+            WHERE u.username = :username
+              AND EXISTS (
+                SELECT 1 FROM EntrenamientoEjercicio ee
+                WHERE ee.ejercicio.idEjercicio = :idEjercicio
+                  AND ee.entrenamiento.usuario = u)
+            """)
+    boolean existeEnEntrenamientoDeUsuario(@Param("idEjercicio") Integer idEjercicio,
+                                           @Param("username") String username);
+
+    /**
+     * Obtiene una proyección de todas las relaciones entrenamiento–ejercicio,
+     * leyendo solo las columnas que necesita el listado.
+     *
+     * @return Lista de {@link EntrenamientoEjercicioResumenDTO} ordenada por entrenamiento y orden.
+     */
+    @Query("""
+            SELECT new org.backend.backendfacilgim.dto.EntrenamientoEjercicioResumenDTO(
+                ee.id, ee.entrenamiento.idEntrenamiento, ej.idEjercicio, ej.nombre, ee.orden)
+            FROM EntrenamientoEjercicio ee JOIN ee.ejercicio ej
+            ORDER BY ee.entrenamiento.idEntrenamiento ASC, ee.orden ASC, ee.id ASC
+            """)
+    List<EntrenamientoEjercicioResumenDTO> listarResumen();
+
+    /**
+     * Obtiene una proyección de las relaciones de un entrenamiento dado, ordenadas
+     * por el campo "orden" de forma ascendente.
      *
      * @param idEntrenamiento Identificador del entrenamiento.
-     * @return Lista de {@link EntrenamientoEjercicio} asociados al entrenamiento, ordenados por orden ascendente.
+     * @return Lista de {@link EntrenamientoEjercicioResumenDTO} del entrenamiento, ordenados por orden ascendente.
      */
-    List<EntrenamientoEjercicio> findByEntrenamiento_IdEntrenamientoOrderByOrdenAsc(Integer idEntrenamiento);
+    @Query("""
+            SELECT new org.backend.backendfacilgim.dto.EntrenamientoEjercicioResumenDTO(
+                ee.id, ee.entrenamiento.idEntrenamiento, ej.idEjercicio, ej.nombre, ee.orden)
+            FROM EntrenamientoEjercicio ee JOIN ee.ejercicio ej
+            WHERE ee.entrenamiento.idEntrenamiento = :idEntrenamiento
+            ORDER BY ee.orden ASC, ee.id ASC
+            """)
+    List<EntrenamientoEjercicioResumenDTO> listarResumenPorEntrenamiento(@Param("idEntrenamiento") Integer idEntrenamiento);
+
+    /**
+     * Carga todas las relaciones entrenamiento–ejercicio completas, con su entrenamiento,
+     * su ejercicio y sus series, en una única consulta. Es la forma de respuesta anterior
+     * a {@link #listarResumen()}, para los clientes que la piden expresamente.
+     *
+     * @return Lista de {@link EntrenamientoEjercicio} ordenada por entrenamiento y orden.
+     */
+    @Query("""
+            SELECT DISTINCT ee FROM EntrenamientoEjercicio ee
+            JOIN FETCH ee.entrenamiento e
+            JOIN FETCH e.usuario
+            JOIN FETCH e.tipoEntrenamiento
+            JOIN FETCH ee.ejercicio
+            LEFT JOIN FETCH ee.series
+            ORDER BY e.idEntrenamiento ASC, ee.orden ASC, ee.id ASC
+            """)
+    List<EntrenamientoEjercicio> listarConSeries();
+
+    /**
+     * Carga las relaciones completas de un entrenamiento dado, con sus series, en una
+     * única consulta y ordenadas por el campo "orden" de forma ascendente.
+     *
+     * @param idEntrenamiento Identificador del entrenamiento.
+     * @return Lista de {@link EntrenamientoEjercicio} del entrenamiento, ordenados por orden ascendente.
+     */
+    @Query("""
+            SELECT DISTINCT ee FROM EntrenamientoEjercicio ee
+            JOIN FETCH ee.entrenamiento e
+            JOIN FETCH e.usuario
+            JOIN FETCH e.tipoEntrenamiento
+            JOIN FETCH ee.ejercicio
+            LEFT JOIN FETCH ee.series
+            WHERE e.idEntrenamiento = :idEntrenamiento
+            ORDER BY ee.orden ASC, ee.id ASC
+            """)
+    List<EntrenamientoEjercicio> listarConSeriesPorEntrenamiento(@Param("idEntrenamiento") Integer idEntrenamiento);
 
     /**
      * Obtiene todas las relaciones de un objeto {@link Entrenamiento}.
@@ -56,4 +143,22 @@ public interface EntrenamientoEjercicioRepository extends JpaRepository<Entrenam
      * @param idEntrenamiento Identificador del entrenamiento.
      */
     void deleteAllByEntrenamiento_IdEntrenamiento(Integer idEntrenamiento);
+
+    /**
+     * Carga las relaciones de un entrenamiento con sus series en una única consulta.
+     * <p>
+     * Segunda fase de la lectura del entrenamiento completo: al ejecutarse en el mismo
+     * contexto de persistencia que {@link EntrenamientoRepository#buscarConEjercicios(Integer)},
+     * inicializa las series de las relaciones ya cargadas sin consultas adicionales.
+     * </p>
+     *
+     * @param idEntrenamiento Identificador del entrenamiento.
+     * @return Lista de {@link EntrenamientoEjercicio} con sus series inicializadas.
+     */
+    @Query("""
+            SELECT DISTINCT ee FROM EntrenamientoEjercicio ee
+            LEFT JOIN FETCH ee.series
+            WHERE ee.entrenamiento.idEntrenamiento = :idEntrenamiento
+            """)
+    List<EntrenamientoEjercicio> buscarConSeriesPorEntrenamiento(@Param("idEntrenamiento") Integer idEntrenamiento);
 }
@@ -1,11 +1,21 @@
 package org.backend.backendfacilgim.repository;
 
+import jakarta.persistence.QueryHint;
+import org.backend.backendfacilgim.dto.EntrenamientoResumenDTO;
+import org.backend.backendfacilgim.dto.FilaHistorialDTO;
 import org.backend.backendfacilgim.entity.Entrenamiento;
+import org.springframework.data.domain.Limit;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repositorio para la entidad {@link Entrenamiento}.
@@ -26,21 +36,251 @@ public interface EntrenamientoRepository extends JpaRepository<Entrenamiento, In
     List<Entrenamiento> findEntrenamientosByNombre(String nombre);
 
     /**
-     * Obtiene todos los entrenamientos cuya fecha de entrenamiento
-     * está entre las dos fechas proporcionadas (inclusive).
+     * Comprueba si un entrenamiento pertenece a un usuario comparando sólo IDs, sin cargar
+     * el entrenamiento ni el usuario.
+     *
+     * @param idEntrenamiento Identificador del entrenamiento.
+     * @param idUsuario       Identificador del usuario.
+     * @return {@code true} si el entrenamiento existe y es del usuario.
+     */
+    boolean existsByIdEntrenamientoAndUsuario_IdUsuario(Integer idEntrenamiento, Integer idUsuario);
+
+    /**
+     * Obtiene la primera página de entrenamientos ordenada por fecha e ID ascendentes.
+     *
+     * @param limite Número máximo de filas a devolver.
+     * @return Lista de {@link EntrenamientoResumenDTO} de la primera página.
+     */
+    @Query("""
+            SELECT new org.backend.backendfacilgim.dto.EntrenamientoResumenDTO(
+                e.idEntrenamiento, e.nombre, e.fechaEntrenamiento, e.descripcion, e.duracion,
+                t.id, t.nombre, e.usuario.idUsuario)
+            FROM Entrenamiento e JOIN e.tipoEntrenamiento t
+            ORDER BY e.fechaEntrenamiento ASC, e.idEntrenamiento ASC
+            """)
+    List<EntrenamientoResumenDTO> buscarPagina(Limit limite);
+
+    /**
+     * Obtiene la página de entrenamientos situada inmediatamente después del cursor
+     * {@code (fecha, id)}. Busca por clave en lugar de usar OFFSET, por lo que el coste
+     * no depende de la profundidad de la página.
+     *
+     * @param fecha  Fecha del último entrenamiento de la página anterior.
+     * @param id     ID del último entrenamiento de la página anterior.
+     * @param limite Número máximo de filas a devolver.
+     * @return Lista de {@link EntrenamientoResumenDTO} posteriores al cursor.
+     */
+    @Query("""
+            SELECT new org.backend.backendfacilgim.dto.EntrenamientoResumenDTO(
+                e.idEntrenamiento, e.nombre, e.fechaEntrenamiento, e.descripcion, e.duracion,
+                t.id, t.nombre, e.usuario.idUsuario)
+            FROM Entrenamiento e JOIN e.tipoEntrenamiento t
+            WHERE e.fechaEntrenamiento > :fecha
+               OR (e.fechaEntrenamiento = :fecha AND e.idEntrenamiento > :id)
+            ORDER BY e.fechaEntrenamiento ASC, e.idEntrenamiento ASC
+            """)
+    List<EntrenamientoResumenDTO> buscarPaginaTrasCursor(@Param("fecha") LocalDate fecha,
+                                                         @Param("id") Integer id,
+                                                         Limit limite);
+
+    /**
+     * Obtiene la primera página de entrenamientos cuya fecha está entre las dos
+     * fechas proporcionadas (inclusive).
+     *
+     * @param fechaInicio Fecha de inicio del rango (inclusive).
+     * @param fechaFin    Fecha de fin del rango (inclusive).
+     * @param limite      Número máximo de filas a devolver.
+     * @return Lista de {@link EntrenamientoResumenDTO} dentro del rango de fechas.
+     */
+    @Query("""
+            SELECT new org.backend.backendfacilgim.dto.EntrenamientoResumenDTO(
+                e.idEntrenamiento, e.nombre, e.fechaEntrenamiento, e.descripcion, e.duracion,
+                t.id, t.nombre, e.usuario.idUsuario)
+            FROM Entrenamiento e JOIN e.tipoEntrenamiento t
+            WHERE e.fechaEntrenamiento BETWEEN :fechaInicio AND :fechaFin
+            ORDER BY e.fechaEntrenamiento ASC, e.idEntrenamiento ASC
+            """)
+    List<EntrenamientoResumenDTO> buscarPaginaEntreFechas(@Param("fechaInicio") LocalDate fechaInicio,
+                                                          @Param("fechaFin") LocalDate fechaFin,
+                                                          Limit limite);
+
+    /**
+     * Obtiene la página de entrenamientos dentro del rango de fechas situada
+     * después del cursor {@code (fecha, id)}.
      *
      * @param fechaInicio Fecha de inicio del rango (inclusive).
      * @param fechaFin    Fecha de fin del rango (inclusive).
-     * @return Lista de {@link Entrenamiento} dentro del rango de fechas, o lista vacía si no se encuentran.
+     * @param fecha       Fecha del último entrenamiento de la página anterior.
+     * @param id          ID del último entrenamiento de la página anterior.
+     * @param limite      Número máximo de filas a devolver.
+     * @return Lista de {@link EntrenamientoResumenDTO} posteriores al cursor dentro del rango.
      */
-    List<Entrenamiento> findByFechaEntrenamientoBetween(LocalDate fechaInicio, LocalDate fechaFin);
+    @Query("""
+            SELECT new org.backend.backendfacilgim.dto.EntrenamientoResumenDTO(
+                e.idEntrenamiento, e.nombre, e.fechaEntrenamiento, e.descripcion, e.duracion,
+                t.id, t.nombre, e.usuario.idUsuario)
+            FROM Entrenamiento e JOIN e.tipoEntrenamiento t
+            WHERE e.fechaEntrenamiento BETWEEN :fechaInicio AND :fechaFin
+              AND (e.fechaEntrenamiento > :fecha
+                   OR (e.fechaEntrenamiento = :fecha AND e.idEntrenamiento > :id))
+            ORDER BY e.fechaEntrenamiento ASC, e.idEntrenamiento ASC
+            """)
+    List<EntrenamientoResumenDTO> buscarPaginaEntreFechasTrasCursor(@Param("fechaInicio") LocalDate fechaInicio,
+                                                                    @Param("fechaFin") LocalDate fechaFin,
+                                                                    @Param("fecha") LocalDate fecha,
+                                                                    @Param("id") Integer id,
+                                                                    Limit limite);
 
     /**
-     * Obtiene todos los entrenamientos asociados a un usuario específico.
+     * Obtiene la primera página de la línea de tiempo de un usuario: sus entrenamientos
+     * dentro de una ventana de fechas, del más reciente al más antiguo.
+     * <p>
+     * Se resuelve como un recorrido por rango del índice {@code (id_usuario, fecha_entrenamiento)}.
+     * </p>
      *
-     * @param usuarioIdUsuario Identificador del usuario.
-     * @return Lista de {@link Entrenamiento} que pertenecen al usuario indicado, o lista vacía si no se encuentran.
+     * @param idUsuario Identificador del usuario.
+     * @param desde     Fecha inicial de la ventana (inclusive).
+     * @param hasta     Fecha final de la ventana (inclusive).
+     * @param limite    Número máximo de filas a devolver.
+     * @return Lista de {@link EntrenamientoResumenDTO} del usuario, de más reciente a más antiguo.
      */
-    List<Entrenamiento> findEntrenamientosByUsuario_IdUsuario(Integer usuarioIdUsuario);
+    @Query("""
+            SELECT new org.backend.backendfacilgim.dto.EntrenamientoResumenDTO(
+                e.idEntrenamiento, e.nombre, e.fechaEntrenamiento, e.descripcion, e.duracion,
+                t.id, t.nombre, e.usuario.idUsuario)
+            FROM Entrenamiento e JOIN e.tipoEntrenamiento t
+            WHERE e.usuario.idUsuario = :idUsuario
+              AND e.fechaEntrenamiento BETWEEN :desde AND :hasta
+            ORDER BY e.fechaEntrenamiento DESC, e.idEntrenamiento DESC
+            """)
+    List<EntrenamientoResumenDTO> buscarPaginaPorUsuario(@Param("idUsuario") Integer idUsuario,
+                                                         @Param("desde") LocalDate desde,
+                                                         @Param("hasta") LocalDate hasta,
+                                                         Limit limite);
 
+    /**
+     * Obtiene la página de la línea de tiempo de un usuario situada después del cursor
+     * {@code (fecha, id)}, es decir, con entrenamientos más antiguos que el último devuelto.
+     *
+     * @param idUsuario Identificador del usuario.
+     * @param desde     Fecha inicial de la ventana (inclusive).
+     * @param hasta     Fecha final de la ventana (inclusive).
+     * @param fecha     Fecha del último entrenamiento de la página anterior.
+     * @param id        ID del último entrenamiento de la página anterior.
+     * @param limite    Número máximo de filas a devolver.
+     * @return Lista de {@link EntrenamientoResumenDTO} del usuario anteriores al cursor.
+     */
+    @Query("""
+            SELECT new org.backend.backendfacilgim.dto.EntrenamientoResumenDTO(
+                e.idEntrenamiento, e.nombre, e.fechaEntrenamiento, e.descripcion, e.duracion,
+                t.id, t.nombre, e.usuario.idUsuario)
+            FROM Entrenamiento e JOIN e.tipoEntrenamiento t
+            WHERE e.usuario.idUsuario = :idUsuario
+              AND e.fechaEntrenamiento BETWEEN :desde AND :hasta
+              AND (e.fechaEntrenamiento < :fecha
+                   OR (e.fechaEntrenamiento = :fecha AND e.idEntrenamiento < :id))
+            ORDER BY e.fechaEntrenamiento DESC, e.idEntrenamiento DESC
+            """)
+    List<EntrenamientoResumenDTO> buscarPaginaPorUsuarioTrasCursor(@Param("idUsuario") Integer idUsuario,
+                                                                   @Param("desde") LocalDate desde,
+                                                                   @Param("hasta") LocalDate hasta,
+                                                                   @Param("fecha") LocalDate fecha,
+                                                                   @Param("id") Integer id,
+                                                                   Limit limite);
+
+    /**
+     * Obtiene la primera página de entrenamientos cuyo nombre coincide exactamente con el proporcionado.
+     *
+     * @param nombre Nombre del entrenamiento a buscar.
+     * @param limite Número máximo de filas a devolver.
+     * @return Lista de {@link EntrenamientoResumenDTO} con el nombre especificado.
+     */
+    @Query("""
+            SELECT new org.backend.backendfacilgim.dto.EntrenamientoResumenDTO(
+                e.idEntrenamiento, e.nombre, e.fechaEntrenamiento, e.descripcion, e.duracion,
+                t.id, t.nombre, e.usuario.idUsuario)
+            FROM Entrenamiento e JOIN e.tipoEntrenamiento t
+            WHERE e.nombre = :nombre
+            ORDER BY e.fechaEntrenamiento ASC, e.idEntrenamiento ASC
+            """)
+    List<EntrenamientoResumenDTO> buscarPaginaPorNombre(@Param("nombre") String nombre, Limit limite);
+
+    /**
+     * Obtiene la página de entrenamientos con el nombre indicado situada después del cursor {@code (fecha, id)}.
+     *
+     * @param nombre Nombre del entrenamiento a buscar.
+     * @param fecha  Fecha del último entrenamiento de la página anterior.
+     * @param id     ID del último entrenamiento de la página anterior.
+     * @param limite Número máximo de filas a devolver.
+     * @return Lista de {@link EntrenamientoResumenDTO} con ese nombre posteriores al cursor.
+     */
+    @Query("""
+            SELECT new org.backend.backendfacilgim.dto.EntrenamientoResumenDTO(
+                e.idEntrenamiento, e.nombre, e.fechaEntrenamiento, e.descripcion, e.duracion,
+                t.id, t.nombre, e.usuario.idUsuario)
+            FROM Entrenamiento e JOIN e.tipoEntrenamiento t
+            WHERE e.nombre = :nombre
+              AND (e.fechaEntrenamiento > :fecha
+                   OR (e.fechaEntrenamiento = :fecha AND e.idEntrenamiento > :id))
+            ORDER BY e.fechaEntrenamiento ASC, e.idEntrenamiento ASC
+            """)
+    List<EntrenamientoResumenDTO> buscarPaginaPorNombreTrasCursor(@Param("nombre") String nombre,
+                                                                  @Param("fecha") LocalDate fecha,
+                                                                  @Param("id") Integer id,
+                                                                  Limit limite);
+
+    /**
+     * Carga un entrenamiento junto con su tipo, su usuario y sus relaciones con
+     * ejercicios (incluido cada {@link org.backend.backendfacilgim.entity.Ejercicio})
+     * en una única consulta.
+     * <p>
+     * Es la primera fase de la lectura del entrenamiento completo; las series se
+     * cargan en una segunda consulta para no multiplicar filas por el producto
+     * cartesiano relaciones × series.
+     * </p>
+     *
+     * @param id Identificador del entrenamiento.
+     * @return {@link Optional} con el entrenamiento y su grafo de ejercicios, o vacío si no existe.
+     */
+    @Query("""
+            SELECT DISTINCT e FROM Entrenamiento e
+            JOIN FETCH e.tipoEntrenamiento
+            JOIN FETCH e.usuario
+            LEFT JOIN FETCH e.entrenamientoEjercicios ee
+            LEFT JOIN FETCH ee.ejercicio
+            WHERE e.idEntrenamiento = :id
+            """)
+    Optional<Entrenamiento> buscarConEjercicios(@Param("id") Integer id);
+
+    /**
+     * Recorre el historial completo de un usuario como filas planas, una por serie
+     * (o una por relación sin series, o una por entrenamiento sin ejercicios), ordenadas
+     * por entrenamiento, orden del ejercicio y número de serie.
+     * <p>
+     * Devuelve proyecciones, no entidades, de modo que el contexto de persistencia no crece
+     * mientras se consume el {@link Stream}; y fija un fetch size para que el driver lea el
+     * resultado por bloques. Debe consumirse y cerrarse dentro de una transacción.
+     * </p>
+     *
+     * @param idUsuario ID del usuario.
+     * @return {@link Stream} de {@link FilaHistorialDTO} en orden de exportación.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            SELECT new org.backend.backendfacilgim.dto.FilaHistorialDTO(
+                e.idEntrenamiento, e.nombre, e.fechaEntrenamiento, e.descripcion, e.duracion, t.nombre,
+                ee.id, ee.orden, ej.idEjercicio, ej.nombre,
+                s.id, s.numeroSerie, s.repeticiones, s.peso)
+            FROM Entrenamiento e
+            JOIN e.tipoEntrenamiento t
+            LEFT JOIN e.entrenamientoEjercicios ee
+            LEFT JOIN ee.ejercicio ej
+            LEFT JOIN ee.series s
+            WHERE e.usuario.idUsuario = :idUsuario
+            ORDER BY e.fechaEntrenamiento ASC, e.idEntrenamiento ASC, ee.orden ASC, ee.id ASC, s.numeroSerie ASC
+            """)
+    Stream<FilaHistorialDTO> recorrerHistorialPorUsuario(@Param("idUsuario") Integer idUsuario);
 }
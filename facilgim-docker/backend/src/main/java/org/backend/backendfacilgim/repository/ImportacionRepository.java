@@ -0,0 +1,16 @@
+package org.backend.backendfacilgim.repository;
+
+import org.backend.backendfacilgim.entity.Importacion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repositorio para la entidad {@link Importacion}.
+ * Proporciona las operaciones CRUD necesarias para registrar y
+ * consultar el progreso de las importaciones de historial.
+ *
+ * @autor Francisco Santana
+ */
+@Repository
+public interface ImportacionRepository extends JpaRepository<Importacion, Integer> {
+}
@@ -0,0 +1,27 @@
+package org.backend.backendfacilgim.repository;
+
+import org.backend.backendfacilgim.entity.TrabajoImagen;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repositorio para la entidad {@link TrabajoImagen}.
+ * Permite registrar los trabajos de procesamiento de imágenes y
+ * recuperar los que quedaron sin terminar.
+ *
+ * @autor Francisco Santana
+ */
+@Repository
+public interface TrabajoImagenRepository extends JpaRepository<TrabajoImagen, Integer> {
+
+    /**
+     * Busca los trabajos que están en alguno de los estados indicados, del más antiguo al más reciente.
+     *
+     * @param estados Estados buscados.
+     * @return Lista de {@link TrabajoImagen} ordenada por ID.
+     */
+    List<TrabajoImagen> findByEstadoInOrderByIdTrabajoImagenAsc(Collection<TrabajoImagen.Estado> estados);
+}
@@ -0,0 +1,385 @@
+package org.backend.backendfacilgim.security;
+
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Locator;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.security.InvalidKeyException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyStore;
+import java.security.KeyStoreException;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Anillo de claves HMAC (HS256) para firmar y verificar los tokens JWT.
+ * <p>
+ * Las claves se guardan en un almacén PKCS12 en disco ({@code app.jwt.claves.almacen},
+ * {@code claves/jwt.p12} por defecto, protegido con {@code app.jwt.claves.contrasena}, que no
+ * tiene valor por defecto: sin ella la aplicación no arranca); cada una
+ * se identifica por un {@code kid}, su instante de creación más una parte aleatoria, que viaja
+ * en la cabecera de los tokens. Varias instancias del backend que comparten el almacén (un
+ * volumen común) firman y verifican con las mismas claves, por lo que cualquier nodo valida
+ * cualquier token y un reinicio no invalida las sesiones.
+ * </p>
+ * <p>
+ * Rotación: cada {@code app.jwt.claves.revision-ms} (una hora por defecto) se relee el almacén y,
+ * si la clave más reciente tiene más de {@code app.jwt.claves.rotacion-dias} (7 por defecto), se
+ * añade una nueva. Una clave nueva sirve para verificar desde el primer momento, pero sólo se usa
+ * para firmar pasados {@code app.jwt.claves.retraso-activacion-minutos} (120 por defecto), de modo
+ * que todos los nodos la conozcan antes de recibir tokens firmados con ella. Una clave se retira
+ * cuando ya han caducado todos los tokens que pudo firmar. La escritura se hace con un bloqueo de
+ * archivo y un reemplazo atómico, para que dos nodos no roten a la vez ni lean un almacén a medias.
+ * </p>
+ * <p>
+ * Si llega un token con un {@code kid} desconocido, el almacén se relee antes de rechazarlo
+ * (como mucho una vez cada {@code app.jwt.claves.recarga-minima-segundos}, 30 por defecto).
+ * </p>
+ *
+ * @author Francisco Santana
+ */
+@Component
+public class AnilloClavesJwt {
+
+    private static final Logger log = LoggerFactory.getLogger(AnilloClavesJwt.class);
+    private static final String ALGORITMO = "HmacSHA256";
+
+    private final Path ruta;
+    private final Path rutaBloqueo;
+    private final char[] contrasena;
+    private final Duration rotacion;
+    private final Duration retrasoActivacion;
+    private final Duration vigenciaToken;
+    private final Duration recargaMinima;
+    private final Clock reloj;
+    private final SecureRandom aleatorio = new SecureRandom();
+    private final Locator<Key> localizador = new LocatorAdapter<>() {
+        @Override
+        protected Key locate(JwsHeader header) {
+            SecretKey clave = claveVerificacion(header.getKeyId());
+            if (clave == null) {
+                throw new InvalidKeyException("Clave de firma desconocida: " + header.getKeyId());
+            }
+            return clave;
+        }
+    };
+
+    private volatile Map<String, ClaveJwt> claves = Map.of();
+    private volatile Instant ultimaRecarga = Instant.EPOCH;
+
+    /**
+     * Constructor que lee la configuración y carga (o crea) el almacén de claves.
+     *
+     * @param almacen                  Ruta del almacén PKCS12.
+     * @param contrasena               Contraseña del almacén y de sus claves.
+     * @param rotacionDias             Antigüedad de la clave más reciente a partir de la que se rota.
+     * @param retrasoActivacionMinutos Tiempo entre que se crea una clave y se empieza a firmar con ella.
+     * @param recargaMinimaSegundos    Intervalo mínimo entre relecturas por un {@code kid} desconocido.
+     */
+    @Autowired
+    public AnilloClavesJwt(
+            @Value("${app.jwt.claves.almacen:claves/jwt.p12}") String almacen,
+            @Value("${app.jwt.claves.contrasena:}") String contrasena,
+            @Value("${app.jwt.claves.rotacion-dias:7}") long rotacionDias,
+            @Value("${app.jwt.claves.retraso-activacion-minutos:120}") long retrasoActivacionMinutos,
+            @Value("${app.jwt.claves.recarga-minima-segundos:30}") long recargaMinimaSegundos
+    ) {
+        this(Paths.get(almacen), contrasena, Duration.ofDays(rotacionDias),
+                Duration.ofMinutes(retrasoActivacionMinutos), TokenJwtConfig.VIGENCIA_TOKEN,
+                Duration.ofSeconds(recargaMinimaSegundos), Clock.systemUTC());
+    }
+
+    /**
+     * Constructor completo, con la vigencia de los tokens y el reloj explícitos.
+     *
+     * @param ruta              Ruta del almacén PKCS12.
+     * @param contrasena        Contraseña del almacén y de sus claves.
+     * @param rotacion          Antigüedad de la clave más reciente a partir de la que se rota.
+     * @param retrasoActivacion Tiempo entre que se crea una clave y se empieza a firmar con ella.
+     * @param vigenciaToken     Vigencia de los tokens emitidos.
+     * @param recargaMinima     Intervalo mínimo entre relecturas por un {@code kid} desconocido.
+     * @param reloj             Reloj con el que se decide la rotación.
+     * @throws IllegalStateException si la contraseña está vacía.
+     */
+    public AnilloClavesJwt(Path ruta, String contrasena, Duration rotacion, Duration retrasoActivacion,
+                           Duration vigenciaToken, Duration recargaMinima, Clock reloj) {
+        if (contrasena == null || contrasena.isBlank()) {
+            throw new IllegalStateException(
+                    "Falta la contraseña del almacén de claves JWT (app.jwt.claves.contrasena)");
+        }
+        this.ruta = ruta.toAbsolutePath().normalize();
+        this.rutaBloqueo = this.ruta.resolveSibling(this.ruta.getFileName() + ".lock");
+        this.contrasena = contrasena.toCharArray();
+        this.rotacion = rotacion;
+        this.retrasoActivacion = retrasoActivacion;
+        this.vigenciaToken = vigenciaToken;
+        this.recargaMinima = recargaMinima;
+        this.reloj = reloj;
+        revisar();
+    }
+
+    /**
+     * Devuelve la clave con la que se firman los tokens nuevos: la más reciente de las ya
+     * activas o, si ninguna lo está todavía (almacén recién creado), la más reciente.
+     *
+     * @return Clave de firma vigente.
+     */
+    public ClaveJwt claveFirma() {
+        Instant ahora = reloj.instant();
+        ClaveJwt firma = null;
+        ClaveJwt masReciente = null;
+        for (ClaveJwt clave : claves.values()) {
+            if (masReciente == null || clave.getCreada().isAfter(masReciente.getCreada())) {
+                masReciente = clave;
+            }
+            boolean activa = !clave.getCreada().plus(retrasoActivacion).isAfter(ahora);
+            if (activa && (firma == null || clave.getCreada().isAfter(firma.getCreada()))) {
+                firma = clave;
+            }
+        }
+        return firma != null ? firma : masReciente;
+    }
+
+    /**
+     * Busca la clave con la que verificar un token. Si el {@code kid} no se conoce, relee el
+     * almacén por si otro nodo acaba de rotar.
+     *
+     * @param kid Identificador de la clave, de la cabecera del token.
+     * @return La clave, o {@code null} si no existe.
+     */
+    public SecretKey claveVerificacion(String kid) {
+        if (kid == null) {
+            return null;
+        }
+        ClaveJwt clave = claves.get(kid);
+        if (clave == null && recargaPermitida()) {
+            synchronized (this) {
+                // Otro hilo puede haber recargado mientras se esperaba el monitor
+                clave = claves.get(kid);
+                if (clave == null && recargaPermitida()) {
+                    recargar();
+                    clave = claves.get(kid);
+                }
+            }
+        }
+        return clave != null ? clave.getClave() : null;
+    }
+
+    /**
+     * Método auxiliar que indica si ha pasado el intervalo mínimo desde la última recarga.
+     */
+    private boolean recargaPermitida() {
+        return !ultimaRecarga.plus(recargaMinima).isAfter(reloj.instant());
+    }
+
+    /**
+     * Localizador de claves para el parser de jjwt, a partir del {@code kid} de la cabecera.
+     *
+     * @return {@link Locator} que resuelve la clave de verificación de cada token.
+     */
+    public Locator<Key> localizador() {
+        return localizador;
+    }
+
+    /**
+     * Identificadores de las claves cargadas.
+     *
+     * @return {@code kid} de cada clave del anillo.
+     */
+    public Set<String> identificadores() {
+        return claves.keySet();
+    }
+
+    /**
+     * Revisa el anillo periódicamente: recoge las claves que hayan añadido otros nodos, rota
+     * si toca y retira las que ya no pueden verificar ningún token vigente.
+     */
+    @Scheduled(initialDelayString = "${app.jwt.claves.revision-ms:3600000}",
+            fixedDelayString = "${app.jwt.claves.revision-ms:3600000}")
+    public synchronized void revisar() {
+        try {
+            Files.createDirectories(ruta.getParent());
+            try (FileChannel canal = FileChannel.open(rutaBloqueo, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                // El bloqueo se libera al cerrar el canal.
+                canal.lock();
+                KeyStore almacen = leer();
+                Map<String, ClaveJwt> cargadas = extraer(almacen);
+                Instant ahora = reloj.instant();
+                boolean cambiado = false;
+
+                Optional<ClaveJwt> ultima = cargadas.values().stream().max(Comparator.comparing(ClaveJwt::getCreada));
+                if (ultima.isEmpty() || !ultima.get().getCreada().plus(rotacion).isAfter(ahora)) {
+                    String kid = nuevoKid(ahora);
+                    almacen.setEntry(kid, new KeyStore.SecretKeyEntry(generar()), new KeyStore.PasswordProtection(contrasena));
+                    log.info("Nueva clave de firma JWT {}", kid);
+                    cambiado = true;
+                }
+                for (String kid : retirables(cargadas, ahora)) {
+                    almacen.deleteEntry(kid);
+                    log.info("Clave de firma JWT {} retirada", kid);
+                    cambiado = true;
+                }
+                if (cambiado) {
+                    escribir(almacen);
+                    cargadas = extraer(almacen);
+                }
+                claves = cargadas;
+                ultimaRecarga = ahora;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo revisar el almacén de claves JWT " + ruta, e);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Almacén de claves JWT ilegible: " + ruta, e);
+        }
+    }
+
+    /**
+     * Método auxiliar que relee el almacén sin bloquearlo; el reemplazo atómico garantiza que
+     * nunca se lee un archivo a medio escribir.
+     */
+    private void recargar() {
+        try {
+            claves = extraer(leer());
+        } catch (IOException | GeneralSecurityException e) {
+            log.warn("No se pudo releer el almacén de claves JWT: {}", e.getMessage());
+        }
+        ultimaRecarga = reloj.instant();
+    }
+
+    /**
+     * Método auxiliar que devuelve las claves cuyo último token posible ya ha caducado: las que
+     * dejaron de firmar (al activarse la siguiente) hace más de la vigencia de un token.
+     */
+    private List<String> retirables(Map<String, ClaveJwt> cargadas, Instant ahora) {
+        List<ClaveJwt> ordenadas = new ArrayList<>(cargadas.values());
+        ordenadas.sort(Comparator.comparing(ClaveJwt::getCreada));
+        List<String> retirables = new ArrayList<>();
+        for (int i = 0; i < ordenadas.size() - 1; i++) {
+            Instant finFirma = ordenadas.get(i + 1).getCreada().plus(retrasoActivacion);
+            if (!finFirma.plus(vigenciaToken).isAfter(ahora)) {
+                retirables.add(ordenadas.get(i).getId());
+            }
+        }
+        return retirables;
+    }
+
+    private KeyStore leer() throws IOException, GeneralSecurityException {
+        KeyStore almacen = KeyStore.getInstance("PKCS12");
+        if (Files.exists(ruta)) {
+            try (InputStream entrada = Files.newInputStream(ruta)) {
+                almacen.load(entrada, contrasena);
+            }
+        } else {
+            almacen.load(null, contrasena);
+        }
+        return almacen;
+    }
+
+    /**
+     * Método auxiliar que escribe el almacén en un temporal y lo mueve sobre el original.
+     */
+    private void escribir(KeyStore almacen) throws IOException, GeneralSecurityException {
+        Path temporal = Files.createTempFile(ruta.getParent(), ruta.getFileName().toString(), ".tmp");
+        try {
+            try {
+                Files.setPosixFilePermissions(temporal, PosixFilePermissions.fromString("rw-------"));
+            } catch (UnsupportedOperationException e) {
+                // Sistema de archivos sin permisos POSIX
+            }
+            try (OutputStream salida = Files.newOutputStream(temporal)) {
+                almacen.store(salida, contrasena);
+            }
+            Files.move(temporal, ruta, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporal);
+        }
+    }
+
+    private Map<String, ClaveJwt> extraer(KeyStore almacen) throws GeneralSecurityException {
+        Map<String, ClaveJwt> cargadas = new HashMap<>();
+        KeyStore.PasswordProtection proteccion = new KeyStore.PasswordProtection(contrasena);
+        for (String kid : Collections.list(almacen.aliases())) {
+            if (almacen.getEntry(kid, proteccion) instanceof KeyStore.SecretKeyEntry entrada) {
+                cargadas.put(kid, new ClaveJwt(kid, entrada.getSecretKey(), creacion(kid, almacen)));
+            }
+        }
+        return Map.copyOf(cargadas);
+    }
+
+    private SecretKey generar() throws GeneralSecurityException {
+        KeyGenerator generador = KeyGenerator.getInstance(ALGORITMO);
+        generador.init(256, aleatorio);
+        return generador.generateKey();
+    }
+
+    /**
+     * Método auxiliar que genera un {@code kid} con el instante de creación (segundos desde la
+     * época) y una parte aleatoria en hexadecimal, ya que PKCS12 guarda los alias en minúsculas.
+     * La fecha va en el propio identificador porque la del almacén es la del reloj del sistema.
+     */
+    private String nuevoKid(Instant ahora) {
+        byte[] bytes = new byte[8];
+        aleatorio.nextBytes(bytes);
+        return ahora.getEpochSecond() + "-" + HexFormat.of().formatHex(bytes);
+    }
+
+    /**
+     * Método auxiliar que obtiene el instante de creación de una clave a partir de su
+     * {@code kid}, o de la fecha del almacén si el alias no sigue ese formato.
+     */
+    private static Instant creacion(String kid, KeyStore almacen) throws KeyStoreException {
+        int guion = kid.indexOf('-');
+        if (guion > 0) {
+            try {
+                return Instant.ofEpochSecond(Long.parseLong(kid.substring(0, guion)));
+            } catch (NumberFormatException e) {
+                // Alias ajeno al anillo: se usa la fecha del almacén
+            }
+        }
+        return almacen.getCreationDate(kid).toInstant();
+    }
+
+    /**
+     * Clave del anillo con su identificador y su fecha de creación.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class ClaveJwt {
+
+        /**
+         * Identificador de la clave, que se publica como {@code kid}.
+         */
+        private final String id;
+
+        /**
+         * Clave HMAC.
+         */
+        private final SecretKey clave;
+
+        /**
+         * Instante en que se creó la clave.
+         */
+        private final Instant creada;
+    }
+}
@@ -0,0 +1,153 @@
+package org.backend.backendfacilgim.security;
+
+import org.springframework.security.core.Authentication;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caché acotada de tokens JWT ya validados, con la {@link Authentication} construida a partir de ellos.
+ * <p>
+ * Un mismo cliente repite su token en cada petición durante horas; con la caché, la firma HMAC,
+ * el análisis de los claims y la lista de roles se calculan una sola vez por token. Las entradas
+ * se indexan por el SHA-256 del token (nunca se guarda el token en claro) y caducan al llegar
+ * el {@code exp} del token o, como mucho, pasado el TTL de la caché, lo que antes ocurra.
+ * </p>
+ * <p>
+ * Al superar el máximo de entradas se descartan primero las caducadas y, si no basta, una
+ * décima parte de las restantes en el orden en que aparezcan: un desalojo aproximado, sin
+ * coste por lectura, suficiente porque una entrada descartada sólo obliga a validar de nuevo.
+ * </p>
+ * <p>
+ * La {@link Authentication} se comparte entre las peticiones que usan el mismo token, por lo
+ * que no debe modificarse.
+ * </p>
+ *
+ * @author Francisco Santana
+ */
+public class CacheTokensJwt {
+
+    private final ConcurrentHashMap<String, Entrada> entradas = new ConcurrentHashMap<>();
+    private final int maximo;
+    private final long ttlMillis;
+    private final Clock reloj;
+
+    /**
+     * Crea la caché.
+     *
+     * @param maximo Número máximo de tokens en caché; 0 la desactiva.
+     * @param ttl    Tiempo máximo que una entrada permanece en caché.
+     * @param reloj  Reloj con el que se comprueba la caducidad.
+     */
+    public CacheTokensJwt(int maximo, Duration ttl, Clock reloj) {
+        this.maximo = maximo;
+        this.ttlMillis = ttl.toMillis();
+        this.reloj = reloj;
+    }
+
+    /**
+     * Calcula la clave de caché de un token.
+     *
+     * @param token Token JWT compacto.
+     * @return SHA-256 del token en Base64.
+     */
+    public String clave(String token) {
+        try {
+            byte[] resumen = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(resumen);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    /**
+     * Busca la autenticación de un token ya validado.
+     *
+     * @param clave Clave del token, calculada con {@link #clave(String)}.
+     * @return La {@link Authentication} del token, o {@code null} si no está o ha caducado.
+     */
+    public Authentication obtener(String clave) {
+        Entrada entrada = entradas.get(clave);
+        if (entrada == null) {
+            return null;
+        }
+        if (entrada.caducada(reloj.millis())) {
+            entradas.remove(clave, entrada);
+            return null;
+        }
+        return entrada.autenticacion;
+    }
+
+    /**
+     * Guarda la autenticación de un token recién validado.
+     *
+     * @param clave         Clave del token, calculada con {@link #clave(String)}.
+     * @param autenticacion Autenticación construida a partir del token.
+     * @param expiracion    Claim {@code exp} del token, o {@code null} si no tiene.
+     */
+    public void guardar(String clave, Authentication autenticacion, Date expiracion) {
+        if (maximo <= 0) {
+            return;
+        }
+        long ahora = reloj.millis();
+        long caduca = ahora + ttlMillis;
+        if (expiracion != null) {
+            caduca = Math.min(caduca, expiracion.getTime());
+        }
+        if (caduca <= ahora) {
+            return;
+        }
+        if (entradas.size() >= maximo) {
+            desalojar(ahora);
+        }
+        entradas.put(clave, new Entrada(autenticacion, caduca));
+    }
+
+    /**
+     * Número de tokens en caché.
+     *
+     * @return Número de entradas, caducadas o no.
+     */
+    public int tamano() {
+        return entradas.size();
+    }
+
+    /**
+     * Método auxiliar que libera sitio: quita las entradas caducadas y, si la caché sigue
+     * llena, una décima parte de las demás.
+     */
+    private void desalojar(long ahora) {
+        entradas.values().removeIf(entrada -> entrada.caducada(ahora));
+        int sobrantes = entradas.size() - maximo + Math.max(1, maximo / 10);
+        Iterator<String> claves = entradas.keySet().iterator();
+        while (sobrantes-- > 0 && claves.hasNext()) {
+            claves.next();
+            claves.remove();
+        }
+    }
+
+    /**
+     * Autenticación en caché junto con el instante, en milisegundos, en que caduca.
+     */
+    private static final class Entrada {
+
+        final Authentication autenticacion;
+        final long caduca;
+
+        Entrada(Authentication autenticacion, long caduca) {
+            this.autenticacion = autenticacion;
+            this.caduca = caduca;
+        }
+
+        boolean caducada(long ahora) {
+            return ahora >= caduca;
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package org.backend.backendfacilgim.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.backend.backendfacilgim.exception.LimiteExcedidoException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+
+/**
+ * {@link PasswordEncoder} de la aplicación: BCrypt ejecutado en un pool propio y acotado.
+ * <p>
+ * Cada cifrado o verificación cuesta decenas de milisegundos de CPU. En lugar de hacerlo en el
+ * hilo de Tomcat, se encola en un pool de {@code app.bcrypt.hilos} hilos (la mitad de los
+ * núcleos por defecto) con una cola de {@code app.bcrypt.cola} tareas (32 por defecto); así una
+ * ráfaga de inicios de sesión nunca ocupa más que esos núcleos y el resto de la API sigue
+ * atendiéndose. Si la cola está llena, o la tarea no termina en {@code app.bcrypt.espera-maxima-ms}
+ * (2000 por defecto), la petición se rechaza al momento con 503 y {@code Retry-After}.
+ * </p>
+ * <p>
+ * El coste de BCrypt se fija con {@code app.bcrypt.coste}; con 0 (por defecto) se calibra al
+ * arrancar para que una verificación tarde como mucho {@code app.bcrypt.objetivo-ms} (250 por
+ * defecto) en esta máquina, entre {@code app.bcrypt.coste-minimo} (10) y
+ * {@code app.bcrypt.coste-maximo} (14). Los hashes guardados llevan su propio coste, por lo que
+ * cambiarlo no invalida las contraseñas existentes.
+ * </p>
+ * <p>
+ * Métricas: {@code bcrypt.cola} y {@code bcrypt.activos} (tareas esperando y en curso),
+ * {@code bcrypt.duracion{operacion=cifrar|verificar}} y {@code bcrypt.rechazos{motivo=cola|espera}}.
+ * </p>
+ *
+ * @author Francisco Santana
+ */
+@Component
+public class CifradorContrasenas implements PasswordEncoder {
+
+    private static final Logger log = LoggerFactory.getLogger(CifradorContrasenas.class);
+    private static final String MENSAJE_SATURADO =
+            "El servidor está procesando demasiados inicios de sesión. Inténtalo de nuevo en unos segundos.";
+
+    private final PasswordEncoder delegado;
+    private final ThreadPoolExecutor ejecutor;
+    private final long esperaMaximaMillis;
+    private final Timer cifrados;
+    private final Timer verificaciones;
+    private final Counter rechazosCola;
+    private final Counter rechazosEspera;
+
+    /**
+     * Constructor que lee la configuración, calibra el coste si no se ha fijado y crea el pool.
+     *
+     * @param meterRegistry    Registro de métricas de la aplicación.
+     * @param hilos            Hilos del pool; 0 para usar la mitad de los núcleos.
+     * @param cola             Tareas que pueden esperar turno.
+     * @param esperaMaximaMs   Tiempo máximo que una petición espera su resultado.
+     * @param coste            Coste de BCrypt; 0 para calibrarlo.
+     * @param objetivoMs       Duración objetivo de una verificación al calibrar.
+     * @param costeMinimo      Coste mínimo al calibrar.
+     * @param costeMaximo      Coste máximo al calibrar.
+     */
+    @Autowired
+    public CifradorContrasenas(
+            MeterRegistry meterRegistry,
+            @Value("${app.bcrypt.hilos:0}") int hilos,
+            @Value("${app.bcrypt.cola:32}") int cola,
+            @Value("${app.bcrypt.espera-maxima-ms:2000}") long esperaMaximaMs,
+            @Value("${app.bcrypt.coste:0}") int coste,
+            @Value("${app.bcrypt.objetivo-ms:250}") long objetivoMs,
+            @Value("${app.bcrypt.coste-minimo:10}") int costeMinimo,
+            @Value("${app.bcrypt.coste-maximo:14}") int costeMaximo
+    ) {
+        this(new BCryptPasswordEncoder(coste > 0 ? coste : calibrar(Duration.ofMillis(objetivoMs), costeMinimo, costeMaximo)),
+                hilos > 0 ? hilos : Math.max(1, Runtime.getRuntime().availableProcessors() / 2),
+                cola, Duration.ofMillis(esperaMaximaMs), meterRegistry);
+    }
+
+    /**
+     * Constructor completo, con el codificador que se ejecuta en el pool.
+     *
+     * @param delegado      Codificador que hace el trabajo.
+     * @param hilos         Hilos del pool.
+     * @param cola          Tareas que pueden esperar turno.
+     * @param esperaMaxima  Tiempo máximo que una petición espera su resultado.
+     * @param meterRegistry Registro de métricas de la aplicación.
+     */
+    public CifradorContrasenas(PasswordEncoder delegado, int hilos, int cola, Duration esperaMaxima,
+                               MeterRegistry meterRegistry) {
+        this.delegado = delegado;
+        this.ejecutor = new ThreadPoolExecutor(hilos, hilos, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(cola), new CustomizableThreadFactory("bcrypt-"));
+        this.esperaMaximaMillis = esperaMaxima.toMillis();
+        this.cifrados = Timer.builder("bcrypt.duracion").tag("operacion", "cifrar")
+                .description("Tiempo de CPU de cada cifrado de contraseña").register(meterRegistry);
+        this.verificaciones = Timer.builder("bcrypt.duracion").tag("operacion", "verificar")
+                .description("Tiempo de CPU de cada verificación de contraseña").register(meterRegistry);
+        this.rechazosCola = Counter.builder("bcrypt.rechazos").tag("motivo", "cola")
+                .description("Operaciones rechazadas por tener la cola llena").register(meterRegistry);
+        this.rechazosEspera = Counter.builder("bcrypt.rechazos").tag("motivo", "espera")
+                .description("Operaciones abandonadas por superar la espera máxima").register(meterRegistry);
+        Gauge.builder("bcrypt.cola", ejecutor, e -> e.getQueue().size())
+                .description("Operaciones de BCrypt esperando un hilo").register(meterRegistry);
+        Gauge.builder("bcrypt.activos", ejecutor, ThreadPoolExecutor::getActiveCount)
+                .description("Operaciones de BCrypt en curso").register(meterRegistry);
+    }
+
+    /**
+     * Cifra una contraseña en el pool de BCrypt.
+     *
+     * @param contrasena Contraseña en claro.
+     * @return Hash BCrypt de la contraseña.
+     * @throws LimiteExcedidoException Si el pool está saturado (503).
+     */
+    @Override
+    public String encode(CharSequence contrasena) {
+        return ejecutar(() -> delegado.encode(contrasena), cifrados);
+    }
+
+    /**
+     * Comprueba una contraseña contra su hash en el pool de BCrypt.
+     *
+     * @param contrasena Contraseña en claro.
+     * @param cifrada    Hash guardado.
+     * @return {@code true} si la contraseña coincide.
+     * @throws LimiteExcedidoException Si el pool está saturado (503).
+     */
+    @Override
+    public boolean matches(CharSequence contrasena, String cifrada) {
+        return ejecutar(() -> delegado.matches(contrasena, cifrada), verificaciones);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String cifrada) {
+        return delegado.upgradeEncoding(cifrada);
+    }
+
+    /**
+     * Rechaza de antemano una petición si la cola del pool está llena, antes de hacer trabajo
+     * (como cargar el usuario) que no podría terminar.
+     *
+     * @throws LimiteExcedidoException Si la cola está llena (503).
+     */
+    public void comprobarCapacidad() {
+        if (ejecutor.getQueue().remainingCapacity() == 0) {
+            rechazosCola.increment();
+            throw saturado();
+        }
+    }
+
+    /**
+     * Detiene el pool al cerrar la aplicación.
+     */
+    @PreDestroy
+    public void detener() {
+        ejecutor.shutdownNow();
+    }
+
+    /**
+     * Calcula el coste de BCrypt para que una verificación tarde como mucho {@code objetivo}:
+     * mide el coste mínimo y, como cada punto de coste duplica el tiempo, sube mientras el
+     * tiempo estimado no supere el objetivo.
+     *
+     * @param objetivo Duración objetivo de una verificación.
+     * @param minimo   Coste mínimo, que se usa aunque supere el objetivo.
+     * @param maximo   Coste máximo.
+     * @return Coste elegido.
+     */
+    public static int calibrar(Duration objetivo, int minimo, int maximo) {
+        BCryptPasswordEncoder prueba = new BCryptPasswordEncoder(minimo);
+        String hash = prueba.encode("calibracion");
+        long nanos = Long.MAX_VALUE;
+        for (int i = 0; i < 2; i++) {
+            long inicio = System.nanoTime();
+            prueba.matches("calibracion", hash);
+            nanos = Math.min(nanos, System.nanoTime() - inicio);
+        }
+        int coste = minimo;
+        while (coste < maximo && nanos * 2 <= objetivo.toNanos()) {
+            nanos *= 2;
+            coste++;
+        }
+        log.info("Coste de BCrypt calibrado: {} (~{} ms por verificación)", coste, TimeUnit.NANOSECONDS.toMillis(nanos));
+        return coste;
+    }
+
+    /**
+     * Método auxiliar que ejecuta la tarea en el pool y espera su resultado como mucho
+     * la espera máxima.
+     */
+    private <T> T ejecutar(Callable<T> tarea, Timer duracion) {
+        Future<T> futuro;
+        try {
+            futuro = ejecutor.submit(() -> duracion.recordCallable(tarea));
+        } catch (RejectedExecutionException e) {
+            rechazosCola.increment();
+            throw saturado();
+        }
+        try {
+            return futuro.get(esperaMaximaMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            futuro.cancel(true);
+            rechazosEspera.increment();
+            throw saturado();
+        } catch (InterruptedException e) {
+            futuro.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido esperando a BCrypt", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static LimiteExcedidoException saturado() {
+        return new LimiteExcedidoException(HttpStatus.SERVICE_UNAVAILABLE, MENSAJE_SATURADO, 1);
+    }
+}
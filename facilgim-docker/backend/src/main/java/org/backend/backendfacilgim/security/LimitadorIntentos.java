@@ -0,0 +1,182 @@
+package org.backend.backendfacilgim.security;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Limitador de intentos por clave (un usuario, una IP) con un cubo de fichas por clave.
+ * <p>
+ * Cada cubo empieza lleno con {@code capacidad} fichas, cada intento gasta una y se repone una
+ * ficha cada {@code reposicion}. Sin fichas, el intento se rechaza y se indica cuánto falta para
+ * la siguiente. Así se admiten ráfagas cortas (varios intentos seguidos al equivocarse) pero no
+ * un ritmo sostenido por encima del de reposición.
+ * </p>
+ * <p>
+ * Los cubos se reparten en franjas, cada una con su propio cerrojo, para que los intentos de
+ * claves distintas no compitan por el mismo. Cada franja guarda como mucho su parte de
+ * {@code maximoClaves}: al llenarse se descartan primero los cubos ya repuestos del todo (un cubo
+ * lleno equivale a uno nuevo, así que no se pierde nada) y, si no basta, el usado hace más tiempo.
+ * {@link #purgar()} quita periódicamente los cubos repuestos.
+ * </p>
+ *
+ * @author Francisco Santana
+ */
+public class LimitadorIntentos {
+
+    private static final int FRANJAS = 16;
+
+    private final Franja[] franjas = new Franja[FRANJAS];
+    private final int capacidad;
+    private final long millisPorFicha;
+    private final int maximoPorFranja;
+    private final Clock reloj;
+
+    /**
+     * Crea el limitador.
+     *
+     * @param capacidad    Intentos seguidos que admite una clave con el cubo lleno.
+     * @param reposicion   Tiempo en que se repone una ficha.
+     * @param maximoClaves Número máximo de claves con cubo en memoria.
+     * @param reloj        Reloj con el que se reponen las fichas.
+     */
+    public LimitadorIntentos(int capacidad, Duration reposicion, int maximoClaves, Clock reloj) {
+        this.capacidad = capacidad;
+        this.millisPorFicha = Math.max(1, reposicion.toMillis());
+        this.maximoPorFranja = Math.max(1, maximoClaves / FRANJAS);
+        this.reloj = reloj;
+        for (int i = 0; i < FRANJAS; i++) {
+            franjas[i] = new Franja();
+        }
+    }
+
+    /**
+     * Gasta una ficha del cubo de la clave.
+     *
+     * @param clave Clave del intento.
+     * @return 0 si el intento se admite; si no, los segundos que faltan para la siguiente ficha.
+     */
+    public long consumir(String clave) {
+        long ahora = reloj.millis();
+        Franja franja = franja(clave);
+        synchronized (franja) {
+            Cubo cubo = franja.cubos.get(clave);
+            if (cubo == null) {
+                hacerSitio(franja, ahora);
+                cubo = new Cubo(capacidad, ahora);
+                franja.cubos.put(clave, cubo);
+            }
+            cubo.reponer(ahora);
+            if (cubo.fichas >= 1) {
+                cubo.fichas -= 1;
+                return 0;
+            }
+            long millisRestantes = (long) Math.ceil((1 - cubo.fichas) * millisPorFicha);
+            return Math.max(1, (millisRestantes + 999) / 1000);
+        }
+    }
+
+    /**
+     * Olvida el cubo de una clave, que vuelve a tener todas sus fichas.
+     *
+     * @param clave Clave del intento.
+     */
+    public void restablecer(String clave) {
+        Franja franja = franja(clave);
+        synchronized (franja) {
+            franja.cubos.remove(clave);
+        }
+    }
+
+    /**
+     * Quita los cubos que ya se han repuesto del todo.
+     *
+     * @return Número de cubos quitados.
+     */
+    public int purgar() {
+        long ahora = reloj.millis();
+        int quitados = 0;
+        for (Franja franja : franjas) {
+            synchronized (franja) {
+                quitados += quitarLlenos(franja, ahora);
+            }
+        }
+        return quitados;
+    }
+
+    /**
+     * Número de claves con cubo en memoria.
+     *
+     * @return Número de cubos.
+     */
+    public int tamano() {
+        int total = 0;
+        for (Franja franja : franjas) {
+            synchronized (franja) {
+                total += franja.cubos.size();
+            }
+        }
+        return total;
+    }
+
+    private Franja franja(String clave) {
+        int hash = clave.hashCode();
+        return franjas[(hash ^ (hash >>> 16)) & (FRANJAS - 1)];
+    }
+
+    /**
+     * Método auxiliar que libera sitio en una franja llena: quita los cubos repuestos y, si
+     * no basta, el usado hace más tiempo.
+     */
+    private void hacerSitio(Franja franja, long ahora) {
+        if (franja.cubos.size() < maximoPorFranja) {
+            return;
+        }
+        quitarLlenos(franja, ahora);
+        Iterator<Cubo> cubos = franja.cubos.values().iterator();
+        while (franja.cubos.size() >= maximoPorFranja && cubos.hasNext()) {
+            cubos.next();
+            cubos.remove();
+        }
+    }
+
+    private int quitarLlenos(Franja franja, long ahora) {
+        int antes = franja.cubos.size();
+        franja.cubos.values().removeIf(cubo -> cubo.lleno(ahora));
+        return antes - franja.cubos.size();
+    }
+
+    /**
+     * Cubos de una franja, en orden de último uso.
+     */
+    private static final class Franja {
+
+        final LinkedHashMap<String, Cubo> cubos = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Fichas de una clave y el instante, en milisegundos, en que se calcularon.
+     */
+    private final class Cubo {
+
+        double fichas;
+        long actualizado;
+
+        Cubo(double fichas, long actualizado) {
+            this.fichas = fichas;
+            this.actualizado = actualizado;
+        }
+
+        void reponer(long ahora) {
+            if (ahora > actualizado) {
+                fichas = Math.min(capacidad, fichas + (double) (ahora - actualizado) / millisPorFicha);
+                actualizado = ahora;
+            }
+        }
+
+        boolean lleno(long ahora) {
+            return fichas + (double) Math.max(0, ahora - actualizado) / millisPorFicha >= capacidad;
+        }
+    }
+}
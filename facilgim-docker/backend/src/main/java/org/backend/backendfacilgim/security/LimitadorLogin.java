@@ -0,0 +1,218 @@
+package org.backend.backendfacilgim.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.backend.backendfacilgim.exception.LimiteExcedidoException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Limita los intentos de inicio de sesión por IP y por cuenta, antes de cargar el usuario y
+ * verificar la contraseña.
+ * <p>
+ * Usa dos {@link LimitadorIntentos}: por IP ({@code app.login.limite.ip.capacidad} intentos
+ * seguidos, 30 por defecto, y uno más cada {@code app.login.limite.ip.reposicion-segundos}, 2 por
+ * defecto) y por username ({@code app.login.limite.usuario.capacidad}, 5 por defecto, y uno más
+ * cada {@code app.login.limite.usuario.reposicion-segundos}, 60 por defecto). Un login correcto
+ * restablece el cubo de su cuenta, de modo que sólo los fallos acumulan. Cada limitador guarda
+ * como mucho {@code app.login.limite.maximo-claves} claves (100000 por defecto) y los cubos
+ * repuestos se purgan cada {@code app.login.limite.purga-ms} (un minuto por defecto).
+ * </p>
+ * <p>
+ * La IP es la de la conexión salvo que ésta venga de uno de los proxies de
+ * {@code app.login.proxies-confiables} (IPs o nombres separados por comas; {@code nginx}, el
+ * servicio de docker-compose, por defecto), en cuyo caso se toma la cabecera {@code X-Real-IP}.
+ * Los nombres se resuelven al arrancar y en cada purga, por si el contenedor cambia de IP. Un
+ * cliente que no pase por esos proxies no puede falsear su IP con la cabecera, pero cualquier
+ * otro equipo con la dirección de un proxy sí, así que la lista debe limitarse a ellos.
+ * </p>
+ * <p>
+ * Métricas: {@code login.rechazos{motivo=ip|usuario}} y {@code login.limite.claves{tipo=ip|usuario}}.
+ * </p>
+ *
+ * @author Francisco Santana
+ */
+@Component
+public class LimitadorLogin {
+
+    private static final Logger log = LoggerFactory.getLogger(LimitadorLogin.class);
+    private static final String CABECERA_IP_REAL = "X-Real-IP";
+    private static final String MENSAJE = "Demasiados intentos de inicio de sesión. Inténtalo de nuevo más tarde.";
+
+    private final LimitadorIntentos porIp;
+    private final LimitadorIntentos porUsuario;
+    private final Counter rechazosIp;
+    private final Counter rechazosUsuario;
+    private final List<String> proxiesConfiables;
+
+    private volatile Set<InetAddress> direccionesProxies = Set.of();
+
+    /**
+     * Constructor que lee la configuración y crea los limitadores.
+     *
+     * @param meterRegistry                Registro de métricas de la aplicación.
+     * @param capacidadIp                  Intentos seguidos por IP.
+     * @param reposicionIpSegundos         Segundos en que se repone un intento por IP.
+     * @param capacidadUsuario             Intentos seguidos por cuenta.
+     * @param reposicionUsuarioSegundos    Segundos en que se repone un intento por cuenta.
+     * @param maximoClaves                 Número máximo de IPs o cuentas en memoria.
+     * @param proxiesConfiables            IPs o nombres de los proxies cuya {@code X-Real-IP} se acepta.
+     */
+    @Autowired
+    public LimitadorLogin(
+            MeterRegistry meterRegistry,
+            @Value("${app.login.limite.ip.capacidad:30}") int capacidadIp,
+            @Value("${app.login.limite.ip.reposicion-segundos:2}") long reposicionIpSegundos,
+            @Value("${app.login.limite.usuario.capacidad:5}") int capacidadUsuario,
+            @Value("${app.login.limite.usuario.reposicion-segundos:60}") long reposicionUsuarioSegundos,
+            @Value("${app.login.limite.maximo-claves:100000}") int maximoClaves,
+            @Value("${app.login.proxies-confiables:nginx}") List<String> proxiesConfiables
+    ) {
+        this(new LimitadorIntentos(capacidadIp, Duration.ofSeconds(reposicionIpSegundos), maximoClaves, Clock.systemUTC()),
+                new LimitadorIntentos(capacidadUsuario, Duration.ofSeconds(reposicionUsuarioSegundos), maximoClaves,
+                        Clock.systemUTC()),
+                proxiesConfiables, meterRegistry);
+    }
+
+    /**
+     * Constructor completo, con los limitadores ya creados.
+     *
+     * @param porIp         Limitador por IP.
+     * @param porUsuario        Limitador por cuenta.
+     * @param proxiesConfiables IPs o nombres de los proxies cuya {@code X-Real-IP} se acepta.
+     * @param meterRegistry     Registro de métricas de la aplicación.
+     */
+    public LimitadorLogin(LimitadorIntentos porIp, LimitadorIntentos porUsuario, Collection<String> proxiesConfiables,
+                          MeterRegistry meterRegistry) {
+        this.porIp = porIp;
+        this.porUsuario = porUsuario;
+        this.proxiesConfiables = proxiesConfiables.stream().map(String::trim).filter(p -> !p.isEmpty()).toList();
+        this.rechazosIp = Counter.builder("login.rechazos").tag("motivo", "ip")
+                .description("Inicios de sesión rechazados por superar el límite de su IP").register(meterRegistry);
+        this.rechazosUsuario = Counter.builder("login.rechazos").tag("motivo", "usuario")
+                .description("Inicios de sesión rechazados por superar el límite de su cuenta").register(meterRegistry);
+        Gauge.builder("login.limite.claves", porIp, LimitadorIntentos::tamano).tag("tipo", "ip")
+                .description("IPs con intentos de inicio de sesión recientes").register(meterRegistry);
+        Gauge.builder("login.limite.claves", porUsuario, LimitadorIntentos::tamano).tag("tipo", "usuario")
+                .description("Cuentas con intentos de inicio de sesión recientes").register(meterRegistry);
+        resolverProxies();
+    }
+
+    /**
+     * Cuenta un intento de la IP de la petición.
+     *
+     * @param peticion Petición de login.
+     * @throws LimiteExcedidoException Si la IP ha agotado sus intentos (429).
+     */
+    public void comprobarIp(HttpServletRequest peticion) {
+        long espera = porIp.consumir(ip(peticion));
+        if (espera > 0) {
+            rechazosIp.increment();
+            throw new LimiteExcedidoException(HttpStatus.TOO_MANY_REQUESTS, MENSAJE, (int) espera);
+        }
+    }
+
+    /**
+     * Cuenta un intento sobre una cuenta.
+     *
+     * @param username Username con el que se intenta iniciar sesión.
+     * @throws LimiteExcedidoException Si la cuenta ha agotado sus intentos (429).
+     */
+    public void comprobarUsuario(String username) {
+        long espera = porUsuario.consumir(normalizar(username));
+        if (espera > 0) {
+            rechazosUsuario.increment();
+            throw new LimiteExcedidoException(HttpStatus.TOO_MANY_REQUESTS, MENSAJE, (int) espera);
+        }
+    }
+
+    /**
+     * Restablece los intentos de una cuenta tras un inicio de sesión correcto.
+     *
+     * @param username Username que ha iniciado sesión.
+     */
+    public void restablecerUsuario(String username) {
+        porUsuario.restablecer(normalizar(username));
+    }
+
+    /**
+     * Quita periódicamente los cubos ya repuestos, para que la memoria dependa sólo de los
+     * intentos recientes, y vuelve a resolver los proxies de confianza.
+     */
+    @Scheduled(initialDelayString = "${app.login.limite.purga-ms:60000}",
+            fixedDelayString = "${app.login.limite.purga-ms:60000}")
+    public void purgar() {
+        porIp.purgar();
+        porUsuario.purgar();
+        resolverProxies();
+    }
+
+    /**
+     * Obtiene la IP del cliente: {@code X-Real-IP} si la conexión llega de un proxy de
+     * confianza, o la dirección remota en otro caso.
+     *
+     * @param peticion Petición HTTP.
+     * @return IP del cliente.
+     */
+    public String ip(HttpServletRequest peticion) {
+        String remota = peticion.getRemoteAddr();
+        String real = peticion.getHeader(CABECERA_IP_REAL);
+        if (real != null && !real.isBlank() && esProxy(remota)) {
+            return real.trim();
+        }
+        return remota;
+    }
+
+    /**
+     * Método auxiliar que indica si una dirección es la de un proxy de confianza. Sólo se
+     * evalúan literales IP, sin resolver nombres.
+     */
+    private boolean esProxy(String direccion) {
+        Set<InetAddress> proxies = direccionesProxies;
+        if (proxies.isEmpty() || direccion == null
+                || !(direccion.matches("[0-9.]+") || direccion.contains(":"))) {
+            return false;
+        }
+        try {
+            return proxies.contains(InetAddress.getByName(direccion));
+        } catch (UnknownHostException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Método auxiliar que resuelve las direcciones de los proxies de confianza. Un nombre que
+     * no se resuelve (por ejemplo, fuera de docker-compose) se ignora hasta la siguiente vez.
+     */
+    private void resolverProxies() {
+        Set<InetAddress> direcciones = new HashSet<>();
+        for (String proxy : proxiesConfiables) {
+            try {
+                direcciones.addAll(Arrays.asList(InetAddress.getAllByName(proxy)));
+            } catch (UnknownHostException e) {
+                log.debug("No se pudo resolver el proxy de confianza {}", proxy);
+            }
+        }
+        if (!direcciones.equals(direccionesProxies)) {
+            log.info("Proxies de confianza para X-Real-IP: {}", direcciones);
+        }
+        direccionesProxies = Set.copyOf(direcciones);
+    }
+
+    private static String normalizar(String username) {
+        return username.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -4,11 +4,10 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.backend.backendfacilgim.security.filter.JwtAuthenticationFilter;
 import org.backend.backendfacilgim.security.filter.JwtValidationFilter;
-import org.backend.backendfacilgim.service.UsuarioService;             // <—
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.context.annotation.Lazy;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -16,13 +15,13 @@ import org.springframework.security.config.annotation.authentication.configurati
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.access.AccessDeniedHandler;
 
 import java.io.PrintWriter;
+import java.time.Clock;
+import java.time.Duration;
 
 @Configuration
 @EnableMethodSecurity
@@ -31,18 +30,20 @@ public class SpringSecurityConfig {
     @Autowired
     private AuthenticationConfiguration authenticationConfiguration;
 
-    @Autowired @Lazy
-    private UsuarioService usuarioService;    // <— inyectamos el servicio
+    @Autowired
+    private AnilloClavesJwt anilloClaves;
 
-    /**
-     * Define el bean de {@link PasswordEncoder} para encriptar contraseñas usando BCrypt.
-     *
-     * @return instancia de {@link BCryptPasswordEncoder}
-     */
-    @Bean
-    PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
+    @Autowired
+    private CifradorContrasenas cifradorContrasenas;
+
+    @Autowired
+    private LimitadorLogin limitadorLogin;
+
+    @Value("${app.jwt.cache.maximo:10000}")
+    private int maximoTokensEnCache;
+
+    @Value("${app.jwt.cache.ttl-segundos:600}")
+    private long ttlTokensEnCache;
 
     /**
      * Proporciona el {@link AuthenticationManager} configurado por Spring Security.
@@ -61,7 +62,12 @@ public class SpringSecurityConfig {
      * - Deshabilita CSRF y establece la gestión de sesión como stateless.<br>
      * - Permite acceso público a endpoints de Swagger, login, registro de usuario y recursos estáticos.<br>
      * - Exige autenticación para el resto de rutas.<br>
-     * - Añade filtros para validar y generar tokens JWT.<br>
+     * - Añade filtros para validar y generar tokens JWT, firmados con las claves de {@link AnilloClavesJwt};
+     *   la validación guarda los tokens ya verificados en una {@link CacheTokensJwt}
+     *   ({@code app.jwt.cache.maximo} entradas, 10000 por defecto, durante
+     *   {@code app.jwt.cache.ttl-segundos}, 600 por defecto, o hasta su expiración).<br>
+     * - El login rechaza con 429 a la IP o la cuenta que agota sus intentos ({@link LimitadorLogin})
+     *   y con 503 las peticiones que no caben en el pool de {@link CifradorContrasenas}.<br>
      * - Configura manejadores personalizados para errores de autenticación y autorización.
      *
      * @param http instancia de {@link HttpSecurity} para configurar reglas de seguridad
@@ -71,11 +77,12 @@ public class SpringSecurityConfig {
     @Bean
     SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
 
-        // Creamos los filtros pasando el usuarioService al authFilter
+        // Creamos los filtros; el ID del usuario llega en el principal, sin consultar el usuarioService
         JwtAuthenticationFilter authFilter =
-                new JwtAuthenticationFilter(authenticationManager(), usuarioService);  // <—
-        JwtValidationFilter validationFilter =
-                new JwtValidationFilter(authenticationManager());
+                new JwtAuthenticationFilter(authenticationManager(), anilloClaves,
+                        cifradorContrasenas, limitadorLogin);
+        JwtValidationFilter validationFilter = new JwtValidationFilter(authenticationManager(), anilloClaves,
+                new CacheTokensJwt(maximoTokensEnCache, Duration.ofSeconds(ttlTokensEnCache), Clock.systemUTC()));
 
         return http
                 // 1) Gestión de sesiones sin estado (JWT)
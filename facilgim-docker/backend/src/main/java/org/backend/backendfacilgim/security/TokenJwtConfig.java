@@ -1,14 +1,12 @@
 package org.backend.backendfacilgim.security;
 
-import io.jsonwebtoken.Jwts;
-
-import javax.crypto.SecretKey;
+import java.time.Duration;
 
 /**
  * Configuración estática de JWT para la aplicación.
  * <p>
- * Incluye la clave secreta para firmar y validar los tokens, así como constantes
- * relacionadas con el encabezado HTTP y el prefijo del token.
+ * Incluye la vigencia de los tokens, así como constantes relacionadas con el
+ * encabezado HTTP y el prefijo del token.
  * </p>
  *
  * @author Francisco Santana
@@ -16,13 +14,13 @@ import javax.crypto.SecretKey;
 public class TokenJwtConfig {
 
     /**
-     * Clave secreta utilizada para firmar y validar los tokens JWT.
+     * Vigencia de los tokens JWT emitidos.
      * <p>
-     * Se genera con el algoritmo HS256 de la librería jjwt.
+     * Las claves de firma se guardan en {@link AnilloClavesJwt}, que no retira una clave
+     * hasta que han caducado todos los tokens que pudo firmar.
      * </p>
      */
-    // Generamos una clave secreta para firmar el token
-    public static final SecretKey SECRET_KEY = Jwts.SIG.HS256.key().build();
+    public static final Duration VIGENCIA_TOKEN = Duration.ofDays(30);
 
     /**
      * Prefijo estándar para los tokens en el header Authorization.
@@ -0,0 +1,65 @@
+package org.backend.backendfacilgim.security;
+
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.io.Serial;
+import java.util.Collection;
+
+/**
+ * {@link org.springframework.security.core.userdetails.UserDetails} de la aplicación: además del
+ * username y los roles, lleva el {@code idUsuario}.
+ * <p>
+ * {@link org.backend.backendfacilgim.security.filter.JpaUserDetailsService} lo construye al
+ * iniciar sesión, el ID viaja en el claim {@code idUsuario} del token y
+ * {@link org.backend.backendfacilgim.security.filter.JwtValidationFilter} lo reconstruye como
+ * principal de cada petición, de modo que las comprobaciones de propiedad (los métodos de
+ * servicio que reciben el {@code idUsuario}) pueden comparar IDs sin volver a cargar el usuario
+ * de la base de datos.
+ * </p>
+ *
+ * @author Francisco Santana
+ */
+@Getter
+public class UsuarioAutenticado extends User {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Nombre del claim del token JWT que contiene el ID del usuario.
+     */
+    public static final String CLAIM_ID_USUARIO = "idUsuario";
+
+    /**
+     * ID del usuario; {@code null} en tokens emitidos antes de incluir el claim.
+     */
+    private final Integer idUsuario;
+
+    /**
+     * Constructor completo, usado al cargar el usuario de la base de datos.
+     *
+     * @param idUsuario   ID del usuario.
+     * @param username    Nombre de usuario.
+     * @param password    Contraseña cifrada.
+     * @param habilitado  Si el usuario está habilitado.
+     * @param authorities Roles del usuario.
+     */
+    public UsuarioAutenticado(Integer idUsuario, String username, String password, boolean habilitado,
+                              Collection<? extends GrantedAuthority> authorities) {
+        super(username, password, habilitado, true, true, true, authorities);
+        this.idUsuario = idUsuario;
+    }
+
+    /**
+     * Constructor sin contraseña, usado al reconstruir el principal a partir de un token JWT.
+     *
+     * @param idUsuario   ID del usuario.
+     * @param username    Nombre de usuario.
+     * @param authorities Roles del usuario.
+     */
+    public UsuarioAutenticado(Integer idUsuario, String username, Collection<? extends GrantedAuthority> authorities) {
+        this(idUsuario, username, "", true, authorities);
+    }
+}
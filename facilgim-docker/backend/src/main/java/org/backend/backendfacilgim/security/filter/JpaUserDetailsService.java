@@ -2,6 +2,7 @@ package org.backend.backendfacilgim.security.filter;
 
 import org.backend.backendfacilgim.entity.Usuario;
 import org.backend.backendfacilgim.repository.UsuarioRepository;
+import org.backend.backendfacilgim.security.UsuarioAutenticado;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -15,7 +16,8 @@ import java.util.stream.Collectors;
 
 /**
  * Servicio que se integra con Spring Security para cargar los detalles de un usuario
- * (UserDetails) desde la base de datos, mapeando la entidad Usuario y su lista de roles.
+ * (UserDetails) desde la base de datos, mapeando la entidad Usuario, su ID y su lista de roles
+ * a un {@link UsuarioAutenticado}.
  *
  * @author Francisco Santana
  */
@@ -30,7 +32,7 @@ public class JpaUserDetailsService implements UserDetailsService {
      * tal como requiere Spring Security para la autenticación.
      *
      * @param username nombre de usuario que llega al autenticarse.
-     * @return un objeto UserDetails con la contraseña encriptada y los roles.
+     * @return un {@link UsuarioAutenticado} con el ID, la contraseña encriptada y los roles.
      * @throws UsernameNotFoundException si no se encuentra el usuario.
      */
     @Override
@@ -51,14 +53,12 @@ public class JpaUserDetailsService implements UserDetailsService {
                 .map(role -> new SimpleGrantedAuthority(role.getName()))
                 .collect(Collectors.toList());
 
-        // Construimos el UserDetails que usa Spring Security internamente
-        return new org.springframework.security.core.userdetails.User(
+        // Construimos el UserDetails que usa Spring Security internamente, con el ID del usuario
+        return new UsuarioAutenticado(
+                user.getIdUsuario(),
                 user.getUsername(),
                 user.getPassword(),
                 user.isEnabled(),      // si el usuario está habilitado
-                true,                  // accountNonExpired
-                true,                  // credentialsNonExpired
-                true,                  // accountNonLocked
                 roles
         );
     }
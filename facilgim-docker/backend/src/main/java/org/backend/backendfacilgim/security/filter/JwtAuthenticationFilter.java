@@ -8,7 +8,12 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.backend.backendfacilgim.dto.LoginResponseDTO;
 import org.backend.backendfacilgim.entity.Usuario;
-import org.backend.backendfacilgim.service.UsuarioService;    // <—
+import org.backend.backendfacilgim.exception.LimiteExcedidoException;
+import org.backend.backendfacilgim.security.AnilloClavesJwt;
+import org.backend.backendfacilgim.security.CifradorContrasenas;
+import org.backend.backendfacilgim.security.LimitadorLogin;
+import org.backend.backendfacilgim.security.UsuarioAutenticado;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -22,7 +27,6 @@ import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static org.backend.backendfacilgim.security.TokenJwtConfig.*;
@@ -33,27 +37,41 @@ import static org.backend.backendfacilgim.security.TokenJwtConfig.*;
  * <p>
  * El endpoint de login se expone en "/login". En una autenticación satisfactoria,
  * emite un JSON con el token, los roles, el nombre de usuario y el userId.
+ * <p>
+ * La verificación de la contraseña se hace en el pool acotado de {@link CifradorContrasenas}: si
+ * está saturado, el login se rechaza al momento con 503 y {@code Retry-After}, antes incluso de
+ * cargar el usuario cuando la cola ya está llena. Antes aún, {@link LimitadorLogin} rechaza con
+ * 429 a la IP o la cuenta que haya agotado sus intentos, sin llegar a la base de datos ni a BCrypt.
  *
  * @author Francisco Santana
  */
 public class JwtAuthenticationFilter extends UsernamePasswordAuthenticationFilter {
 
     private final AuthenticationManager authenticationManager;
-    private final UsuarioService usuarioService;
+    private final AnilloClavesJwt anilloClaves;
+    private final CifradorContrasenas cifradorContrasenas;
+    private final LimitadorLogin limitadorLogin;
 
     /**
-     * Constructor que establece el {@link AuthenticationManager} y el {@link UsuarioService}.
+     * Constructor que establece el {@link AuthenticationManager}, el anillo de claves, el
+     * cifrador de contraseñas y el limitador de intentos.
      * Además redefine la URL de procesamiento de autenticación a "/login".
      *
      * @param authenticationManager administrador de autenticación proporcionado por Spring Security
-     * @param usuarioService        servicio para obtener datos adicionales del usuario (por ejemplo, su ID)
+     * @param anilloClaves          anillo del que se toma la clave de firma vigente
+     * @param cifradorContrasenas   cifrador cuya capacidad se comprueba antes de autenticar
+     * @param limitadorLogin        limitador de intentos por IP y por cuenta
      */
     public JwtAuthenticationFilter(AuthenticationManager authenticationManager,
-                                   UsuarioService usuarioService) {
+                                   AnilloClavesJwt anilloClaves,
+                                   CifradorContrasenas cifradorContrasenas,
+                                   LimitadorLogin limitadorLogin) {
         super(authenticationManager);
         super.setFilterProcessesUrl("/login");
         this.authenticationManager = authenticationManager;
-        this.usuarioService = usuarioService;
+        this.anilloClaves = anilloClaves;
+        this.cifradorContrasenas = cifradorContrasenas;
+        this.limitadorLogin = limitadorLogin;
     }
 
     /**
@@ -62,13 +80,30 @@ public class JwtAuthenticationFilter extends UsernamePasswordAuthenticationFilte
      *
      * @param request  petición HTTP con el JSON de credenciales
      * @param response respuesta HTTP
-     * @return un objeto {@link Authentication} si las credenciales son válidas
+     * @return un objeto {@link Authentication} si las credenciales son válidas, o {@code null}
+     *         si la petición se ha rechazado por exceso de intentos o saturación (la respuesta
+     *         ya está escrita)
      * @throws AuthenticationException si ocurre un error de lectura o faltan credenciales
      */
     @Override
     public Authentication attemptAuthentication(HttpServletRequest request,
                                                 HttpServletResponse response)
             throws AuthenticationException {
+        try {
+            limitadorLogin.comprobarIp(request);
+            cifradorContrasenas.comprobarCapacidad();
+            return autenticar(request);
+        } catch (LimiteExcedidoException e) {
+            rechazar(response, e);
+            return null;
+        }
+    }
+
+    /**
+     * Método auxiliar que lee las credenciales del body, cuenta el intento sobre la cuenta y
+     * las autentica.
+     */
+    private Authentication autenticar(HttpServletRequest request) {
         Usuario user;
         try {
             user = new ObjectMapper().readValue(request.getInputStream(), Usuario.class);
@@ -78,6 +113,7 @@ public class JwtAuthenticationFilter extends UsernamePasswordAuthenticationFilte
         } catch (IOException e) {
             throw new AuthenticationServiceException("Error leyendo credenciales", e);
         }
+        limitadorLogin.comprobarUsuario(user.getUsername());
         UsernamePasswordAuthenticationToken authToken =
                 new UsernamePasswordAuthenticationToken(user.getUsername(), user.getPassword());
         return authenticationManager.authenticate(authToken);
@@ -86,8 +122,9 @@ public class JwtAuthenticationFilter extends UsernamePasswordAuthenticationFilte
     /**
      * Se ejecuta cuando la autenticación es exitosa. Genera un token JWT con:
      * - Subject: username
-     * - Claims: authorities (roles) y username
+     * - Claims: authorities (roles), username e idUsuario
      * - Expiración: 30 días
+     * - Cabecera {@code kid}: clave del anillo con la que se firma
      * Añade el token en el header "Authorization" y devuelve un JSON con
      * el mensaje, token, username, roles y userId.
      *
@@ -105,30 +142,31 @@ public class JwtAuthenticationFilter extends UsernamePasswordAuthenticationFilte
                                             Authentication authResult)
             throws IOException, ServletException {
 
-        org.springframework.security.core.userdetails.User userDetails =
-                (org.springframework.security.core.userdetails.User) authResult.getPrincipal();
+        // El principal ya trae el ID del usuario: no hace falta volver a cargarlo
+        UsuarioAutenticado userDetails = (UsuarioAutenticado) authResult.getPrincipal();
 
         String username = userDetails.getUsername();
+        Integer userId = userDetails.getIdUsuario();
         Collection<? extends GrantedAuthority> authorities = userDetails.getAuthorities();
+        limitadorLogin.restablecerUsuario(username);
 
         // Lista de roles
         List<String> roles = authorities.stream()
                 .map(GrantedAuthority::getAuthority)
                 .collect(Collectors.toList());
 
-        // Generación del token JWT
+        // Generación del token JWT, firmado con la clave vigente del anillo
+        AnilloClavesJwt.ClaveJwt clave = anilloClaves.claveFirma();
         String token = Jwts.builder()
+                .header().keyId(clave.getId()).and()
                 .setSubject(username)
                 .claim("authorities", roles)
                 .claim("username", username)
-                .setExpiration(new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(30))) //1 mes
-                .signWith(SECRET_KEY)
+                .claim(UsuarioAutenticado.CLAIM_ID_USUARIO, userId)
+                .setExpiration(new Date(System.currentTimeMillis() + VIGENCIA_TOKEN.toMillis())) //1 mes
+                .signWith(clave.getClave())
                 .compact();
 
-        // **Obtenemos el Usuario completo para sacar su ID**
-        Usuario usuarioEntity = usuarioService.obtenerUsuarioPorUsername(username);
-        Integer userId = usuarioEntity.getIdUsuario();
-
         // Construcción del DTO para la respuesta, ahora con userId
         LoginResponseDTO loginResponse = new LoginResponseDTO(
                 "Has iniciado sesión con éxito!",
@@ -147,6 +185,27 @@ public class JwtAuthenticationFilter extends UsernamePasswordAuthenticationFilte
         response.addHeader(HEADER_AUTHORIZATION, PREFIX_TOKEN + token);
     }
 
+    /**
+     * Método auxiliar que responde a un login rechazado por un límite del servidor con el
+     * estado de la excepción, {@code Retry-After} y el mismo JSON que un login fallido.
+     */
+    private void rechazar(HttpServletResponse response, LimiteExcedidoException e) {
+        response.setContentType(CONTENT_TYPE);
+        response.setStatus(e.getEstado().value());
+        if (e.getSegundosReintento() != null) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(e.getSegundosReintento()));
+        }
+        Map<String, String> body = Map.of(
+                "message", "No se ha podido iniciar sesión",
+                "error", e.getMessage()
+        );
+        try {
+            new ObjectMapper().writeValue(response.getWriter(), body);
+        } catch (IOException ex) {
+            throw new AuthenticationServiceException("Error escribiendo la respuesta", ex);
+        }
+    }
+
     /**
      * Se ejecuta cuando la autenticación falla. Devuelve un JSON con un mensaje
      * genérico de error y la causa en el campo "error".
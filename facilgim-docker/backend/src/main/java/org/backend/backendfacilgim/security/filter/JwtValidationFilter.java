@@ -4,13 +4,19 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jws;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.backend.backendfacilgim.security.AnilloClavesJwt;
+import org.backend.backendfacilgim.security.CacheTokensJwt;
+import org.backend.backendfacilgim.security.UsuarioAutenticado;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -30,18 +36,33 @@ import static org.backend.backendfacilgim.security.TokenJwtConfig.*;
  * Extrae el token del header "Authorization", lo valida y
  * establece la autenticación en el contexto de seguridad si es válido.
  * En caso de token inválido o ausente, delega o responde con 401.
+ * <p>
+ * El parser se construye una sola vez y resuelve la clave de cada token por su {@code kid}
+ * en el {@link AnilloClavesJwt}, de modo que cualquier nodo valida los tokens de los demás.
+ * Las autenticaciones de los tokens ya validados se guardan en una {@link CacheTokensJwt}, de
+ * modo que un token repetido no se vuelve a verificar mientras no caduque.
+ * </p>
  *
  * @author Francisco Santana
  */
 public class JwtValidationFilter extends BasicAuthenticationFilter {
 
+    private final JwtParser parser;
+    private final CacheTokensJwt cache;
+
     /**
-     * Constructor que recibe el {@link AuthenticationManager}.
+     * Constructor que recibe el {@link AuthenticationManager}, el anillo de claves y la caché de tokens.
      *
      * @param authenticationManager gestor de autenticación de Spring Security
+     * @param anilloClaves          anillo con las claves de verificación
+     * @param cache                 caché de tokens ya validados
      */
-    public JwtValidationFilter(AuthenticationManager authenticationManager) {
+    public JwtValidationFilter(AuthenticationManager authenticationManager,
+                               AnilloClavesJwt anilloClaves,
+                               CacheTokensJwt cache) {
         super(authenticationManager);
+        this.parser = Jwts.parser().keyLocator(anilloClaves.localizador()).build();
+        this.cache = cache;
     }
 
     /**
@@ -49,10 +70,12 @@ public class JwtValidationFilter extends BasicAuthenticationFilter {
      * <ol>
      *     <li>Lee el header "Authorization" y verifica que comience con el prefijo correcto.</li>
      *     <li>Si no hay token, continúa con el siguiente filtro en la cadena.</li>
-     *     <li>Si hay token, lo parsea y valida con la clave secreta.</li>
-     *     <li>Extrae el nombre de usuario y la lista de roles de los claims.</li>
-     *     <li>Convierte los roles a {@link GrantedAuthority} y establece la autenticación
-     *     en el {@link SecurityContextHolder}.</li>
+     *     <li>Si el token está en caché y no ha caducado, usa su autenticación directamente.</li>
+     *     <li>Si no, lo parsea y valida con la clave del anillo indicada en su {@code kid}.</li>
+     *     <li>Extrae el nombre de usuario, su ID y la lista de roles de los claims y construye
+     *     un {@link UsuarioAutenticado} como principal.</li>
+     *     <li>Convierte los roles a {@link GrantedAuthority}, guarda la autenticación en caché
+     *     hasta la expiración del token y la establece en el {@link SecurityContextHolder}.</li>
      *     <li>Si el token es inválido o falta información, devuelve 401 con un mensaje de error.</li>
      * </ol>
      *
@@ -74,14 +97,21 @@ public class JwtValidationFilter extends BasicAuthenticationFilter {
             return;
         }
 
-        String token = header.replace(PREFIX_TOKEN, "").trim();
+        String token = header.substring(PREFIX_TOKEN.length()).trim();
+        String clave = cache.clave(token);
+        Authentication enCache = cache.obtener(clave);
+        if (enCache != null) {
+            SecurityContextHolder.getContext().setAuthentication(enCache);
+            chain.doFilter(request, response);
+            return;
+        }
+
         try {
-            Jws<Claims> jwsClaims = Jwts.parser()
-                    .verifyWith(SECRET_KEY).build()
-                    .parseSignedClaims(token);
+            Jws<Claims> jwsClaims = parser.parseSignedClaims(token);
 
             Claims claims = jwsClaims.getPayload();
             String username = claims.getSubject();
+            Integer idUsuario = claims.get(UsuarioAutenticado.CLAIM_ID_USUARIO, Integer.class);
 
             // Extraer la lista de roles correctamente desde los claims
             @SuppressWarnings("unchecked")
@@ -97,10 +127,11 @@ public class JwtValidationFilter extends BasicAuthenticationFilter {
                     .map(SimpleGrantedAuthority::new)
                     .collect(Collectors.toList());
 
-            // Autenticamos el usuario con los roles correctos
-            SecurityContextHolder.getContext().setAuthentication(
-                    new org.springframework.security.authentication.UsernamePasswordAuthenticationToken(
-                            username, null, authorities));
+            // Autenticamos el usuario con los roles correctos y su ID como parte del principal
+            UsuarioAutenticado principal = new UsuarioAutenticado(idUsuario, username, authorities);
+            Authentication autenticacion = new UsernamePasswordAuthenticationToken(principal, null, authorities);
+            cache.guardar(clave, autenticacion, claims.getExpiration());
+            SecurityContextHolder.getContext().setAuthentication(autenticacion);
 
             chain.doFilter(request, response);
 
@@ -1,9 +1,12 @@
 package org.backend.backendfacilgim.service;
 
+import org.backend.backendfacilgim.dto.EjercicioCatalogoDTO;
 import org.backend.backendfacilgim.dto.EjercicioDTO;
+import org.backend.backendfacilgim.dto.EjercicioPopularDTO;
 import org.backend.backendfacilgim.dto.SerieDTO;
 import org.backend.backendfacilgim.entity.Ejercicio;
 import org.backend.backendfacilgim.exception.CustomException;
+import org.backend.backendfacilgim.utilities.RespuestaSerializada;
 
 import java.util.List;
 import java.util.Optional;
@@ -23,9 +26,35 @@ public interface EjercicioService {
     /**
      * Recupera todos los ejercicios disponibles en el catálogo general.
      *
-     * @return Lista de entidades {@link Ejercicio} representando el catálogo completo.
+     * @return Lista de {@link EjercicioCatalogoDTO} representando el catálogo completo.
      */
-    List<Ejercicio> listarEjercicios();
+    List<EjercicioCatalogoDTO> listarEjercicios();
+
+    /**
+     * Recupera el catálogo general ya serializado como JSON, junto con su ETag y su
+     * versión comprimida, para servirlo sin volver a serializarlo en cada petición.
+     *
+     * @return {@link RespuestaSerializada} de la versión vigente del catálogo.
+     */
+    RespuestaSerializada listarEjerciciosSerializados();
+
+    /**
+     * Busca ejercicios del catálogo por nombre, sin distinguir tildes ni mayúsculas,
+     * admitiendo prefijos y pequeñas erratas.
+     *
+     * @param consulta Texto a buscar.
+     * @param limite   Número máximo de resultados.
+     * @return Lista de {@link EjercicioCatalogoDTO} ordenada de mayor a menor relevancia.
+     */
+    List<EjercicioCatalogoDTO> buscarEjercicios(String consulta, int limite);
+
+    /**
+     * Recupera los ejercicios del catálogo más usados en entrenamientos.
+     *
+     * @param limite Número máximo de resultados.
+     * @return Lista de {@link EjercicioPopularDTO} ordenada de más a menos usos.
+     */
+    List<EjercicioPopularDTO> listarPopulares(int limite);
 
     /**
      * Busca un ejercicio en el catálogo por su ID.
@@ -100,10 +129,10 @@ public interface EjercicioService {
      * asociadas a un entrenamiento y usuario dados.
      *
      * @param idEntrenamiento    ID del entrenamiento en el que se buscan instancias.
-     * @param username           Nombre de usuario propietario del entrenamiento.
+     * @param idUsuario          ID del usuario propietario del entrenamiento.
      * @return Lista de {@link EjercicioDTO} con los datos de cada ejercicio y sus series.
      */
-    List<EjercicioDTO> listarEjerciciosPorEntrenamientoYUsuario(Integer idEntrenamiento, String username);
+    List<EjercicioDTO> listarEjerciciosPorEntrenamientoYUsuario(Integer idEntrenamiento, Integer idUsuario);
 
     /**
      * Actualiza la información (series y orden) de una instancia
@@ -1,5 +1,6 @@
 package org.backend.backendfacilgim.service;
 
+import org.backend.backendfacilgim.dto.EntrenamientoEjercicioResumenDTO;
 import org.backend.backendfacilgim.entity.EntrenamientoEjercicio;
 
 import java.util.List;
@@ -26,19 +27,35 @@ public interface EntrenamientoEjercicioService {
     /**
      * Obtiene todas las relaciones entre entrenamientos y ejercicios existentes.
      *
-     * @return Lista de todas las instancias de {@link EntrenamientoEjercicio}
-     *         almacenadas en la base de datos.
+     * @return Lista de {@link EntrenamientoEjercicioResumenDTO} con los datos de cada
+     *         relación almacenada en la base de datos.
      */
-    List<EntrenamientoEjercicio> obtenerTodos();
+    List<EntrenamientoEjercicioResumenDTO> obtenerTodos();
 
     /**
-     * Obtiene la lista de relaciones {@link EntrenamientoEjercicio} asociadas
-     * a un entrenamiento específico, ordenadas según el campo 'orden'.
+     * Obtiene la lista de relaciones asociadas a un entrenamiento específico,
+     * ordenadas según el campo 'orden'.
+     *
+     * @param idEntrenamiento ID del entrenamiento cuyas relaciones se desean consultar.
+     * @return Lista de {@link EntrenamientoEjercicioResumenDTO} asociadas a dicho entrenamiento.
+     */
+    List<EntrenamientoEjercicioResumenDTO> obtenerPorIdEntrenamiento(Integer idEntrenamiento);
+
+    /**
+     * Obtiene todas las relaciones completas, con su entrenamiento, su ejercicio y sus series.
+     *
+     * @return Lista de {@link EntrenamientoEjercicio} almacenadas en la base de datos.
+     */
+    List<EntrenamientoEjercicio> obtenerTodosConSeries();
+
+    /**
+     * Obtiene las relaciones completas de un entrenamiento específico, con sus series,
+     * ordenadas según el campo 'orden'.
      *
      * @param idEntrenamiento ID del entrenamiento cuyas relaciones se desean consultar.
      * @return Lista de {@link EntrenamientoEjercicio} asociadas a dicho entrenamiento.
      */
-    List<EntrenamientoEjercicio> obtenerPorIdEntrenamiento(Integer idEntrenamiento);
+    List<EntrenamientoEjercicio> obtenerPorIdEntrenamientoConSeries(Integer idEntrenamiento);
 
     /**
      * Obtiene una única relación entre entrenamiento y ejercicio por su ID.
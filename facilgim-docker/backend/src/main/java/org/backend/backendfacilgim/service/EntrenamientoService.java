@@ -1,11 +1,17 @@
 package org.backend.backendfacilgim.service;
 
+import org.backend.backendfacilgim.dto.EntrenamientoCompletoDTO;
 import org.backend.backendfacilgim.dto.EntrenamientoDTO;
+import org.backend.backendfacilgim.dto.EntrenamientoResumenDTO;
+import org.backend.backendfacilgim.dto.FilaHistorialDTO;
+import org.backend.backendfacilgim.dto.PaginaDTO;
+import org.backend.backendfacilgim.dto.ResultadoLoteDTO;
 import org.backend.backendfacilgim.entity.Entrenamiento;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Servicio para la gestión de entidades {@link Entrenamiento}.
@@ -21,21 +27,26 @@ public interface EntrenamientoService {
     // GET
 
     /**
-     * Lista todos los entrenamientos registrados en la base de datos.
+     * Lista una página de los entrenamientos registrados, ordenados por fecha e ID.
      *
-     * @return Lista de {@link Entrenamiento}
+     * @param cursor Cursor opaco devuelto por la página anterior, o {@code null} para la primera
+     * @param tamano Número máximo de entrenamientos de la página
+     * @return {@link PaginaDTO} con los {@link EntrenamientoResumenDTO} y el cursor de la siguiente página
      */
-    List<Entrenamiento> obtenerTodosLosEntrenamientos();
+    PaginaDTO<EntrenamientoResumenDTO> obtenerTodosLosEntrenamientos(String cursor, int tamano);
 
     /**
-     * Retorna una lista de entrenamientos cuya fecha de entrenamiento
+     * Retorna una página de entrenamientos cuya fecha de entrenamiento
      * se encuentra entre las dos fechas indicadas (inclusive).
      *
      * @param fechaInicio Fecha inicial del rango (inclusive)
      * @param fechaFin    Fecha final del rango (inclusive)
-     * @return Lista de {@link Entrenamiento} en ese rango de fechas
+     * @param cursor      Cursor opaco devuelto por la página anterior, o {@code null} para la primera
+     * @param tamano      Número máximo de entrenamientos de la página
+     * @return {@link PaginaDTO} con los {@link EntrenamientoResumenDTO} en ese rango de fechas
      */
-    List<Entrenamiento> obtenerEntrenamientosEntreDosFechas(LocalDate fechaInicio, LocalDate fechaFin);
+    PaginaDTO<EntrenamientoResumenDTO> obtenerEntrenamientosEntreDosFechas(LocalDate fechaInicio, LocalDate fechaFin,
+                                                                           String cursor, int tamano);
 
     /**
      * Retorna un entrenamiento por su ID.
@@ -46,12 +57,23 @@ public interface EntrenamientoService {
     Optional<Entrenamiento> obtenerEntrenamientoPorId(Integer id);
 
     /**
-     * Retorna una lista de entrenamientos que coinciden con el nombre dado.
+     * Retorna un entrenamiento completo (tipo, ejercicios ordenados y sus series)
+     * con un número fijo de consultas, independiente del número de ejercicios y series.
      *
-     * @param nombre Nombre (o parte) del entrenamiento a buscar
-     * @return Lista de {@link Entrenamiento} cuyo nombre contiene la cadena especificada
+     * @param id ID del entrenamiento a buscar
+     * @return {@link Optional} con el {@link EntrenamientoCompletoDTO}, o vacío si no existe
      */
-    List<Entrenamiento> obtenerEntrenamientosPorNombre(String nombre);
+    Optional<EntrenamientoCompletoDTO> obtenerEntrenamientoCompleto(Integer id);
+
+    /**
+     * Retorna una página de entrenamientos que coinciden con el nombre dado.
+     *
+     * @param nombre Nombre del entrenamiento a buscar
+     * @param cursor Cursor opaco devuelto por la página anterior, o {@code null} para la primera
+     * @param tamano Número máximo de entrenamientos de la página
+     * @return {@link PaginaDTO} con los {@link EntrenamientoResumenDTO} cuyo nombre coincide
+     */
+    PaginaDTO<EntrenamientoResumenDTO> obtenerEntrenamientosPorNombre(String nombre, String cursor, int tamano);
 
     // POST
 
@@ -75,6 +97,17 @@ public interface EntrenamientoService {
      */
     Entrenamiento crearDesdeDTO(EntrenamientoDTO dto);
 
+    /**
+     * Crea varios entrenamientos a partir de sus DTOs en una sola transacción,
+     * compartiendo la carga de usuarios, tipos y ejercicios entre todo el lote.
+     *
+     * @param dtos    DTOs de los entrenamientos a crear
+     * @param parcial {@code true} para crear los válidos aunque otros fallen;
+     *                {@code false} para no crear ninguno si alguno falla
+     * @return {@link ResultadoLoteDTO} con el resultado de cada entrenamiento
+     */
+    ResultadoLoteDTO crearLoteDesdeDTO(List<EntrenamientoDTO> dtos, boolean parcial);
+
     // PUT
 
     /**
@@ -138,15 +171,32 @@ public interface EntrenamientoService {
      *
      * @param idEntrenamiento ID del entrenamiento del cual quitar el ejercicio
      * @param idEjercicio     ID del ejercicio a remover
-     * @param username        Nombre de usuario que solicita la operación (para validaciones)
+     * @param idUsuario       ID del usuario que solicita la operación (para validaciones)
      */
-    void quitarEjercicioDeEntrenamiento(Integer idEntrenamiento, Integer idEjercicio, String username);
+    void quitarEjercicioDeEntrenamiento(Integer idEntrenamiento, Integer idEjercicio, Integer idUsuario);
 
     /**
-     * Busca todos los entrenamientos asociados a un usuario dado.
+     * Busca una página de la línea de tiempo de un usuario: sus entrenamientos dentro de
+     * una ventana de fechas opcional, del más reciente al más antiguo.
      *
      * @param usuarioIdUsuario ID del usuario
-     * @return Lista de {@link Entrenamiento} pertenecientes a ese usuario
+     * @param desde            Fecha inicial de la ventana (inclusive), o {@code null} para no acotarla
+     * @param hasta            Fecha final de la ventana (inclusive), o {@code null} para no acotarla
+     * @param cursor           Cursor opaco devuelto por la página anterior, o {@code null} para la primera
+     * @param tamano           Número máximo de entrenamientos de la página
+     * @return {@link PaginaDTO} con los {@link EntrenamientoResumenDTO} pertenecientes a ese usuario
+     */
+    PaginaDTO<EntrenamientoResumenDTO> encontrarEntrenamientoPorIdUsuario(Integer usuarioIdUsuario,
+                                                                          LocalDate desde, LocalDate hasta,
+                                                                          String cursor, int tamano);
+
+    /**
+     * Recorre el historial completo de un usuario (entrenamientos, ejercicios y series)
+     * entregando cada fila al consumidor a medida que se lee de la base de datos,
+     * sin cargar el historial entero en memoria.
+     *
+     * @param idUsuario  ID del usuario
+     * @param consumidor Receptor de las filas, en orden de entrenamiento, ejercicio y serie
      */
-    List<Entrenamiento> encontrarEntrenamientoPorIdUsuario(Integer usuarioIdUsuario);
+    void recorrerHistorial(Integer idUsuario, Consumer<FilaHistorialDTO> consumidor);
 }
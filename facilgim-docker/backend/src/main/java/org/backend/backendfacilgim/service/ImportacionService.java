@@ -0,0 +1,46 @@
+package org.backend.backendfacilgim.service;
+
+import org.backend.backendfacilgim.dto.ImportacionDTO;
+import org.backend.backendfacilgim.entity.Importacion;
+import org.backend.backendfacilgim.utilities.FormatoExportacion;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.Optional;
+
+/**
+ * Servicio para la importación de historiales de entrenamientos desde archivos CSV o NDJSON.
+ * <p>
+ * Las importaciones se ejecutan en segundo plano y confirman los entrenamientos por lotes,
+ * guardando el progreso en una {@link Importacion} para poder consultarlo y reanudarlo.
+ * </p>
+ *
+ * @author Francisco Santana
+ */
+public interface ImportacionService {
+
+    /**
+     * Guarda el archivo recibido y lanza su importación en segundo plano.
+     *
+     * @param idUsuario ID del usuario al que se asignan los entrenamientos
+     * @param formato   Formato del archivo
+     * @param archivo   Archivo subido
+     * @return {@link ImportacionDTO} con la importación recién creada
+     */
+    ImportacionDTO iniciarImportacion(Integer idUsuario, FormatoExportacion formato, MultipartFile archivo);
+
+    /**
+     * Retorna el estado y el progreso de una importación.
+     *
+     * @param idImportacion ID de la importación
+     * @return {@link Optional} con el {@link ImportacionDTO}, o vacío si no existe
+     */
+    Optional<ImportacionDTO> obtenerImportacion(Integer idImportacion);
+
+    /**
+     * Reanuda una importación fallida o interrumpida a partir del primer lote no confirmado.
+     *
+     * @param idImportacion ID de la importación
+     * @return {@link ImportacionDTO} con el estado de la importación relanzada
+     */
+    ImportacionDTO reanudarImportacion(Integer idImportacion);
+}
@@ -0,0 +1,29 @@
+package org.backend.backendfacilgim.service;
+
+import org.backend.backendfacilgim.entity.TrabajoImagen;
+
+import java.nio.file.Path;
+
+/**
+ * Servicio para el procesamiento en segundo plano de las imágenes de los ejercicios.
+ * <p>
+ * Genera la miniatura, la versión media y el póster estático de cada imagen subida y,
+ * al terminar, los asigna al ejercicio. Cada trabajo queda registrado como un
+ * {@link TrabajoImagen} para poder retomarlo si se interrumpe.
+ * </p>
+ *
+ * @author Francisco Santana
+ */
+public interface ProcesamientoImagenService {
+
+    /**
+     * Registra y encola el procesamiento de la imagen de un ejercicio. Vuelve en cuanto
+     * el trabajo queda registrado, sin esperar a que se procese.
+     *
+     * @param idEjercicio ID del ejercicio
+     * @param urlOriginal URL pública de la imagen original, tal y como se guardó en el ejercicio
+     * @param rutaOriginal Ruta del archivo original en el servidor
+     * @return El {@link TrabajoImagen} registrado
+     */
+    TrabajoImagen encolar(Integer idEjercicio, String urlOriginal, Path rutaOriginal);
+}
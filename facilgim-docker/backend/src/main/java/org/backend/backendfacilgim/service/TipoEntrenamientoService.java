@@ -1,6 +1,7 @@
 package org.backend.backendfacilgim.service;
 
 import org.backend.backendfacilgim.entity.TipoEntrenamiento;
+import org.backend.backendfacilgim.utilities.RespuestaSerializada;
 
 import java.util.List;
 import java.util.Optional;
@@ -22,6 +23,14 @@ public interface TipoEntrenamientoService {
      */
     List<TipoEntrenamiento> listarTipos();
 
+    /**
+     * Recupera todos los tipos de entrenamiento ya serializados como JSON, junto con su
+     * ETag y su versión comprimida, para servirlos sin consultar la base de datos.
+     *
+     * @return {@link RespuestaSerializada} de la versión vigente del catálogo de tipos.
+     */
+    RespuestaSerializada listarTiposSerializados();
+
     /**
      * Crea un nuevo tipo de entrenamiento y lo guarda en la base de datos.
      * <p>
@@ -1,6 +1,8 @@
 package org.backend.backendfacilgim.service.implementacion;
 
+import org.backend.backendfacilgim.dto.EjercicioCatalogoDTO;
 import org.backend.backendfacilgim.dto.EjercicioDTO;
+import org.backend.backendfacilgim.dto.EjercicioPopularDTO;
 import org.backend.backendfacilgim.dto.SerieDTO;
 import org.backend.backendfacilgim.entity.Ejercicio;
 import org.backend.backendfacilgim.entity.Entrenamiento;
@@ -12,6 +14,10 @@ import org.backend.backendfacilgim.repository.EntrenamientoEjercicioRepository;
 import org.backend.backendfacilgim.repository.EntrenamientoRepository;
 import org.backend.backendfacilgim.repository.EjercicioRepository;
 import org.backend.backendfacilgim.service.EjercicioService;
+import org.backend.backendfacilgim.utilities.AlmacenImagenes;
+import org.backend.backendfacilgim.utilities.CatalogoEjercicios;
+import org.backend.backendfacilgim.utilities.ContadorUsosEjercicios;
+import org.backend.backendfacilgim.utilities.RespuestaSerializada;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
@@ -22,6 +28,17 @@ import java.util.stream.Collectors;
 /**
  * Implementación de {@link EjercicioService} que gestiona tanto el catálogo de ejercicios
  * como sus instancias dentro de entrenamientos (relaciones con series y orden).
+ * <p>
+ * Las lecturas del catálogo se sirven desde {@link CatalogoEjercicios}; cada escritura
+ * sobre un ejercicio la invalida para que la siguiente lectura vea el cambio.
+ * </p>
+ * <p>
+ * Cada vez que un ejercicio gana o pierde su imagen se actualiza el contador de referencias
+ * del archivo en {@link AlmacenImagenes}, ya que varios ejercicios pueden compartirlo.
+ * </p>
+ * <p>
+ * Al asignar o quitar una instancia se registra la variación en {@link ContadorUsosEjercicios}.
+ * </p>
  *
  * Autor: Francisco Santana
  */
@@ -31,45 +48,93 @@ public class EjercicioServiceImpl implements EjercicioService {
     private final EntrenamientoRepository entrenamientoRepo;
     private final EjercicioRepository ejercicioRepo;
     private final EntrenamientoEjercicioRepository relRepo;
+    private final CatalogoEjercicios catalogo;
+    private final AlmacenImagenes almacenImagenes;
+    private final ContadorUsosEjercicios contadorUsos;
 
     /**
-     * Constructor que inyecta los repositorios necesarios.
+     * Constructor que inyecta los repositorios necesarios y la caché del catálogo.
      *
      * @param entrenamientoRepo Repositorio de {@link Entrenamiento}.
      * @param ejercicioRepo     Repositorio de {@link Ejercicio}.
      * @param relRepo           Repositorio de {@link EntrenamientoEjercicio}.
+     * @param catalogo          Caché en memoria del catálogo de ejercicios.
+     * @param almacenImagenes   Almacén de las imágenes subidas.
+     * @param contadorUsos      Contador incremental de usos de cada ejercicio.
      */
     public EjercicioServiceImpl(
             EntrenamientoRepository entrenamientoRepo,
             EjercicioRepository ejercicioRepo,
-            EntrenamientoEjercicioRepository relRepo
+            EntrenamientoEjercicioRepository relRepo,
+            CatalogoEjercicios catalogo,
+            AlmacenImagenes almacenImagenes,
+            ContadorUsosEjercicios contadorUsos
     ) {
         this.entrenamientoRepo = entrenamientoRepo;
         this.ejercicioRepo = ejercicioRepo;
         this.relRepo = relRepo;
+        this.catalogo = catalogo;
+        this.almacenImagenes = almacenImagenes;
+        this.contadorUsos = contadorUsos;
     }
 
     // --- Catálogo: CRUD puro sobre Ejercicio ---
 
     /**
-     * Devuelve todos los ejercicios del catálogo.
+     * Devuelve todos los ejercicios del catálogo, leídos de la caché en memoria.
      *
-     * @return Lista de {@link Ejercicio}.
+     * @return Lista inmutable de {@link EjercicioCatalogoDTO}.
      */
     @Override
-    public List<Ejercicio> listarEjercicios() {
-        return ejercicioRepo.findAll();
+    public List<EjercicioCatalogoDTO> listarEjercicios() {
+        return catalogo.listar();
     }
 
     /**
-     * Busca un ejercicio en el catálogo por su ID.
+     * Devuelve el catálogo serializado de la instantánea vigente de la caché.
+     *
+     * @return {@link RespuestaSerializada} del catálogo.
+     */
+    @Override
+    public RespuestaSerializada listarEjerciciosSerializados() {
+        return catalogo.respuesta();
+    }
+
+    /**
+     * Busca ejercicios por nombre sobre el índice en memoria del catálogo.
+     *
+     * @param consulta Texto a buscar.
+     * @param limite   Número máximo de resultados.
+     * @return Lista de {@link EjercicioCatalogoDTO} ordenada por relevancia.
+     */
+    @Override
+    public List<EjercicioCatalogoDTO> buscarEjercicios(String consulta, int limite) {
+        return catalogo.buscarPorNombre(consulta, limite);
+    }
+
+    /**
+     * Devuelve los ejercicios más usados, ordenados sobre la instantánea del catálogo.
+     *
+     * @param limite Número máximo de resultados.
+     * @return Lista de {@link EjercicioPopularDTO} de más a menos usado.
+     */
+    @Override
+    public List<EjercicioPopularDTO> listarPopulares(int limite) {
+        return catalogo.populares(limite);
+    }
+
+    /**
+     * Busca un ejercicio en el catálogo por su ID, leyéndolo de la caché en memoria.
+     * <p>
+     * Devuelve una entidad nueva y desvinculada de la sesión, de modo que el llamante
+     * puede modificarla sin alterar la caché.
      *
      * @param ejercicioId ID del ejercicio a buscar.
      * @return Un {@link Optional} que contiene el {@link Ejercicio} si existe, o vacío en caso contrario.
      */
     @Override
     public Optional<Ejercicio> getEjercicio(Integer ejercicioId) {
-        return ejercicioRepo.findById(ejercicioId);
+        return catalogo.buscar(ejercicioId).map(EjercicioMapper::toEntity);
     }
 
     /**
@@ -85,7 +150,10 @@ public class EjercicioServiceImpl implements EjercicioService {
         Ejercicio e = new Ejercicio();
         e.setNombre(dto.getNombre());
         e.setImagenUrl(dto.getImagenUrl());
-        return ejercicioRepo.save(e);
+        Ejercicio guardado = ejercicioRepo.save(e);
+        almacenImagenes.sumarReferencia(guardado.getImagenUrl());
+        catalogo.invalidar();
+        return guardado;
     }
 
     /**
@@ -104,10 +172,18 @@ public class EjercicioServiceImpl implements EjercicioService {
         Ejercicio e = ejercicioRepo.findById(id)
                 .orElseThrow(() -> new CustomException("Ejercicio no encontrado: " + id));
         e.setNombre(datos.getNombre());
-        if (datos.getImagenUrl() != null) {
+        if (datos.getImagenUrl() != null && !datos.getImagenUrl().equals(e.getImagenUrl())) {
+            // Las versiones derivadas corresponden a la imagen anterior; se regeneran en segundo plano
+            almacenImagenes.restarReferencia(e.getImagenUrl());
+            almacenImagenes.sumarReferencia(datos.getImagenUrl());
             e.setImagenUrl(datos.getImagenUrl());
+            e.setImagenMiniaturaUrl(null);
+            e.setImagenMediaUrl(null);
+            e.setImagenPosterUrl(null);
         }
-        return ejercicioRepo.save(e);
+        Ejercicio guardado = ejercicioRepo.save(e);
+        catalogo.invalidar();
+        return guardado;
     }
 
     /**
@@ -123,6 +199,8 @@ public class EjercicioServiceImpl implements EjercicioService {
         Ejercicio e = ejercicioRepo.findById(id)
                 .orElseThrow(() -> new CustomException("Ejercicio no encontrado: " + id));
         ejercicioRepo.delete(e);
+        almacenImagenes.restarReferencia(e.getImagenUrl());
+        catalogo.invalidar();
     }
 
     /**
@@ -143,13 +221,12 @@ public class EjercicioServiceImpl implements EjercicioService {
         if (e == null) {
             throw new CustomException("Ejercicio no encontrado por nombre: " + nombreEjercicio);
         }
-        boolean pertenece = relRepo.findByEjercicio_IdEjercicio(e.getIdEjercicio())
-                .stream()
-                .anyMatch(rel -> rel.getEntrenamiento().getUsuario().getUsername().equals(username));
-        if (!pertenece) {
+        if (!relRepo.existeEnEntrenamientoDeUsuario(e.getIdEjercicio(), username)) {
             throw new CustomException("No tienes permiso para eliminar este ejercicio.");
         }
         ejercicioRepo.delete(e);
+        almacenImagenes.restarReferencia(e.getImagenUrl());
+        catalogo.invalidar();
     }
 
     /**
@@ -174,13 +251,13 @@ public class EjercicioServiceImpl implements EjercicioService {
     ) {
         Entrenamiento t = entrenamientoRepo.findById(idEntrenamiento)
                 .orElseThrow(() -> new CustomException("Entrenamiento no encontrado: " + idEntrenamiento));
-        Ejercicio ej = ejercicioRepo.findById(idEjercicio)
+        EjercicioCatalogoDTO ej = catalogo.buscar(idEjercicio)
                 .orElseThrow(() -> new CustomException("Ejercicio no encontrado: " + idEjercicio));
 
-        // Crear la entidad relacional
+        // Crear la entidad relacional; la clave foránea basta, el resto de datos sale de la caché
         EntrenamientoEjercicio rel = new EntrenamientoEjercicio();
         rel.setEntrenamiento(t);
-        rel.setEjercicio(ej);
+        rel.setEjercicio(ejercicioRepo.getReferenceById(idEjercicio));
         rel.setOrden(orden);
 
         // Construir manualmente la lista de series
@@ -200,6 +277,7 @@ public class EjercicioServiceImpl implements EjercicioService {
 
         // Guardar y retornar DTO
         rel = relRepo.save(rel);
+        contadorUsos.sumar(idEjercicio);
         return EjercicioMapper.toDTO(ej, rel);
     }
 
@@ -215,30 +293,33 @@ public class EjercicioServiceImpl implements EjercicioService {
         EntrenamientoEjercicio rel = relRepo.findById(relId)
                 .orElseThrow(() -> new CustomException("Instancia no encontrada: " + relId));
         relRepo.delete(rel);
+        contadorUsos.restar(rel.getEjercicio().getIdEjercicio());
     }
 
     /**
      * Lista los ejercicios (instancias) asignados a un entrenamiento para un usuario dado.
      * <p>
-     * Verifica que el usuario coincida con el propietario del entrenamiento; si no, lanza {@link CustomException}.
+     * Verifica que el usuario coincida con el propietario del entrenamiento comparando IDs, sin
+     * cargar el entrenamiento ni el usuario; si no, lanza {@link CustomException}.
      *
      * @param idEntrenamiento ID del entrenamiento a consultar.
-     * @param username        Nombre de usuario del propietario.
+     * @param idUsuario       ID del usuario propietario.
      * @return Lista de {@link EjercicioDTO} que incluye cada ejercicio y sus series.
      * @throws CustomException si el entrenamiento no existe o el usuario no tiene permiso.
      */
     @Override
     public List<EjercicioDTO> listarEjerciciosPorEntrenamientoYUsuario(
             Integer idEntrenamiento,
-            String username
+            Integer idUsuario
     ) {
-        Entrenamiento t = entrenamientoRepo.findById(idEntrenamiento)
-                .orElseThrow(() -> new CustomException("Entrenamiento no encontrado: " + idEntrenamiento));
-        if (!t.getUsuario().getUsername().equals(username)) {
+        if (!entrenamientoRepo.existsByIdEntrenamientoAndUsuario_IdUsuario(idEntrenamiento, idUsuario)) {
+            if (!entrenamientoRepo.existsById(idEntrenamiento)) {
+                throw new CustomException("Entrenamiento no encontrado: " + idEntrenamiento);
+            }
             throw new CustomException("No tienes permiso sobre este entrenamiento");
         }
-        return relRepo.findByEntrenamiento(t).stream()
-                .map(rel -> EjercicioMapper.toDTO(rel.getEjercicio(), rel))
+        return relRepo.findByEntrenamiento(entrenamientoRepo.getReferenceById(idEntrenamiento)).stream()
+                .map(this::toDTO)
                 .collect(Collectors.toList());
     }
 
@@ -289,6 +370,20 @@ public class EjercicioServiceImpl implements EjercicioService {
         // Guardamos la relación actualizada con las nuevas series
         rel = relRepo.save(rel);
 
-        return EjercicioMapper.toDTO(rel.getEjercicio(), rel);
+        return toDTO(rel);
+    }
+
+    /**
+     * Método auxiliar que convierte una instancia en {@link EjercicioDTO} tomando el nombre y
+     * la imagen del ejercicio de la caché, sin inicializar la asociación perezosa (que sólo
+     * se consulta como respaldo si el ejercicio aún no figura en la instantánea).
+     *
+     * @param rel Relación entrenamiento-ejercicio con sus series.
+     * @return {@link EjercicioDTO} con los datos del ejercicio y sus series.
+     */
+    private EjercicioDTO toDTO(EntrenamientoEjercicio rel) {
+        return catalogo.buscar(rel.getEjercicio().getIdEjercicio())
+                .map(ej -> EjercicioMapper.toDTO(ej, rel))
+                .orElseGet(() -> EjercicioMapper.toDTO(rel.getEjercicio(), rel));
     }
 }
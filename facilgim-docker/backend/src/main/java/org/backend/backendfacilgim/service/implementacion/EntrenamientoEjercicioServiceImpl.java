@@ -1,10 +1,12 @@
 package org.backend.backendfacilgim.service.implementacion;
 
+import org.backend.backendfacilgim.dto.EntrenamientoEjercicioResumenDTO;
 import org.backend.backendfacilgim.entity.EntrenamientoEjercicio;
 import org.backend.backendfacilgim.exception.CustomException;
 import org.backend.backendfacilgim.repository.EntrenamientoEjercicioRepository;
 import org.backend.backendfacilgim.service.EntrenamientoEjercicioService;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -57,11 +59,12 @@ public class EntrenamientoEjercicioServiceImpl implements EntrenamientoEjercicio
     /**
      * Devuelve todas las relaciones entre entrenamientos y ejercicios.
      *
-     * @return Lista de todas las entidades {@link EntrenamientoEjercicio}.
+     * @return Lista de {@link EntrenamientoEjercicioResumenDTO} de todas las relaciones.
      */
     @Override
-    public List<EntrenamientoEjercicio> obtenerTodos() {
-        return entrenamientoEjercicioRepository.findAll();
+    @Transactional(readOnly = true)
+    public List<EntrenamientoEjercicioResumenDTO> obtenerTodos() {
+        return entrenamientoEjercicioRepository.listarResumen();
     }
 
     /**
@@ -69,11 +72,36 @@ public class EntrenamientoEjercicioServiceImpl implements EntrenamientoEjercicio
      * ordenadas por el campo {@code orden} de forma ascendente.
      *
      * @param idEntrenamiento ID del entrenamiento cuya relación se desea consultar.
+     * @return Lista de {@link EntrenamientoEjercicioResumenDTO} asociados al entrenamiento dado.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<EntrenamientoEjercicioResumenDTO> obtenerPorIdEntrenamiento(Integer idEntrenamiento) {
+        return entrenamientoEjercicioRepository.listarResumenPorEntrenamiento(idEntrenamiento);
+    }
+
+    /**
+     * Devuelve todas las relaciones completas, cargadas con sus series en una única consulta.
+     *
+     * @return Lista de todas las entidades {@link EntrenamientoEjercicio}.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<EntrenamientoEjercicio> obtenerTodosConSeries() {
+        return entrenamientoEjercicioRepository.listarConSeries();
+    }
+
+    /**
+     * Obtiene las relaciones completas de un entrenamiento específico, cargadas con sus
+     * series en una única consulta y ordenadas por el campo {@code orden}.
+     *
+     * @param idEntrenamiento ID del entrenamiento cuya relación se desea consultar.
      * @return Lista de {@link EntrenamientoEjercicio} asociados al entrenamiento dado.
      */
     @Override
-    public List<EntrenamientoEjercicio> obtenerPorIdEntrenamiento(Integer idEntrenamiento) {
-        return entrenamientoEjercicioRepository.findByEntrenamiento_IdEntrenamientoOrderByOrdenAsc(idEntrenamiento);
+    @Transactional(readOnly = true)
+    public List<EntrenamientoEjercicio> obtenerPorIdEntrenamientoConSeries(Integer idEntrenamiento) {
+        return entrenamientoEjercicioRepository.listarConSeriesPorEntrenamiento(idEntrenamiento);
     }
 
     /**
@@ -1,32 +1,65 @@
 package org.backend.backendfacilgim.service.implementacion;
 
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.backend.backendfacilgim.dto.EntrenamientoCompletoDTO;
 import org.backend.backendfacilgim.dto.EntrenamientoDTO;
 import org.backend.backendfacilgim.dto.EntrenamientoEjercicioDTO;
-import org.backend.backendfacilgim.dto.SerieDTO;
+import org.backend.backendfacilgim.dto.EntrenamientoResumenDTO;
+import org.backend.backendfacilgim.dto.FilaHistorialDTO;
+import org.backend.backendfacilgim.dto.PaginaDTO;
+import org.backend.backendfacilgim.dto.ResultadoItemLoteDTO;
+import org.backend.backendfacilgim.dto.ResultadoLoteDTO;
 import org.backend.backendfacilgim.entity.*;
 import org.backend.backendfacilgim.exception.CustomException;
+import org.backend.backendfacilgim.mapper.EntrenamientoMapper;
 import org.backend.backendfacilgim.repository.*;
 import org.backend.backendfacilgim.service.EntrenamientoService;
+import org.backend.backendfacilgim.utilities.ContadorUsosEjercicios;
+import org.backend.backendfacilgim.utilities.CursorEntrenamiento;
+import org.backend.backendfacilgim.utilities.ReconciliadorEntrenamiento;
+import org.backend.backendfacilgim.utilities.ReferenciasEntrenamiento;
+import org.backend.backendfacilgim.utilities.ResultadoReconciliacion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Implementación del servicio {@link EntrenamientoService} que gestiona las operaciones
  * CRUD para la entidad {@link Entrenamiento} y sus relaciones con ejercicios y series.
+ * <p>
+ * Cada operación que crea o elimina relaciones con ejercicios registra la variación en
+ * {@link ContadorUsosEjercicios}.
+ * </p>
  *
  * Autor: Francisco Santana
  */
 @Service
 public class EntrenamientoServiceImpl implements EntrenamientoService {
 
+    private static final Logger log = LoggerFactory.getLogger(EntrenamientoServiceImpl.class);
+
+    /**
+     * Límites del tipo DATE de MySQL, usados cuando la línea de tiempo no tiene ventana de fechas.
+     */
+    private static final LocalDate FECHA_MINIMA = LocalDate.of(1000, 1, 1);
+    private static final LocalDate FECHA_MAXIMA = LocalDate.of(9999, 12, 31);
+
     private final EntrenamientoRepository entrenamientoRepository;
     private final UsuarioRepository usuarioRepository;
     private final TipoEntrenamientoRepository tipoEntrenamientoRepository;
     private final EjercicioRepository ejercicioRepository;
     private final EntrenamientoEjercicioRepository entrenamientoEjercicioRepository;
+    private final ContadorUsosEjercicios contadorUsos;
+    private final Validator validator;
 
     /**
      * Constructor que inicializa todos los repositorios necesarios.
@@ -36,41 +69,65 @@ public class EntrenamientoServiceImpl implements EntrenamientoService {
      * @param tipoEntrenamientoRepository    Repositorio de tipos de entrenamiento.
      * @param ejercicioRepository            Repositorio de ejercicios.
      * @param entrenamientoEjercicioRepository Repositorio de relaciones entrenamiento-ejercicio.
+     * @param contadorUsos                   Contador incremental de usos de cada ejercicio.
+     * @param validator                      Validador de cada entrenamiento de un lote.
      */
     public EntrenamientoServiceImpl(
             EntrenamientoRepository entrenamientoRepository,
             UsuarioRepository usuarioRepository,
             TipoEntrenamientoRepository tipoEntrenamientoRepository,
             EjercicioRepository ejercicioRepository,
-            EntrenamientoEjercicioRepository entrenamientoEjercicioRepository
+            EntrenamientoEjercicioRepository entrenamientoEjercicioRepository,
+            ContadorUsosEjercicios contadorUsos,
+            Validator validator
     ) {
         this.entrenamientoRepository = entrenamientoRepository;
         this.usuarioRepository = usuarioRepository;
         this.tipoEntrenamientoRepository = tipoEntrenamientoRepository;
         this.ejercicioRepository = ejercicioRepository;
         this.entrenamientoEjercicioRepository = entrenamientoEjercicioRepository;
+        this.contadorUsos = contadorUsos;
+        this.validator = validator;
     }
 
     /**
-     * Lista todos los entrenamientos almacenados en la base de datos.
+     * Lista una página de los entrenamientos almacenados, ordenados por fecha e ID.
      *
-     * @return Lista de {@link Entrenamiento}
+     * @param cursor Cursor de la página anterior, o {@code null} para la primera.
+     * @param tamano Número máximo de entrenamientos de la página.
+     * @return {@link PaginaDTO} con los entrenamientos y el cursor siguiente.
      */
     @Override
-    public List<Entrenamiento> obtenerTodosLosEntrenamientos() {
-        return entrenamientoRepository.findAll();
+    @Transactional(readOnly = true)
+    public PaginaDTO<EntrenamientoResumenDTO> obtenerTodosLosEntrenamientos(String cursor, int tamano) {
+        CursorEntrenamiento posicion = CursorEntrenamiento.decodificar(cursor);
+        Limit limite = Limit.of(tamano + 1);
+        List<EntrenamientoResumenDTO> filas = posicion == null
+                ? entrenamientoRepository.buscarPagina(limite)
+                : entrenamientoRepository.buscarPaginaTrasCursor(posicion.getFecha(), posicion.getId(), limite);
+        return construirPagina(filas, tamano);
     }
 
     /**
-     * Obtiene los entrenamientos cuya fecha de entrenamiento está entre dos fechas dadas.
+     * Obtiene una página de los entrenamientos cuya fecha está entre dos fechas dadas.
      *
      * @param fechaInicio Fecha de inicio del rango (inclusive).
      * @param fechaFin    Fecha de fin del rango (inclusive).
-     * @return Lista de {@link Entrenamiento} dentro del rango de fechas.
+     * @param cursor      Cursor de la página anterior, o {@code null} para la primera.
+     * @param tamano      Número máximo de entrenamientos de la página.
+     * @return {@link PaginaDTO} con los entrenamientos dentro del rango de fechas.
      */
     @Override
-    public List<Entrenamiento> obtenerEntrenamientosEntreDosFechas(LocalDate fechaInicio, LocalDate fechaFin) {
-        return entrenamientoRepository.findByFechaEntrenamientoBetween(fechaInicio, fechaFin);
+    @Transactional(readOnly = true)
+    public PaginaDTO<EntrenamientoResumenDTO> obtenerEntrenamientosEntreDosFechas(LocalDate fechaInicio, LocalDate fechaFin,
+                                                                                  String cursor, int tamano) {
+        CursorEntrenamiento posicion = CursorEntrenamiento.decodificar(cursor);
+        Limit limite = Limit.of(tamano + 1);
+        List<EntrenamientoResumenDTO> filas = posicion == null
+                ? entrenamientoRepository.buscarPaginaEntreFechas(fechaInicio, fechaFin, limite)
+                : entrenamientoRepository.buscarPaginaEntreFechasTrasCursor(
+                        fechaInicio, fechaFin, posicion.getFecha(), posicion.getId(), limite);
+        return construirPagina(filas, tamano);
     }
 
     /**
@@ -85,14 +142,44 @@ public class EntrenamientoServiceImpl implements EntrenamientoService {
     }
 
     /**
-     * Busca entrenamientos que coincidan con un nombre dado.
+     * Obtiene un entrenamiento completo en dos consultas: la primera carga el entrenamiento
+     * con su tipo, usuario, relaciones y ejercicios; la segunda inicializa las series de esas
+     * mismas relaciones dentro del mismo contexto de persistencia.
+     *
+     * @param id ID del entrenamiento.
+     * @return {@link Optional} con el DTO completo si existe, o vacío si no.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<EntrenamientoCompletoDTO> obtenerEntrenamientoCompleto(Integer id) {
+        Optional<Entrenamiento> entrenamiento = entrenamientoRepository.buscarConEjercicios(id);
+        if (entrenamiento.isEmpty()) {
+            return Optional.empty();
+        }
+        if (!entrenamiento.get().getEntrenamientoEjercicios().isEmpty()) {
+            entrenamientoEjercicioRepository.buscarConSeriesPorEntrenamiento(id);
+        }
+        return entrenamiento.map(EntrenamientoMapper::toCompletoDTO);
+    }
+
+    /**
+     * Busca una página de entrenamientos que coincidan con un nombre dado.
      *
-     * @param nombre Nombre o parte del nombre del entrenamiento.
-     * @return Lista de entrenamientos con el nombre especificado.
+     * @param nombre Nombre del entrenamiento.
+     * @param cursor Cursor de la página anterior, o {@code null} para la primera.
+     * @param tamano Número máximo de entrenamientos de la página.
+     * @return {@link PaginaDTO} con los entrenamientos con el nombre especificado.
      */
     @Override
-    public List<Entrenamiento> obtenerEntrenamientosPorNombre(String nombre) {
-        return entrenamientoRepository.findEntrenamientosByNombre(nombre);
+    @Transactional(readOnly = true)
+    public PaginaDTO<EntrenamientoResumenDTO> obtenerEntrenamientosPorNombre(String nombre, String cursor, int tamano) {
+        CursorEntrenamiento posicion = CursorEntrenamiento.decodificar(cursor);
+        Limit limite = Limit.of(tamano + 1);
+        List<EntrenamientoResumenDTO> filas = posicion == null
+                ? entrenamientoRepository.buscarPaginaPorNombre(nombre, limite)
+                : entrenamientoRepository.buscarPaginaPorNombreTrasCursor(
+                        nombre, posicion.getFecha(), posicion.getId(), limite);
+        return construirPagina(filas, tamano);
     }
 
     /**
@@ -141,6 +228,11 @@ public class EntrenamientoServiceImpl implements EntrenamientoService {
     /**
      * Actualiza un entrenamiento a partir de un DTO {@link EntrenamientoDTO}, incluyendo sus relaciones
      * con ejercicios y series. El método es transaccional para asegurar la consistencia de las relaciones.
+     * <p>
+     * Las relaciones y series no se borran y recrean: se reconcilian con las existentes
+     * mediante {@link ReconciliadorEntrenamiento}, de modo que solo se emiten las sentencias
+     * INSERT, UPDATE y DELETE estrictamente necesarias.
+     * </p>
      *
      * @param id  ID del entrenamiento a actualizar.
      * @param dto Objeto {@link EntrenamientoDTO} con los nuevos datos y relaciones.
@@ -150,67 +242,31 @@ public class EntrenamientoServiceImpl implements EntrenamientoService {
     @Override
     @Transactional
     public Entrenamiento actualizarEntrenamientoDesdeDTO(Integer id, EntrenamientoDTO dto) {
-        Entrenamiento existente = entrenamientoRepository.findById(id)
+        // 1) Entrenamiento con relaciones y ejercicios, y después las series de esas relaciones
+        Entrenamiento existente = entrenamientoRepository.buscarConEjercicios(id)
                 .orElseThrow(() -> new CustomException("Entrenamiento no encontrado con ID: " + id));
+        if (!existente.getEntrenamientoEjercicios().isEmpty()) {
+            entrenamientoEjercicioRepository.buscarConSeriesPorEntrenamiento(id);
+        }
 
-        // 1) Campos simples
+        // 2) Usuario, tipo y ejercicios: una consulta por cada tipo de referencia
+        ReferenciasEntrenamiento referencias = resolverReferencias(List.of(dto));
+
+        // 3) Campos simples (Hibernate solo emite UPDATE si alguno cambia)
         existente.setNombre(dto.getNombre());
         existente.setDescripcion(dto.getDescripcion());
         existente.setDuracion(dto.getDuracion());
         existente.setFechaEntrenamiento(dto.getFechaEntrenamiento());
+        existente.setUsuario(referencias.usuario(dto.getUsuario().getIdUsuario()));
+        existente.setTipoEntrenamiento(referencias.tipo(dto.getTipoEntrenamiento().getId()));
 
-        // 2) Usuario
-        Usuario usuario = usuarioRepository.findById(dto.getUsuario().getIdUsuario())
-                .orElseThrow(() -> new CustomException("Usuario no encontrado con ID: " + dto.getUsuario().getIdUsuario()));
-        existente.setUsuario(usuario);
-
-        // 3) Tipo
-        TipoEntrenamiento tipo = tipoEntrenamientoRepository.findById(dto.getTipoEntrenamiento().getId())
-                .orElseThrow(() -> new CustomException("Tipo de entrenamiento no encontrado con ID: " + dto.getTipoEntrenamiento().getId()));
-        existente.setTipoEntrenamiento(tipo);
-
-        // 4) Eliminar todas las relaciones antiguas usando orphanRemoval
-        existente.getEntrenamientoEjercicios().clear();
-
-        // 5) Construir NUEVAS relaciones desde el DTO
-        if (dto.getEntrenamientosEjercicios() != null) {
-            for (EntrenamientoEjercicioDTO relDTO : dto.getEntrenamientosEjercicios()) {
-                // 5.1) Recuperar ejercicio
-                Ejercicio ejercicio = ejercicioRepository.findById(relDTO.getEjercicio().getIdEjercicio())
-                        .orElseThrow(() -> new CustomException(
-                                "Ejercicio no encontrado con ID: " + relDTO.getEjercicio().getIdEjercicio()));
-
-                // 5.2) Crear entidad de relación
-                EntrenamientoEjercicio ee = new EntrenamientoEjercicio();
-                ee.setEntrenamiento(existente);
-                ee.setEjercicio(ejercicio);
-                ee.setOrden(relDTO.getOrden());
-
-                // 5.3) Series de esta relación
-                List<Serie> listaSeries = new ArrayList<>();
-                int contadorSerie = 1;
-                if (relDTO.getSeries() != null) {
-                    for (SerieDTO sDTO : relDTO.getSeries()) {
-                        Serie s = new Serie();
-                        // Si DTO trae número de serie, úsalo; sino autoincrementa
-                        s.setNumeroSerie(
-                                sDTO.getNumeroSerie() != null ? sDTO.getNumeroSerie() : contadorSerie++);
-                        s.setRepeticiones(sDTO.getRepeticiones());
-                        s.setPeso(sDTO.getPeso());
-                        // Enlace bidireccional
-                        s.setEntrenamientoEjercicio(ee);
-                        listaSeries.add(s);
-                    }
-                }
-                ee.setSeries(listaSeries);
-
-                // 5.4) Añadir al set del entrenamiento (Hibernate insertará estas nuevas)
-                existente.getEntrenamientoEjercicios().add(ee);
-            }
-        }
+        // 4) Relaciones y series: solo se tocan las filas que cambian
+        Map<Integer, Long> usosAntes = ContadorUsosEjercicios.contar(existente.getEntrenamientoEjercicios());
+        ResultadoReconciliacion resultado = ReconciliadorEntrenamiento.reconciliar(
+                existente, dto.getEntrenamientosEjercicios(), referencias);
+        contadorUsos.ajustar(usosAntes, ContadorUsosEjercicios.contar(existente.getEntrenamientoEjercicios()));
+        log.info("Entrenamiento {} actualizado: {} filas afectadas {}", id, resultado.total(), resultado);
 
-        // 6) Guardar TODO de una sola vez: Hibernate borrará los viejos (orphanRemoval)
-        //    y creará los nuevos
         return entrenamientoRepository.save(existente);
     }
 
@@ -221,9 +277,11 @@ public class EntrenamientoServiceImpl implements EntrenamientoService {
      * @throws CustomException si no se encuentra el entrenamiento con el ID dado.
      */
     @Override
+    @Transactional
     public void eliminarEntrenamiento(Integer id) {
         Entrenamiento entrenamiento = entrenamientoRepository.findById(id)
                 .orElseThrow(() -> new CustomException("Entrenamiento no encontrado con ID: " + id));
+        contadorUsos.restar(entrenamiento.getEntrenamientoEjercicios());
         entrenamientoRepository.delete(entrenamiento);
     }
 
@@ -234,31 +292,34 @@ public class EntrenamientoServiceImpl implements EntrenamientoService {
      * @throws CustomException si no se encuentra ningún entrenamiento con el nombre dado.
      */
     @Override
+    @Transactional
     public void eliminarEntrenamientoPorNombre(String nombre) {
         List<Entrenamiento> entrenamientos = entrenamientoRepository.findEntrenamientosByNombre(nombre);
         if (entrenamientos.isEmpty()) {
             throw new CustomException("No se encontró ningún entrenamiento con nombre: " + nombre);
         }
+        entrenamientos.forEach(e -> contadorUsos.restar(e.getEntrenamientoEjercicios()));
         entrenamientoRepository.deleteAll(entrenamientos);
     }
 
     /**
      * Elimina una instancia (relación) de ejercicio en un entrenamiento,
-     * verificando que el entrenamiento pertenezca al usuario indicado.
+     * verificando por ID, sin cargar el entrenamiento ni el usuario, que el entrenamiento
+     * pertenezca al usuario indicado.
      *
      * @param idEntrenamiento ID del entrenamiento.
      * @param idEjercicio     ID del ejercicio a quitar.
-     * @param username        Nombre de usuario propietario del entrenamiento.
+     * @param idUsuario       ID del usuario propietario del entrenamiento.
      * @throws CustomException si el entrenamiento no existe, no pertenece al usuario,
      *                         o no existe la relación especificada.
      */
     @Override
-    public void quitarEjercicioDeEntrenamiento(Integer idEntrenamiento, Integer idEjercicio, String username) {
-        Entrenamiento entrenamiento = entrenamientoRepository.findById(idEntrenamiento)
-                .orElseThrow(() -> new CustomException("Entrenamiento no encontrado con ID: " + idEntrenamiento));
-
-        if (!entrenamiento.getUsuario().getUsername().equals(username)) {
-            throw new CustomException("El entrenamiento no pertenece al usuario: " + username);
+    public void quitarEjercicioDeEntrenamiento(Integer idEntrenamiento, Integer idEjercicio, Integer idUsuario) {
+        if (!entrenamientoRepository.existsByIdEntrenamientoAndUsuario_IdUsuario(idEntrenamiento, idUsuario)) {
+            if (!entrenamientoRepository.existsById(idEntrenamiento)) {
+                throw new CustomException("Entrenamiento no encontrado con ID: " + idEntrenamiento);
+            }
+            throw new CustomException("El entrenamiento no pertenece al usuario con ID: " + idUsuario);
         }
 
         EntrenamientoEjercicio rel = entrenamientoEjercicioRepository
@@ -266,6 +327,7 @@ public class EntrenamientoServiceImpl implements EntrenamientoService {
                 .orElseThrow(() -> new CustomException("Relación entrenamiento-ejercicio no encontrada"));
 
         entrenamientoEjercicioRepository.delete(rel);
+        contadorUsos.restar(idEjercicio);
     }
 
     /**
@@ -280,72 +342,237 @@ public class EntrenamientoServiceImpl implements EntrenamientoService {
     @Override
     @Transactional
     public Entrenamiento crearDesdeDTO(EntrenamientoDTO dto) {
+        ReferenciasEntrenamiento referencias = resolverReferencias(List.of(dto));
+        Entrenamiento guardado = entrenamientoRepository.save(construirEntrenamiento(dto, referencias));
+        contadorUsos.sumar(guardado.getEntrenamientoEjercicios());
+        return guardado;
+    }
+
+    /**
+     * Crea varios entrenamientos en una sola transacción. Las referencias de todo el lote
+     * se resuelven con una consulta por tipo de entidad y los entrenamientos se guardan
+     * juntos, de modo que Hibernate agrupa sus INSERT en lotes JDBC.
+     * <p>
+     * Cada entrenamiento se valida por separado con las restricciones de {@link EntrenamientoDTO}.
+     * En modo todo o nada, si alguno no las cumple o referencia usuarios, tipos o ejercicios
+     * inexistentes no se crea ninguno. En modo parcial, esos entrenamientos se omiten y
+     * se informa de su error, y el resto se crea igualmente.
+     * </p>
+     *
+     * @param dtos    DTOs {@link EntrenamientoDTO} a crear.
+     * @param parcial {@code true} para crear los válidos aunque otros fallen.
+     * @return {@link ResultadoLoteDTO} con el resultado de cada entrenamiento, en el mismo orden.
+     * @throws CustomException en modo todo o nada, con los errores de cada entrenamiento inválido.
+     */
+    @Override
+    @Transactional
+    public ResultadoLoteDTO crearLoteDesdeDTO(List<EntrenamientoDTO> dtos, boolean parcial) {
+        SortedMap<Integer, String> errores = new TreeMap<>();
+        List<Integer> aceptados = new ArrayList<>(dtos.size());
+        for (int i = 0; i < dtos.size(); i++) {
+            String error = validar(dtos.get(i));
+            if (error == null) {
+                aceptados.add(i);
+            } else {
+                errores.put(i, error);
+            }
+        }
+        ReferenciasEntrenamiento referencias = buscarReferencias(aceptados.stream().map(dtos::get).toList());
+
+        Map<Integer, Entrenamiento> nuevos = new LinkedHashMap<>();
+        for (int i : aceptados) {
+            List<String> faltantes = referencias.noEncontradas(List.of(dtos.get(i)));
+            if (faltantes.isEmpty()) {
+                nuevos.put(i, construirEntrenamiento(dtos.get(i), referencias));
+            } else {
+                errores.put(i, String.join("; ", faltantes));
+            }
+        }
+        if (!parcial && !errores.isEmpty()) {
+            throw new CustomException(errores.entrySet().stream()
+                    .map(e -> "Entrenamiento " + e.getKey() + ": " + e.getValue())
+                    .collect(Collectors.joining(" | ")));
+        }
+
+        entrenamientoRepository.saveAll(nuevos.values());
+        nuevos.values().forEach(e -> contadorUsos.sumar(e.getEntrenamientoEjercicios()));
+        List<ResultadoItemLoteDTO> resultados = new ArrayList<>(dtos.size());
+        for (int i = 0; i < dtos.size(); i++) {
+            Entrenamiento creado = nuevos.get(i);
+            resultados.add(creado != null
+                    ? new ResultadoItemLoteDTO(i, creado.getIdEntrenamiento(), null)
+                    : new ResultadoItemLoteDTO(i, null, errores.get(i)));
+        }
+        log.info("Lote de entrenamientos: {} creados, {} fallidos", nuevos.size(), errores.size());
+
+        return new ResultadoLoteDTO(nuevos.size(), errores.size(), resultados);
+    }
+
+    /**
+     * Obtiene una página de la línea de tiempo de un usuario, del entrenamiento más reciente
+     * al más antiguo, con una única consulta por página. Sin ventana de fechas, se usan los
+     * límites del tipo DATE para que la consulta siga siendo un rango sobre el índice.
+     *
+     * @param usuarioIdUsuario ID del usuario.
+     * @param desde            Fecha inicial de la ventana (inclusive), o {@code null} para no acotarla.
+     * @param hasta            Fecha final de la ventana (inclusive), o {@code null} para no acotarla.
+     * @param cursor           Cursor de la página anterior, o {@code null} para la primera.
+     * @param tamano           Número máximo de entrenamientos de la página.
+     * @return {@link PaginaDTO} con los entrenamientos del usuario, con contenido vacío si no hay ninguno.
+     * @throws CustomException si {@code desde} es posterior a {@code hasta}.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public PaginaDTO<EntrenamientoResumenDTO> encontrarEntrenamientoPorIdUsuario(Integer usuarioIdUsuario,
+                                                                                 LocalDate desde, LocalDate hasta,
+                                                                                 String cursor, int tamano) {
+        LocalDate inicio = desde != null ? desde : FECHA_MINIMA;
+        LocalDate fin = hasta != null ? hasta : FECHA_MAXIMA;
+        if (inicio.isAfter(fin)) {
+            throw new CustomException("La fecha 'desde' no puede ser posterior a 'hasta'");
+        }
+        CursorEntrenamiento posicion = CursorEntrenamiento.decodificar(cursor);
+        Limit limite = Limit.of(tamano + 1);
+        List<EntrenamientoResumenDTO> filas = posicion == null
+                ? entrenamientoRepository.buscarPaginaPorUsuario(usuarioIdUsuario, inicio, fin, limite)
+                : entrenamientoRepository.buscarPaginaPorUsuarioTrasCursor(
+                        usuarioIdUsuario, inicio, fin, posicion.getFecha(), posicion.getId(), limite);
+        return construirPagina(filas, tamano);
+    }
+
+    /**
+     * Recorre el historial de un usuario con un {@link Stream} de proyecciones leído por
+     * bloques. La transacción de solo lectura mantiene abierto el cursor mientras se consume,
+     * y como no se cargan entidades el contexto de persistencia no crece.
+     *
+     * @param idUsuario  ID del usuario.
+     * @param consumidor Receptor de las filas, en orden de exportación.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void recorrerHistorial(Integer idUsuario, Consumer<FilaHistorialDTO> consumidor) {
+        try (Stream<FilaHistorialDTO> filas = entrenamientoRepository.recorrerHistorialPorUsuario(idUsuario)) {
+            filas.forEach(consumidor);
+        }
+    }
+
+    /**
+     * Método auxiliar que construye un {@link Entrenamiento} nuevo, con sus relaciones
+     * y series, a partir de un DTO cuyas referencias ya están resueltas.
+     *
+     * @param dto         DTO con los datos del entrenamiento.
+     * @param referencias Usuarios, tipos y ejercicios ya cargados.
+     * @return El {@link Entrenamiento} sin persistir.
+     */
+    private Entrenamiento construirEntrenamiento(EntrenamientoDTO dto, ReferenciasEntrenamiento referencias) {
         Entrenamiento entrenamiento = new Entrenamiento();
 
         entrenamiento.setNombre(dto.getNombre());
         entrenamiento.setDescripcion(dto.getDescripcion());
         entrenamiento.setDuracion(dto.getDuracion());
         entrenamiento.setFechaEntrenamiento(dto.getFechaEntrenamiento());
-
-        Usuario usuario = usuarioRepository.findById(dto.getUsuario().getIdUsuario())
-                .orElseThrow(() -> new CustomException("Usuario no encontrado"));
-        entrenamiento.setUsuario(usuario);
-
-        TipoEntrenamiento tipo = tipoEntrenamientoRepository.findById(dto.getTipoEntrenamiento().getId())
-                .orElseThrow(() -> new CustomException("Tipo de entrenamiento no encontrado"));
-        entrenamiento.setTipoEntrenamiento(tipo);
+        entrenamiento.setUsuario(referencias.usuario(dto.getUsuario().getIdUsuario()));
+        entrenamiento.setTipoEntrenamiento(referencias.tipo(dto.getTipoEntrenamiento().getId()));
 
         // Preparamos las relaciones fuera del set original
         Set<EntrenamientoEjercicio> relaciones = new HashSet<>();
 
         if (dto.getEntrenamientosEjercicios() != null) {
             for (EntrenamientoEjercicioDTO relDTO : dto.getEntrenamientosEjercicios()) {
-
-                Integer idEjercicio = relDTO.getEjercicio().getIdEjercicio();
-                Ejercicio ejercicio = ejercicioRepository.findById(idEjercicio)
-                        .orElseThrow(() -> new CustomException("Ejercicio no encontrado"));
-
-                EntrenamientoEjercicio ee = new EntrenamientoEjercicio();
-                ee.setEntrenamiento(entrenamiento);
-                ee.setEjercicio(ejercicio);
-                ee.setOrden(relDTO.getOrden());
-
-                List<Serie> series = new ArrayList<>();
-                int numeroSerie = 1;
-
-                if (relDTO.getSeries() != null) {
-                    for (SerieDTO serieDTO : relDTO.getSeries()) {
-                        Serie serie = new Serie();
-                        serie.setNumeroSerie(serieDTO.getNumeroSerie() != null ? serieDTO.getNumeroSerie() : numeroSerie++);
-                        serie.setRepeticiones(serieDTO.getRepeticiones());
-                        serie.setPeso(serieDTO.getPeso());
-                        serie.setEntrenamientoEjercicio(ee);
-                        series.add(serie);
-                    }
-                }
-
-                ee.setSeries(series);
-                relaciones.add(ee);
+                Ejercicio ejercicio = referencias.ejercicio(relDTO.getEjercicio().getIdEjercicio());
+                relaciones.add(ReconciliadorEntrenamiento.nuevaRelacion(relDTO, entrenamiento, ejercicio));
             }
         }
 
         // Solo una vez construidas todas, se asigna el set
         entrenamiento.setEntrenamientoEjercicios(relaciones);
+        return entrenamiento;
+    }
 
-        return entrenamientoRepository.save(entrenamiento);
+    /**
+     * Método auxiliar que resuelve de una sola vez todas las referencias de los DTOs:
+     * un {@code findAllById} por usuarios, otro por tipos y otro por ejercicios,
+     * independientemente del número de entrenamientos y relaciones.
+     *
+     * @param dtos DTOs de entrenamiento cuyas referencias se quieren resolver.
+     * @return {@link ReferenciasEntrenamiento} con las entidades indexadas por ID.
+     * @throws CustomException con todos los IDs inexistentes si falta alguna referencia.
+     */
+    private ReferenciasEntrenamiento resolverReferencias(Collection<EntrenamientoDTO> dtos) {
+        ReferenciasEntrenamiento referencias = buscarReferencias(dtos);
+        List<String> errores = referencias.noEncontradas(dtos);
+        if (!errores.isEmpty()) {
+            throw new CustomException(String.join("; ", errores));
+        }
+        return referencias;
     }
 
     /**
-     * Obtiene la lista de entrenamientos asociados a un usuario específico.
+     * Método auxiliar que valida un entrenamiento de un lote con las restricciones de
+     * {@link EntrenamientoDTO}, igual que se valida uno suelto en el controlador.
      *
-     * @param usuarioIdUsuario ID del usuario.
-     * @return Lista de entrenamientos para el usuario, o lista vacía si no hay ninguno.
+     * @param dto Entrenamiento a validar.
+     * @return Las violaciones encontradas, separadas por "; ", o {@code null} si es válido.
      */
-    @Override
-    public List<Entrenamiento> encontrarEntrenamientoPorIdUsuario(Integer usuarioIdUsuario) {
-        if (entrenamientoRepository.findEntrenamientosByUsuario_IdUsuario(usuarioIdUsuario).isEmpty())
-            return List.of();
-        return entrenamientoRepository.findEntrenamientosByUsuario_IdUsuario(usuarioIdUsuario);
+    private String validar(EntrenamientoDTO dto) {
+        if (dto == null) {
+            return "El entrenamiento es obligatorio";
+        }
+        Set<ConstraintViolation<EntrenamientoDTO>> violaciones = validator.validate(dto);
+        if (violaciones.isEmpty()) {
+            return null;
+        }
+        return violaciones.stream()
+                .map(v -> "El campo " + v.getPropertyPath() + " " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    /**
+     * Método auxiliar que carga las entidades referenciadas por los DTOs sin comprobar
+     * si falta alguna.
+     *
+     * @param dtos DTOs de entrenamiento.
+     * @return {@link ReferenciasEntrenamiento} con las entidades encontradas.
+     */
+    private ReferenciasEntrenamiento buscarReferencias(Collection<EntrenamientoDTO> dtos) {
+        Set<Integer> idsUsuarios = ReferenciasEntrenamiento.idsUsuarios(dtos);
+        Set<Long> idsTipos = ReferenciasEntrenamiento.idsTipos(dtos);
+        Set<Integer> idsEjercicios = ReferenciasEntrenamiento.idsEjercicios(dtos);
+
+        Map<Integer, Usuario> usuarios = new HashMap<>();
+        if (!idsUsuarios.isEmpty()) {
+            usuarioRepository.findAllById(idsUsuarios).forEach(u -> usuarios.put(u.getIdUsuario(), u));
+        }
+        Map<Long, TipoEntrenamiento> tipos = new HashMap<>();
+        if (!idsTipos.isEmpty()) {
+            tipoEntrenamientoRepository.findAllById(idsTipos).forEach(t -> tipos.put(t.getId(), t));
+        }
+        Map<Integer, Ejercicio> ejercicios = new HashMap<>();
+        if (!idsEjercicios.isEmpty()) {
+            ejercicioRepository.findAllById(idsEjercicios).forEach(e -> ejercicios.put(e.getIdEjercicio(), e));
+        }
+        return new ReferenciasEntrenamiento(usuarios, tipos, ejercicios);
+    }
+
+    /**
+     * Método auxiliar que recorta el resultado de una consulta por clave al tamaño de
+     * página pedido. Las consultas piden una fila de más: si llega, existe página siguiente
+     * y su cursor es la posición del último elemento devuelto.
+     *
+     * @param filas  Resultado de la consulta, con hasta {@code tamano + 1} elementos.
+     * @param tamano Tamaño de página solicitado.
+     * @return {@link PaginaDTO} con como mucho {@code tamano} elementos.
+     */
+    private PaginaDTO<EntrenamientoResumenDTO> construirPagina(List<EntrenamientoResumenDTO> filas, int tamano) {
+        if (filas.size() <= tamano) {
+            return new PaginaDTO<>(filas, null);
+        }
+        List<EntrenamientoResumenDTO> contenido = filas.subList(0, tamano);
+        EntrenamientoResumenDTO ultimo = contenido.get(tamano - 1);
+        String siguiente = new CursorEntrenamiento(
+                ultimo.getFechaEntrenamiento(), ultimo.getIdEntrenamiento()).codificar();
+        return new PaginaDTO<>(new ArrayList<>(contenido), siguiente);
     }
 
     /**
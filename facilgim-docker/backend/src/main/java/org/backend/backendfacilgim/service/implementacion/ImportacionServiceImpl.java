@@ -0,0 +1,407 @@
+package org.backend.backendfacilgim.service.implementacion;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.backend.backendfacilgim.dto.*;
+import org.backend.backendfacilgim.entity.Importacion;
+import org.backend.backendfacilgim.entity.Usuario;
+import org.backend.backendfacilgim.exception.CustomException;
+import org.backend.backendfacilgim.mapper.ImportacionMapper;
+import org.backend.backendfacilgim.repository.ImportacionRepository;
+import org.backend.backendfacilgim.repository.UsuarioRepository;
+import org.backend.backendfacilgim.service.EntrenamientoService;
+import org.backend.backendfacilgim.service.ImportacionService;
+import org.backend.backendfacilgim.utilities.CatalogoEjercicios;
+import org.backend.backendfacilgim.utilities.CatalogoTiposEntrenamiento;
+import org.backend.backendfacilgim.utilities.FormatoExportacion;
+import org.backend.backendfacilgim.utilities.LectorHistorial;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Implementación del servicio {@link ImportacionService}.
+ * <p>
+ * Cada importación se ejecuta en un pool propio y acotado. El archivo se lee de forma
+ * incremental con {@link LectorHistorial}; los nombres de ejercicios y tipos se resuelven
+ * contra un mapa en memoria del catálogo, cargado una vez por ejecución; y los
+ * entrenamientos se crean en lotes de {@code app.importacion.tamano-lote} (500 por defecto),
+ * cada uno en su propia transacción junto con la actualización del progreso. Así, tras un
+ * fallo, la importación se reanuda exactamente desde el primer lote no confirmado.
+ * </p>
+ *
+ * Autor: Francisco Santana
+ */
+@Service
+public class ImportacionServiceImpl implements ImportacionService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportacionServiceImpl.class);
+
+    private final ImportacionRepository importacionRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final CatalogoEjercicios catalogoEjercicios;
+    private final CatalogoTiposEntrenamiento catalogoTiposEntrenamiento;
+    private final EntrenamientoService entrenamientoService;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService ejecutor;
+    private final Set<Integer> enEjecucion = ConcurrentHashMap.newKeySet();
+
+    @Value("${app.importacion.directorio:importaciones}")
+    private String directorio;
+
+    @Value("${app.importacion.tamano-lote:500}")
+    private int tamanoLote;
+
+    /**
+     * Constructor que inicializa los repositorios, servicios y el pool de importaciones.
+     *
+     * @param importacionRepository       Repositorio de importaciones.
+     * @param usuarioRepository           Repositorio de usuarios.
+     * @param catalogoEjercicios          Caché en memoria del catálogo de ejercicios.
+     * @param catalogoTiposEntrenamiento  Caché en memoria del catálogo de tipos de entrenamiento.
+     * @param entrenamientoService        Servicio de entrenamientos, usado para crear cada lote.
+     * @param transactionManager          Gestor de transacciones, para confirmar cada lote por separado.
+     * @param objectMapper                {@link ObjectMapper} de la aplicación, usado para NDJSON.
+     * @param hilos                       Número de importaciones que pueden ejecutarse a la vez.
+     * @param cola                        Número de importaciones que pueden esperar turno.
+     */
+    public ImportacionServiceImpl(
+            ImportacionRepository importacionRepository,
+            UsuarioRepository usuarioRepository,
+            CatalogoEjercicios catalogoEjercicios,
+            CatalogoTiposEntrenamiento catalogoTiposEntrenamiento,
+            EntrenamientoService entrenamientoService,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            @Value("${app.importacion.hilos:2}") int hilos,
+            @Value("${app.importacion.cola:20}") int cola
+    ) {
+        this.importacionRepository = importacionRepository;
+        this.usuarioRepository = usuarioRepository;
+        this.catalogoEjercicios = catalogoEjercicios;
+        this.catalogoTiposEntrenamiento = catalogoTiposEntrenamiento;
+        this.entrenamientoService = entrenamientoService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.ejecutor = new ThreadPoolExecutor(hilos, hilos, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(cola), new CustomizableThreadFactory("importacion-"));
+    }
+
+    /**
+     * Guarda el archivo en el directorio de importaciones, registra la importación como
+     * pendiente y la lanza en segundo plano.
+     *
+     * @param idUsuario ID del usuario al que se asignan los entrenamientos.
+     * @param formato   Formato del archivo.
+     * @param archivo   Archivo subido.
+     * @return {@link ImportacionDTO} con la importación recién creada.
+     * @throws CustomException si el usuario no existe, el archivo está vacío o no se puede guardar.
+     */
+    @Override
+    public ImportacionDTO iniciarImportacion(Integer idUsuario, FormatoExportacion formato, MultipartFile archivo) {
+        Usuario usuario = usuarioRepository.findById(idUsuario)
+                .orElseThrow(() -> new CustomException("Usuario no encontrado con ID: " + idUsuario));
+        if (archivo == null || archivo.isEmpty()) {
+            throw new CustomException("El archivo de importación está vacío");
+        }
+
+        Path carpeta = Path.of(directorio);
+        Path destino = carpeta.resolve(UUID.randomUUID() + "." + formato.getExtension());
+        try {
+            Files.createDirectories(carpeta);
+            archivo.transferTo(destino.toAbsolutePath());
+        } catch (IOException e) {
+            throw new CustomException("No se pudo guardar el archivo de importación");
+        }
+
+        Importacion importacion = new Importacion();
+        importacion.setUsuario(usuario);
+        importacion.setFormato(formato);
+        importacion.setNombreArchivo(archivo.getOriginalFilename());
+        importacion.setRutaArchivo(destino.toString());
+        importacion.setEstado(Importacion.Estado.PENDIENTE);
+        importacion.setFechaCreacion(LocalDateTime.now());
+        importacion.setFechaActualizacion(importacion.getFechaCreacion());
+        importacion = importacionRepository.save(importacion);
+
+        lanzar(importacion.getIdImportacion());
+        return ImportacionMapper.toDTO(importacion);
+    }
+
+    /**
+     * Busca una importación por su ID.
+     *
+     * @param idImportacion ID de la importación.
+     * @return {@link Optional} con el estado de la importación, o vacío si no existe.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<ImportacionDTO> obtenerImportacion(Integer idImportacion) {
+        return importacionRepository.findById(idImportacion).map(ImportacionMapper::toDTO);
+    }
+
+    /**
+     * Relanza una importación que no está completada ni en ejecución. Los entrenamientos
+     * ya confirmados se saltan al releer el archivo.
+     *
+     * @param idImportacion ID de la importación.
+     * @return {@link ImportacionDTO} con la importación relanzada.
+     * @throws CustomException si no existe, ya está completada o sigue en ejecución.
+     */
+    @Override
+    public ImportacionDTO reanudarImportacion(Integer idImportacion) {
+        Importacion importacion = importacionRepository.findById(idImportacion)
+                .orElseThrow(() -> new CustomException("Importación no encontrada con ID: " + idImportacion));
+        if (importacion.getEstado() == Importacion.Estado.COMPLETADA) {
+            throw new CustomException("La importación " + idImportacion + " ya está completada");
+        }
+        lanzar(idImportacion);
+        return ImportacionMapper.toDTO(importacion);
+    }
+
+    /**
+     * Detiene el pool al cerrar la aplicación. Las importaciones interrumpidas conservan
+     * los lotes confirmados y pueden reanudarse después.
+     */
+    @PreDestroy
+    public void detener() {
+        ejecutor.shutdownNow();
+    }
+
+    /**
+     * Método auxiliar que encola la ejecución de una importación, evitando que la misma
+     * importación se ejecute dos veces a la vez.
+     *
+     * @param idImportacion ID de la importación.
+     * @throws CustomException si ya está en ejecución o el pool está saturado.
+     */
+    private void lanzar(Integer idImportacion) {
+        if (!enEjecucion.add(idImportacion)) {
+            throw new CustomException("La importación " + idImportacion + " ya está en ejecución");
+        }
+        try {
+            ejecutor.execute(() -> {
+                try {
+                    ejecutar(idImportacion);
+                } finally {
+                    enEjecucion.remove(idImportacion);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            enEjecucion.remove(idImportacion);
+            throw new CustomException("Hay demasiadas importaciones en curso; reanuda la importación "
+                    + idImportacion + " más tarde");
+        }
+    }
+
+    /**
+     * Método auxiliar que ejecuta una importación: salta los entrenamientos ya confirmados,
+     * lee el resto del archivo y los confirma por lotes.
+     *
+     * @param idImportacion ID de la importación.
+     */
+    private void ejecutar(Integer idImportacion) {
+        try {
+            Importacion importacion = actualizarEstado(idImportacion, Importacion.Estado.EN_CURSO, null);
+            Integer idUsuario = importacion.getUsuario().getIdUsuario();
+            Map<String, Integer> ejercicios = catalogoEjercicios();
+            Map<String, Long> tipos = catalogoTipos();
+
+            try (InputStream entrada = Files.newInputStream(Path.of(importacion.getRutaArchivo()));
+                 LectorHistorial lector = LectorHistorial.abrir(importacion.getFormato(), entrada, objectMapper)) {
+                for (int i = 0; i < importacion.getEntrenamientosProcesados() && lector.hasNext(); i++) {
+                    lector.next();
+                }
+
+                List<EntrenamientoDTO> lote = new ArrayList<>(tamanoLote);
+                while (lector.hasNext()) {
+                    lote.add(lector.next());
+                    if (lote.size() == tamanoLote) {
+                        confirmarLote(idImportacion, idUsuario, lote, ejercicios, tipos);
+                        lote.clear();
+                    }
+                }
+                if (!lote.isEmpty()) {
+                    confirmarLote(idImportacion, idUsuario, lote, ejercicios, tipos);
+                }
+            }
+            actualizarEstado(idImportacion, Importacion.Estado.COMPLETADA, null);
+            log.info("Importación {} completada", idImportacion);
+        } catch (Exception e) {
+            log.error("Importación {} fallida", idImportacion, e);
+            String mensaje = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            actualizarEstado(idImportacion, Importacion.Estado.FALLIDA,
+                    mensaje.length() > 1000 ? mensaje.substring(0, 1000) : mensaje);
+        }
+    }
+
+    /**
+     * Método auxiliar que confirma un lote en una única transacción: crea los entrenamientos
+     * válidos con {@link EntrenamientoService#crearLoteDesdeDTO} y avanza el progreso de la
+     * importación. Si algo falla, no se confirma ni el lote ni su progreso.
+     *
+     * @param idImportacion ID de la importación.
+     * @param idUsuario     ID del usuario propietario de los entrenamientos.
+     * @param lote          Entrenamientos leídos del archivo.
+     * @param ejercicios    Catálogo de ejercicios por nombre normalizado.
+     * @param tipos         Tipos de entrenamiento por nombre normalizado.
+     */
+    private void confirmarLote(Integer idImportacion, Integer idUsuario, List<EntrenamientoDTO> lote,
+                               Map<String, Integer> ejercicios, Map<String, Long> tipos) {
+        Importacion importacion = transactionTemplate.execute(estado -> {
+            List<EntrenamientoDTO> validos = new ArrayList<>(lote.size());
+            int omitidos = 0;
+            String ultimoError = null;
+            for (EntrenamientoDTO dto : lote) {
+                String error = resolver(dto, idUsuario, ejercicios, tipos);
+                if (error == null) {
+                    validos.add(dto);
+                } else {
+                    omitidos++;
+                    ultimoError = error;
+                }
+            }
+
+            int creados = 0;
+            if (!validos.isEmpty()) {
+                ResultadoLoteDTO resultado = entrenamientoService.crearLoteDesdeDTO(validos, true);
+                creados = resultado.getCreados();
+                omitidos += resultado.getFallidos();
+                for (ResultadoItemLoteDTO item : resultado.getResultados()) {
+                    if (item.getError() != null) {
+                        ultimoError = item.getError();
+                    }
+                }
+            }
+
+            Importacion actual = importacionRepository.findById(idImportacion)
+                    .orElseThrow(() -> new CustomException("Importación no encontrada con ID: " + idImportacion));
+            actual.setEntrenamientosProcesados(actual.getEntrenamientosProcesados() + lote.size());
+            actual.setEntrenamientosCreados(actual.getEntrenamientosCreados() + creados);
+            actual.setEntrenamientosOmitidos(actual.getEntrenamientosOmitidos() + omitidos);
+            actual.setLotesConfirmados(actual.getLotesConfirmados() + 1);
+            if (ultimoError != null) {
+                actual.setUltimoError(ultimoError);
+            }
+            actual.setFechaActualizacion(LocalDateTime.now());
+            return actual;
+        });
+        log.info("Importación {}: lote {} confirmado, {} entrenamientos procesados",
+                idImportacion, importacion.getLotesConfirmados(), importacion.getEntrenamientosProcesados());
+    }
+
+    /**
+     * Método auxiliar que completa un entrenamiento leído del archivo con los IDs del
+     * usuario, su tipo y sus ejercicios.
+     *
+     * @param dto        Entrenamiento leído, con tipo y ejercicios identificados por nombre.
+     * @param idUsuario  ID del usuario propietario.
+     * @param ejercicios Catálogo de ejercicios por nombre normalizado.
+     * @param tipos      Tipos de entrenamiento por nombre normalizado.
+     * @return {@code null} si el entrenamiento es válido, o el motivo por el que se omite.
+     */
+    private String resolver(EntrenamientoDTO dto, Integer idUsuario,
+                            Map<String, Integer> ejercicios, Map<String, Long> tipos) {
+        String prefijo = "Entrenamiento '" + dto.getNombre() + "' (" + dto.getFechaEntrenamiento() + "): ";
+        if (dto.getNombre() == null || dto.getNombre().isBlank()) {
+            return prefijo + "el nombre es obligatorio";
+        }
+        if (dto.getFechaEntrenamiento() == null) {
+            return prefijo + "la fecha es obligatoria";
+        }
+        if (dto.getDuracion() < 1) {
+            return prefijo + "la duración debe ser mayor a 0";
+        }
+
+        String nombreTipo = dto.getTipoEntrenamiento().getNombre();
+        Long idTipo = tipos.get(normalizar(nombreTipo));
+        if (idTipo == null) {
+            return prefijo + "tipo de entrenamiento no encontrado: " + nombreTipo;
+        }
+        dto.getTipoEntrenamiento().setId(idTipo);
+
+        List<Integer> idsEjercicios = new ArrayList<>();
+        for (EntrenamientoEjercicioDTO relacion : dto.getEntrenamientosEjercicios()) {
+            String nombreEjercicio = relacion.getEjercicio().getNombre();
+            Integer idEjercicio = ejercicios.get(normalizar(nombreEjercicio));
+            if (idEjercicio == null) {
+                return prefijo + "ejercicio no encontrado en el catálogo: " + nombreEjercicio;
+            }
+            relacion.getEjercicio().setIdEjercicio(idEjercicio);
+            idsEjercicios.add(idEjercicio);
+        }
+        dto.setEjerciciosId(idsEjercicios);
+
+        UsuarioDTO usuario = new UsuarioDTO();
+        usuario.setIdUsuario(idUsuario);
+        dto.setUsuario(usuario);
+        return null;
+    }
+
+    /**
+     * Método auxiliar que carga el catálogo de ejercicios indexado por nombre normalizado.
+     * Si hay nombres repetidos, prevalece el ejercicio con menor ID.
+     *
+     * @return Mapa nombre normalizado → ID de ejercicio.
+     */
+    private Map<String, Integer> catalogoEjercicios() {
+        Map<String, Integer> catalogo = new HashMap<>();
+        for (EjercicioCatalogoDTO ejercicio : catalogoEjercicios.listar()) {
+            catalogo.putIfAbsent(normalizar(ejercicio.getNombre()), ejercicio.getIdEjercicio());
+        }
+        return catalogo;
+    }
+
+    /**
+     * Método auxiliar que carga los tipos de entrenamiento indexados por nombre normalizado.
+     *
+     * @return Mapa nombre normalizado → ID de tipo.
+     */
+    private Map<String, Long> catalogoTipos() {
+        Map<String, Long> catalogo = new HashMap<>();
+        for (TipoEntrenamientoDTO tipo : catalogoTiposEntrenamiento.listar()) {
+            catalogo.putIfAbsent(normalizar(tipo.getNombre()), tipo.getId());
+        }
+        return catalogo;
+    }
+
+    /**
+     * Método auxiliar que actualiza el estado de una importación en su propia transacción.
+     *
+     * @param idImportacion ID de la importación.
+     * @param estado        Nuevo estado.
+     * @param error         Mensaje de error a registrar, o {@code null} para conservar el anterior.
+     * @return La {@link Importacion} actualizada.
+     */
+    private Importacion actualizarEstado(Integer idImportacion, Importacion.Estado estado, String error) {
+        return transactionTemplate.execute(status -> {
+            Importacion importacion = importacionRepository.findById(idImportacion)
+                    .orElseThrow(() -> new CustomException("Importación no encontrada con ID: " + idImportacion));
+            importacion.setEstado(estado);
+            if (error != null) {
+                importacion.setUltimoError(error);
+            }
+            importacion.setFechaActualizacion(LocalDateTime.now());
+            return importacion;
+        });
+    }
+
+    private static String normalizar(String nombre) {
+        return nombre == null ? "" : nombre.trim().toLowerCase(Locale.ROOT);
+    }
+}
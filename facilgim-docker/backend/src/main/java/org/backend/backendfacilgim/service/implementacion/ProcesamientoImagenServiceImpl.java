@@ -0,0 +1,241 @@
+package org.backend.backendfacilgim.service.implementacion;
+
+import jakarta.annotation.PreDestroy;
+import org.backend.backendfacilgim.entity.Ejercicio;
+import org.backend.backendfacilgim.entity.TrabajoImagen;
+import org.backend.backendfacilgim.repository.EjercicioRepository;
+import org.backend.backendfacilgim.repository.TrabajoImagenRepository;
+import org.backend.backendfacilgim.service.ProcesamientoImagenService;
+import org.backend.backendfacilgim.utilities.CatalogoEjercicios;
+import org.backend.backendfacilgim.utilities.ProcesadorImagenes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.*;
+
+/**
+ * Implementación del servicio {@link ProcesamientoImagenService}.
+ * <p>
+ * Los trabajos se ejecutan en un pool propio y acotado ({@code app.imagenes.hilos} hilos y
+ * {@code app.imagenes.cola} trabajos en espera), separado de los hilos que atienden peticiones.
+ * Si el pool está saturado, el trabajo queda pendiente en la base de datos y se retoma cuando
+ * la cola se vacía o al arrancar la aplicación. El tamaño de la miniatura y de la versión
+ * media se configura con {@code app.imagenes.lado-miniatura} y {@code app.imagenes.lado-media}.
+ * Las imágenes de más de {@code app.imagenes.pixeles-maximos} píxeles (16 millones por defecto)
+ * se rechazan antes de decodificarlas y su trabajo falla.
+ * </p>
+ * <p>
+ * Un trabajo que ya se ha empezado {@code app.imagenes.intentos-maximos} veces (3 por defecto)
+ * sin terminar, porque la aplicación se cayó mientras lo procesaba, se marca como fallido en
+ * lugar de volver a intentarse en cada arranque.
+ * </p>
+ *
+ * Autor: Francisco Santana
+ */
+@Service
+public class ProcesamientoImagenServiceImpl implements ProcesamientoImagenService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcesamientoImagenServiceImpl.class);
+    private static final Set<TrabajoImagen.Estado> SIN_TERMINAR =
+            EnumSet.of(TrabajoImagen.Estado.PENDIENTE, TrabajoImagen.Estado.EN_CURSO);
+
+    private final TrabajoImagenRepository trabajoImagenRepository;
+    private final EjercicioRepository ejercicioRepository;
+    private final CatalogoEjercicios catalogoEjercicios;
+    private final TransactionTemplate transactionTemplate;
+    private final ProcesadorImagenes procesador;
+    private final ThreadPoolExecutor ejecutor;
+    private final int intentosMaximos;
+    private final Set<Integer> enEjecucion = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Constructor que inicializa los repositorios, el procesador y el pool de trabajos.
+     *
+     * @param trabajoImagenRepository Repositorio de trabajos de imagen.
+     * @param ejercicioRepository     Repositorio de ejercicios, para asignar las versiones generadas.
+     * @param catalogoEjercicios      Caché del catálogo, que se invalida al asignar las versiones.
+     * @param transactionManager      Gestor de transacciones.
+     * @param hilos                   Número de imágenes que pueden procesarse a la vez.
+     * @param cola                    Número de trabajos que pueden esperar turno en memoria.
+     * @param ladoMiniatura           Lado mayor de la miniatura, en píxeles.
+     * @param ladoMedia               Lado mayor de la versión media y del póster, en píxeles.
+     * @param intentosMaximos         Veces que puede empezarse un trabajo antes de darlo por fallido.
+     * @param pixelesMaximos          Número máximo de píxeles de una imagen que se procesa.
+     */
+    public ProcesamientoImagenServiceImpl(
+            TrabajoImagenRepository trabajoImagenRepository,
+            EjercicioRepository ejercicioRepository,
+            CatalogoEjercicios catalogoEjercicios,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.imagenes.hilos:1}") int hilos,
+            @Value("${app.imagenes.cola:50}") int cola,
+            @Value("${app.imagenes.lado-miniatura:160}") int ladoMiniatura,
+            @Value("${app.imagenes.lado-media:480}") int ladoMedia,
+            @Value("${app.imagenes.intentos-maximos:3}") int intentosMaximos,
+            @Value("${app.imagenes.pixeles-maximos:16000000}") long pixelesMaximos
+    ) {
+        this.trabajoImagenRepository = trabajoImagenRepository;
+        this.ejercicioRepository = ejercicioRepository;
+        this.catalogoEjercicios = catalogoEjercicios;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.procesador = new ProcesadorImagenes(ladoMiniatura, ladoMedia, pixelesMaximos);
+        this.ejecutor = new ThreadPoolExecutor(hilos, hilos, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(cola), new CustomizableThreadFactory("imagenes-"));
+        this.intentosMaximos = intentosMaximos;
+    }
+
+    /**
+     * Registra el trabajo como pendiente y lo encola.
+     *
+     * @param idEjercicio  ID del ejercicio.
+     * @param urlOriginal  URL pública de la imagen original.
+     * @param rutaOriginal Ruta del archivo original.
+     * @return El {@link TrabajoImagen} registrado.
+     */
+    @Override
+    public TrabajoImagen encolar(Integer idEjercicio, String urlOriginal, Path rutaOriginal) {
+        TrabajoImagen trabajo = new TrabajoImagen();
+        trabajo.setIdEjercicio(idEjercicio);
+        trabajo.setUrlOriginal(urlOriginal);
+        trabajo.setRutaOriginal(rutaOriginal.toAbsolutePath().toString());
+        trabajo.setEstado(TrabajoImagen.Estado.PENDIENTE);
+        trabajo.setFechaCreacion(LocalDateTime.now());
+        trabajo.setFechaActualizacion(trabajo.getFechaCreacion());
+        trabajo = trabajoImagenRepository.save(trabajo);
+
+        lanzar(trabajo.getIdTrabajoImagen());
+        return trabajo;
+    }
+
+    /**
+     * Retoma, al arrancar la aplicación, los trabajos que quedaron pendientes o a medias.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void retomarPendientes() {
+        for (TrabajoImagen trabajo : trabajoImagenRepository.findByEstadoInOrderByIdTrabajoImagenAsc(SIN_TERMINAR)) {
+            if (!lanzar(trabajo.getIdTrabajoImagen())) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Detiene el pool al cerrar la aplicación. Los trabajos interrumpidos siguen
+     * registrados y se retoman en el siguiente arranque.
+     */
+    @PreDestroy
+    public void detener() {
+        ejecutor.shutdownNow();
+    }
+
+    /**
+     * Método auxiliar que encola un trabajo, evitando que el mismo trabajo se encole dos veces.
+     *
+     * @param idTrabajo ID del trabajo.
+     * @return {@code false} si el pool está saturado y el trabajo se queda pendiente.
+     */
+    private boolean lanzar(Integer idTrabajo) {
+        if (!enEjecucion.add(idTrabajo)) {
+            return true;
+        }
+        try {
+            ejecutor.execute(() -> {
+                try {
+                    procesar(idTrabajo);
+                } finally {
+                    enEjecucion.remove(idTrabajo);
+                }
+                if (ejecutor.getQueue().isEmpty() && !ejecutor.isShutdown()) {
+                    retomarPendientes();
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            enEjecucion.remove(idTrabajo);
+            log.warn("Pool de imágenes saturado; el trabajo {} queda pendiente", idTrabajo);
+            return false;
+        }
+    }
+
+    /**
+     * Método auxiliar que procesa un trabajo: genera las versiones fuera de cualquier transacción
+     * y, en una transacción corta, las asigna al ejercicio si su imagen no ha cambiado entretanto.
+     *
+     * @param idTrabajo ID del trabajo.
+     */
+    private void procesar(Integer idTrabajo) {
+        TrabajoImagen trabajo = transactionTemplate.execute(estado -> {
+            TrabajoImagen t = trabajoImagenRepository.findById(idTrabajo).orElse(null);
+            if (t == null || !SIN_TERMINAR.contains(t.getEstado())) {
+                return null;
+            }
+            if (t.getIntentos() >= intentosMaximos) {
+                log.warn("El trabajo {} se ha interrumpido {} veces; se marca como fallido",
+                        idTrabajo, t.getIntentos());
+                t.setEstado(TrabajoImagen.Estado.FALLIDO);
+                t.setUltimoError("Interrumpido tras " + t.getIntentos() + " intentos");
+                t.setFechaActualizacion(LocalDateTime.now());
+                return null;
+            }
+            t.setEstado(TrabajoImagen.Estado.EN_CURSO);
+            t.setIntentos(t.getIntentos() + 1);
+            t.setFechaActualizacion(LocalDateTime.now());
+            return t;
+        });
+        if (trabajo == null) {
+            return;
+        }
+
+        try {
+            ProcesadorImagenes.Derivadas derivadas = procesador.generar(Path.of(trabajo.getRutaOriginal()));
+            String prefijo = trabajo.getUrlOriginal().substring(0, trabajo.getUrlOriginal().lastIndexOf('/') + 1);
+
+            transactionTemplate.executeWithoutResult(estado -> {
+                Ejercicio ejercicio = ejercicioRepository.findById(trabajo.getIdEjercicio()).orElse(null);
+                if (ejercicio != null && trabajo.getUrlOriginal().equals(ejercicio.getImagenUrl())) {
+                    ejercicio.setImagenMiniaturaUrl(prefijo + derivadas.getMiniatura());
+                    ejercicio.setImagenMediaUrl(prefijo + derivadas.getMedia());
+                    ejercicio.setImagenPosterUrl(prefijo + derivadas.getPoster());
+                    catalogoEjercicios.invalidar();
+                }
+                terminar(idTrabajo, TrabajoImagen.Estado.COMPLETADO, null);
+            });
+            log.info("Imagen del ejercicio {} procesada (trabajo {})", trabajo.getIdEjercicio(), idTrabajo);
+        } catch (Throwable e) {
+            // También un OutOfMemoryError: el trabajo no debe quedarse EN_CURSO hasta el siguiente arranque
+            log.warn("Falló el procesamiento de imagen del trabajo {}: {}", idTrabajo, e.toString());
+            String mensaje = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            try {
+                transactionTemplate.executeWithoutResult(estado ->
+                        terminar(idTrabajo, TrabajoImagen.Estado.FALLIDO,
+                                mensaje.length() > 1000 ? mensaje.substring(0, 1000) : mensaje));
+            } finally {
+                if (e instanceof VirtualMachineError error) {
+                    throw error;
+                }
+            }
+        }
+    }
+
+    /**
+     * Método auxiliar que marca un trabajo como terminado, dentro de la transacción en curso.
+     */
+    private void terminar(Integer idTrabajo, TrabajoImagen.Estado estado, String error) {
+        trabajoImagenRepository.findById(idTrabajo).ifPresent(t -> {
+            t.setEstado(estado);
+            t.setUltimoError(error);
+            t.setFechaActualizacion(LocalDateTime.now());
+        });
+    }
+}
@@ -4,6 +4,8 @@ import org.backend.backendfacilgim.entity.TipoEntrenamiento;
 import org.backend.backendfacilgim.exception.CustomException;
 import org.backend.backendfacilgim.repository.TipoEntrenamientoRepository;
 import org.backend.backendfacilgim.service.TipoEntrenamientoService;
+import org.backend.backendfacilgim.utilities.CatalogoTiposEntrenamiento;
+import org.backend.backendfacilgim.utilities.RespuestaSerializada;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -13,6 +15,10 @@ import java.util.Optional;
  * Implementación de {@link TipoEntrenamientoService} que gestiona la lógica
  * de negocio para la entidad {@link TipoEntrenamiento}. Realiza operaciones
  * CRUD asegurando la integridad de los datos (por ejemplo, nombres únicos).
+ * <p>
+ * El listado serializado se sirve desde {@link CatalogoTiposEntrenamiento}, que se
+ * invalida tras cada escritura.
+ * </p>
  *
  * Autor: Francisco Santana
  */
@@ -20,9 +26,12 @@ import java.util.Optional;
 public class TipoEntrenamientoServiceImpl implements TipoEntrenamientoService {
 
     private final TipoEntrenamientoRepository repository;
+    private final CatalogoTiposEntrenamiento catalogo;
 
-    public TipoEntrenamientoServiceImpl(TipoEntrenamientoRepository repository) {
+    public TipoEntrenamientoServiceImpl(TipoEntrenamientoRepository repository,
+                                        CatalogoTiposEntrenamiento catalogo) {
         this.repository = repository;
+        this.catalogo = catalogo;
     }
 
     /**
@@ -35,6 +44,16 @@ public class TipoEntrenamientoServiceImpl implements TipoEntrenamientoService {
         return repository.findAll();
     }
 
+    /**
+     * Devuelve el listado serializado de la instantánea vigente de la caché de tipos.
+     *
+     * @return {@link RespuestaSerializada} con todos los tipos.
+     */
+    @Override
+    public RespuestaSerializada listarTiposSerializados() {
+        return catalogo.respuesta();
+    }
+
     /**
      * Crea un nuevo tipo de entrenamiento. Valida que el nombre no esté vacío
      * y que no exista ya otro tipo con el mismo nombre.
@@ -53,7 +72,9 @@ public class TipoEntrenamientoServiceImpl implements TipoEntrenamientoService {
             throw new CustomException("Ya existe un tipo de entrenamiento con ese nombre");
         }
 
-        return repository.save(tipo);
+        TipoEntrenamiento guardado = repository.save(tipo);
+        catalogo.invalidar();
+        return guardado;
     }
 
     /**
@@ -82,7 +103,9 @@ public class TipoEntrenamientoServiceImpl implements TipoEntrenamientoService {
         }
 
         existente.setNombre(tipo.getNombre());
-        return repository.save(existente);
+        TipoEntrenamiento guardado = repository.save(existente);
+        catalogo.invalidar();
+        return guardado;
     }
 
     /**
@@ -97,6 +120,7 @@ public class TipoEntrenamientoServiceImpl implements TipoEntrenamientoService {
             throw new CustomException("No se puede eliminar. Tipo de entrenamiento no encontrado con ID: " + id);
         }
         repository.deleteById(id);
+        catalogo.invalidar();
     }
 
     /**
@@ -0,0 +1,191 @@
+package org.backend.backendfacilgim.utilities;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.backend.backendfacilgim.entity.ArchivoImagen;
+import org.backend.backendfacilgim.repository.ArchivoImagenRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Almacén de las imágenes subidas, direccionado por contenido.
+ * <p>
+ * Cada imagen se guarda con el SHA-256 de su contenido como nombre, repartida en dos niveles
+ * de subdirectorios con los primeros caracteres del hash ({@code 3f/a2/3fa2….gif}) para que
+ * ningún directorio crezca sin límite. El hash se calcula mientras se copia la subida a un
+ * archivo temporal, sin volver a leerla, y después el temporal se renombra a su nombre final.
+ * Si ese archivo ya existe, la subida es un duplicado y se descarta.
+ * </p>
+ * <p>
+ * Como el nombre depende sólo del contenido, el archivo de una URL nunca cambia. Cada archivo
+ * se registra como {@link ArchivoImagen}, con el número de ejercicios que lo referencian.
+ * </p>
+ *
+ * Autor: Francisco Santana
+ */
+@Component
+public class AlmacenImagenes {
+
+    private static final String PREFIJO_URL = "/uploads/";
+    private static final Pattern EXTENSION_VALIDA = Pattern.compile("[a-z0-9]{1,5}");
+
+    private final ArchivoImagenRepository archivoImagenRepository;
+    private final Path raiz;
+
+    /**
+     * Constructor que inyecta el repositorio y fija el directorio de subidas.
+     *
+     * @param archivoImagenRepository Repositorio de archivos de imagen.
+     * @param directorio              Directorio de subidas ({@code uploads} por defecto).
+     */
+    public AlmacenImagenes(
+            ArchivoImagenRepository archivoImagenRepository,
+            @Value("${app.uploads.directorio:uploads}") String directorio
+    ) {
+        this.archivoImagenRepository = archivoImagenRepository;
+        this.raiz = Paths.get(directorio).toAbsolutePath();
+    }
+
+    /**
+     * Guarda una imagen, o reutiliza el archivo existente si ya se subió antes con el mismo contenido.
+     *
+     * @param contenido      Contenido de la imagen; se lee una sola vez y no se cierra.
+     * @param nombreOriginal Nombre del archivo en el cliente, del que sólo se conserva la extensión.
+     * @return Datos del archivo almacenado.
+     * @throws IOException Si ocurre un error al leer la subida o al escribir en disco.
+     */
+    public ImagenGuardada guardar(InputStream contenido, String nombreOriginal) throws IOException {
+        Path temporales = raiz.resolve(".tmp");
+        Files.createDirectories(temporales);
+        Path temporal = Files.createTempFile(temporales, "subida-", ".tmp");
+        try {
+            MessageDigest sha256 = sha256();
+            long tamano;
+            try (DigestInputStream entrada = new DigestInputStream(contenido, sha256)) {
+                tamano = Files.copy(entrada, temporal, StandardCopyOption.REPLACE_EXISTING);
+            }
+            String hash = HexFormat.of().formatHex(sha256.digest());
+            String extension = extension(nombreOriginal);
+            String ruta = hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash
+                    + (extension.isEmpty() ? "" : "." + extension);
+            Path destino = raiz.resolve(ruta);
+            Files.createDirectories(destino.getParent());
+
+            boolean nueva;
+            synchronized (this) {
+                nueva = !Files.exists(destino);
+                if (nueva) {
+                    Files.move(temporal, destino, StandardCopyOption.ATOMIC_MOVE);
+                } else {
+                    // Duplicado: se conserva el archivo existente y se marca como recién usado
+                    Files.setLastModifiedTime(destino, FileTime.fromMillis(System.currentTimeMillis()));
+                }
+                if (!archivoImagenRepository.existsById(ruta)) {
+                    archivoImagenRepository.save(new ArchivoImagen(ruta, hash, tamano, 0, LocalDateTime.now()));
+                }
+            }
+            return new ImagenGuardada(ruta, destino, nueva);
+        } finally {
+            Files.deleteIfExists(temporal);
+        }
+    }
+
+    /**
+     * Suma una referencia al archivo de una URL, cuando un ejercicio pasa a usarla como imagen.
+     * Las URL que no corresponden a un archivo registrado se ignoran.
+     *
+     * @param url URL pública de la imagen; puede ser nula.
+     */
+    public void sumarReferencia(String url) {
+        String ruta = rutaRelativa(url);
+        if (ruta != null) {
+            archivoImagenRepository.sumarReferencias(ruta, 1);
+        }
+    }
+
+    /**
+     * Resta una referencia al archivo de una URL, cuando un ejercicio deja de usarla como imagen.
+     * Las URL que no corresponden a un archivo registrado se ignoran.
+     *
+     * @param url URL pública de la imagen; puede ser nula.
+     */
+    public void restarReferencia(String url) {
+        String ruta = rutaRelativa(url);
+        if (ruta != null) {
+            archivoImagenRepository.sumarReferencias(ruta, -1);
+        }
+    }
+
+    /**
+     * Extrae de una URL pública la ruta del archivo relativa al directorio de subidas.
+     *
+     * @param url URL pública, como {@code http://host/uploads/3f/a2/3fa2….gif}; puede ser nula.
+     * @return La ruta relativa, o {@code null} si la URL no apunta al directorio de subidas.
+     */
+    public static String rutaRelativa(String url) {
+        if (url == null) {
+            return null;
+        }
+        int inicio = url.indexOf(PREFIJO_URL);
+        return inicio < 0 ? null : url.substring(inicio + PREFIJO_URL.length());
+    }
+
+    /**
+     * Método auxiliar que obtiene la extensión del nombre original en minúsculas,
+     * o cadena vacía si no tiene o no es una extensión razonable.
+     */
+    private static String extension(String nombreOriginal) {
+        if (nombreOriginal == null) {
+            return "";
+        }
+        int punto = nombreOriginal.lastIndexOf('.');
+        String extension = punto < 0 ? "" : nombreOriginal.substring(punto + 1).toLowerCase(Locale.ROOT);
+        return EXTENSION_VALIDA.matcher(extension).matches() ? extension : "";
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    /**
+     * Resultado de guardar una imagen.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class ImagenGuardada {
+
+        /**
+         * Ruta relativa al directorio de subidas; es también el final de su URL pública.
+         */
+        private final String ruta;
+
+        /**
+         * Ruta absoluta del archivo en el servidor.
+         */
+        private final Path archivo;
+
+        /**
+         * {@code false} si ya existía un archivo con el mismo contenido y se ha reutilizado.
+         */
+        private final boolean nueva;
+    }
+}
@@ -0,0 +1,119 @@
+package org.backend.backendfacilgim.utilities;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.backend.backendfacilgim.dto.EjercicioCatalogoDTO;
+import org.backend.backendfacilgim.dto.EjercicioPopularDTO;
+import org.backend.backendfacilgim.repository.EjercicioRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Caché en memoria del catálogo global de ejercicios, ordenado e indexado por ID.
+ * <p>
+ * El servicio de ejercicios la invalida al crear, actualizar o eliminar un ejercicio; además
+ * caduca pasados {@code app.catalogo.ttl-segundos} (300 por defecto). Sus métricas se publican
+ * como {@code catalogo.ejercicios.cache} y {@code catalogo.ejercicios.tamano}.
+ * </p>
+ * <p>
+ * También mantiene el {@link IndiceBusquedaEjercicios} de la búsqueda por nombre. Se construye
+ * la primera vez que se busca sobre cada instantánea, de modo que siempre refleja la misma
+ * versión del catálogo que {@link #listar()}.
+ * </p>
+ * <p>
+ * El número de usos de cada ejercicio es el de la instantánea, así que la ordenación por
+ * popularidad puede ir hasta un TTL por detrás del contador. Los usos no forman parte de la
+ * respuesta serializada del catálogo, sólo de {@link #populares(int)}.
+ * </p>
+ *
+ * Autor: Francisco Santana
+ */
+@Component
+public class CatalogoEjercicios extends CatalogoEnMemoria<Integer, EjercicioCatalogoDTO> {
+
+    private static final Comparator<EjercicioCatalogoDTO> POR_USOS = Comparator
+            .comparingLong(EjercicioCatalogoDTO::getUsos).reversed()
+            .thenComparing(EjercicioCatalogoDTO::getIdEjercicio);
+
+    private final EjercicioRepository ejercicioRepository;
+
+    private volatile IndiceVersionado indice;
+
+    /**
+     * Constructor que inyecta el repositorio y registra las métricas de la caché.
+     *
+     * @param ejercicioRepository Repositorio de ejercicios, usado para reconstruir la instantánea.
+     * @param meterRegistry       Registro de métricas de la aplicación.
+     * @param objectMapper        {@link ObjectMapper} de la aplicación.
+     * @param ttlSegundos         Antigüedad máxima de la instantánea antes de recargarla.
+     */
+    public CatalogoEjercicios(
+            EjercicioRepository ejercicioRepository,
+            MeterRegistry meterRegistry,
+            ObjectMapper objectMapper,
+            @Value("${app.catalogo.ttl-segundos:300}") long ttlSegundos
+    ) {
+        super("ejercicios", meterRegistry, objectMapper, Duration.ofSeconds(ttlSegundos));
+        this.ejercicioRepository = ejercicioRepository;
+    }
+
+    /**
+     * Busca ejercicios por nombre de forma aproximada (sin distinguir tildes ni mayúsculas,
+     * por prefijo y tolerando erratas), ordenados por relevancia.
+     *
+     * @param consulta Texto a buscar.
+     * @param limite   Número máximo de resultados.
+     * @return Los ejercicios más relevantes, como mucho {@code limite}.
+     */
+    public List<EjercicioCatalogoDTO> buscarPorNombre(String consulta, int limite) {
+        List<EjercicioCatalogoDTO> lista = listar();
+        IndiceVersionado vigente = indice;
+        if (vigente == null || vigente.lista != lista) {
+            vigente = new IndiceVersionado(lista, IndiceBusquedaEjercicios.construir(lista));
+            indice = vigente;
+        }
+        return vigente.indice.buscar(consulta, limite);
+    }
+
+    /**
+     * Devuelve los ejercicios más usados; a igual número de usos, el de menor ID.
+     *
+     * @param limite Número máximo de resultados.
+     * @return Los ejercicios de más a menos usado, con sus usos, como mucho {@code limite}.
+     */
+    public List<EjercicioPopularDTO> populares(int limite) {
+        return listar().stream()
+                .sorted(POR_USOS)
+                .limit(limite)
+                .map(EjercicioPopularDTO::de)
+                .toList();
+    }
+
+    @Override
+    protected List<EjercicioCatalogoDTO> cargar() {
+        return ejercicioRepository.listarCatalogo();
+    }
+
+    @Override
+    protected Integer clave(EjercicioCatalogoDTO ejercicio) {
+        return ejercicio.getIdEjercicio();
+    }
+
+    /**
+     * Índice de búsqueda junto con la lista (la instantánea) a partir de la que se construyó.
+     */
+    private static final class IndiceVersionado {
+
+        final List<EjercicioCatalogoDTO> lista;
+        final IndiceBusquedaEjercicios indice;
+
+        IndiceVersionado(List<EjercicioCatalogoDTO> lista, IndiceBusquedaEjercicios indice) {
+            this.lista = lista;
+            this.indice = indice;
+        }
+    }
+}
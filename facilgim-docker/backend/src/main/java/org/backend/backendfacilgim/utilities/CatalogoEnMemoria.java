@@ -0,0 +1,231 @@
+package org.backend.backendfacilgim.utilities;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Base de las cachés en memoria de catálogos pequeños y muy leídos.
+ * <p>
+ * Mantiene una instantánea inmutable del catálogo (la lista, un índice por clave y su
+ * respuesta JSON ya serializada) que se sustituye de forma atómica, de modo que los lectores
+ * siempre ven una versión completa y coherente. La instantánea se reconstruye desde la base
+ * de datos cuando el servicio correspondiente llama a {@link #invalidar()} tras una escritura
+ * y, como red de seguridad frente a escrituras hechas desde otras instancias, cuando supera
+ * el tiempo de vida configurado.
+ * </p>
+ * <p>
+ * Al caducar, sólo el primer lector recarga el catálogo; los demás siguen recibiendo la
+ * instantánea anterior mientras tanto. Únicamente la primera carga, cuando aún no hay
+ * ninguna instantánea, hace esperar a los lectores concurrentes.
+ * </p>
+ * <p>
+ * Publica los contadores {@code catalogo.<nombre>.cache} con la etiqueta
+ * {@code resultado=acierto|fallo} y el indicador {@code catalogo.<nombre>.tamano}.
+ * Los elementos devueltos se comparten entre peticiones y no deben modificarse.
+ * </p>
+ *
+ * @param <K> Tipo de la clave de los elementos.
+ * @param <T> Tipo de los elementos del catálogo.
+ *
+ * Autor: Francisco Santana
+ */
+public abstract class CatalogoEnMemoria<K, T> {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogoEnMemoria.class);
+
+    private final String nombre;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Counter aciertos;
+    private final Counter fallos;
+    private final AtomicBoolean refrescando = new AtomicBoolean();
+
+    private volatile Instantanea<K, T> instantanea;
+
+    /**
+     * Constructor que registra las métricas de la caché.
+     *
+     * @param nombre        Nombre del catálogo, usado en las métricas y en los logs.
+     * @param meterRegistry Registro de métricas de la aplicación.
+     * @param objectMapper  {@link ObjectMapper} de la aplicación, para serializar la respuesta.
+     * @param ttl           Antigüedad máxima de la instantánea antes de recargarla.
+     */
+    protected CatalogoEnMemoria(String nombre, MeterRegistry meterRegistry,
+                                ObjectMapper objectMapper, Duration ttl) {
+        this.nombre = nombre;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.aciertos = Counter.builder("catalogo." + nombre + ".cache")
+                .description("Lecturas del catálogo servidas desde memoria")
+                .tag("resultado", "acierto")
+                .register(meterRegistry);
+        this.fallos = Counter.builder("catalogo." + nombre + ".cache")
+                .description("Lecturas del catálogo que obligaron a recargarlo")
+                .tag("resultado", "fallo")
+                .register(meterRegistry);
+        Gauge.builder("catalogo." + nombre + ".tamano", this,
+                        c -> c.instantanea != null ? c.instantanea.getLista().size() : 0)
+                .description("Número de elementos en la instantánea actual del catálogo")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Lee el catálogo completo de la base de datos.
+     *
+     * @return Elementos del catálogo, en el orden en que deben listarse.
+     */
+    protected abstract List<T> cargar();
+
+    /**
+     * Obtiene la clave por la que se indexa un elemento.
+     *
+     * @param elemento Elemento del catálogo.
+     * @return Su clave.
+     */
+    protected abstract K clave(T elemento);
+
+    /**
+     * Devuelve el catálogo completo.
+     *
+     * @return Lista inmutable de elementos.
+     */
+    public List<T> listar() {
+        return actual().getLista();
+    }
+
+    /**
+     * Busca un elemento del catálogo por su clave.
+     *
+     * @param clave Clave del elemento.
+     * @return {@link Optional} con el elemento, o vacío si no existe.
+     */
+    public Optional<T> buscar(K clave) {
+        if (clave == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(actual().getPorClave().get(clave));
+    }
+
+    /**
+     * Devuelve el catálogo completo ya serializado como JSON, con su ETag y su versión gzip.
+     *
+     * @return {@link RespuestaSerializada} de la instantánea vigente.
+     */
+    public RespuestaSerializada respuesta() {
+        return actual().getRespuesta();
+    }
+
+    /**
+     * Reconstruye la instantánea tras una escritura en el catálogo.
+     * <p>
+     * Si hay una transacción activa, la recarga se aplaza hasta su commit para no leer
+     * datos que aún no son visibles (o que podrían deshacerse); en otro caso es inmediata.
+     * </p>
+     */
+    public void invalidar() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recargar();
+                }
+            });
+        } else {
+            recargar();
+        }
+    }
+
+    /**
+     * Método auxiliar que devuelve la instantánea vigente, recargándola si aún no existe
+     * o si ha caducado. Sólo un hilo consulta la base de datos: si la instantánea ha caducado
+     * y otro ya la está recargando, se devuelve la anterior sin esperar.
+     *
+     * @return Instantánea vigente del catálogo.
+     */
+    private Instantanea<K, T> actual() {
+        Instantanea<K, T> vigente = instantanea;
+        if (vigente == null) {
+            fallos.increment();
+            synchronized (this) {
+                vigente = instantanea;
+                return vigente != null ? vigente : recargar();
+            }
+        }
+        if (vigente.caducada(ttl) && refrescando.compareAndSet(false, true)) {
+            fallos.increment();
+            try {
+                return recargar();
+            } finally {
+                refrescando.set(false);
+            }
+        }
+        aciertos.increment();
+        return vigente;
+    }
+
+    /**
+     * Método auxiliar que lee el catálogo de la base de datos, lo serializa y publica la nueva
+     * instantánea. Está sincronizado para que dos recargas concurrentes no se publiquen en desorden.
+     *
+     * @return La instantánea recién publicada.
+     */
+    private synchronized Instantanea<K, T> recargar() {
+        List<T> lista = List.copyOf(cargar());
+        Map<K, T> porClave = new HashMap<>();
+        for (T elemento : lista) {
+            porClave.put(clave(elemento), elemento);
+        }
+        Instantanea<K, T> nueva = new Instantanea<>(lista, Map.copyOf(porClave),
+                RespuestaSerializada.de(lista, objectMapper), System.nanoTime());
+        instantanea = nueva;
+        log.debug("Catálogo de {} recargado: {} elementos", nombre, lista.size());
+        return nueva;
+    }
+
+    /**
+     * Versión inmutable del catálogo en un instante dado.
+     */
+    @Getter
+    @AllArgsConstructor
+    private static final class Instantanea<K, T> {
+
+        /**
+         * Elementos en el orden de listado.
+         */
+        private final List<T> lista;
+
+        /**
+         * Índice de los mismos elementos por clave.
+         */
+        private final Map<K, T> porClave;
+
+        /**
+         * La lista ya serializada como JSON.
+         */
+        private final RespuestaSerializada respuesta;
+
+        /**
+         * Marca de {@link System#nanoTime()} en la que se construyó.
+         */
+        private final long cargada;
+
+        boolean caducada(Duration ttl) {
+            return System.nanoTime() - cargada > ttl.toNanos();
+        }
+    }
+}
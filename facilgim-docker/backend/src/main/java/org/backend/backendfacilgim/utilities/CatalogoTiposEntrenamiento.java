@@ -0,0 +1,58 @@
+package org.backend.backendfacilgim.utilities;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.backend.backendfacilgim.dto.TipoEntrenamientoDTO;
+import org.backend.backendfacilgim.mapper.TipoEntrenamientoMapper;
+import org.backend.backendfacilgim.repository.TipoEntrenamientoRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Caché en memoria del catálogo de tipos de entrenamiento, indexado por ID.
+ * <p>
+ * El servicio de tipos de entrenamiento la invalida al crear, actualizar o eliminar un tipo;
+ * además caduca pasados {@code app.catalogo.ttl-segundos} (300 por defecto). Sus métricas se
+ * publican como {@code catalogo.tipos.cache} y {@code catalogo.tipos.tamano}.
+ * </p>
+ *
+ * Autor: Francisco Santana
+ */
+@Component
+public class CatalogoTiposEntrenamiento extends CatalogoEnMemoria<Long, TipoEntrenamientoDTO> {
+
+    private final TipoEntrenamientoRepository tipoEntrenamientoRepository;
+
+    /**
+     * Constructor que inyecta el repositorio y registra las métricas de la caché.
+     *
+     * @param tipoEntrenamientoRepository Repositorio de tipos, usado para reconstruir la instantánea.
+     * @param meterRegistry               Registro de métricas de la aplicación.
+     * @param objectMapper                {@link ObjectMapper} de la aplicación.
+     * @param ttlSegundos                 Antigüedad máxima de la instantánea antes de recargarla.
+     */
+    public CatalogoTiposEntrenamiento(
+            TipoEntrenamientoRepository tipoEntrenamientoRepository,
+            MeterRegistry meterRegistry,
+            ObjectMapper objectMapper,
+            @Value("${app.catalogo.ttl-segundos:300}") long ttlSegundos
+    ) {
+        super("tipos", meterRegistry, objectMapper, Duration.ofSeconds(ttlSegundos));
+        this.tipoEntrenamientoRepository = tipoEntrenamientoRepository;
+    }
+
+    @Override
+    protected List<TipoEntrenamientoDTO> cargar() {
+        return tipoEntrenamientoRepository.findAll().stream()
+                .map(TipoEntrenamientoMapper::toDTO)
+                .toList();
+    }
+
+    @Override
+    protected Long clave(TipoEntrenamientoDTO tipo) {
+        return tipo.getId();
+    }
+}
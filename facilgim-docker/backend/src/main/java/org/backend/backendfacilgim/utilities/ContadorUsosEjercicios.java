@@ -0,0 +1,240 @@
+package org.backend.backendfacilgim.utilities;
+
+import jakarta.annotation.PreDestroy;
+import org.backend.backendfacilgim.entity.EntrenamientoEjercicio;
+import org.backend.backendfacilgim.repository.EjercicioRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contador incremental de usos de cada ejercicio (número de relaciones entrenamiento–ejercicio
+ * que lo incluyen), para ordenar el catálogo por popularidad sin contar filas en cada petición.
+ * <p>
+ * Los servicios registran las variaciones al crear o quitar relaciones. Se acumulan en memoria,
+ * en un {@link LongAdder} por ejercicio, y sólo después del commit de la transacción que las
+ * produce, de modo que una escritura deshecha no altera el contador. Periódicamente
+ * ({@code app.ejercicios.usos.volcado-ms}, 5 segundos por defecto) se vuelcan en la columna
+ * {@code ejercicio.usos} con una sentencia por cada valor distinto de la variación, y no una por
+ * ejercicio; si el volcado falla, las variaciones se conservan para el siguiente.
+ * </p>
+ * <p>
+ * Las escrituras que no pasan por estos servicios (borrar un usuario, el CRUD genérico de
+ * relaciones) o un cierre abrupto pueden desviar el contador. Por eso una reconciliación
+ * periódica ({@code app.ejercicios.usos.reconciliacion-ms}, una hora por defecto, y también poco
+ * después de arrancar) lo recalcula a partir de las relaciones y corrige las diferencias.
+ * </p>
+ *
+ * Autor: Francisco Santana
+ */
+@Component
+public class ContadorUsosEjercicios {
+
+    private static final Logger log = LoggerFactory.getLogger(ContadorUsosEjercicios.class);
+    private static final int IDS_POR_SENTENCIA = 500;
+
+    private final EjercicioRepository ejercicioRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ConcurrentHashMap<Integer, LongAdder> pendientes = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor que inyecta el repositorio y el gestor de transacciones.
+     *
+     * @param ejercicioRepository Repositorio de ejercicios, donde se vuelcan los contadores.
+     * @param transactionManager  Gestor de transacciones.
+     */
+    public ContadorUsosEjercicios(EjercicioRepository ejercicioRepository,
+                                  PlatformTransactionManager transactionManager) {
+        this.ejercicioRepository = ejercicioRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Cuenta cuántas relaciones de una colección corresponden a cada ejercicio.
+     *
+     * @param relaciones Relaciones entrenamiento–ejercicio.
+     * @return Número de relaciones por ID de ejercicio.
+     */
+    public static Map<Integer, Long> contar(Collection<EntrenamientoEjercicio> relaciones) {
+        Map<Integer, Long> usos = new HashMap<>();
+        for (EntrenamientoEjercicio relacion : relaciones) {
+            usos.merge(relacion.getEjercicio().getIdEjercicio(), 1L, Long::sum);
+        }
+        return usos;
+    }
+
+    /**
+     * Registra un uso más de un ejercicio.
+     *
+     * @param idEjercicio ID del ejercicio.
+     */
+    public void sumar(Integer idEjercicio) {
+        ajustar(Map.of(), Map.of(idEjercicio, 1L));
+    }
+
+    /**
+     * Registra un uso menos de un ejercicio.
+     *
+     * @param idEjercicio ID del ejercicio.
+     */
+    public void restar(Integer idEjercicio) {
+        ajustar(Map.of(idEjercicio, 1L), Map.of());
+    }
+
+    /**
+     * Registra los usos de unas relaciones nuevas.
+     *
+     * @param relaciones Relaciones creadas.
+     */
+    public void sumar(Collection<EntrenamientoEjercicio> relaciones) {
+        ajustar(Map.of(), contar(relaciones));
+    }
+
+    /**
+     * Retira los usos de unas relaciones eliminadas.
+     *
+     * @param relaciones Relaciones eliminadas.
+     */
+    public void restar(Collection<EntrenamientoEjercicio> relaciones) {
+        ajustar(contar(relaciones), Map.of());
+    }
+
+    /**
+     * Registra la diferencia entre los usos de un conjunto de relaciones antes y después de
+     * modificarlo, tal como los devuelve {@link #contar(Collection)}.
+     * <p>
+     * Si hay una transacción activa, la variación se aplica tras su commit; en otro caso,
+     * de inmediato.
+     * </p>
+     *
+     * @param antes   Usos por ejercicio antes del cambio.
+     * @param despues Usos por ejercicio después del cambio.
+     */
+    public void ajustar(Map<Integer, Long> antes, Map<Integer, Long> despues) {
+        Map<Integer, Long> variacion = new HashMap<>(despues);
+        antes.forEach((id, usos) -> variacion.merge(id, -usos, Long::sum));
+        variacion.values().removeIf(delta -> delta == 0);
+        if (variacion.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    variacion.forEach(ContadorUsosEjercicios.this::acumular);
+                }
+            });
+        } else {
+            variacion.forEach(this::acumular);
+        }
+    }
+
+    /**
+     * Vuelca periódicamente las variaciones acumuladas.
+     */
+    @Scheduled(fixedDelayString = "${app.ejercicios.usos.volcado-ms:5000}")
+    public void volcarPeriodicamente() {
+        volcar();
+    }
+
+    /**
+     * Reconcilia periódicamente los contadores con las relaciones.
+     */
+    @Scheduled(initialDelayString = "${app.ejercicios.usos.reconciliacion-retraso-inicial-ms:60000}",
+            fixedDelayString = "${app.ejercicios.usos.reconciliacion-ms:3600000}")
+    public void reconciliarPeriodicamente() {
+        int corregidos = reconciliar();
+        if (corregidos > 0) {
+            log.info("Contador de usos de ejercicios: {} ejercicios corregidos", corregidos);
+        }
+    }
+
+    /**
+     * Vuelca las variaciones pendientes antes de cerrar la aplicación.
+     */
+    @PreDestroy
+    public void detener() {
+        volcar();
+    }
+
+    /**
+     * Vuelca en la base de datos las variaciones acumuladas desde el último volcado, agrupando
+     * los ejercicios con la misma variación en una única sentencia.
+     *
+     * @return Número de ejercicios cuyo contador se ha actualizado.
+     */
+    public synchronized int volcar() {
+        Map<Long, List<Integer>> porVariacion = new HashMap<>();
+        pendientes.forEach((id, acumulado) -> {
+            long delta = acumulado.sumThenReset();
+            if (delta != 0) {
+                porVariacion.computeIfAbsent(delta, d -> new ArrayList<>()).add(id);
+            }
+        });
+        if (porVariacion.isEmpty()) {
+            return 0;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(estado -> porVariacion.forEach((delta, ids) -> {
+                for (int desde = 0; desde < ids.size(); desde += IDS_POR_SENTENCIA) {
+                    List<Integer> bloque = ids.subList(desde, Math.min(ids.size(), desde + IDS_POR_SENTENCIA));
+                    ejercicioRepository.sumarUsos(bloque, delta);
+                }
+            }));
+        } catch (RuntimeException e) {
+            porVariacion.forEach((delta, ids) -> ids.forEach(id -> acumular(id, delta)));
+            log.warn("No se pudo volcar el contador de usos de ejercicios; se reintentará: {}", e.getMessage());
+            return 0;
+        }
+        return porVariacion.values().stream().mapToInt(List::size).sum();
+    }
+
+    /**
+     * Recalcula todos los contadores a partir de las relaciones, corrigiendo los que se hayan
+     * desviado.
+     * <p>
+     * El recuento ya incluye las relaciones de las transacciones confirmadas, así que las
+     * variaciones pendientes se descartan en la misma transacción, justo antes de recalcular,
+     * en vez de volcarlas: volcarlas por separado contaría dos veces las registradas entre el
+     * volcado y el recuento. Si el recuento falla, se conservan para el siguiente volcado.
+     * </p>
+     *
+     * @return Número de ejercicios corregidos.
+     */
+    public synchronized int reconciliar() {
+        Map<Integer, Long> descartadas = new HashMap<>();
+        Integer corregidos;
+        try {
+            corregidos = transactionTemplate.execute(estado -> {
+                pendientes.forEach((id, acumulado) -> {
+                    long delta = acumulado.sumThenReset();
+                    if (delta != 0) {
+                        descartadas.put(id, delta);
+                    }
+                });
+                return ejercicioRepository.recalcularUsos();
+            });
+        } catch (RuntimeException e) {
+            descartadas.forEach(this::acumular);
+            throw e;
+        }
+        return corregidos != null ? corregidos : 0;
+    }
+
+    /**
+     * Método auxiliar que acumula en memoria la variación de un ejercicio.
+     */
+    private void acumular(Integer idEjercicio, long delta) {
+        pendientes.computeIfAbsent(idEjercicio, id -> new LongAdder()).add(delta);
+    }
+}
@@ -0,0 +1,73 @@
+package org.backend.backendfacilgim.utilities;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.backend.backendfacilgim.exception.CustomException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Cursor opaco para la paginación por clave (keyset) de entrenamientos.
+ * <p>
+ * Guarda la posición del último elemento devuelto, es decir, el par
+ * {@code (fechaEntrenamiento, idEntrenamiento)}, y se transmite al cliente
+ * codificado en Base64 URL-safe para que no dependa de su formato interno.
+ * </p>
+ *
+ * Autor: Francisco Santana
+ */
+@Getter
+@AllArgsConstructor
+public class CursorEntrenamiento {
+
+    private static final String SEPARADOR = "|";
+
+    /**
+     * Fecha del último entrenamiento devuelto en la página anterior.
+     */
+    private final LocalDate fecha;
+
+    /**
+     * Identificador del último entrenamiento devuelto en la página anterior.
+     */
+    private final Integer id;
+
+    /**
+     * Codifica el cursor como una cadena opaca apta para URLs.
+     *
+     * @return Cadena Base64 URL-safe sin relleno.
+     */
+    public String codificar() {
+        String plano = fecha + SEPARADOR + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(plano.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un cursor recibido del cliente.
+     *
+     * @param cursor Cadena opaca generada por {@link #codificar()}; puede ser nula o vacía.
+     * @return El cursor decodificado, o {@code null} si no se proporcionó ninguno (primera página).
+     * @throws CustomException si la cadena no es un cursor válido.
+     */
+    public static CursorEntrenamiento decodificar(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String plano = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separador = plano.indexOf(SEPARADOR);
+            if (separador < 0) {
+                throw new CustomException("Cursor de paginación inválido");
+            }
+            LocalDate fecha = LocalDate.parse(plano.substring(0, separador));
+            Integer id = Integer.valueOf(plano.substring(separador + 1));
+            return new CursorEntrenamiento(fecha, id);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new CustomException("Cursor de paginación inválido");
+        }
+    }
+}
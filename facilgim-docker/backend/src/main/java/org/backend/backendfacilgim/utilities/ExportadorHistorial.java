@@ -0,0 +1,192 @@
+package org.backend.backendfacilgim.utilities;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.backend.backendfacilgim.dto.FilaHistorialDTO;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Escribe el historial de entrenamientos de un usuario en un {@link OutputStream} a medida
+ * que recibe las filas de {@link FilaHistorialDTO}, sin acumularlas en memoria.
+ * <p>
+ * Las filas deben llegar ordenadas por entrenamiento y, dentro de él, por ejercicio, tal y
+ * como las devuelve la consulta de exportación. Una vez consumidas todas, hay que llamar a
+ * {@link #terminar()} para cerrar el último elemento y volcar lo pendiente.
+ * </p>
+ *
+ * Autor: Francisco Santana
+ */
+public abstract class ExportadorHistorial implements Consumer<FilaHistorialDTO> {
+
+    /**
+     * Crea el exportador adecuado para el formato indicado.
+     *
+     * @param formato      Formato de salida.
+     * @param salida       Flujo en el que escribir; no se cierra al terminar.
+     * @param objectMapper {@link ObjectMapper} de la aplicación, usado para NDJSON.
+     * @return Un {@link ExportadorHistorial} listo para recibir filas.
+     * @throws IOException si no se puede escribir la cabecera.
+     */
+    public static ExportadorHistorial crear(FormatoExportacion formato, OutputStream salida,
+                                            ObjectMapper objectMapper) throws IOException {
+        return switch (formato) {
+            case NDJSON -> new Ndjson(objectMapper.getFactory().createGenerator(salida)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET));
+            case CSV -> new Csv(new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8)));
+        };
+    }
+
+    /**
+     * Escribe una fila del historial.
+     *
+     * @param fila Fila a escribir.
+     * @throws UncheckedIOException si falla la escritura (por ejemplo, si el cliente cierra la conexión).
+     */
+    @Override
+    public void accept(FilaHistorialDTO fila) {
+        try {
+            escribir(fila);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Cierra el último elemento abierto y vuelca la salida pendiente.
+     *
+     * @throws IOException si falla la escritura.
+     */
+    public abstract void terminar() throws IOException;
+
+    protected abstract void escribir(FilaHistorialDTO fila) throws IOException;
+
+    /**
+     * NDJSON: un objeto por entrenamiento, con sus ejercicios y las series de cada uno anidados.
+     */
+    private static class Ndjson extends ExportadorHistorial {
+
+        private final JsonGenerator json;
+        private Integer entrenamientoActual;
+        private Integer relacionActual;
+
+        Ndjson(JsonGenerator json) {
+            this.json = json;
+        }
+
+        @Override
+        protected void escribir(FilaHistorialDTO fila) throws IOException {
+            if (!fila.getIdEntrenamiento().equals(entrenamientoActual)) {
+                cerrarEntrenamiento();
+                entrenamientoActual = fila.getIdEntrenamiento();
+                json.writeStartObject();
+                json.writeNumberField("idEntrenamiento", fila.getIdEntrenamiento());
+                json.writeStringField("nombre", fila.getNombre());
+                json.writeStringField("fechaEntrenamiento", Objects.toString(fila.getFechaEntrenamiento(), null));
+                json.writeStringField("descripcion", fila.getDescripcion());
+                json.writeNumberField("duracion", fila.getDuracion());
+                json.writeStringField("tipoEntrenamiento", fila.getTipoEntrenamiento());
+                json.writeArrayFieldStart("ejercicios");
+            }
+            if (fila.getIdEntrenamientoEjercicio() == null) {
+                return;
+            }
+            if (!fila.getIdEntrenamientoEjercicio().equals(relacionActual)) {
+                cerrarEjercicio();
+                relacionActual = fila.getIdEntrenamientoEjercicio();
+                json.writeStartObject();
+                json.writeNumberField("idEntrenamientoEjercicio", fila.getIdEntrenamientoEjercicio());
+                json.writeObjectField("orden", fila.getOrden());
+                json.writeObjectField("idEjercicio", fila.getIdEjercicio());
+                json.writeStringField("nombre", fila.getNombreEjercicio());
+                json.writeArrayFieldStart("series");
+            }
+            if (fila.getIdSerie() != null) {
+                json.writeStartObject();
+                json.writeNumberField("numeroSerie", fila.getNumeroSerie());
+                json.writeNumberField("repeticiones", fila.getRepeticiones());
+                json.writeNumberField("peso", fila.getPeso());
+                json.writeEndObject();
+            }
+        }
+
+        @Override
+        public void terminar() throws IOException {
+            cerrarEntrenamiento();
+            json.flush();
+        }
+
+        private void cerrarEjercicio() throws IOException {
+            if (relacionActual != null) {
+                json.writeEndArray();
+                json.writeEndObject();
+                relacionActual = null;
+            }
+        }
+
+        private void cerrarEntrenamiento() throws IOException {
+            if (entrenamientoActual != null) {
+                cerrarEjercicio();
+                json.writeEndArray();
+                json.writeEndObject();
+                json.writeRaw('\n');
+                entrenamientoActual = null;
+            }
+        }
+    }
+
+    /**
+     * CSV: una fila por serie, repitiendo los datos del entrenamiento y del ejercicio.
+     */
+    private static class Csv extends ExportadorHistorial {
+
+        private static final String CABECERA = "id_entrenamiento,fecha,nombre,descripcion,tipo,"
+                + "duracion,orden,id_ejercicio,ejercicio,numero_serie,repeticiones,peso";
+
+        private final Writer salida;
+
+        Csv(Writer salida) throws IOException {
+            this.salida = salida;
+            salida.write(CABECERA);
+            salida.write('\n');
+        }
+
+        @Override
+        protected void escribir(FilaHistorialDTO fila) throws IOException {
+            salida.write(String.join(",",
+                    campo(fila.getIdEntrenamiento()),
+                    campo(fila.getFechaEntrenamiento()),
+                    campo(fila.getNombre()),
+                    campo(fila.getDescripcion()),
+                    campo(fila.getTipoEntrenamiento()),
+                    campo(fila.getDuracion()),
+                    campo(fila.getOrden()),
+                    campo(fila.getIdEjercicio()),
+                    campo(fila.getNombreEjercicio()),
+                    campo(fila.getNumeroSerie()),
+                    campo(fila.getRepeticiones()),
+                    campo(fila.getPeso())));
+            salida.write('\n');
+        }
+
+        @Override
+        public void terminar() throws IOException {
+            salida.flush();
+        }
+
+        private static String campo(Object valor) {
+            if (valor == null) {
+                return "";
+            }
+            String texto = valor.toString();
+            if (texto.indexOf(',') < 0 && texto.indexOf('"') < 0
+                    && texto.indexOf('\n') < 0 && texto.indexOf('\r') < 0) {
+                return texto;
+            }
+            return '"' + texto.replace("\"", "\"\"") + '"';
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package org.backend.backendfacilgim.utilities;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.backend.backendfacilgim.exception.CustomException;
+import org.springframework.http.MediaType;
+
+/**
+ * Formatos disponibles para exportar e importar el historial de entrenamientos.
+ *
+ * Autor: Francisco Santana
+ */
+@Getter
+@AllArgsConstructor
+public enum FormatoExportacion {
+
+    /**
+     * JSON delimitado por saltos de línea: un entrenamiento completo por línea.
+     */
+    NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+
+    /**
+     * CSV con una fila por serie y cabecera en la primera línea.
+     */
+    CSV(MediaType.parseMediaType("text/csv;charset=UTF-8"), "csv");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    /**
+     * Obtiene el formato a partir del nombre recibido en la petición.
+     *
+     * @param nombre Nombre del formato, sin distinguir mayúsculas ({@code ndjson} o {@code csv}).
+     * @return El {@link FormatoExportacion} correspondiente.
+     * @throws CustomException si el formato no está soportado.
+     */
+    public static FormatoExportacion desde(String nombre) {
+        for (FormatoExportacion formato : values()) {
+            if (formato.extension.equalsIgnoreCase(nombre)) {
+                return formato;
+            }
+        }
+        throw new CustomException("Formato de exportación no soportado: " + nombre);
+    }
+}
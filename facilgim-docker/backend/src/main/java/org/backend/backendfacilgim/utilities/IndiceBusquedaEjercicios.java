@@ -0,0 +1,280 @@
+package org.backend.backendfacilgim.utilities;
+
+import org.backend.backendfacilgim.dto.EjercicioCatalogoDTO;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Índice invertido de trigramas, inmutable, sobre los nombres del catálogo de ejercicios.
+ * <p>
+ * Los nombres y las consultas se normalizan (sin tildes, en minúsculas y sólo con letras y
+ * dígitos) y se parten en palabras; cada palabra se indexa por sus trigramas, con dos espacios
+ * delante para que los primeros trigramas representen su comienzo. La búsqueda:
+ * </p>
+ * <ol>
+ *   <li>Reúne como candidatos los ejercicios que comparten suficientes trigramas con la consulta
+ *       (con distancia de edición {@code d}, una palabra conserva al menos {@code n - 4d} de sus
+ *       {@code n} trigramas), lo que descarta casi todo el catálogo sin compararlo.</li>
+ *   <li>Exige que cada palabra de la consulta coincida con alguna palabra del nombre, ya sea
+ *       exactamente, como prefijo (la última palabra, que el usuario aún está escribiendo) o con
+ *       una distancia de edición tolerable según su longitud.</li>
+ *   <li>Ordena por la calidad de esas coincidencias y devuelve sólo los {@code limite} mejores.</li>
+ * </ol>
+ *
+ * Autor: Francisco Santana
+ */
+public final class IndiceBusquedaEjercicios {
+
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^a-z0-9]+");
+    private static final int[] SIN_POSTINGS = new int[0];
+
+    private final List<EjercicioCatalogoDTO> ejercicios;
+    private final String[] nombres;
+    private final String[][] palabras;
+    private final Map<String, int[]> postings;
+
+    private IndiceBusquedaEjercicios(List<EjercicioCatalogoDTO> ejercicios) {
+        this.ejercicios = ejercicios;
+        this.nombres = new String[ejercicios.size()];
+        this.palabras = new String[ejercicios.size()][];
+
+        Map<String, List<Integer>> acumulado = new HashMap<>();
+        for (int i = 0; i < ejercicios.size(); i++) {
+            nombres[i] = normalizar(ejercicios.get(i).getNombre());
+            palabras[i] = palabras(nombres[i]);
+            Set<String> trigramas = new HashSet<>();
+            for (String palabra : palabras[i]) {
+                trigramas(palabra, true, trigramas);
+            }
+            for (String trigrama : trigramas) {
+                acumulado.computeIfAbsent(trigrama, t -> new ArrayList<>()).add(i);
+            }
+        }
+
+        Map<String, int[]> compactado = new HashMap<>(acumulado.size() * 2);
+        acumulado.forEach((trigrama, docs) ->
+                compactado.put(trigrama, docs.stream().mapToInt(Integer::intValue).toArray()));
+        this.postings = compactado;
+    }
+
+    /**
+     * Construye el índice de un catálogo.
+     *
+     * @param ejercicios Ejercicios del catálogo; la lista no debe cambiar después.
+     * @return El índice construido.
+     */
+    public static IndiceBusquedaEjercicios construir(List<EjercicioCatalogoDTO> ejercicios) {
+        return new IndiceBusquedaEjercicios(ejercicios);
+    }
+
+    /**
+     * Busca los ejercicios cuyo nombre se parece más a la consulta.
+     *
+     * @param consulta Texto introducido por el usuario.
+     * @param limite   Número máximo de resultados.
+     * @return Ejercicios ordenados de mayor a menor relevancia; vacía si la consulta no tiene
+     *         letras ni dígitos o nada coincide.
+     */
+    public List<EjercicioCatalogoDTO> buscar(String consulta, int limite) {
+        String normalizada = normalizar(consulta);
+        String[] terminos = palabras(normalizada);
+        if (terminos.length == 0 || limite <= 0) {
+            return List.of();
+        }
+
+        // 1. Candidatos: ejercicios que comparten suficientes trigramas con la consulta
+        Set<String> trigramasConsulta = new HashSet<>();
+        int tolerancia = 0;
+        for (int t = 0; t < terminos.length; t++) {
+            trigramas(terminos[t], t < terminos.length - 1, trigramasConsulta);
+            tolerancia += tolerancia(terminos[t]);
+        }
+        int minimo = Math.max(1, trigramasConsulta.size() - 4 * tolerancia);
+
+        int[] comunes = new int[nombres.length];
+        for (String trigrama : trigramasConsulta) {
+            for (int doc : postings.getOrDefault(trigrama, SIN_POSTINGS)) {
+                comunes[doc]++;
+            }
+        }
+
+        // 2 y 3. Verificación palabra a palabra y selección de los mejores
+        PriorityQueue<Resultado> mejores = new PriorityQueue<>(limite + 1, Resultado.PEOR_PRIMERO);
+        for (int doc = 0; doc < comunes.length; doc++) {
+            if (comunes[doc] < minimo) {
+                continue;
+            }
+            double puntuacion = puntuar(terminos, normalizada, doc);
+            if (puntuacion <= 0) {
+                continue;
+            }
+            mejores.add(new Resultado(doc, puntuacion, nombres[doc].length()));
+            if (mejores.size() > limite) {
+                mejores.poll();
+            }
+        }
+
+        Resultado[] ordenados = mejores.toArray(new Resultado[0]);
+        Arrays.sort(ordenados, Resultado.PEOR_PRIMERO.reversed());
+        List<EjercicioCatalogoDTO> resultado = new ArrayList<>(ordenados.length);
+        for (Resultado r : ordenados) {
+            resultado.add(ejercicios.get(r.doc));
+        }
+        return resultado;
+    }
+
+    /**
+     * Normaliza un texto para compararlo: sin tildes ni diacríticos, en minúsculas y con
+     * cualquier carácter que no sea letra o dígito convertido en un único espacio.
+     *
+     * @param texto Texto a normalizar; puede ser nulo.
+     * @return Texto normalizado, o cadena vacía si era nulo.
+     */
+    public static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String sinMarcas = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARADORES.matcher(sinMarcas.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    /**
+     * Método auxiliar que puntúa un ejercicio frente a los términos de la consulta.
+     * Cada término aporta 1 si coincide exactamente con una palabra, 0,9 si es su prefijo y
+     * algo menos cuanto mayor sea la distancia de edición; si alguno no coincide, el ejercicio
+     * se descarta (devuelve 0). Se premia además que el nombre empiece por la consulta.
+     */
+    private double puntuar(String[] terminos, String consulta, int doc) {
+        double total = 0;
+        for (int t = 0; t < terminos.length; t++) {
+            double mejor = 0;
+            for (String palabra : palabras[doc]) {
+                mejor = Math.max(mejor, coincidencia(terminos[t], palabra, t == terminos.length - 1));
+                if (mejor == 1.0) {
+                    break;
+                }
+            }
+            if (mejor == 0) {
+                return 0;
+            }
+            total += mejor;
+        }
+        double puntuacion = total / terminos.length;
+        if (nombres[doc].startsWith(consulta)) {
+            puntuacion += 0.1;
+        }
+        return puntuacion;
+    }
+
+    /**
+     * Método auxiliar que mide cuánto se parece un término a una palabra del nombre.
+     * El último término de la consulta también se compara con el comienzo de la palabra,
+     * porque el usuario puede no haber terminado de escribirla.
+     */
+    private static double coincidencia(String termino, String palabra, boolean ultimo) {
+        if (palabra.equals(termino)) {
+            return 1.0;
+        }
+        if (ultimo && palabra.startsWith(termino)) {
+            return 0.9;
+        }
+        int tolerancia = tolerancia(termino);
+        if (tolerancia == 0) {
+            return 0;
+        }
+        int distancia = distancia(termino, palabra, tolerancia);
+        if (ultimo && palabra.length() > termino.length()) {
+            distancia = Math.min(distancia,
+                    distancia(termino, palabra.substring(0, termino.length()), tolerancia));
+        }
+        return distancia <= tolerancia ? 0.7 - 0.15 * distancia : 0;
+    }
+
+    /**
+     * Método auxiliar con el número de errores admitidos en un término: ninguno hasta
+     * 3 caracteres, uno hasta 6 y dos a partir de ahí.
+     */
+    private static int tolerancia(String termino) {
+        if (termino.length() <= 3) {
+            return 0;
+        }
+        return termino.length() <= 6 ? 1 : 2;
+    }
+
+    /**
+     * Método auxiliar que calcula la distancia de edición acotada (Levenshtein con
+     * transposiciones de letras contiguas, la errata más habitual al teclear): en cuanto
+     * supera {@code maximo} deja de calcular y devuelve {@code maximo + 1}.
+     */
+    private static int distancia(String a, String b, int maximo) {
+        if (Math.abs(a.length() - b.length()) > maximo) {
+            return maximo + 1;
+        }
+        int[] dosAntes = new int[b.length() + 1];
+        int[] anterior = new int[b.length() + 1];
+        int[] actual = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            anterior[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            actual[0] = i;
+            int minimoFila = actual[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int coste = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                actual[j] = Math.min(Math.min(actual[j - 1] + 1, anterior[j] + 1), anterior[j - 1] + coste);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    actual[j] = Math.min(actual[j], dosAntes[j - 2] + 1);
+                }
+                minimoFila = Math.min(minimoFila, actual[j]);
+            }
+            if (minimoFila > maximo) {
+                return maximo + 1;
+            }
+            int[] intercambio = dosAntes;
+            dosAntes = anterior;
+            anterior = actual;
+            actual = intercambio;
+        }
+        return anterior[b.length()];
+    }
+
+    private static String[] palabras(String normalizado) {
+        return normalizado.isEmpty() ? new String[0] : normalizado.split(" ");
+    }
+
+    /**
+     * Método auxiliar que añade los trigramas de una palabra, con dos espacios delante para
+     * marcar su comienzo y, si está completa, uno detrás para marcar su final.
+     */
+    private static void trigramas(String palabra, boolean completa, Set<String> destino) {
+        String relleno = "  " + palabra + (completa ? " " : "");
+        for (int i = 0; i + 3 <= relleno.length(); i++) {
+            destino.add(relleno.substring(i, i + 3));
+        }
+    }
+
+    /**
+     * Candidato puntuado. A igual puntuación gana el nombre más corto y, después, el que
+     * aparece antes en el catálogo.
+     */
+    private static final class Resultado {
+
+        static final Comparator<Resultado> PEOR_PRIMERO = Comparator
+                .comparingDouble((Resultado r) -> r.puntuacion)
+                .thenComparing(Comparator.comparingInt((Resultado r) -> r.longitud).reversed())
+                .thenComparing(Comparator.comparingInt((Resultado r) -> r.doc).reversed());
+
+        final int doc;
+        final double puntuacion;
+        final int longitud;
+
+        Resultado(int doc, double puntuacion, int longitud) {
+            this.doc = doc;
+            this.puntuacion = puntuacion;
+            this.longitud = longitud;
+        }
+    }
+}
@@ -0,0 +1,366 @@
+package org.backend.backendfacilgim.utilities;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.backend.backendfacilgim.dto.*;
+import org.backend.backendfacilgim.exception.CustomException;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+
+/**
+ * Lee de forma incremental un historial de entrenamientos en CSV o NDJSON y lo entrega
+ * como {@link EntrenamientoDTO}, de uno en uno, sin cargar el archivo entero en memoria.
+ * <p>
+ * Acepta los mismos formatos que produce {@link ExportadorHistorial}. Los tipos de
+ * entrenamiento y los ejercicios se devuelven solo con su nombre; resolver sus IDs
+ * contra el catálogo es responsabilidad de quien consume el lector.
+ * </p>
+ *
+ * Autor: Francisco Santana
+ */
+public abstract class LectorHistorial implements Iterator<EntrenamientoDTO>, Closeable {
+
+    protected final BufferedReader lector;
+    protected int linea;
+
+    private EntrenamientoDTO siguiente;
+    private boolean terminado;
+
+    protected LectorHistorial(BufferedReader lector) {
+        this.lector = lector;
+    }
+
+    /**
+     * Crea el lector adecuado para el formato indicado.
+     *
+     * @param formato      Formato del archivo.
+     * @param entrada      Flujo con el contenido del archivo, en UTF-8; se cierra con el lector.
+     * @param objectMapper {@link ObjectMapper} de la aplicación, usado para NDJSON.
+     * @return Un {@link LectorHistorial} posicionado en el primer entrenamiento.
+     * @throws IOException si no se puede leer la cabecera.
+     */
+    public static LectorHistorial abrir(FormatoExportacion formato, InputStream entrada,
+                                        ObjectMapper objectMapper) throws IOException {
+        BufferedReader lector = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+        return switch (formato) {
+            case NDJSON -> new Ndjson(lector, objectMapper);
+            case CSV -> new Csv(lector);
+        };
+    }
+
+    /**
+     * Indica si quedan entrenamientos por leer.
+     *
+     * @return {@code true} si hay al menos un entrenamiento más.
+     * @throws UncheckedIOException si falla la lectura.
+     * @throws CustomException si el contenido no tiene un formato válido.
+     */
+    @Override
+    public boolean hasNext() {
+        if (siguiente == null && !terminado) {
+            try {
+                siguiente = leer();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            terminado = siguiente == null;
+        }
+        return siguiente != null;
+    }
+
+    @Override
+    public EntrenamientoDTO next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        EntrenamientoDTO actual = siguiente;
+        siguiente = null;
+        return actual;
+    }
+
+    @Override
+    public void close() throws IOException {
+        lector.close();
+    }
+
+    /**
+     * Lee el siguiente entrenamiento completo.
+     *
+     * @return El entrenamiento leído, o {@code null} si no quedan más.
+     * @throws IOException si falla la lectura.
+     */
+    protected abstract EntrenamientoDTO leer() throws IOException;
+
+    protected EntrenamientoDTO nuevoEntrenamiento(String nombre, String fecha, String descripcion,
+                                                  Integer duracion, String tipo) {
+        EntrenamientoDTO dto = new EntrenamientoDTO();
+        dto.setNombre(nombre);
+        dto.setFechaEntrenamiento(fecha(fecha));
+        dto.setDescripcion(descripcion);
+        dto.setDuracion(duracion == null ? 0 : duracion);
+        dto.setTipoEntrenamiento(new TipoEntrenamientoDTO(null, tipo));
+        dto.setEntrenamientosEjercicios(new ArrayList<>());
+        return dto;
+    }
+
+    protected EntrenamientoEjercicioDTO nuevoEjercicio(EntrenamientoDTO entrenamiento, String nombre, Integer orden) {
+        List<EntrenamientoEjercicioDTO> relaciones = entrenamiento.getEntrenamientosEjercicios();
+        EntrenamientoEjercicioDTO relacion = new EntrenamientoEjercicioDTO(
+                null, new EjercicioDTO(null, nombre, null, null),
+                orden == null ? relaciones.size() + 1 : orden, new ArrayList<>());
+        relaciones.add(relacion);
+        return relacion;
+    }
+
+    protected LocalDate fecha(String texto) {
+        if (texto == null || texto.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(texto.trim());
+        } catch (DateTimeParseException e) {
+            throw error("fecha inválida '" + texto + "'");
+        }
+    }
+
+    protected Integer entero(String texto, String campo) {
+        if (texto == null || texto.isBlank()) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(texto.trim());
+        } catch (NumberFormatException e) {
+            throw error(campo + " inválido '" + texto + "'");
+        }
+    }
+
+    protected Double decimal(String texto, String campo) {
+        if (texto == null || texto.isBlank()) {
+            return null;
+        }
+        try {
+            return Double.valueOf(texto.trim());
+        } catch (NumberFormatException e) {
+            throw error(campo + " inválido '" + texto + "'");
+        }
+    }
+
+    protected CustomException error(String mensaje) {
+        return new CustomException("Línea " + linea + ": " + mensaje);
+    }
+
+    /**
+     * NDJSON: cada línea no vacía es un entrenamiento con sus ejercicios y series anidados.
+     */
+    private static class Ndjson extends LectorHistorial {
+
+        private final ObjectMapper objectMapper;
+
+        Ndjson(BufferedReader lector, ObjectMapper objectMapper) {
+            super(lector);
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        protected EntrenamientoDTO leer() throws IOException {
+            String texto;
+            do {
+                texto = lector.readLine();
+                if (texto == null) {
+                    return null;
+                }
+                linea++;
+            } while (texto.isBlank());
+
+            JsonNode nodo;
+            try {
+                nodo = objectMapper.readTree(texto);
+            } catch (JsonProcessingException e) {
+                throw error("JSON inválido");
+            }
+            JsonNode tipo = nodo.path("tipoEntrenamiento");
+            EntrenamientoDTO dto = nuevoEntrenamiento(
+                    texto(nodo, "nombre"),
+                    texto(nodo, "fechaEntrenamiento"),
+                    texto(nodo, "descripcion"),
+                    nodo.path("duracion").isNumber() ? nodo.path("duracion").asInt() : null,
+                    tipo.isObject() ? texto(tipo, "nombre") : texto(nodo, "tipoEntrenamiento"));
+
+            for (JsonNode ejercicio : nodo.path("ejercicios")) {
+                EntrenamientoEjercicioDTO relacion = nuevoEjercicio(dto, texto(ejercicio, "nombre"),
+                        ejercicio.path("orden").isNumber() ? ejercicio.path("orden").asInt() : null);
+                for (JsonNode serie : ejercicio.path("series")) {
+                    List<SerieDTO> series = relacion.getSeries();
+                    series.add(new SerieDTO(null,
+                            serie.path("numeroSerie").asInt(series.size() + 1),
+                            serie.path("repeticiones").asInt(),
+                            serie.path("peso").asDouble()));
+                }
+            }
+            return dto;
+        }
+
+        private static String texto(JsonNode nodo, String campo) {
+            JsonNode valor = nodo.get(campo);
+            return valor == null || valor.isNull() ? null : valor.asText();
+        }
+    }
+
+    /**
+     * CSV: una fila por serie con cabecera. Las filas consecutivas con el mismo
+     * {@code id_entrenamiento} forman un entrenamiento, y dentro de él las filas con
+     * el mismo orden y ejercicio forman un ejercicio.
+     */
+    private static class Csv extends LectorHistorial {
+
+        private static final List<String> OBLIGATORIAS = List.of("id_entrenamiento", "fecha", "nombre", "tipo");
+
+        private final Map<String, Integer> columnas = new HashMap<>();
+        private List<String> pendiente;
+        private int posicion = 1;
+
+        Csv(BufferedReader lector) throws IOException {
+            super(lector);
+            List<String> cabecera = leerRegistro();
+            if (cabecera == null) {
+                return;
+            }
+            for (int i = 0; i < cabecera.size(); i++) {
+                columnas.put(cabecera.get(i).trim().toLowerCase(Locale.ROOT), i);
+            }
+            for (String obligatoria : OBLIGATORIAS) {
+                if (!columnas.containsKey(obligatoria)) {
+                    throw error("falta la columna obligatoria '" + obligatoria + "'");
+                }
+            }
+        }
+
+        @Override
+        protected EntrenamientoDTO leer() throws IOException {
+            if (columnas.isEmpty()) {
+                return null;
+            }
+            if (pendiente == null) {
+                pendiente = leerRegistro();
+                if (pendiente == null) {
+                    return null;
+                }
+            }
+            String clave = valor(pendiente, "id_entrenamiento");
+            if (clave == null || clave.isBlank()) {
+                throw error("id_entrenamiento vacío");
+            }
+            EntrenamientoDTO dto = nuevoEntrenamiento(
+                    valor(pendiente, "nombre"),
+                    valor(pendiente, "fecha"),
+                    opcional(valor(pendiente, "descripcion")),
+                    entero(valor(pendiente, "duracion"), "duracion"),
+                    valor(pendiente, "tipo"));
+
+            while (pendiente != null && clave.equals(valor(pendiente, "id_entrenamiento"))) {
+                agregarFila(dto, pendiente);
+                pendiente = leerRegistro();
+            }
+            return dto;
+        }
+
+        private void agregarFila(EntrenamientoDTO dto, List<String> fila) {
+            String ejercicio = valor(fila, "ejercicio");
+            if (ejercicio == null || ejercicio.isBlank()) {
+                return;
+            }
+            Integer orden = entero(valor(fila, "orden"), "orden");
+            List<EntrenamientoEjercicioDTO> relaciones = dto.getEntrenamientosEjercicios();
+            EntrenamientoEjercicioDTO relacion = relaciones.isEmpty() ? null : relaciones.get(relaciones.size() - 1);
+            if (relacion == null || !ejercicio.equals(relacion.getEjercicio().getNombre())
+                    || (orden != null && !orden.equals(relacion.getOrden()))) {
+                relacion = nuevoEjercicio(dto, ejercicio, orden);
+            }
+
+            Integer numeroSerie = entero(valor(fila, "numero_serie"), "numero_serie");
+            if (numeroSerie != null) {
+                Integer repeticiones = entero(valor(fila, "repeticiones"), "repeticiones");
+                Double peso = decimal(valor(fila, "peso"), "peso");
+                relacion.getSeries().add(new SerieDTO(null, numeroSerie,
+                        repeticiones == null ? 0 : repeticiones, peso == null ? 0 : peso));
+            }
+        }
+
+        private String valor(List<String> fila, String columna) {
+            Integer indice = columnas.get(columna);
+            return indice == null || indice >= fila.size() ? null : fila.get(indice);
+        }
+
+        /**
+         * Método auxiliar que devuelve {@code null} para un campo vacío, ya que el CSV no
+         * distingue entre un valor vacío y uno ausente.
+         */
+        private static String opcional(String texto) {
+            return texto == null || texto.isEmpty() ? null : texto;
+        }
+
+        /**
+         * Lee un registro CSV completo, admitiendo campos entre comillas con comas,
+         * comillas dobladas y saltos de línea. Omite los registros vacíos.
+         *
+         * @return Campos del registro, o {@code null} al final del archivo.
+         */
+        private List<String> leerRegistro() throws IOException {
+            while (true) {
+                linea = posicion;
+                List<String> campos = new ArrayList<>();
+                StringBuilder actual = new StringBuilder();
+                boolean entreComillas = false;
+                boolean leido = false;
+                int c;
+                while ((c = lector.read()) != -1) {
+                    leido = true;
+                    if (entreComillas) {
+                        if (c == '"') {
+                            lector.mark(1);
+                            int d = lector.read();
+                            if (d == '"') {
+                                actual.append('"');
+                            } else {
+                                entreComillas = false;
+                                if (d != -1) {
+                                    lector.reset();
+                                }
+                            }
+                        } else {
+                            if (c == '\n') {
+                                posicion++;
+                            }
+                            actual.append((char) c);
+                        }
+                    } else if (c == '"') {
+                        entreComillas = true;
+                    } else if (c == ',') {
+                        campos.add(actual.toString());
+                        actual.setLength(0);
+                    } else if (c == '\n') {
+                        posicion++;
+                        break;
+                    } else if (c != '\r') {
+                        actual.append((char) c);
+                    }
+                }
+                if (!leido) {
+                    return null;
+                }
+                if (entreComillas) {
+                    throw error("comillas sin cerrar");
+                }
+                campos.add(actual.toString());
+                if (campos.size() > 1 || !campos.get(0).isBlank()) {
+                    return campos;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,370 @@
+package org.backend.backendfacilgim.utilities;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import javax.imageio.*;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+
+/**
+ * Genera, con ImageIO, las versiones reducidas de una imagen de ejercicio: una miniatura,
+ * una versión media y un póster estático con el primer fotograma.
+ * <p>
+ * Los GIF animados se decodifican fotograma a fotograma, componiendo cada uno sobre el lienzo
+ * lógico según su posición y su método de eliminación, porque la mayoría sólo contienen la zona
+ * que cambia respecto al anterior. Cada fotograma compuesto se escala y se escribe completo en
+ * la miniatura y en la versión media, conservando los retardos y la repetición infinita, de modo
+ * que sólo hay un fotograma decodificado en memoria a la vez. Las imágenes estáticas se reducen
+ * en su mismo formato (JPEG o PNG). Nunca se amplía una imagen más pequeña que el tamaño pedido.
+ * </p>
+ * <p>
+ * Antes de decodificar nada se leen las dimensiones de la cabecera (el lienzo lógico y cada
+ * fotograma, en un GIF) y se rechaza la imagen si alguna supera el número máximo de píxeles,
+ * para que un archivo pequeño que declara unas dimensiones enormes no agote la memoria.
+ * </p>
+ *
+ * Autor: Francisco Santana
+ */
+public class ProcesadorImagenes {
+
+    private static final String FORMATO_GIF_IMAGEN = "javax_imageio_gif_image_1.0";
+    private static final String FORMATO_GIF_FLUJO = "javax_imageio_gif_stream_1.0";
+
+    private final int ladoMiniatura;
+    private final int ladoMedia;
+    private final long pixelesMaximos;
+
+    /**
+     * Constructor con el lado mayor de cada versión y el tamaño máximo admitido, en píxeles.
+     *
+     * @param ladoMiniatura  Lado mayor de la miniatura.
+     * @param ladoMedia      Lado mayor de la versión media y del póster.
+     * @param pixelesMaximos Número máximo de píxeles (ancho por alto) de la imagen o del lienzo del GIF.
+     */
+    public ProcesadorImagenes(int ladoMiniatura, int ladoMedia, long pixelesMaximos) {
+        this.ladoMiniatura = ladoMiniatura;
+        this.ladoMedia = ladoMedia;
+        this.pixelesMaximos = pixelesMaximos;
+    }
+
+    /**
+     * Nombres de los archivos generados, relativos a la carpeta del original.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Derivadas {
+
+        /**
+         * Archivo de la miniatura.
+         */
+        private final String miniatura;
+
+        /**
+         * Archivo de la versión media.
+         */
+        private final String media;
+
+        /**
+         * Archivo del póster estático (PNG del primer fotograma).
+         */
+        private final String poster;
+    }
+
+    /**
+     * Genera las tres versiones junto al archivo original, con su mismo nombre base y los
+     * sufijos {@code _miniatura}, {@code _media} y {@code _poster}. Cada archivo se escribe
+     * primero con un nombre temporal y se renombra al terminar, para que nunca se sirva a medias.
+     * Si las tres versiones ya existen (la misma imagen se subió antes), no se regeneran.
+     *
+     * @param original Ruta de la imagen original.
+     * @return Nombres de los archivos generados.
+     * @throws IOException si la imagen no se puede leer (formato no soportado o archivo dañado),
+     *                     supera el número máximo de píxeles o no se pueden escribir las versiones.
+     */
+    public Derivadas generar(Path original) throws IOException {
+        String nombre = original.getFileName().toString();
+        int punto = nombre.lastIndexOf('.');
+        String base = punto > 0 ? nombre.substring(0, punto) : nombre;
+        String extension = punto > 0 ? nombre.substring(punto + 1).toLowerCase() : "";
+        Path carpeta = original.toAbsolutePath().getParent();
+
+        try (ImageInputStream entrada = ImageIO.createImageInputStream(original.toFile())) {
+            if (entrada == null) {
+                throw new IOException("No se puede abrir la imagen " + nombre);
+            }
+            Iterator<ImageReader> lectores = ImageIO.getImageReaders(entrada);
+            if (!lectores.hasNext()) {
+                throw new IOException("Formato de imagen no soportado: " + nombre);
+            }
+            ImageReader lector = lectores.next();
+            try {
+                lector.setInput(entrada, false, false);
+                boolean gif = "gif".equalsIgnoreCase(lector.getFormatName());
+                String formato = gif ? "gif" : ("jpg".equals(extension) || "jpeg".equals(extension) ? "jpg" : "png");
+
+                Derivadas derivadas = new Derivadas(
+                        base + "_miniatura." + formato,
+                        base + "_media." + formato,
+                        base + "_poster.png");
+                Path miniatura = carpeta.resolve(derivadas.getMiniatura());
+                Path media = carpeta.resolve(derivadas.getMedia());
+                Path poster = carpeta.resolve(derivadas.getPoster());
+                if (Files.exists(miniatura) && Files.exists(media) && Files.exists(poster)) {
+                    // Imagen ya procesada: con nombres direccionados por contenido, es la misma
+                    return derivadas;
+                }
+
+                if (gif) {
+                    generarGif(lector, miniatura, media, poster);
+                } else {
+                    comprobarTamano(lector.getWidth(0), lector.getHeight(0));
+                    BufferedImage imagen = lector.read(0);
+                    escribir(escalar(imagen, ladoMiniatura, !"jpg".equals(formato)), formato, miniatura);
+                    escribir(escalar(imagen, ladoMedia, !"jpg".equals(formato)), formato, media);
+                    escribir(escalar(imagen, ladoMedia, true), "png", poster);
+                }
+                return derivadas;
+            } finally {
+                lector.dispose();
+            }
+        }
+    }
+
+    /**
+     * Método auxiliar que recorre los fotogramas de un GIF, los compone y escribe a la vez
+     * la miniatura y la versión media animadas, además del póster con el primer fotograma.
+     */
+    private void generarGif(ImageReader lector, Path miniatura, Path media, Path poster) throws IOException {
+        int fotogramas = lector.getNumImages(true);
+        if (fotogramas < 1) {
+            throw new IOException("El GIF no contiene fotogramas");
+        }
+        Dimension lienzoLogico = lienzoLogico(lector);
+        comprobarTamano(lienzoLogico.width, lienzoLogico.height);
+        for (int i = 0; i < fotogramas; i++) {
+            comprobarTamano(lector.getWidth(i), lector.getHeight(i));
+        }
+        BufferedImage lienzo = new BufferedImage(lienzoLogico.width, lienzoLogico.height, BufferedImage.TYPE_INT_ARGB);
+
+        Path temporalMiniatura = temporal(miniatura);
+        Path temporalMedia = temporal(media);
+        try (SecuenciaGif secuenciaMiniatura = new SecuenciaGif(temporalMiniatura);
+             SecuenciaGif secuenciaMedia = new SecuenciaGif(temporalMedia)) {
+            for (int i = 0; i < fotogramas; i++) {
+                BufferedImage fotograma = lector.read(i);
+                Element metadatos = (Element) lector.getImageMetadata(i).getAsTree(FORMATO_GIF_IMAGEN);
+                Element descriptor = hijo(metadatos, "ImageDescriptor");
+                Element control = hijo(metadatos, "GraphicControlExtension");
+                int x = entero(descriptor, "imageLeftPosition");
+                int y = entero(descriptor, "imageTopPosition");
+                String eliminacion = control != null ? control.getAttribute("disposalMethod") : "none";
+                int retardo = control != null ? entero(control, "delayTime") : 0;
+
+                BufferedImage previo = "restoreToPrevious".equals(eliminacion) ? copiar(lienzo) : null;
+                Graphics2D g = lienzo.createGraphics();
+                g.drawImage(fotograma, x, y, null);
+                g.dispose();
+
+                secuenciaMiniatura.escribir(escalar(lienzo, ladoMiniatura, true), retardo);
+                secuenciaMedia.escribir(escalar(lienzo, ladoMedia, true), retardo);
+                if (i == 0) {
+                    escribir(escalar(lienzo, ladoMedia, true), "png", poster);
+                }
+
+                if ("restoreToBackgroundColor".equals(eliminacion)) {
+                    Graphics2D borrado = lienzo.createGraphics();
+                    borrado.setComposite(AlphaComposite.Clear);
+                    borrado.fillRect(x, y, fotograma.getWidth(), fotograma.getHeight());
+                    borrado.dispose();
+                } else if (previo != null) {
+                    lienzo = previo;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporalMiniatura);
+            Files.deleteIfExists(temporalMedia);
+            throw e;
+        }
+        Files.move(temporalMiniatura, miniatura, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.move(temporalMedia, media, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Escritor de un GIF animado fotograma a fotograma, con repetición infinita.
+     * Cada fotograma se escribe completo y con eliminación {@code restoreToBackgroundColor},
+     * de modo que las zonas transparentes no dejan ver el fotograma anterior.
+     */
+    private static final class SecuenciaGif implements AutoCloseable {
+
+        private final ImageOutputStream salida;
+        private final ImageWriter escritor;
+        private boolean primero = true;
+
+        SecuenciaGif(Path destino) throws IOException {
+            this.salida = ImageIO.createImageOutputStream(destino.toFile());
+            this.escritor = ImageIO.getImageWritersByFormatName("gif").next();
+            escritor.setOutput(salida);
+            escritor.prepareWriteSequence(null);
+        }
+
+        void escribir(BufferedImage imagen, int retardo) throws IOException {
+            ImageWriteParam parametros = escritor.getDefaultWriteParam();
+            IIOMetadata metadatos = escritor.getDefaultImageMetadata(
+                    ImageTypeSpecifier.createFromRenderedImage(imagen), parametros);
+            IIOMetadataNode raiz = (IIOMetadataNode) metadatos.getAsTree(FORMATO_GIF_IMAGEN);
+
+            IIOMetadataNode control = nodo(raiz, "GraphicControlExtension");
+            control.setAttribute("disposalMethod", "restoreToBackgroundColor");
+            control.setAttribute("userInputFlag", "FALSE");
+            control.setAttribute("delayTime", Integer.toString(retardo));
+
+            if (primero) {
+                IIOMetadataNode aplicacion = new IIOMetadataNode("ApplicationExtension");
+                aplicacion.setAttribute("applicationID", "NETSCAPE");
+                aplicacion.setAttribute("authenticationCode", "2.0");
+                aplicacion.setUserObject(new byte[]{1, 0, 0});
+                nodo(raiz, "ApplicationExtensions").appendChild(aplicacion);
+                primero = false;
+            }
+
+            metadatos.setFromTree(FORMATO_GIF_IMAGEN, raiz);
+            escritor.writeToSequence(new IIOImage(imagen, null, metadatos), parametros);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (!primero) {
+                    escritor.endWriteSequence();
+                }
+            } finally {
+                escritor.dispose();
+                salida.close();
+            }
+        }
+
+        private static IIOMetadataNode nodo(IIOMetadataNode raiz, String nombre) {
+            for (int i = 0; i < raiz.getLength(); i++) {
+                if (raiz.item(i).getNodeName().equalsIgnoreCase(nombre)) {
+                    return (IIOMetadataNode) raiz.item(i);
+                }
+            }
+            IIOMetadataNode nuevo = new IIOMetadataNode(nombre);
+            raiz.appendChild(nuevo);
+            return nuevo;
+        }
+    }
+
+    /**
+     * Método auxiliar que reduce una imagen para que su lado mayor no supere {@code lado},
+     * por pasos sucesivos a la mitad para no perder detalle al reducir mucho de golpe.
+     * Si la imagen ya es más pequeña sólo se copia (para no compartir el lienzo que se sigue pintando).
+     */
+    private static BufferedImage escalar(BufferedImage imagen, int lado, boolean alfa) {
+        int ancho = imagen.getWidth();
+        int alto = imagen.getHeight();
+        double factor = Math.min(1.0, (double) lado / Math.max(ancho, alto));
+        int anchoFinal = Math.max(1, (int) Math.round(ancho * factor));
+        int altoFinal = Math.max(1, (int) Math.round(alto * factor));
+        int tipo = alfa ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+
+        BufferedImage actual = imagen;
+        do {
+            int siguienteAncho = Math.max(anchoFinal, ancho / 2);
+            int siguienteAlto = Math.max(altoFinal, alto / 2);
+            if (actual != imagen && siguienteAncho == ancho && siguienteAlto == alto) {
+                break;
+            }
+            BufferedImage paso = new BufferedImage(siguienteAncho, siguienteAlto, tipo);
+            Graphics2D g = paso.createGraphics();
+            if (!alfa) {
+                g.setColor(Color.WHITE);
+                g.fillRect(0, 0, siguienteAncho, siguienteAlto);
+            }
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(actual, 0, 0, siguienteAncho, siguienteAlto, null);
+            g.dispose();
+            actual = paso;
+            ancho = siguienteAncho;
+            alto = siguienteAlto;
+        } while (ancho > anchoFinal || alto > altoFinal);
+        return actual;
+    }
+
+    private static void escribir(BufferedImage imagen, String formato, Path destino) throws IOException {
+        Path temporal = temporal(destino);
+        try {
+            if (!ImageIO.write(imagen, formato, temporal.toFile())) {
+                throw new IOException("No hay escritor de imágenes para el formato " + formato);
+            }
+            Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporal);
+        }
+    }
+
+    /**
+     * Método auxiliar que rechaza unas dimensiones leídas de la cabecera si superan el máximo,
+     * antes de reservar memoria para ellas.
+     */
+    private void comprobarTamano(int ancho, int alto) throws IOException {
+        if ((long) ancho * alto > pixelesMaximos) {
+            throw new IOException("La imagen mide " + ancho + "x" + alto
+                    + " píxeles y supera el máximo de " + pixelesMaximos);
+        }
+    }
+
+    private static Dimension lienzoLogico(ImageReader lector) throws IOException {
+        IIOMetadata flujo = lector.getStreamMetadata();
+        if (flujo != null) {
+            Element descriptor = hijo((Element) flujo.getAsTree(FORMATO_GIF_FLUJO), "LogicalScreenDescriptor");
+            if (descriptor != null) {
+                int ancho = entero(descriptor, "logicalScreenWidth");
+                int alto = entero(descriptor, "logicalScreenHeight");
+                if (ancho > 0 && alto > 0) {
+                    return new Dimension(ancho, alto);
+                }
+            }
+        }
+        return new Dimension(lector.getWidth(0), lector.getHeight(0));
+    }
+
+    private static BufferedImage copiar(BufferedImage imagen) {
+        BufferedImage copia = new BufferedImage(imagen.getWidth(), imagen.getHeight(), imagen.getType());
+        Graphics2D g = copia.createGraphics();
+        g.drawImage(imagen, 0, 0, null);
+        g.dispose();
+        return copia;
+    }
+
+    private static Path temporal(Path destino) {
+        return destino.resolveSibling(destino.getFileName() + ".tmp");
+    }
+
+    private static Element hijo(Element padre, String nombre) {
+        for (Node n = padre.getFirstChild(); n != null; n = n.getNextSibling()) {
+            if (n.getNodeName().equals(nombre)) {
+                return (Element) n;
+            }
+        }
+        return null;
+    }
+
+    private static int entero(Element elemento, String atributo) {
+        String valor = elemento != null ? elemento.getAttribute(atributo) : "";
+        return valor.isEmpty() ? 0 : Integer.parseInt(valor);
+    }
+}
@@ -0,0 +1,194 @@
+package org.backend.backendfacilgim.utilities;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.apache.tomcat.util.http.fileupload.FileItemIterator;
+import org.apache.tomcat.util.http.fileupload.FileItemStream;
+import org.apache.tomcat.util.http.fileupload.FileUpload;
+import org.apache.tomcat.util.http.fileupload.FileUploadException;
+import org.apache.tomcat.util.http.fileupload.servlet.ServletRequestContext;
+import org.backend.backendfacilgim.exception.CustomException;
+import org.backend.backendfacilgim.exception.LimiteExcedidoException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Recepción en streaming de las subidas multipart de ejercicios.
+ * <p>
+ * En lugar de dejar que el contenedor guarde la petición completa antes de llegar al controlador,
+ * recorre las partes a medida que llegan: la imagen se copia directamente al
+ * {@link AlmacenImagenes} (a un temporal en disco) y el JSON del ejercicio se lee en memoria.
+ * La memoria usada es la misma sea cual sea el tamaño de la imagen.
+ * </p>
+ * <p>
+ * Dos límites protegen al resto de la API:
+ * </p>
+ * <ul>
+ *   <li>{@code app.subidas.tamano-maximo-bytes} (10 MB por defecto): en cuanto la imagen lo
+ *       supera se corta la lectura, se descarta el temporal y se responde 413.</li>
+ *   <li>{@code app.subidas.concurrentes} (4 por defecto): subidas que pueden recibirse a la vez.
+ *       Las que llegan con el cupo lleno se rechazan al momento con 429, sin ocupar un hilo
+ *       del servidor mientras esperan.</li>
+ * </ul>
+ *
+ * Autor: Francisco Santana
+ */
+@Component
+public class ReceptorSubidas {
+
+    private static final String PARTE_EJERCICIO = "ejercicio";
+    private static final String PARTE_IMAGEN = "imagen";
+    private static final int TAMANO_MAXIMO_JSON = 64 * 1024;
+    private static final int PARTES_MAXIMAS = 10;
+
+    private final AlmacenImagenes almacenImagenes;
+    private final Semaphore permisos;
+    private final long tamanoMaximo;
+
+    /**
+     * Constructor que inyecta el almacén de imágenes y fija los límites de subida.
+     *
+     * @param almacenImagenes Almacén en el que se guardan las imágenes recibidas.
+     * @param concurrentes    Número máximo de subidas recibiéndose a la vez.
+     * @param tamanoMaximo    Tamaño máximo de la imagen, en bytes.
+     */
+    public ReceptorSubidas(
+            AlmacenImagenes almacenImagenes,
+            @Value("${app.subidas.concurrentes:4}") int concurrentes,
+            @Value("${app.subidas.tamano-maximo-bytes:10485760}") long tamanoMaximo
+    ) {
+        this.almacenImagenes = almacenImagenes;
+        this.permisos = new Semaphore(concurrentes);
+        this.tamanoMaximo = tamanoMaximo;
+    }
+
+    /**
+     * Recibe una subida de ejercicio con las partes {@code ejercicio} (JSON) e {@code imagen}
+     * (opcional), guardando la imagen en el almacén a medida que llega.
+     *
+     * @param peticion Petición multipart/form-data, sin procesar.
+     * @return El JSON del ejercicio, o {@code null} si no se envió, y la imagen guardada, o
+     *         {@code null} si no se envió o estaba vacía.
+     * @throws LimiteExcedidoException Si hay demasiadas subidas en curso (429) o alguna parte
+     *                                 supera su tamaño máximo (413).
+     * @throws CustomException         Si la petición no es multipart o está mal formada.
+     * @throws IOException             Si ocurre un error al leer la petición o al escribir en disco.
+     */
+    public SubidaEjercicio recibir(HttpServletRequest peticion) throws IOException {
+        if (!permisos.tryAcquire()) {
+            throw new LimiteExcedidoException(HttpStatus.TOO_MANY_REQUESTS,
+                    "Hay demasiadas subidas en curso. Inténtalo de nuevo en unos segundos.", 1);
+        }
+        try {
+            FileUpload lector = new FileUpload();
+            lector.setFileCountMax(PARTES_MAXIMAS);
+            String ejercicioJson = null;
+            AlmacenImagenes.ImagenGuardada imagen = null;
+
+            FileItemIterator partes = lector.getItemIterator(new ServletRequestContext(peticion));
+            while (partes.hasNext()) {
+                FileItemStream parte = partes.next();
+                try (InputStream contenido = parte.openStream()) {
+                    if (PARTE_EJERCICIO.equals(parte.getFieldName())) {
+                        ejercicioJson = new String(
+                                new EntradaLimitada(contenido, TAMANO_MAXIMO_JSON, PARTE_EJERCICIO).readAllBytes(),
+                                StandardCharsets.UTF_8);
+                    } else if (PARTE_IMAGEN.equals(parte.getFieldName()) && !parte.isFormField() && imagen == null) {
+                        imagen = guardarSiNoVacia(new EntradaLimitada(contenido, tamanoMaximo, PARTE_IMAGEN), parte.getName());
+                    } else {
+                        contenido.transferTo(OutputStream.nullOutputStream());
+                    }
+                }
+            }
+            return new SubidaEjercicio(ejercicioJson, imagen);
+        } catch (FileUploadException e) {
+            throw new CustomException("Petición multipart no válida: " + e.getMessage());
+        } finally {
+            permisos.release();
+        }
+    }
+
+    /**
+     * Método auxiliar que guarda la imagen en el almacén, salvo que la parte esté vacía
+     * (el cliente envió el campo sin seleccionar archivo).
+     */
+    private AlmacenImagenes.ImagenGuardada guardarSiNoVacia(InputStream contenido, String nombre) throws IOException {
+        PushbackInputStream entrada = new PushbackInputStream(contenido, 1);
+        int primero = entrada.read();
+        if (primero < 0) {
+            return null;
+        }
+        entrada.unread(primero);
+        return almacenImagenes.guardar(entrada, nombre);
+    }
+
+    /**
+     * Resultado de recibir una subida de ejercicio.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class SubidaEjercicio {
+
+        /**
+         * JSON de la parte {@code ejercicio}, o {@code null} si no se envió.
+         */
+        private final String ejercicioJson;
+
+        /**
+         * Imagen guardada, o {@code null} si no se envió ninguna.
+         */
+        private final AlmacenImagenes.ImagenGuardada imagen;
+    }
+
+    /**
+     * Flujo que cuenta los bytes leídos y corta la lectura con 413 en cuanto superan el máximo.
+     */
+    private static final class EntradaLimitada extends FilterInputStream {
+
+        private final long maximo;
+        private final String parte;
+        private long leidos;
+
+        EntradaLimitada(InputStream entrada, long maximo, String parte) {
+            super(entrada);
+            this.maximo = maximo;
+            this.parte = parte;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                contar(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] destino, int desde, int cantidad) throws IOException {
+            int n = super.read(destino, desde, cantidad);
+            if (n > 0) {
+                contar(n);
+            }
+            return n;
+        }
+
+        private void contar(int n) {
+            leidos += n;
+            if (leidos > maximo) {
+                throw new LimiteExcedidoException(HttpStatus.PAYLOAD_TOO_LARGE,
+                        "La parte '" + parte + "' supera el tamaño máximo de " + maximo + " bytes.", null);
+            }
+        }
+    }
+}
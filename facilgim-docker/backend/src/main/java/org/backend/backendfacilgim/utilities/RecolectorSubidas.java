@@ -0,0 +1,252 @@
+package org.backend.backendfacilgim.utilities;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.backend.backendfacilgim.dto.EjercicioCatalogoDTO;
+import org.backend.backendfacilgim.entity.ArchivoImagen;
+import org.backend.backendfacilgim.repository.ArchivoImagenRepository;
+import org.backend.backendfacilgim.repository.EjercicioRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Recolector de archivos huérfanos del directorio de subidas, por marcado y barrido.
+ * <p>
+ * Cada pasada marca como vivos los archivos a los que apunta algún ejercicio (su imagen y sus
+ * versiones) o que tienen referencias en {@link ArchivoImagen}; las versiones y variantes
+ * precomprimidas de una imagen viva también lo están. Después recorre el directorio de forma
+ * perezosa y retira los archivos no marcados cuya última modificación supera el periodo de gracia
+ * ({@code app.subidas.gc.gracia-horas}, 24 por defecto), lo que protege las subidas y versiones
+ * recién escritas cuyo ejercicio aún no se ha guardado.
+ * </p>
+ * <p>
+ * Con {@code app.subidas.gc.cuarentena} (activo por defecto) los archivos no se borran sino que
+ * se mueven a {@code .cuarentena/}, de donde se eliminan pasadas
+ * {@code app.subidas.gc.retencion-cuarentena-horas} (168 por defecto). Cada pasada retira como
+ * mucho {@code app.subidas.gc.maximo-por-pasada} archivos; lo que quede se recoge en la siguiente.
+ * Sus métricas son {@code subidas.gc.archivos{accion=cuarentena|eliminado}} y
+ * {@code subidas.gc.bytes.liberados}.
+ * </p>
+ *
+ * Autor: Francisco Santana
+ */
+@Component
+public class RecolectorSubidas {
+
+    private static final Logger log = LoggerFactory.getLogger(RecolectorSubidas.class);
+    private static final String CUARENTENA = ".cuarentena";
+    private static final Pattern SUFIJOS_TECNICOS = Pattern.compile("(?:\\.(?:tmp|gz|br))+$");
+    private static final Pattern EXTENSION = Pattern.compile("\\.[^./]*$");
+    private static final Pattern SUFIJO_VERSION = Pattern.compile("_(?:miniatura|media|poster)$");
+
+    private final EjercicioRepository ejercicioRepository;
+    private final ArchivoImagenRepository archivoImagenRepository;
+    private final Path raiz;
+    private final Duration gracia;
+    private final boolean cuarentena;
+    private final Duration retencionCuarentena;
+    private final int maximoPorPasada;
+    private final Counter enviadosCuarentena;
+    private final Counter eliminados;
+    private final Counter bytesLiberados;
+
+    /**
+     * Constructor que inyecta los repositorios, fija la configuración y registra las métricas.
+     *
+     * @param ejercicioRepository      Repositorio de ejercicios, del que salen las imágenes vivas.
+     * @param archivoImagenRepository  Repositorio de archivos de imagen y sus referencias.
+     * @param meterRegistry            Registro de métricas de la aplicación.
+     * @param directorio               Directorio de subidas.
+     * @param graciaHoras              Antigüedad mínima de un archivo huérfano para retirarlo.
+     * @param cuarentena               Si los huérfanos se mueven a cuarentena en lugar de borrarse.
+     * @param retencionCuarentenaHoras Tiempo que un archivo pasa en cuarentena antes de borrarse.
+     * @param maximoPorPasada          Número máximo de archivos retirados en cada pasada.
+     */
+    public RecolectorSubidas(
+            EjercicioRepository ejercicioRepository,
+            ArchivoImagenRepository archivoImagenRepository,
+            MeterRegistry meterRegistry,
+            @Value("${app.uploads.directorio:uploads}") String directorio,
+            @Value("${app.subidas.gc.gracia-horas:24}") long graciaHoras,
+            @Value("${app.subidas.gc.cuarentena:true}") boolean cuarentena,
+            @Value("${app.subidas.gc.retencion-cuarentena-horas:168}") long retencionCuarentenaHoras,
+            @Value("${app.subidas.gc.maximo-por-pasada:1000}") int maximoPorPasada
+    ) {
+        this.ejercicioRepository = ejercicioRepository;
+        this.archivoImagenRepository = archivoImagenRepository;
+        this.raiz = Paths.get(directorio).toAbsolutePath().normalize();
+        this.gracia = Duration.ofHours(graciaHoras);
+        this.cuarentena = cuarentena;
+        this.retencionCuarentena = Duration.ofHours(retencionCuarentenaHoras);
+        this.maximoPorPasada = maximoPorPasada;
+        this.enviadosCuarentena = Counter.builder("subidas.gc.archivos").tag("accion", "cuarentena")
+                .description("Archivos huérfanos movidos a cuarentena").register(meterRegistry);
+        this.eliminados = Counter.builder("subidas.gc.archivos").tag("accion", "eliminado")
+                .description("Archivos huérfanos eliminados").register(meterRegistry);
+        this.bytesLiberados = Counter.builder("subidas.gc.bytes.liberados").baseUnit("bytes")
+                .description("Espacio en disco liberado por el recolector de subidas").register(meterRegistry);
+    }
+
+    /**
+     * Ejecuta una pasada periódicamente ({@code app.subidas.gc.intervalo-ms}, una hora por defecto).
+     */
+    @Scheduled(initialDelayString = "${app.subidas.gc.retraso-inicial-ms:600000}",
+            fixedDelayString = "${app.subidas.gc.intervalo-ms:3600000}")
+    public void recolectar() {
+        if (!Files.isDirectory(raiz)) {
+            return;
+        }
+        try {
+            Pasada pasada = pasada();
+            if (pasada.getRetirados() > 0) {
+                log.info("Recolector de subidas: {} archivos revisados, {} retirados, {} bytes liberados",
+                        pasada.getRevisados(), pasada.getRetirados(), pasada.getBytesLiberados());
+            }
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("La pasada del recolector de subidas se interrumpió: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Ejecuta una pasada completa de marcado y barrido.
+     *
+     * @return Resumen de la pasada.
+     * @throws IOException Si no se puede recorrer el directorio de subidas.
+     */
+    public Pasada pasada() throws IOException {
+        Set<String> vivos = marcar();
+        Instant limiteGracia = Instant.now().minus(gracia);
+        Instant limiteCuarentena = Instant.now().minus(retencionCuarentena);
+        long revisados = 0;
+        int retirados = 0;
+        long liberados = 0;
+
+        try (Stream<Path> recorrido = Files.walk(raiz)) {
+            Iterator<Path> archivos = recorrido.filter(Files::isRegularFile).iterator();
+            while (archivos.hasNext() && retirados < maximoPorPasada) {
+                Path archivo = archivos.next();
+                String ruta = raiz.relativize(archivo).toString().replace('\\', '/');
+                BasicFileAttributes atributos;
+                try {
+                    atributos = Files.readAttributes(archivo, BasicFileAttributes.class);
+                } catch (NoSuchFileException e) {
+                    continue;
+                }
+                Instant modificado = atributos.lastModifiedTime().toInstant();
+
+                if (ruta.startsWith(CUARENTENA + "/")) {
+                    if (modificado.isBefore(limiteCuarentena) && Files.deleteIfExists(archivo)) {
+                        eliminados.increment();
+                        bytesLiberados.increment(atributos.size());
+                        liberados += atributos.size();
+                        retirados++;
+                    }
+                    continue;
+                }
+
+                revisados++;
+                if (vivos.contains(clave(ruta)) || modificado.isAfter(limiteGracia)) {
+                    continue;
+                }
+                if (cuarentena) {
+                    Path destino = raiz.resolve(CUARENTENA).resolve(ruta);
+                    Files.createDirectories(destino.getParent());
+                    Files.move(archivo, destino, StandardCopyOption.REPLACE_EXISTING);
+                    // La retención en cuarentena cuenta desde ahora
+                    Files.setLastModifiedTime(destino, FileTime.from(Instant.now()));
+                    enviadosCuarentena.increment();
+                } else if (Files.deleteIfExists(archivo)) {
+                    eliminados.increment();
+                    bytesLiberados.increment(atributos.size());
+                    liberados += atributos.size();
+                }
+                retirados++;
+                archivoImagenRepository.findById(ruta)
+                        .filter(a -> a.getReferencias() <= 0)
+                        .ifPresent(archivoImagenRepository::delete);
+            }
+        }
+        return new Pasada(revisados, retirados, liberados);
+    }
+
+    /**
+     * Método auxiliar que construye el conjunto de claves vivas a partir de los ejercicios
+     * y de los archivos con referencias.
+     */
+    private Set<String> marcar() {
+        Set<String> vivos = new HashSet<>();
+        for (EjercicioCatalogoDTO ejercicio : ejercicioRepository.listarCatalogo()) {
+            marcar(vivos, ejercicio.getImagenUrl());
+            marcar(vivos, ejercicio.getImagenMiniaturaUrl());
+            marcar(vivos, ejercicio.getImagenMediaUrl());
+            marcar(vivos, ejercicio.getImagenPosterUrl());
+        }
+        for (ArchivoImagen archivo : archivoImagenRepository.findByReferenciasGreaterThan(0)) {
+            vivos.add(clave(archivo.getRuta()));
+        }
+        return vivos;
+    }
+
+    private static void marcar(Set<String> vivos, String url) {
+        String ruta = AlmacenImagenes.rutaRelativa(url);
+        if (ruta != null) {
+            vivos.add(clave(ruta));
+        }
+    }
+
+    /**
+     * Método auxiliar que reduce una ruta a la de su imagen original sin extensión, de modo que
+     * la imagen, sus versiones, sus variantes precomprimidas y sus temporales comparten clave:
+     * {@code ab/cd/abcd_media.gif.gz} y {@code ab/cd/abcd.gif} dan ambas {@code ab/cd/abcd}.
+     */
+    private static String clave(String ruta) {
+        String sinSufijos = SUFIJOS_TECNICOS.matcher(ruta).replaceFirst("");
+        String sinExtension = EXTENSION.matcher(sinSufijos).replaceFirst("");
+        return SUFIJO_VERSION.matcher(sinExtension).replaceFirst("");
+    }
+
+    /**
+     * Resumen de una pasada del recolector.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Pasada {
+
+        /**
+         * Archivos del directorio de subidas revisados (sin contar la cuarentena).
+         */
+        private final long revisados;
+
+        /**
+         * Archivos movidos a cuarentena o eliminados.
+         */
+        private final int retirados;
+
+        /**
+         * Bytes liberados por los archivos eliminados.
+         */
+        private final long bytesLiberados;
+    }
+}
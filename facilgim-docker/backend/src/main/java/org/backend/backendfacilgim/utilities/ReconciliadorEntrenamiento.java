@@ -0,0 +1,246 @@
+package org.backend.backendfacilgim.utilities;
+
+import org.backend.backendfacilgim.dto.EntrenamientoEjercicioDTO;
+import org.backend.backendfacilgim.dto.SerieDTO;
+import org.backend.backendfacilgim.entity.Ejercicio;
+import org.backend.backendfacilgim.entity.Entrenamiento;
+import org.backend.backendfacilgim.entity.EntrenamientoEjercicio;
+import org.backend.backendfacilgim.entity.Serie;
+import org.backend.backendfacilgim.exception.CustomException;
+
+import java.util.*;
+
+/**
+ * Reconcilia las relaciones entrenamiento–ejercicio y las series de un entrenamiento
+ * gestionado por JPA con las que llegan en un DTO, modificando solo lo que ha cambiado.
+ * <p>
+ * Cada relación entrante se empareja con una existente por su ID o, si no lo trae,
+ * por el par {@code (ejercicio, orden)}; cada serie, por su ID o por {@code numeroSerie}.
+ * Las emparejadas se actualizan campo a campo (Hibernate solo emite UPDATE si algo cambia),
+ * las que no existen se añaden (INSERT por cascada) y las que ya no aparecen se quitan
+ * de la colección (DELETE por {@code orphanRemoval}).
+ * </p>
+ *
+ * Autor: Francisco Santana
+ */
+public final class ReconciliadorEntrenamiento {
+
+    private ReconciliadorEntrenamiento() {
+    }
+
+    /**
+     * Reconcilia las relaciones de un entrenamiento con las recibidas.
+     *
+     * @param entrenamiento Entrenamiento gestionado, con sus relaciones y series cargadas.
+     * @param entrantes     Relaciones deseadas; {@code null} se trata como lista vacía.
+     * @param referencias   Ejercicios ya resueltos, indexados por ID.
+     * @return {@link ResultadoReconciliacion} con el número de filas afectadas.
+     * @throws CustomException si un ID de relación o serie no pertenece al entrenamiento o se repite.
+     */
+    public static ResultadoReconciliacion reconciliar(Entrenamiento entrenamiento,
+                                                      List<EntrenamientoEjercicioDTO> entrantes,
+                                                      ReferenciasEntrenamiento referencias) {
+        ResultadoReconciliacion resultado = new ResultadoReconciliacion();
+        Set<EntrenamientoEjercicio> actuales = entrenamiento.getEntrenamientoEjercicios();
+        List<EntrenamientoEjercicioDTO> deseadas = entrantes != null ? entrantes : List.of();
+
+        Map<Integer, EntrenamientoEjercicio> porId = new HashMap<>();
+        Map<String, EntrenamientoEjercicio> porClave = new HashMap<>();
+        for (EntrenamientoEjercicio ee : actuales) {
+            porId.put(ee.getId(), ee);
+            porClave.putIfAbsent(clave(ee.getEjercicio().getIdEjercicio(), ee.getOrden()), ee);
+        }
+        Set<Integer> idsExplicitos = new HashSet<>();
+        for (EntrenamientoEjercicioDTO relDTO : deseadas) {
+            if (relDTO.getId() != null) {
+                idsExplicitos.add(relDTO.getId());
+            }
+        }
+
+        Set<EntrenamientoEjercicio> emparejadas = Collections.newSetFromMap(new IdentityHashMap<>());
+        Map<EntrenamientoEjercicio, Ejercicio> cambiosDeEjercicio = new IdentityHashMap<>();
+        List<EntrenamientoEjercicio> nuevas = new ArrayList<>();
+
+        for (EntrenamientoEjercicioDTO relDTO : deseadas) {
+            Ejercicio ejercicio = referencias.ejercicio(relDTO.getEjercicio().getIdEjercicio());
+            EntrenamientoEjercicio ee;
+            if (relDTO.getId() != null) {
+                ee = porId.get(relDTO.getId());
+                if (ee == null) {
+                    throw new CustomException("La relación con ID " + relDTO.getId()
+                            + " no pertenece al entrenamiento " + entrenamiento.getIdEntrenamiento());
+                }
+                if (emparejadas.contains(ee)) {
+                    throw new CustomException("La relación con ID " + relDTO.getId() + " está repetida");
+                }
+            } else {
+                ee = porClave.get(clave(ejercicio.getIdEjercicio(), relDTO.getOrden()));
+                if (ee != null && (emparejadas.contains(ee) || idsExplicitos.contains(ee.getId()))) {
+                    ee = null;
+                }
+            }
+
+            if (ee == null) {
+                nuevas.add(nuevaRelacion(relDTO, entrenamiento, ejercicio));
+                continue;
+            }
+            emparejadas.add(ee);
+
+            boolean cambiada = false;
+            if (!Objects.equals(ee.getOrden(), relDTO.getOrden())) {
+                ee.setOrden(relDTO.getOrden());
+                cambiada = true;
+            }
+            if (!Objects.equals(ee.getEjercicio().getIdEjercicio(), ejercicio.getIdEjercicio())) {
+                // El ejercicio forma parte del hashCode: se cambia después, fuera del Set
+                cambiosDeEjercicio.put(ee, ejercicio);
+                cambiada = true;
+            }
+            if (cambiada) {
+                resultado.relacionActualizada();
+            }
+            reconciliarSeries(ee, relDTO.getSeries(), resultado);
+        }
+
+        // Primero se quitan las que ya no aparecen, para que no choquen con las cambiadas o nuevas
+        Iterator<EntrenamientoEjercicio> it = actuales.iterator();
+        while (it.hasNext()) {
+            EntrenamientoEjercicio ee = it.next();
+            if (!emparejadas.contains(ee)) {
+                resultado.relacionEliminada(ee.getSeries().size());
+                it.remove();
+            }
+        }
+
+        cambiosDeEjercicio.forEach((ee, ejercicio) -> {
+            actuales.remove(ee);
+            ee.setEjercicio(ejercicio);
+            actuales.add(ee);
+        });
+
+        for (EntrenamientoEjercicio nueva : nuevas) {
+            if (actuales.add(nueva)) {
+                resultado.relacionInsertada(nueva.getSeries().size());
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Construye una relación entrenamiento–ejercicio nueva con sus series a partir de su DTO.
+     * Si una serie no trae número, se numera de forma consecutiva.
+     *
+     * @param relDTO        DTO de la relación.
+     * @param entrenamiento Entrenamiento al que pertenece la relación.
+     * @param ejercicio     Ejercicio ya resuelto.
+     * @return Nueva {@link EntrenamientoEjercicio} lista para persistir.
+     */
+    public static EntrenamientoEjercicio nuevaRelacion(EntrenamientoEjercicioDTO relDTO,
+                                                       Entrenamiento entrenamiento,
+                                                       Ejercicio ejercicio) {
+        EntrenamientoEjercicio ee = new EntrenamientoEjercicio();
+        ee.setEntrenamiento(entrenamiento);
+        ee.setEjercicio(ejercicio);
+        ee.setOrden(relDTO.getOrden());
+
+        List<Serie> series = new ArrayList<>();
+        if (relDTO.getSeries() != null) {
+            int contador = 1;
+            for (SerieDTO serieDTO : relDTO.getSeries()) {
+                int numero = serieDTO.getNumeroSerie() != null ? serieDTO.getNumeroSerie() : contador++;
+                series.add(nuevaSerie(serieDTO, numero, ee));
+            }
+        }
+        ee.setSeries(series);
+        return ee;
+    }
+
+    /**
+     * Reconcilia las series de una relación ya existente con las recibidas.
+     *
+     * @param ee        Relación gestionada, con sus series cargadas.
+     * @param entrantes Series deseadas; {@code null} se trata como lista vacía.
+     * @param resultado Recuento donde se acumulan los cambios.
+     */
+    private static void reconciliarSeries(EntrenamientoEjercicio ee, List<SerieDTO> entrantes,
+                                          ResultadoReconciliacion resultado) {
+        List<Serie> actuales = ee.getSeries();
+        List<SerieDTO> deseadas = entrantes != null ? entrantes : List.of();
+
+        Map<Integer, Serie> porId = new HashMap<>();
+        Map<Integer, Serie> porNumero = new HashMap<>();
+        for (Serie serie : actuales) {
+            porId.put(serie.getId(), serie);
+            porNumero.putIfAbsent(serie.getNumeroSerie(), serie);
+        }
+        Set<Integer> idsExplicitos = new HashSet<>();
+        for (SerieDTO serieDTO : deseadas) {
+            if (serieDTO.getId() != null) {
+                idsExplicitos.add(serieDTO.getId());
+            }
+        }
+
+        // Serie usa @Data: se compara por identidad para no depender de valores que cambian
+        Set<Serie> emparejadas = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<Serie> nuevas = new ArrayList<>();
+        int contador = 1;
+
+        for (SerieDTO serieDTO : deseadas) {
+            int numero = serieDTO.getNumeroSerie() != null ? serieDTO.getNumeroSerie() : contador++;
+            Serie serie;
+            if (serieDTO.getId() != null) {
+                serie = porId.get(serieDTO.getId());
+                if (serie == null || emparejadas.contains(serie)) {
+                    throw new CustomException("La serie con ID " + serieDTO.getId()
+                            + " no pertenece a la relación " + ee.getId() + " o está repetida");
+                }
+            } else {
+                serie = porNumero.get(numero);
+                if (serie != null && (emparejadas.contains(serie) || idsExplicitos.contains(serie.getId()))) {
+                    serie = null;
+                }
+            }
+
+            if (serie == null) {
+                nuevas.add(nuevaSerie(serieDTO, numero, ee));
+                continue;
+            }
+            emparejadas.add(serie);
+
+            if (serie.getNumeroSerie() != numero
+                    || serie.getRepeticiones() != serieDTO.getRepeticiones()
+                    || Double.compare(serie.getPeso(), serieDTO.getPeso()) != 0) {
+                serie.setNumeroSerie(numero);
+                serie.setRepeticiones(serieDTO.getRepeticiones());
+                serie.setPeso(serieDTO.getPeso());
+                resultado.serieActualizada();
+            }
+        }
+
+        Iterator<Serie> it = actuales.iterator();
+        while (it.hasNext()) {
+            if (!emparejadas.contains(it.next())) {
+                resultado.serieEliminada();
+                it.remove();
+            }
+        }
+        for (Serie nueva : nuevas) {
+            actuales.add(nueva);
+            resultado.serieInsertada();
+        }
+    }
+
+    private static Serie nuevaSerie(SerieDTO serieDTO, int numero, EntrenamientoEjercicio ee) {
+        Serie serie = new Serie();
+        serie.setNumeroSerie(numero);
+        serie.setRepeticiones(serieDTO.getRepeticiones());
+        serie.setPeso(serieDTO.getPeso());
+        // Enlace bidireccional
+        serie.setEntrenamientoEjercicio(ee);
+        return serie;
+    }
+
+    private static String clave(Integer idEjercicio, Integer orden) {
+        return idEjercicio + "#" + orden;
+    }
+}
@@ -0,0 +1,135 @@
+package org.backend.backendfacilgim.utilities;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.backend.backendfacilgim.dto.EntrenamientoDTO;
+import org.backend.backendfacilgim.dto.EntrenamientoEjercicioDTO;
+import org.backend.backendfacilgim.entity.Ejercicio;
+import org.backend.backendfacilgim.entity.TipoEntrenamiento;
+import org.backend.backendfacilgim.entity.Usuario;
+
+import java.util.*;
+
+/**
+ * Entidades referenciadas por uno o varios {@link EntrenamientoDTO} (usuarios, tipos de
+ * entrenamiento y ejercicios), resueltas de una sola vez e indexadas por su ID.
+ * <p>
+ * Permite construir los entrenamientos sin una consulta por cada referencia y
+ * detectar todos los IDs inexistentes antes de escribir nada.
+ * </p>
+ *
+ * Autor: Francisco Santana
+ */
+@Getter
+@AllArgsConstructor
+public class ReferenciasEntrenamiento {
+
+    private final Map<Integer, Usuario> usuarios;
+    private final Map<Long, TipoEntrenamiento> tipos;
+    private final Map<Integer, Ejercicio> ejercicios;
+
+    /**
+     * Reúne los IDs de usuario referenciados por los DTOs.
+     *
+     * @param dtos DTOs de entrenamiento.
+     * @return Conjunto ordenado de IDs de usuario.
+     */
+    public static Set<Integer> idsUsuarios(Collection<EntrenamientoDTO> dtos) {
+        Set<Integer> ids = new TreeSet<>();
+        for (EntrenamientoDTO dto : dtos) {
+            if (dto.getUsuario() != null && dto.getUsuario().getIdUsuario() != null) {
+                ids.add(dto.getUsuario().getIdUsuario());
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Reúne los IDs de tipo de entrenamiento referenciados por los DTOs.
+     *
+     * @param dtos DTOs de entrenamiento.
+     * @return Conjunto ordenado de IDs de tipo.
+     */
+    public static Set<Long> idsTipos(Collection<EntrenamientoDTO> dtos) {
+        Set<Long> ids = new TreeSet<>();
+        for (EntrenamientoDTO dto : dtos) {
+            if (dto.getTipoEntrenamiento() != null && dto.getTipoEntrenamiento().getId() != null) {
+                ids.add(dto.getTipoEntrenamiento().getId());
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Reúne los IDs de ejercicio referenciados por las relaciones de los DTOs.
+     *
+     * @param dtos DTOs de entrenamiento.
+     * @return Conjunto ordenado de IDs de ejercicio.
+     */
+    public static Set<Integer> idsEjercicios(Collection<EntrenamientoDTO> dtos) {
+        Set<Integer> ids = new TreeSet<>();
+        for (EntrenamientoDTO dto : dtos) {
+            if (dto.getEntrenamientosEjercicios() == null) {
+                continue;
+            }
+            for (EntrenamientoEjercicioDTO relDTO : dto.getEntrenamientosEjercicios()) {
+                if (relDTO.getEjercicio() != null && relDTO.getEjercicio().getIdEjercicio() != null) {
+                    ids.add(relDTO.getEjercicio().getIdEjercicio());
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Comprueba qué referencias de los DTOs no se han podido resolver.
+     *
+     * @param dtos DTOs de entrenamiento a comprobar.
+     * @return Lista de mensajes, uno por tipo de referencia con IDs inexistentes; vacía si están todas.
+     */
+    public List<String> noEncontradas(Collection<EntrenamientoDTO> dtos) {
+        List<String> errores = new ArrayList<>();
+        agregarFaltantes(errores, "Usuarios", idsUsuarios(dtos), usuarios.keySet());
+        agregarFaltantes(errores, "Tipos de entrenamiento", idsTipos(dtos), tipos.keySet());
+        agregarFaltantes(errores, "Ejercicios", idsEjercicios(dtos), ejercicios.keySet());
+        return errores;
+    }
+
+    /**
+     * Devuelve el usuario resuelto con el ID indicado.
+     *
+     * @param id ID del usuario.
+     * @return El {@link Usuario}, o {@code null} si no existe.
+     */
+    public Usuario usuario(Integer id) {
+        return usuarios.get(id);
+    }
+
+    /**
+     * Devuelve el tipo de entrenamiento resuelto con el ID indicado.
+     *
+     * @param id ID del tipo.
+     * @return El {@link TipoEntrenamiento}, o {@code null} si no existe.
+     */
+    public TipoEntrenamiento tipo(Long id) {
+        return tipos.get(id);
+    }
+
+    /**
+     * Devuelve el ejercicio resuelto con el ID indicado.
+     *
+     * @param id ID del ejercicio.
+     * @return El {@link Ejercicio}, o {@code null} si no existe.
+     */
+    public Ejercicio ejercicio(Integer id) {
+        return ejercicios.get(id);
+    }
+
+    private static <K> void agregarFaltantes(List<String> errores, String etiqueta,
+                                            Set<K> pedidos, Set<K> encontrados) {
+        List<K> faltantes = pedidos.stream().filter(id -> !encontrados.contains(id)).toList();
+        if (!faltantes.isEmpty()) {
+            errores.add(etiqueta + " no encontrados con ID: " + faltantes);
+        }
+    }
+}
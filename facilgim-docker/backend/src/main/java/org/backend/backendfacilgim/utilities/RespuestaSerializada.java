@@ -0,0 +1,195 @@
+package org.backend.backendfacilgim.utilities;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Respuesta JSON serializada una sola vez y lista para enviarse tal cual.
+ * <p>
+ * Guarda los bytes del JSON, su versión comprimida con gzip (sólo si ocupa menos) y un
+ * ETag fuerte calculado a partir del contenido, de modo que la misma versión de un recurso
+ * produce siempre el mismo ETag en cualquier instancia. Como una representación comprimida
+ * no es idéntica byte a byte a la original, cada una lleva su propio ETag, y ambos se aceptan
+ * en {@code If-None-Match}.
+ * </p>
+ *
+ * Autor: Francisco Santana
+ */
+@Getter
+public final class RespuestaSerializada {
+
+    private static final String SUFIJO_GZIP = "-gz";
+    private static final CacheControl CACHE_CONTROL = CacheControl.noCache();
+
+    /**
+     * Cuerpo JSON sin comprimir.
+     */
+    private final byte[] json;
+
+    /**
+     * Cuerpo JSON comprimido con gzip, o {@code null} si no compensa comprimirlo.
+     */
+    private final byte[] gzip;
+
+    /**
+     * Hash del contenido (SHA-256 en Base64 URL-safe), sin comillas.
+     */
+    private final String hash;
+
+    private RespuestaSerializada(byte[] json, byte[] gzip, String hash) {
+        this.json = json;
+        this.gzip = gzip;
+        this.hash = hash;
+    }
+
+    /**
+     * Serializa un valor con el {@link ObjectMapper} de la aplicación y prepara sus representaciones.
+     *
+     * @param valor        Valor a serializar.
+     * @param objectMapper {@link ObjectMapper} de la aplicación.
+     * @return La respuesta serializada.
+     * @throws UncheckedIOException si el valor no se puede serializar.
+     */
+    public static RespuestaSerializada de(Object valor, ObjectMapper objectMapper) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(valor);
+            byte[] gzip = comprimir(json);
+            return new RespuestaSerializada(json, gzip.length < json.length ? gzip : null, resumir(json));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Construye la respuesta HTTP para una petición concreta.
+     * <p>
+     * Devuelve 304 Not Modified si {@code If-None-Match} contiene alguno de los ETags de este
+     * contenido (o {@code *}); en otro caso, 200 OK con el cuerpo comprimido si el cliente
+     * acepta gzip, o sin comprimir si no.
+     * </p>
+     *
+     * @param ifNoneMatch    Valor de la cabecera {@code If-None-Match}; puede ser nulo.
+     * @param acceptEncoding Valor de la cabecera {@code Accept-Encoding}; puede ser nulo.
+     * @return {@link ResponseEntity} con el cuerpo en bytes y las cabeceras de caché.
+     */
+    public ResponseEntity<byte[]> responder(String ifNoneMatch, String acceptEncoding) {
+        boolean usarGzip = gzip != null && aceptaGzip(acceptEncoding);
+        String etag = usarGzip ? etagGzip() : etag();
+
+        if (coincide(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(CACHE_CONTROL)
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(etag)
+                .cacheControl(CACHE_CONTROL)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (usarGzip) {
+            respuesta.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+            return respuesta.body(gzip);
+        }
+        return respuesta.body(json);
+    }
+
+    /**
+     * ETag fuerte de la representación sin comprimir, con comillas.
+     *
+     * @return ETag de la respuesta JSON.
+     */
+    public String etag() {
+        return "\"" + hash + "\"";
+    }
+
+    /**
+     * Método auxiliar que devuelve el ETag fuerte de la representación comprimida.
+     */
+    private String etagGzip() {
+        return "\"" + hash + SUFIJO_GZIP + "\"";
+    }
+
+    /**
+     * Método auxiliar que comprueba si alguna de las etiquetas de {@code If-None-Match}
+     * corresponde a este contenido. Ignora el prefijo {@code W/}, como manda la comparación
+     * débil que exige HTTP para esta cabecera.
+     */
+    private boolean coincide(String ifNoneMatch) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String etiqueta : ifNoneMatch.split(",")) {
+            String valor = etiqueta.trim();
+            if (valor.equals("*")) {
+                return true;
+            }
+            if (valor.startsWith("W/")) {
+                valor = valor.substring(2);
+            }
+            if (valor.equals(etag()) || valor.equals(etagGzip())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Método auxiliar que comprueba si {@code Accept-Encoding} admite gzip
+     * (descartando {@code gzip;q=0}).
+     */
+    private static boolean aceptaGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String codificacion : acceptEncoding.split(",")) {
+            String[] partes = codificacion.trim().toLowerCase().split(";");
+            if (!partes[0].trim().equals("gzip")) {
+                continue;
+            }
+            for (int i = 1; i < partes.length; i++) {
+                String parametro = partes[i].replace(" ", "");
+                if (parametro.matches("q=0(\\.0{0,3})?")) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static byte[] comprimir(byte[] datos) {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(datos.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(salida)) {
+            gzip.write(datos);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return salida.toByteArray();
+    }
+
+    private static String resumir(byte[] datos) {
+        try {
+            byte[] resumen = MessageDigest.getInstance("SHA-256").digest(datos);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(resumen);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
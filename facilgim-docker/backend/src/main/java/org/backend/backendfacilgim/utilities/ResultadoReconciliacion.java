@@ -0,0 +1,66 @@
+package org.backend.backendfacilgim.utilities;
+
+import lombok.Getter;
+
+/**
+ * Recuento de las filas que la reconciliación de un entrenamiento ha insertado,
+ * actualizado o eliminado, separadas por relaciones entrenamiento–ejercicio y series.
+ * <p>
+ * Las relaciones y series que no cambian no se cuentan, porque Hibernate no
+ * emite ninguna sentencia para ellas.
+ * </p>
+ *
+ * Autor: Francisco Santana
+ */
+@Getter
+public class ResultadoReconciliacion {
+
+    private int relacionesInsertadas;
+    private int relacionesActualizadas;
+    private int relacionesEliminadas;
+    private int seriesInsertadas;
+    private int seriesActualizadas;
+    private int seriesEliminadas;
+
+    void relacionInsertada(int series) {
+        relacionesInsertadas++;
+        seriesInsertadas += series;
+    }
+
+    void relacionActualizada() {
+        relacionesActualizadas++;
+    }
+
+    void relacionEliminada(int series) {
+        relacionesEliminadas++;
+        seriesEliminadas += series;
+    }
+
+    void serieInsertada() {
+        seriesInsertadas++;
+    }
+
+    void serieActualizada() {
+        seriesActualizadas++;
+    }
+
+    void serieEliminada() {
+        seriesEliminadas++;
+    }
+
+    /**
+     * Número total de filas afectadas.
+     *
+     * @return Suma de inserciones, actualizaciones y borrados de relaciones y series.
+     */
+    public int total() {
+        return relacionesInsertadas + relacionesActualizadas + relacionesEliminadas
+                + seriesInsertadas + seriesActualizadas + seriesEliminadas;
+    }
+
+    @Override
+    public String toString() {
+        return "relaciones[+" + relacionesInsertadas + " ~" + relacionesActualizadas + " -" + relacionesEliminadas
+                + "] series[+" + seriesInsertadas + " ~" + seriesActualizadas + " -" + seriesEliminadas + "]";
+    }
+}
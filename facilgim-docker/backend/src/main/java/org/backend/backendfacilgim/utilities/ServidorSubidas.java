@@ -0,0 +1,241 @@
+package org.backend.backendfacilgim.utilities;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Sirve los archivos del directorio de subidas directamente desde disco.
+ * <p>
+ * Los archivos direccionados por contenido (su nombre es un SHA-256, ver {@link AlmacenImagenes},
+ * incluidas sus versiones {@code _miniatura}, {@code _media} y {@code _poster}) nunca cambian, así
+ * que se sirven como {@code immutable} durante un año con el hash como ETag fuerte. El resto de
+ * archivos, anteriores a ese esquema, se sirven con {@code no-cache} y un ETag basado en su
+ * tamaño y fecha de modificación, para que el cliente siempre los revalide.
+ * </p>
+ * <p>
+ * Admite peticiones condicionales ({@code If-None-Match}), rangos de bytes simples
+ * ({@code Range} e {@code If-Range}) y variantes precomprimidas junto al archivo
+ * ({@code .br} y {@code .gz}) cuando el cliente las acepta. El cuerpo se envía con sendfile
+ * si el contenedor lo admite (Tomcat con conector NIO) y, si no, con
+ * {@link FileChannel#transferTo}, sin pasar el contenido por búferes de la aplicación.
+ * </p>
+ *
+ * Autor: Francisco Santana
+ */
+@Component
+public class ServidorSubidas {
+
+    private static final Pattern NOMBRE_DIRECCIONADO =
+            Pattern.compile("([0-9a-f]{64}(?:_(?:miniatura|media|poster))?)(?:\\.[a-z0-9]{1,5})?");
+    private static final Pattern RANGO = Pattern.compile("bytes=(\\d{0,18})-(\\d{0,18})");
+    private static final Pattern PESO_CERO = Pattern.compile("q=0(?:\\.0{0,3})?");
+    private static final String CACHE_INMUTABLE = "public, max-age=31536000, immutable";
+    private static final String CACHE_REVALIDAR = "no-cache";
+    private static final long UMBRAL_SENDFILE = 48 * 1024;
+
+    private final Path raiz;
+
+    /**
+     * Constructor que fija el directorio de subidas.
+     *
+     * @param directorio Directorio de subidas ({@code uploads} por defecto).
+     */
+    public ServidorSubidas(@Value("${app.uploads.directorio:uploads}") String directorio) {
+        this.raiz = Paths.get(directorio).toAbsolutePath().normalize();
+    }
+
+    /**
+     * Sirve un archivo del directorio de subidas, o responde 404 si no existe.
+     *
+     * @param ruta      Ruta del archivo relativa al directorio de subidas.
+     * @param peticion  Petición HTTP, de la que se leen las cabeceras condicionales y de rango.
+     * @param respuesta Respuesta HTTP en la que se escribe el archivo.
+     * @throws IOException Si ocurre un error al leer el archivo o al escribir la respuesta.
+     */
+    public void servir(String ruta, HttpServletRequest peticion, HttpServletResponse respuesta) throws IOException {
+        Path archivo = resolver(ruta);
+        if (archivo == null) {
+            respuesta.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        String nombre = archivo.getFileName().toString();
+        Matcher direccionado = NOMBRE_DIRECCIONADO.matcher(nombre);
+        boolean inmutable = direccionado.matches();
+
+        // Variante precomprimida, si existe y el cliente la acepta
+        Path br = archivo.resolveSibling(nombre + ".br");
+        Path gz = archivo.resolveSibling(nombre + ".gz");
+        boolean conVariantes = Files.isRegularFile(br) || Files.isRegularFile(gz);
+        String aceptadas = peticion.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        Path enviado = archivo;
+        String codificacion = null;
+        if (acepta(aceptadas, "br") && Files.isRegularFile(br)) {
+            enviado = br;
+            codificacion = "br";
+        } else if (acepta(aceptadas, "gzip") && Files.isRegularFile(gz)) {
+            enviado = gz;
+            codificacion = "gzip";
+        }
+
+        BasicFileAttributes atributos = Files.readAttributes(enviado, BasicFileAttributes.class);
+        long longitud = atributos.size();
+        String etag = inmutable
+                ? direccionado.group(1)
+                : Long.toHexString(longitud) + "-" + Long.toHexString(atributos.lastModifiedTime().toMillis());
+        if (codificacion != null) {
+            etag += "br".equals(codificacion) ? "-br" : "-gz";
+        }
+        etag = "\"" + etag + "\"";
+
+        respuesta.setHeader(HttpHeaders.ETAG, etag);
+        respuesta.setHeader(HttpHeaders.CACHE_CONTROL, inmutable ? CACHE_INMUTABLE : CACHE_REVALIDAR);
+        respuesta.setDateHeader(HttpHeaders.LAST_MODIFIED, atributos.lastModifiedTime().toMillis());
+        if (conVariantes) {
+            respuesta.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        if (coincide(peticion.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            respuesta.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        // Rango de bytes: sólo uno y sólo si If-Range, cuando se envía, sigue siendo válido
+        long inicio = 0;
+        long fin = longitud - 1;
+        String rango = peticion.getHeader(HttpHeaders.RANGE);
+        String siRango = peticion.getHeader(HttpHeaders.IF_RANGE);
+        Matcher m = rango != null ? RANGO.matcher(rango.trim()) : null;
+        boolean parcial = m != null && m.matches() && !(m.group(1).isEmpty() && m.group(2).isEmpty())
+                && (siRango == null || siRango.trim().equals(etag));
+        if (parcial) {
+            if (m.group(1).isEmpty()) {
+                inicio = Math.max(0, longitud - Long.parseLong(m.group(2)));
+            } else {
+                inicio = Long.parseLong(m.group(1));
+                if (!m.group(2).isEmpty()) {
+                    fin = Math.min(fin, Long.parseLong(m.group(2)));
+                }
+            }
+            if (inicio >= longitud || inicio > fin) {
+                respuesta.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + longitud);
+                respuesta.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            respuesta.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            respuesta.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + inicio + "-" + fin + "/" + longitud);
+        } else {
+            respuesta.setStatus(HttpServletResponse.SC_OK);
+        }
+
+        respuesta.setContentType(MediaTypeFactory.getMediaType(nombre)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+        respuesta.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (codificacion != null) {
+            respuesta.setHeader(HttpHeaders.CONTENT_ENCODING, codificacion);
+        }
+        long cantidad = fin - inicio + 1;
+        respuesta.setContentLengthLong(cantidad);
+        if ("HEAD".equals(peticion.getMethod())) {
+            return;
+        }
+
+        if (cantidad >= UMBRAL_SENDFILE && Boolean.TRUE.equals(peticion.getAttribute("org.apache.tomcat.sendfile.support"))) {
+            // Tomcat envía el archivo con sendfile al terminar la petición
+            peticion.setAttribute("org.apache.tomcat.sendfile.filename", enviado.toString());
+            peticion.setAttribute("org.apache.tomcat.sendfile.start", inicio);
+            peticion.setAttribute("org.apache.tomcat.sendfile.end", fin + 1);
+            return;
+        }
+        try (FileChannel canal = FileChannel.open(enviado, StandardOpenOption.READ)) {
+            WritableByteChannel salida = Channels.newChannel(respuesta.getOutputStream());
+            long posicion = inicio;
+            while (posicion <= fin) {
+                long transferidos = canal.transferTo(posicion, fin + 1 - posicion, salida);
+                if (transferidos == 0 && posicion >= canal.size()) {
+                    // Truncado tras calcular Content-Length: se corta la respuesta en vez de esperar
+                    throw new EOFException("El archivo " + enviado.getFileName() + " se ha truncado durante el envío");
+                }
+                posicion += transferidos;
+            }
+        }
+    }
+
+    /**
+     * Método auxiliar que resuelve una ruta relativa dentro del directorio de subidas.
+     * Devuelve {@code null} si se sale de él, si algún tramo está oculto (empieza por punto,
+     * como los temporales de {@code .tmp/} o {@code ..}), si es un temporal a medio escribir
+     * o si no es un archivo.
+     */
+    private Path resolver(String ruta) {
+        if (ruta == null || ruta.isEmpty() || ruta.endsWith(".tmp")) {
+            return null;
+        }
+        for (String tramo : ruta.split("/")) {
+            if (tramo.isEmpty() || tramo.startsWith(".") || tramo.contains("\\")) {
+                return null;
+            }
+        }
+        Path archivo = raiz.resolve(ruta).normalize();
+        return archivo.startsWith(raiz) && Files.isRegularFile(archivo) ? archivo : null;
+    }
+
+    /**
+     * Método auxiliar que indica si {@code Accept-Encoding} admite una codificación
+     * (sin tener en cuenta los pesos salvo {@code q=0}, que la excluye).
+     */
+    private static boolean acepta(String aceptadas, String codificacion) {
+        if (aceptadas == null) {
+            return false;
+        }
+        for (String parte : aceptadas.split(",")) {
+            String[] tokens = parte.split(";");
+            if (tokens[0].trim().equalsIgnoreCase(codificacion)) {
+                for (int i = 1; i < tokens.length; i++) {
+                    String parametro = tokens[i].trim();
+                    if (PESO_CERO.matcher(parametro).matches()) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Método auxiliar que comprueba si {@code If-None-Match} incluye el ETag (o es {@code *}).
+     * Como indica la especificación, la comparación es débil: se ignora el prefijo {@code W/}.
+     */
+    private static boolean coincide(String siNoCoincide, String etag) {
+        if (siNoCoincide == null) {
+            return false;
+        }
+        for (String candidato : siNoCoincide.split(",")) {
+            String limpio = candidato.trim();
+            if (limpio.startsWith("W/")) {
+                limpio = limpio.substring(2);
+            }
+            if (limpio.equals("*") || limpio.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,9 +1,13 @@
 package org.backend.backendfacilgim.utilities;
 
+import org.backend.backendfacilgim.dto.PaginaDTO;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.regex.Pattern;
 
@@ -33,6 +37,46 @@ public class Utils {
         return ResponseEntity.badRequest().body(errors);
     }
 
+    /**
+     * Construye una respuesta HTTP 200 con el contenido de una página obtenida por cursor.
+     * <p>
+     * El cuerpo sigue siendo una lista JSON, para no romper a los clientes existentes.
+     * Si hay más resultados, se añade la cabecera {@code Link} con {@code rel="next"}
+     * apuntando a la petición actual con el parámetro {@code cursor} actualizado.
+     * </p>
+     *
+     * @param pagina Página de resultados devuelta por el servicio.
+     * @param <T>    Tipo de los elementos de la página.
+     * @return ResponseEntity con la lista de elementos y, si procede, la cabecera {@code Link}.
+     */
+    public static <T> ResponseEntity<List<T>> paginada(PaginaDTO<T> pagina) {
+        if (pagina.getSiguienteCursor() == null) {
+            return ResponseEntity.ok(pagina.getContenido());
+        }
+        String siguiente = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam("cursor", pagina.getSiguienteCursor())
+                .build()
+                .toUriString();
+        return ResponseEntity.ok()
+                .header(HttpHeaders.LINK, "<" + siguiente + ">; rel=\"next\"")
+                .body(pagina.getContenido());
+    }
+
+    /**
+     * Ajusta el tamaño de página solicitado por el cliente al rango {@code [1, maximo]}.
+     *
+     * @param solicitado Tamaño pedido, o {@code null} para usar el valor por defecto.
+     * @param defecto    Tamaño por defecto.
+     * @param maximo     Tamaño máximo permitido.
+     * @return Tamaño de página efectivo.
+     */
+    public static int tamanoPagina(Integer solicitado, int defecto, int maximo) {
+        if (solicitado == null) {
+            return Math.min(defecto, maximo);
+        }
+        return Math.max(1, Math.min(solicitado, maximo));
+    }
+
     /**
      * Comprueba que la cadena contenga al menos una letra, al menos un dígito
      * y al menos un carácter especial (no alfanumérico).
@@ -5,11 +5,17 @@ import org.backend.backendfacilgim.config.TestSecurityConfig;
 import org.backend.backendfacilgim.controller.EjercicioController;
 import org.backend.backendfacilgim.dto.AsignacionConSeriesDTO;
 import org.backend.backendfacilgim.dto.ActualizacionInstanciaDTO;
+import org.backend.backendfacilgim.dto.EjercicioCatalogoDTO;
 import org.backend.backendfacilgim.dto.EjercicioDTO;
 import org.backend.backendfacilgim.dto.EjercicioDeleteDTO;
+import org.backend.backendfacilgim.dto.EjercicioPopularDTO;
 import org.backend.backendfacilgim.dto.SerieDTO;
 import org.backend.backendfacilgim.entity.Ejercicio;
 import org.backend.backendfacilgim.service.EjercicioService;
+import org.backend.backendfacilgim.service.ProcesamientoImagenService;
+import org.backend.backendfacilgim.utilities.AlmacenImagenes;
+import org.backend.backendfacilgim.utilities.ReceptorSubidas;
+import org.backend.backendfacilgim.utilities.RespuestaSerializada;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -18,13 +24,22 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.IntStream;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
@@ -35,28 +50,95 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @Import({EjercicioControllerTest.MockConfig.class, TestSecurityConfig.class})
 public class EjercicioControllerTest {
 
+    private static final String LIMITE = "----limiteDePrueba";
+    private static final int TAMANO_MAXIMO = 1024;
+
     @Autowired private MockMvc mockMvc;
     @Autowired private ObjectMapper objectMapper;
     @Autowired private EjercicioService ejercicioService;
+    @Autowired private ProcesamientoImagenService procesamientoImagenService;
+    @Autowired private AlmacenImagenes almacenImagenes;
 
     @BeforeEach
     void setUp() {
-        Mockito.reset(ejercicioService);
+        Mockito.reset(ejercicioService, procesamientoImagenService, almacenImagenes);
     }
 
     @Test
     void GET_ListarEjercicios() throws Exception {
-        Ejercicio ejercicio = new Ejercicio();
-        ejercicio.setIdEjercicio(1);
-        ejercicio.setNombre("Sentadilla");
+        EjercicioCatalogoDTO ejercicio = new EjercicioCatalogoDTO(1, "Sentadilla", null);
 
-        Mockito.when(ejercicioService.listarEjercicios()).thenReturn(List.of(ejercicio));
+        RespuestaSerializada catalogo = RespuestaSerializada.de(List.of(ejercicio), objectMapper);
+        Mockito.when(ejercicioService.listarEjerciciosSerializados()).thenReturn(catalogo);
 
         mockMvc.perform(get("/api/ejercicios"))
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, catalogo.etag()))
                 .andExpect(jsonPath("$[0].nombre").value("Sentadilla"));
     }
 
+    @Test
+    void GET_ListarEjercicios_NoModificado() throws Exception {
+        RespuestaSerializada catalogo = RespuestaSerializada.de(
+                List.of(new EjercicioCatalogoDTO(1, "Sentadilla", null)), objectMapper);
+        Mockito.when(ejercicioService.listarEjerciciosSerializados()).thenReturn(catalogo);
+
+        mockMvc.perform(get("/api/ejercicios").header(HttpHeaders.IF_NONE_MATCH, catalogo.etag()))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, catalogo.etag()))
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    void GET_ListarEjercicios_Gzip() throws Exception {
+        List<EjercicioCatalogoDTO> ejercicios = IntStream.rangeClosed(1, 50)
+                .mapToObj(i -> new EjercicioCatalogoDTO(i, "Ejercicio " + i, "/uploads/ejercicio-" + i + ".png"))
+                .toList();
+        RespuestaSerializada catalogo = RespuestaSerializada.de(ejercicios, objectMapper);
+        Mockito.when(ejercicioService.listarEjerciciosSerializados()).thenReturn(catalogo);
+
+        mockMvc.perform(get("/api/ejercicios").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andExpect(content().bytes(catalogo.getGzip()));
+    }
+
+    @Test
+    void GET_BuscarEjercicios() throws Exception {
+        Mockito.when(ejercicioService.buscarEjercicios("sentadila", 5))
+                .thenReturn(List.of(new EjercicioCatalogoDTO(3, "Sentadilla", null)));
+
+        mockMvc.perform(get("/api/ejercicios/buscar").param("q", "sentadila").param("limite", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].idEjercicio").value(3))
+                .andExpect(jsonPath("$[0].nombre").value("Sentadilla"));
+    }
+
+    @Test
+    void GET_BuscarEjercicios_LimiteAcotado() throws Exception {
+        Mockito.when(ejercicioService.buscarEjercicios("press", 50)).thenReturn(List.of());
+
+        mockMvc.perform(get("/api/ejercicios/buscar").param("q", "press").param("limite", "1000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isEmpty());
+
+        Mockito.verify(ejercicioService).buscarEjercicios("press", 50);
+    }
+
+    @Test
+    void GET_Populares() throws Exception {
+        Mockito.when(ejercicioService.listarPopulares(3)).thenReturn(List.of(
+                EjercicioPopularDTO.de(new EjercicioCatalogoDTO(2, "Press banca", null, null, null, null, 40)),
+                EjercicioPopularDTO.de(new EjercicioCatalogoDTO(1, "Sentadilla", null, null, null, null, 25))));
+
+        mockMvc.perform(get("/api/ejercicios/populares").param("limite", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].nombre").value("Press banca"))
+                .andExpect(jsonPath("$[0].usos").value(40))
+                .andExpect(jsonPath("$[1].usos").value(25));
+    }
+
     @Test
     void GET_ObtenerPorId() throws Exception {
         Ejercicio ejercicio = new Ejercicio();
@@ -84,9 +166,7 @@ public class EjercicioControllerTest {
         Mockito.when(ejercicioService.crearEjercicio(any(Ejercicio.class)))
                 .thenReturn(ejercicio);
 
-        mockMvc.perform(multipart("/api/ejercicios")
-                        .file(ejercicioJson)
-                        .with(csrf()))
+        mockMvc.perform(subida(ejercicioJson))
                 .andExpect(status().isCreated())
                 .andExpect(jsonPath("$.nombre").value("Curl Biceps"));
     }
@@ -106,15 +186,48 @@ public class EjercicioControllerTest {
                 "fakeimage".getBytes()
         );
 
+        Path archivo = Path.of("uploads/ab/cd/abcd.jpg");
+        Mockito.when(almacenImagenes.guardar(any(), eq("imagen.jpg")))
+                .thenAnswer(inv -> {
+                    assertArrayEquals("fakeimage".getBytes(), inv.<InputStream>getArgument(0).readAllBytes());
+                    return new AlmacenImagenes.ImagenGuardada("ab/cd/abcd.jpg", archivo, true);
+                });
         Mockito.when(ejercicioService.crearEjercicio(any(Ejercicio.class)))
-                .thenReturn(ejercicio);
+                .thenAnswer(inv -> inv.getArgument(0));
 
-        mockMvc.perform(multipart("/api/ejercicios")
-                        .file(ejercicioJson)
-                        .file(imagen)
-                        .with(csrf()))
+        mockMvc.perform(subida(ejercicioJson, imagen))
                 .andExpect(status().isCreated())
-                .andExpect(jsonPath("$.nombre").value("Curl Biceps"));
+                .andExpect(jsonPath("$.nombre").value("Curl Biceps"))
+                .andExpect(jsonPath("$.imagenUrl").value("http://localhost/uploads/ab/cd/abcd.jpg"));
+
+        Mockito.verify(procesamientoImagenService)
+                .encolar(any(), eq("http://localhost/uploads/ab/cd/abcd.jpg"), eq(archivo));
+    }
+
+    @Test
+    void POST_CrearEjercicio_ImagenDemasiadoGrande() throws Exception {
+        MockMultipartFile ejercicioJson = new MockMultipartFile(
+                "ejercicio","", MediaType.APPLICATION_JSON_VALUE,
+                "{\"nombre\":\"Curl Biceps\"}".getBytes()
+        );
+        MockMultipartFile imagen = new MockMultipartFile(
+                "imagen","imagen.gif", MediaType.IMAGE_GIF_VALUE, new byte[TAMANO_MAXIMO + 1]
+        );
+        Mockito.when(almacenImagenes.guardar(any(), any()))
+                .thenAnswer(inv -> inv.<InputStream>getArgument(0).readAllBytes());
+
+        mockMvc.perform(subida(ejercicioJson, imagen))
+                .andExpect(status().isPayloadTooLarge());
+
+        Mockito.verifyNoInteractions(ejercicioService, procesamientoImagenService);
+    }
+
+    @Test
+    void POST_SinParteEjercicio_BadRequest() throws Exception {
+        MockMultipartFile otra = new MockMultipartFile("otra","", MediaType.TEXT_PLAIN_VALUE, "x".getBytes());
+
+        mockMvc.perform(subida(otra))
+                .andExpect(status().isBadRequest());
     }
 
     @Test
@@ -132,12 +245,12 @@ public class EjercicioControllerTest {
                 objectMapper.writeValueAsBytes(actualizado)
         );
 
-        mockMvc.perform(multipart("/api/ejercicios")
-                        .file(ejercicioJson)
-                        .with(csrf()))
+        mockMvc.perform(subida(ejercicioJson))
                 .andExpect(status().isCreated())
                 .andExpect(jsonPath("$.imagenUrl").value("anterior.jpg"))
                 .andExpect(jsonPath("$.nombre").value("Remo Nuevo"));
+
+        Mockito.verifyNoInteractions(procesamientoImagenService);
     }
 
     @Test
@@ -223,10 +336,40 @@ public class EjercicioControllerTest {
                 .andExpect(status().isNoContent());
     }
 
+    /**
+     * Construye una petición multipart/form-data con el cuerpo ya serializado, como la envía
+     * el navegador, ya que el controlador lee las partes en streaming desde la petición.
+     */
+    private static MockHttpServletRequestBuilder subida(MockMultipartFile... partes) throws IOException {
+        ByteArrayOutputStream cuerpo = new ByteArrayOutputStream();
+        for (MockMultipartFile parte : partes) {
+            String disposicion = "form-data; name=\"" + parte.getName() + "\""
+                    + (parte.getOriginalFilename().isEmpty() ? "" : "; filename=\"" + parte.getOriginalFilename() + "\"");
+            cuerpo.write(("--" + LIMITE + "\r\nContent-Disposition: " + disposicion
+                    + "\r\nContent-Type: " + parte.getContentType() + "\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+            cuerpo.write(parte.getBytes());
+            cuerpo.write("\r\n".getBytes(StandardCharsets.UTF_8));
+        }
+        cuerpo.write(("--" + LIMITE + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        return post("/api/ejercicios")
+                .contentType("multipart/form-data; boundary=" + LIMITE)
+                .content(cuerpo.toByteArray())
+                .with(csrf());
+    }
+
     @TestConfiguration
     static class MockConfig {
         @Bean public EjercicioService ejercicioService() {
             return Mockito.mock(EjercicioService.class);
         }
+        @Bean public ProcesamientoImagenService procesamientoImagenService() {
+            return Mockito.mock(ProcesamientoImagenService.class);
+        }
+        @Bean public AlmacenImagenes almacenImagenes() {
+            return Mockito.mock(AlmacenImagenes.class);
+        }
+        @Bean public ReceptorSubidas receptorSubidas(AlmacenImagenes almacenImagenes) {
+            return new ReceptorSubidas(almacenImagenes, 2, TAMANO_MAXIMO);
+        }
     }
 }
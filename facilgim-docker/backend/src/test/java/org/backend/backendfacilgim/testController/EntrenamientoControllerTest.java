@@ -3,12 +3,22 @@ package org.backend.backendfacilgim.testController;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.backend.backendfacilgim.config.TestSecurityConfig;
 import org.backend.backendfacilgim.controller.EntrenamientoController;
+import org.backend.backendfacilgim.dto.EntrenamientoCompletoDTO;
 import org.backend.backendfacilgim.dto.EntrenamientoDTO;
+import org.backend.backendfacilgim.dto.EntrenamientoResumenDTO;
+import org.backend.backendfacilgim.dto.FilaHistorialDTO;
+import org.backend.backendfacilgim.dto.InstanciaEjercicioDTO;
+import org.backend.backendfacilgim.dto.LoteEntrenamientosDTO;
+import org.backend.backendfacilgim.dto.PaginaDTO;
+import org.backend.backendfacilgim.dto.ResultadoItemLoteDTO;
+import org.backend.backendfacilgim.dto.ResultadoLoteDTO;
+import org.backend.backendfacilgim.dto.SerieDTO;
 import org.backend.backendfacilgim.dto.TipoEntrenamientoDTO;
 import org.backend.backendfacilgim.dto.UsuarioDTO;
 import org.backend.backendfacilgim.entity.Entrenamiento;
 import org.backend.backendfacilgim.entity.TipoEntrenamiento;
 import org.backend.backendfacilgim.entity.Usuario;
+import org.backend.backendfacilgim.exception.CustomException;
 import org.backend.backendfacilgim.service.EntrenamientoService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -20,14 +30,20 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -52,21 +68,45 @@ public class EntrenamientoControllerTest {
 
     @Test
     void GET_ListarTodos() throws Exception {
-        Entrenamiento ent = new Entrenamiento();
+        EntrenamientoResumenDTO ent = new EntrenamientoResumenDTO();
         ent.setNombre("Piernas");
+        ent.setTipoEntrenamiento(new TipoEntrenamientoDTO(1L, "Fuerza"));
+        ent.setIdUsuario(7);
 
-        Mockito.when(entrenamientoService.obtenerTodosLosEntrenamientos())
-                .thenReturn(List.of(ent));
+        Mockito.when(entrenamientoService.obtenerTodosLosEntrenamientos(isNull(), anyInt()))
+                .thenReturn(new PaginaDTO<>(List.of(ent), null));
 
         mockMvc.perform(get("/api/entrenamientos"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].nombre").value("Piernas"));
+                .andExpect(header().doesNotExist("Link"))
+                .andExpect(jsonPath("$[0].nombre").value("Piernas"))
+                .andExpect(jsonPath("$[0].tipoEntrenamiento.nombre").value("Fuerza"))
+                .andExpect(jsonPath("$[0].idUsuario").value(7))
+                .andExpect(jsonPath("$[0].usuario").doesNotExist());
+    }
+
+    @Test
+    void GET_ListarTodos_ConPaginaSiguiente() throws Exception {
+        EntrenamientoResumenDTO ent = new EntrenamientoResumenDTO();
+        ent.setNombre("Piernas");
+
+        Mockito.when(entrenamientoService.obtenerTodosLosEntrenamientos(eq("abc"), eq(1)))
+                .thenReturn(new PaginaDTO<>(List.of(ent), "def"));
+
+        mockMvc.perform(get("/api/entrenamientos")
+                        .param("cursor", "abc")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Link", containsString("cursor=def")))
+                .andExpect(header().string("Link", containsString("rel=\"next\"")))
+                .andExpect(jsonPath("$", hasSize(1)));
     }
 
     @Test
     void GET_EntrenamientosPorFechas() throws Exception {
-        Mockito.when(entrenamientoService.obtenerEntrenamientosEntreDosFechas(any(LocalDate.class), any(LocalDate.class)))
-                .thenReturn(List.of(new Entrenamiento()));
+        Mockito.when(entrenamientoService.obtenerEntrenamientosEntreDosFechas(
+                        any(LocalDate.class), any(LocalDate.class), isNull(), anyInt()))
+                .thenReturn(new PaginaDTO<>(List.of(new EntrenamientoResumenDTO()), null));
 
         mockMvc.perform(get("/api/entrenamientos/fecha")
                         .param("fechaInicio", "2024-01-01")
@@ -98,22 +138,65 @@ public class EntrenamientoControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void GET_Completo_Existente() throws Exception {
+        EntrenamientoCompletoDTO dto = new EntrenamientoCompletoDTO();
+        dto.setIdEntrenamiento(1);
+        dto.setNombre("Pecho");
+        dto.setEjercicios(List.of(
+                new InstanciaEjercicioDTO(10, 1, 101, "Press banca", null,
+                        List.of(new SerieDTO(1, 1, 10, 60.0)))));
+
+        Mockito.when(entrenamientoService.obtenerEntrenamientoCompleto(1))
+                .thenReturn(Optional.of(dto));
+
+        mockMvc.perform(get("/api/entrenamientos/1/completo"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nombre").value("Pecho"))
+                .andExpect(jsonPath("$.ejercicios[0].nombre").value("Press banca"))
+                .andExpect(jsonPath("$.ejercicios[0].series", hasSize(1)));
+    }
+
+    @Test
+    void GET_Completo_Inexistente() throws Exception {
+        Mockito.when(entrenamientoService.obtenerEntrenamientoCompleto(999))
+                .thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/entrenamientos/999/completo"))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void GET_PorUsuarioId() throws Exception {
-        Mockito.when(entrenamientoService.encontrarEntrenamientoPorIdUsuario(5))
-                .thenReturn(List.of(new Entrenamiento()));
+        Mockito.when(entrenamientoService.encontrarEntrenamientoPorIdUsuario(
+                        eq(5), isNull(), isNull(), isNull(), anyInt()))
+                .thenReturn(new PaginaDTO<>(List.of(new EntrenamientoResumenDTO()), null));
 
         mockMvc.perform(get("/api/entrenamientos/usuarioId/5"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(1)));
     }
 
+    @Test
+    void GET_PorUsuarioId_ConVentanaDeFechas() throws Exception {
+        Mockito.when(entrenamientoService.encontrarEntrenamientoPorIdUsuario(
+                        eq(5), eq(LocalDate.of(2024, 1, 1)), eq(LocalDate.of(2024, 3, 31)), isNull(), anyInt()))
+                .thenReturn(new PaginaDTO<>(List.of(new EntrenamientoResumenDTO()), "c2lndWllbnRl"));
+
+        mockMvc.perform(get("/api/entrenamientos/usuarioId/5")
+                        .param("desde", "2024-01-01")
+                        .param("hasta", "2024-03-31"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Link", containsString("desde=2024-01-01")))
+                .andExpect(header().string("Link", containsString("cursor=c2lndWllbnRl")));
+    }
+
     @Test
     void GET_PorNombre() throws Exception {
-        Entrenamiento ent = new Entrenamiento();
+        EntrenamientoResumenDTO ent = new EntrenamientoResumenDTO();
         ent.setNombre("Cardio");
-        Mockito.when(entrenamientoService.obtenerEntrenamientosPorNombre("Cardio"))
-                .thenReturn(List.of(ent));
+        Mockito.when(entrenamientoService.obtenerEntrenamientosPorNombre(eq("Cardio"), isNull(), anyInt()))
+                .thenReturn(new PaginaDTO<>(List.of(ent), null));
 
         mockMvc.perform(get("/api/entrenamientos/nombre/Cardio"))
                 .andExpect(status().isOk())
@@ -152,6 +235,128 @@ public class EntrenamientoControllerTest {
                 .andExpect(jsonPath("$.nombre").value("Espalda"));
     }
 
+    @Test
+    void POST_CrearLote_TodosCreados() throws Exception {
+        LoteEntrenamientosDTO lote = new LoteEntrenamientosDTO(List.of(dtoLote("Espalda"), dtoLote("Pecho")), false);
+
+        Mockito.when(entrenamientoService.crearLoteDesdeDTO(any(), eq(false)))
+                .thenReturn(new ResultadoLoteDTO(2, 0, List.of(
+                        new ResultadoItemLoteDTO(0, 10, null),
+                        new ResultadoItemLoteDTO(1, 11, null))));
+
+        mockMvc.perform(post("/api/entrenamientos/lote")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(lote)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.creados").value(2))
+                .andExpect(jsonPath("$.resultados[1].idEntrenamiento").value(11));
+    }
+
+    @Test
+    void POST_CrearLote_ParcialConFallos() throws Exception {
+        LoteEntrenamientosDTO lote = new LoteEntrenamientosDTO(List.of(dtoLote("Espalda"), dtoLote("Pecho")), true);
+
+        Mockito.when(entrenamientoService.crearLoteDesdeDTO(any(), eq(true)))
+                .thenReturn(new ResultadoLoteDTO(1, 1, List.of(
+                        new ResultadoItemLoteDTO(0, 10, null),
+                        new ResultadoItemLoteDTO(1, null, "Ejercicios no encontrados con ID: [999]"))));
+
+        mockMvc.perform(post("/api/entrenamientos/lote")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(lote)))
+                .andExpect(status().isMultiStatus())
+                .andExpect(jsonPath("$.fallidos").value(1))
+                .andExpect(jsonPath("$.resultados[1].error").value(containsString("999")));
+    }
+
+    @Test
+    void POST_CrearLote_ParcialConElementoInvalido() throws Exception {
+        EntrenamientoDTO invalido = dtoLote("");
+        LoteEntrenamientosDTO lote = new LoteEntrenamientosDTO(List.of(dtoLote("Espalda"), invalido), true);
+
+        Mockito.when(entrenamientoService.crearLoteDesdeDTO(any(), eq(true)))
+                .thenReturn(new ResultadoLoteDTO(1, 1, List.of(
+                        new ResultadoItemLoteDTO(0, 10, null),
+                        new ResultadoItemLoteDTO(1, null, "El campo nombre El nombre del entrenamiento es obligatorio"))));
+
+        mockMvc.perform(post("/api/entrenamientos/lote")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(lote)))
+                .andExpect(status().isMultiStatus())
+                .andExpect(jsonPath("$.creados").value(1))
+                .andExpect(jsonPath("$.resultados[0].idEntrenamiento").value(10))
+                .andExpect(jsonPath("$.resultados[1].error").value(containsString("nombre")));
+    }
+
+    @Test
+    void POST_CrearLote_TodoONadaConElementoInvalido() throws Exception {
+        EntrenamientoDTO invalido = dtoLote("");
+        LoteEntrenamientosDTO lote = new LoteEntrenamientosDTO(List.of(dtoLote("Espalda"), invalido), false);
+
+        Mockito.when(entrenamientoService.crearLoteDesdeDTO(any(), eq(false)))
+                .thenThrow(new CustomException("Entrenamiento 1: El campo nombre El nombre del entrenamiento es obligatorio"));
+
+        mockMvc.perform(post("/api/entrenamientos/lote")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(lote)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void GET_ExportarHistorialNdjson() throws Exception {
+        Mockito.doAnswer(inv -> {
+            Consumer<FilaHistorialDTO> consumidor = inv.getArgument(1);
+            consumidor.accept(filaHistorial(1, 10, 1));
+            consumidor.accept(filaHistorial(1, 10, 2));
+            consumidor.accept(filaHistorial(2, 20, 1));
+            return null;
+        }).when(entrenamientoService).recorrerHistorial(eq(7), any());
+
+        MvcResult resultado = mockMvc.perform(get("/api/entrenamientos/usuarioId/7/exportar"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String cuerpo = mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(header().string("Content-Disposition", containsString("historial-7.ndjson")))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lineas = cuerpo.split("\n");
+        assertEquals(2, lineas.length);
+        assertEquals(2,
+                objectMapper.readTree(lineas[0]).get("ejercicios").get(0).get("series").size());
+    }
+
+    @Test
+    void GET_ExportarHistorialCsv() throws Exception {
+        Mockito.doAnswer(inv -> {
+            Consumer<FilaHistorialDTO> consumidor = inv.getArgument(1);
+            consumidor.accept(filaHistorial(1, 10, 1));
+            return null;
+        }).when(entrenamientoService).recorrerHistorial(eq(7), any());
+
+        MvcResult resultado = mockMvc.perform(get("/api/entrenamientos/usuarioId/7/exportar")
+                        .param("formato", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("id_entrenamiento,fecha,nombre")))
+                .andExpect(content().string(containsString("1,2024-01-01,\"Pierna, pesada\",Fuerza,60,1,10,Sentadilla,1,10,20.0")));
+    }
+
+    @Test
+    void GET_ExportarHistorial_FormatoNoSoportado() throws Exception {
+        mockMvc.perform(get("/api/entrenamientos/usuarioId/7/exportar").param("formato", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void PUT_ActualizarPorId() throws Exception {
         Entrenamiento ent = new Entrenamiento();
@@ -238,6 +443,22 @@ public class EntrenamientoControllerTest {
                 .andExpect(status().isNoContent());
     }
 
+    private EntrenamientoDTO dtoLote(String nombre) {
+        EntrenamientoDTO dto = new EntrenamientoDTO();
+        dto.setNombre(nombre);
+        dto.setDuracion(45);
+        dto.setFechaEntrenamiento(LocalDate.now());
+        dto.setTipoEntrenamiento(new TipoEntrenamientoDTO(1L, "Fuerza"));
+        dto.setUsuario(new UsuarioDTO(1, "user", null, "user@example.com", "", "", "", false));
+        dto.setEjerciciosId(List.of(101));
+        return dto;
+    }
+
+    private FilaHistorialDTO filaHistorial(int idEntrenamiento, int idRelacion, int numeroSerie) {
+        return new FilaHistorialDTO(idEntrenamiento, "Pierna, pesada", LocalDate.of(2024, 1, 1), null, 60, "Fuerza",
+                idRelacion, 1, 10, "Sentadilla", idRelacion * 100 + numeroSerie, numeroSerie, 10, 20.0);
+    }
+
     @TestConfiguration
     static class MockConfig {
         @Bean
@@ -3,9 +3,11 @@ package org.backend.backendfacilgim.testController;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.backend.backendfacilgim.config.TestSecurityConfig;
 import org.backend.backendfacilgim.controller.EntrenamientoEjercicioController;
+import org.backend.backendfacilgim.dto.EntrenamientoEjercicioResumenDTO;
 import org.backend.backendfacilgim.entity.Ejercicio;
 import org.backend.backendfacilgim.entity.Entrenamiento;
 import org.backend.backendfacilgim.entity.EntrenamientoEjercicio;
+import org.backend.backendfacilgim.entity.Serie;
 import org.backend.backendfacilgim.service.EjercicioService;
 import org.backend.backendfacilgim.service.EntrenamientoEjercicioService;
 import org.backend.backendfacilgim.service.EntrenamientoService;
@@ -53,8 +55,7 @@ public class EntrenamientoEjercicioControllerTest {
 
     @Test
     void GET_ListarTodos() throws Exception {
-        EntrenamientoEjercicio relacion = new EntrenamientoEjercicio();
-        relacion.setId(1);
+        EntrenamientoEjercicioResumenDTO relacion = new EntrenamientoEjercicioResumenDTO(1, 1, 101, "Sentadilla", 1);
 
         Mockito.when(entrenamientoEjercicioService.obtenerTodos()).thenReturn(List.of(relacion));
 
@@ -85,15 +86,52 @@ public class EntrenamientoEjercicioControllerTest {
 
     @Test
     void GET_ListarPorEntrenamiento() throws Exception {
-        EntrenamientoEjercicio relacion = new EntrenamientoEjercicio();
-        relacion.setId(5);
+        EntrenamientoEjercicioResumenDTO relacion = new EntrenamientoEjercicioResumenDTO(5, 1, 101, "Sentadilla", 1);
 
         Mockito.when(entrenamientoEjercicioService.obtenerPorIdEntrenamiento(1))
                 .thenReturn(List.of(relacion));
 
         mockMvc.perform(get("/api/entrenamiento-ejercicio/entrenamiento/1"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].id").value(5));
+                .andExpect(jsonPath("$[0].id").value(5))
+                .andExpect(jsonPath("$[0].nombreEjercicio").value("Sentadilla"));
+    }
+
+    @Test
+    void GET_ListarPorEntrenamiento_IncluirSeries() throws Exception {
+        EntrenamientoEjercicio relacion = new EntrenamientoEjercicio();
+        relacion.setId(5);
+        relacion.setOrden(1);
+        Serie serie = new Serie();
+        serie.setNumeroSerie(1);
+        serie.setRepeticiones(10);
+        serie.setPeso(20);
+        serie.setEntrenamientoEjercicio(relacion);
+        relacion.getSeries().add(serie);
+
+        Mockito.when(entrenamientoEjercicioService.obtenerPorIdEntrenamientoConSeries(1))
+                .thenReturn(List.of(relacion));
+
+        mockMvc.perform(get("/api/entrenamiento-ejercicio/entrenamiento/1").param("incluirSeries", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(5))
+                .andExpect(jsonPath("$[0].series", hasSize(1)))
+                .andExpect(jsonPath("$[0].series[0].repeticiones").value(10));
+
+        Mockito.verify(entrenamientoEjercicioService, Mockito.never()).obtenerPorIdEntrenamiento(any());
+    }
+
+    @Test
+    void GET_ListarTodos_IncluirSeries() throws Exception {
+        EntrenamientoEjercicio relacion = new EntrenamientoEjercicio();
+        relacion.setId(1);
+
+        Mockito.when(entrenamientoEjercicioService.obtenerTodosConSeries()).thenReturn(List.of(relacion));
+
+        mockMvc.perform(get("/api/entrenamiento-ejercicio").param("incluirSeries", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].series", hasSize(0)));
     }
 
     @TestConfiguration
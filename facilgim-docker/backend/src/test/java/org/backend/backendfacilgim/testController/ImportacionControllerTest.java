@@ -0,0 +1,127 @@
+package org.backend.backendfacilgim.testController;
+
+import org.backend.backendfacilgim.config.TestSecurityConfig;
+import org.backend.backendfacilgim.controller.ImportacionController;
+import org.backend.backendfacilgim.dto.ImportacionDTO;
+import org.backend.backendfacilgim.entity.Importacion;
+import org.backend.backendfacilgim.exception.CustomException;
+import org.backend.backendfacilgim.service.ImportacionService;
+import org.backend.backendfacilgim.utilities.FormatoExportacion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.endsWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = ImportacionController.class)
+@Import({ImportacionControllerTest.MockConfig.class, TestSecurityConfig.class})
+public class ImportacionControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ImportacionService importacionService;
+
+    @BeforeEach
+    void setUp() {
+        Mockito.reset(importacionService);
+    }
+
+    @Test
+    void POST_IniciarImportacion_FormatoPorExtension() throws Exception {
+        MockMultipartFile archivo = new MockMultipartFile(
+                "archivo", "historial.csv", "text/csv", "id_entrenamiento,fecha,nombre,tipo\n".getBytes());
+
+        Mockito.when(importacionService.iniciarImportacion(eq(7), eq(FormatoExportacion.CSV), any()))
+                .thenReturn(importacion(Importacion.Estado.PENDIENTE, 0));
+
+        mockMvc.perform(multipart("/api/importaciones")
+                        .file(archivo)
+                        .param("idUsuario", "7")
+                        .with(csrf()))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", endsWith("/api/importaciones/3")))
+                .andExpect(jsonPath("$.estado").value("PENDIENTE"));
+    }
+
+    @Test
+    void POST_IniciarImportacion_FormatoNoSoportado() throws Exception {
+        MockMultipartFile archivo = new MockMultipartFile(
+                "archivo", "historial.xml", "application/xml", "<x/>".getBytes());
+
+        mockMvc.perform(multipart("/api/importaciones")
+                        .file(archivo)
+                        .param("idUsuario", "7")
+                        .with(csrf()))
+                .andExpect(status().isBadRequest());
+
+        Mockito.verifyNoInteractions(importacionService);
+    }
+
+    @Test
+    void GET_ObtenerImportacion() throws Exception {
+        Mockito.when(importacionService.obtenerImportacion(3))
+                .thenReturn(Optional.of(importacion(Importacion.Estado.EN_CURSO, 1000)));
+
+        mockMvc.perform(get("/api/importaciones/3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.estado").value("EN_CURSO"))
+                .andExpect(jsonPath("$.entrenamientosProcesados").value(1000));
+    }
+
+    @Test
+    void GET_ObtenerImportacion_NoExiste() throws Exception {
+        Mockito.when(importacionService.obtenerImportacion(99)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/importaciones/99"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void POST_ReanudarImportacion() throws Exception {
+        Mockito.when(importacionService.reanudarImportacion(3))
+                .thenReturn(importacion(Importacion.Estado.FALLIDA, 500));
+
+        mockMvc.perform(post("/api/importaciones/3/reanudar").with(csrf()))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.lotesConfirmados").value(1));
+    }
+
+    @Test
+    void POST_ReanudarImportacion_Completada() throws Exception {
+        Mockito.when(importacionService.reanudarImportacion(3))
+                .thenThrow(new CustomException("La importación 3 ya está completada"));
+
+        mockMvc.perform(post("/api/importaciones/3/reanudar").with(csrf()))
+                .andExpect(status().isBadRequest());
+    }
+
+    private ImportacionDTO importacion(Importacion.Estado estado, int procesados) {
+        return new ImportacionDTO(3, 7, "historial.csv", estado, procesados, procesados, 0,
+                procesados / 500, null, LocalDateTime.now());
+    }
+
+    @TestConfiguration
+    static class MockConfig {
+        @Bean
+        public ImportacionService importacionService() {
+            return Mockito.mock(ImportacionService.class);
+        }
+    }
+}
@@ -5,7 +5,9 @@ import org.backend.backendfacilgim.config.TestSecurityConfig;
 import org.backend.backendfacilgim.controller.TipoEntrenamientoController;
 import org.backend.backendfacilgim.dto.TipoEntrenamientoDTO;
 import org.backend.backendfacilgim.entity.TipoEntrenamiento;
+import org.backend.backendfacilgim.mapper.TipoEntrenamientoMapper;
 import org.backend.backendfacilgim.service.TipoEntrenamientoService;
+import org.backend.backendfacilgim.utilities.RespuestaSerializada;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,6 +15,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -58,14 +61,29 @@ public class TipoEntrenamientoControllerTest {
 
     @Test
     void GET_ListarTipos() throws Exception {
-        when(tipoEntrenamientoService.listarTipos()).thenReturn(List.of(tipo));
+        RespuestaSerializada tipos = RespuestaSerializada.de(
+                List.of(TipoEntrenamientoMapper.toDTO(tipo)), objectMapper);
+        when(tipoEntrenamientoService.listarTiposSerializados()).thenReturn(tipos);
 
         mockMvc.perform(get("/api/tipos-entrenamiento"))
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, tipos.etag()))
                 .andExpect(jsonPath("$[0].id").value(5))
                 .andExpect(jsonPath("$[0].nombre").value("Fuerza"));
     }
 
+    @Test
+    void GET_ListarTipos_NoModificado() throws Exception {
+        RespuestaSerializada tipos = RespuestaSerializada.de(
+                List.of(TipoEntrenamientoMapper.toDTO(tipo)), objectMapper);
+        when(tipoEntrenamientoService.listarTiposSerializados()).thenReturn(tipos);
+
+        mockMvc.perform(get("/api/tipos-entrenamiento")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"otra-version\", " + tipos.etag()))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, tipos.etag()));
+    }
+
     @Test
     void GET_ObtenerTipoPorId() throws Exception {
         when(tipoEntrenamientoService.obtenerPorId(5L)).thenReturn(tipo);
@@ -0,0 +1,144 @@
+package org.backend.backendfacilgim.testRepository;
+
+import org.backend.backendfacilgim.dto.*;
+import org.backend.backendfacilgim.entity.*;
+import org.backend.backendfacilgim.service.implementacion.EntrenamientoServiceImpl;
+import org.backend.backendfacilgim.utilities.ContadorUsosEjercicios;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Base común de los tests de repositorio y servicio de entrenamientos sobre H2.
+ * <p>
+ * Cada test parte de un usuario {@code user} y un tipo {@code Fuerza} ya persistidos, con las
+ * estadísticas de Hibernate activadas para contar consultas e inserciones. Los métodos
+ * {@code persistir*} crean el resto de datos que necesite cada caso.
+ * </p>
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({EntrenamientoServiceImpl.class, ContadorUsosEjercicios.class})
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+public abstract class BaseEntrenamientoJpa {
+
+    @Autowired
+    protected TestEntityManager em;
+
+    @Autowired
+    protected EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    protected EntrenamientoServiceImpl entrenamientoService;
+
+    protected Statistics statistics;
+    protected Usuario usuario;
+    protected TipoEntrenamiento tipo;
+
+    @BeforeEach
+    void prepararBase() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        usuario = persistirUsuario("user");
+
+        tipo = new TipoEntrenamiento();
+        tipo.setNombre("Fuerza");
+        em.persist(tipo);
+    }
+
+    protected Usuario persistirUsuario(String username) {
+        Usuario nuevo = new Usuario();
+        nuevo.setUsername(username);
+        nuevo.setPassword("pass");
+        nuevo.setCorreo(username + "@example.com");
+        nuevo.setNombre("Nombre");
+        nuevo.setApellido("Apellido");
+        return em.persist(nuevo);
+    }
+
+    protected Ejercicio persistirEjercicio(String nombre) {
+        Ejercicio ejercicio = new Ejercicio();
+        ejercicio.setNombre(nombre);
+        return em.persist(ejercicio);
+    }
+
+    /**
+     * Persiste {@code cantidad} ejercicios llamados {@code Ejercicio 1}, {@code Ejercicio 2}...
+     *
+     * @return Sus IDs, en orden.
+     */
+    protected List<Integer> persistirEjercicios(int cantidad) {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 1; i <= cantidad; i++) {
+            ids.add(persistirEjercicio("Ejercicio " + i).getIdEjercicio());
+        }
+        return ids;
+    }
+
+    protected Entrenamiento persistirEntrenamiento(String nombre, LocalDate fecha, Usuario propietario) {
+        Entrenamiento entrenamiento = new Entrenamiento();
+        entrenamiento.setNombre(nombre);
+        entrenamiento.setFechaEntrenamiento(fecha);
+        entrenamiento.setDuracion(45);
+        entrenamiento.setUsuario(propietario);
+        entrenamiento.setTipoEntrenamiento(tipo);
+        return em.persist(entrenamiento);
+    }
+
+    /**
+     * Persiste la relación entre un entrenamiento y un ejercicio con {@code series} series
+     * de 10 repeticiones y 20 kg.
+     */
+    protected EntrenamientoEjercicio relacionar(Entrenamiento entrenamiento, Ejercicio ejercicio, int orden, int series) {
+        EntrenamientoEjercicio relacion = new EntrenamientoEjercicio();
+        relacion.setEntrenamiento(entrenamiento);
+        relacion.setEjercicio(ejercicio);
+        relacion.setOrden(orden);
+        for (int n = 1; n <= series; n++) {
+            Serie serie = new Serie();
+            serie.setNumeroSerie(n);
+            serie.setRepeticiones(10);
+            serie.setPeso(20);
+            serie.setEntrenamientoEjercicio(relacion);
+            relacion.getSeries().add(serie);
+        }
+        return em.persist(relacion);
+    }
+
+    /**
+     * Construye el DTO de un entrenamiento del usuario base con un ejercicio por ID, en orden,
+     * cada uno con {@code seriesPorEjercicio} series de {@code repeticiones} repeticiones.
+     */
+    protected EntrenamientoDTO dto(String nombre, List<Integer> idsEjercicios, int seriesPorEjercicio, int repeticiones) {
+        EntrenamientoDTO dto = new EntrenamientoDTO();
+        dto.setNombre(nombre);
+        dto.setFechaEntrenamiento(LocalDate.of(2024, 1, 1));
+        dto.setDuracion(60);
+        dto.setTipoEntrenamiento(new TipoEntrenamientoDTO(tipo.getId(), tipo.getNombre()));
+        UsuarioDTO usuarioDTO = new UsuarioDTO();
+        usuarioDTO.setIdUsuario(usuario.getIdUsuario());
+        dto.setUsuario(usuarioDTO);
+        dto.setEjerciciosId(new ArrayList<>(idsEjercicios));
+
+        List<EntrenamientoEjercicioDTO> relaciones = new ArrayList<>();
+        for (int i = 0; i < idsEjercicios.size(); i++) {
+            List<SerieDTO> series = new ArrayList<>();
+            for (int n = 1; n <= seriesPorEjercicio; n++) {
+                series.add(new SerieDTO(null, n, repeticiones, 20.0));
+            }
+            EjercicioDTO ejercicio = new EjercicioDTO(idsEjercicios.get(i), null, null, null);
+            relaciones.add(new EntrenamientoEjercicioDTO(null, ejercicio, i + 1, series));
+        }
+        dto.setEntrenamientosEjercicios(relaciones);
+        return dto;
+    }
+}
@@ -0,0 +1,65 @@
+package org.backend.backendfacilgim.testRepository;
+
+import org.backend.backendfacilgim.dto.EntrenamientoCompletoDTO;
+import org.backend.backendfacilgim.entity.Entrenamiento;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EntrenamientoCompletoQueryTest extends BaseEntrenamientoJpa {
+
+    @Test
+    void entrenamientoCompleto_NumeroDeConsultasConstante() {
+        Integer pequeno = crearEntrenamiento("Pequeño", 1, 1);
+        Integer grande = crearEntrenamiento("Grande", 8, 5);
+        em.flush();
+        em.clear();
+
+        long consultasPequeno = contarConsultas(pequeno, 1, 1);
+        long consultasGrande = contarConsultas(grande, 8, 5);
+
+        assertEquals(2, consultasPequeno);
+        assertEquals(consultasPequeno, consultasGrande);
+    }
+
+    @Test
+    void entrenamientoCompleto_SinEjercicios_UnaConsulta() {
+        Integer vacio = crearEntrenamiento("Vacío", 0, 0);
+        em.flush();
+        em.clear();
+
+        assertEquals(1, contarConsultas(vacio, 0, 0));
+    }
+
+    @Test
+    void entrenamientoCompleto_Inexistente() {
+        assertTrue(entrenamientoService.obtenerEntrenamientoCompleto(-1).isEmpty());
+    }
+
+    private long contarConsultas(Integer id, int ejercicios, int seriesPorEjercicio) {
+        statistics.clear();
+        EntrenamientoCompletoDTO dto = entrenamientoService.obtenerEntrenamientoCompleto(id).orElseThrow();
+        long consultas = statistics.getPrepareStatementCount();
+        em.clear();
+
+        assertEquals(ejercicios, dto.getEjercicios().size());
+        for (int i = 0; i < ejercicios; i++) {
+            assertEquals(i + 1, dto.getEjercicios().get(i).getOrden());
+            assertEquals(seriesPorEjercicio, dto.getEjercicios().get(i).getSeries().size());
+        }
+        return consultas;
+    }
+
+    private Integer crearEntrenamiento(String nombre, int ejercicios, int seriesPorEjercicio) {
+        Entrenamiento entrenamiento = persistirEntrenamiento(nombre, LocalDate.of(2024, 1, 1), usuario);
+
+        // Se insertan en orden inverso para comprobar que el DTO sale ordenado
+        for (int i = ejercicios; i >= 1; i--) {
+            relacionar(entrenamiento, persistirEjercicio(nombre + " ejercicio " + i), i, seriesPorEjercicio);
+        }
+        return entrenamiento.getIdEntrenamiento();
+    }
+}
@@ -0,0 +1,120 @@
+package org.backend.backendfacilgim.testRepository;
+
+import org.backend.backendfacilgim.dto.*;
+import org.backend.backendfacilgim.exception.CustomException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EntrenamientoLoteTest extends BaseEntrenamientoJpa {
+
+    private List<Integer> idsEjercicios;
+
+    @BeforeEach
+    void setUp() {
+        idsEjercicios = persistirEjercicios(5);
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void crearLote_ReferenciasCompartidasEnTresConsultas() {
+        List<EntrenamientoDTO> dtos = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            dtos.add(dto(idsEjercicios.get(i), 3));
+        }
+
+        statistics.clear();
+        ResultadoLoteDTO resultado = entrenamientoService.crearLoteDesdeDTO(dtos, false);
+        em.flush();
+
+        assertEquals(5, resultado.getCreados());
+        assertEquals(0, resultado.getFallidos());
+        assertTrue(resultado.getResultados().stream().allMatch(r -> r.getIdEntrenamiento() != null));
+        assertEquals(3, statistics.getQueryExecutionCount());
+        assertEquals(5 + 5 + 15, statistics.getEntityInsertCount());
+    }
+
+    @Test
+    void crearLote_TodoONada_NoCreaNingunoSiAlgunoFalla() {
+        List<EntrenamientoDTO> dtos = List.of(dto(idsEjercicios.get(0), 3), dto(999_999, 3));
+
+        statistics.clear();
+        CustomException ex = assertThrows(CustomException.class,
+                () -> entrenamientoService.crearLoteDesdeDTO(dtos, false));
+        em.flush();
+
+        assertTrue(ex.getMessage().contains("Entrenamiento 1"));
+        assertEquals(0, statistics.getEntityInsertCount());
+    }
+
+    @Test
+    void crearLote_Parcial_CreaLosValidosEInformaDelResto() {
+        List<EntrenamientoDTO> dtos = List.of(
+                dto(idsEjercicios.get(0), 2), dto(999_999, 2), dto(idsEjercicios.get(1), 2));
+
+        ResultadoLoteDTO resultado = entrenamientoService.crearLoteDesdeDTO(dtos, true);
+        em.flush();
+
+        assertEquals(2, resultado.getCreados());
+        assertEquals(1, resultado.getFallidos());
+        assertNotNull(resultado.getResultados().get(0).getIdEntrenamiento());
+        assertNull(resultado.getResultados().get(1).getIdEntrenamiento());
+        assertTrue(resultado.getResultados().get(1).getError().contains("999999"));
+        assertNotNull(resultado.getResultados().get(2).getIdEntrenamiento());
+    }
+
+    @Test
+    void crearLote_Parcial_InformaDeCadaEntrenamientoInvalido() {
+        EntrenamientoDTO sinNombre = dto(idsEjercicios.get(1), 2);
+        sinNombre.setNombre(" ");
+        EntrenamientoDTO sinDuracion = dto(idsEjercicios.get(2), 2);
+        sinDuracion.setDuracion(0);
+        sinDuracion.setTipoEntrenamiento(null);
+        List<EntrenamientoDTO> dtos = new ArrayList<>(List.of(dto(idsEjercicios.get(0), 2), sinNombre, sinDuracion));
+        dtos.add(null);
+        dtos.add(dto(idsEjercicios.get(3), 2));
+
+        statistics.clear();
+        ResultadoLoteDTO resultado = entrenamientoService.crearLoteDesdeDTO(dtos, true);
+        em.flush();
+
+        assertEquals(2, resultado.getCreados());
+        assertEquals(3, resultado.getFallidos());
+        assertEquals(5, resultado.getResultados().size());
+        assertNotNull(resultado.getResultados().get(0).getIdEntrenamiento());
+        assertNotNull(resultado.getResultados().get(4).getIdEntrenamiento());
+        assertTrue(resultado.getResultados().get(1).getError().contains("nombre"));
+        assertTrue(resultado.getResultados().get(2).getError().contains("duracion"));
+        assertTrue(resultado.getResultados().get(2).getError().contains("tipoEntrenamiento"));
+        assertEquals("El entrenamiento es obligatorio", resultado.getResultados().get(3).getError());
+        for (int i = 1; i <= 3; i++) {
+            assertNull(resultado.getResultados().get(i).getIdEntrenamiento());
+            assertEquals(i, resultado.getResultados().get(i).getIndice());
+        }
+        assertEquals(2 + 2 + 4, statistics.getEntityInsertCount());
+    }
+
+    @Test
+    void crearLote_TodoONada_EntrenamientoInvalidoNoCreaNinguno() {
+        EntrenamientoDTO sinNombre = dto(idsEjercicios.get(1), 2);
+        sinNombre.setNombre(null);
+        List<EntrenamientoDTO> dtos = List.of(dto(idsEjercicios.get(0), 2), sinNombre);
+
+        statistics.clear();
+        CustomException ex = assertThrows(CustomException.class,
+                () -> entrenamientoService.crearLoteDesdeDTO(dtos, false));
+        em.flush();
+
+        assertTrue(ex.getMessage().startsWith("Entrenamiento 1: El campo nombre"));
+        assertEquals(0, statistics.getEntityInsertCount());
+    }
+
+    private EntrenamientoDTO dto(Integer idEjercicio, int series) {
+        return dto("Sincronizado", List.of(idEjercicio), series, 10);
+    }
+}
@@ -0,0 +1,64 @@
+package org.backend.backendfacilgim.testRepository;
+
+import org.backend.backendfacilgim.dto.EntrenamientoDTO;
+import org.backend.backendfacilgim.dto.SerieDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class EntrenamientoReconciliacionTest extends BaseEntrenamientoJpa {
+
+    private List<Integer> idsEjercicios;
+    private Integer idEntrenamiento;
+
+    @BeforeEach
+    void setUp() {
+        idsEjercicios = persistirEjercicios(3);
+        idEntrenamiento = entrenamientoService.crearDesdeDTO(dto("Pierna", idsEjercicios, 4, 10)).getIdEntrenamiento();
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void cambiarUnaSerie_SoloUnUpdate() {
+        EntrenamientoDTO dto = dto("Pierna", idsEjercicios, 4, 10);
+        dto.getEntrenamientosEjercicios().get(1).getSeries().get(2).setRepeticiones(12);
+
+        statistics.clear();
+        entrenamientoService.actualizarEntrenamientoDesdeDTO(idEntrenamiento, dto);
+        em.flush();
+
+        assertEquals(1, statistics.getEntityUpdateCount());
+        assertEquals(0, statistics.getEntityInsertCount());
+        assertEquals(0, statistics.getEntityDeleteCount());
+    }
+
+    @Test
+    void quitarUnaSerieYAnadirOtra() {
+        EntrenamientoDTO dto = dto("Pierna", idsEjercicios, 4, 10);
+        dto.getEntrenamientosEjercicios().get(0).getSeries().remove(3);
+        dto.getEntrenamientosEjercicios().get(2).getSeries().add(new SerieDTO(null, 5, 8, 30.0));
+
+        statistics.clear();
+        entrenamientoService.actualizarEntrenamientoDesdeDTO(idEntrenamiento, dto);
+        em.flush();
+
+        assertEquals(0, statistics.getEntityUpdateCount());
+        assertEquals(1, statistics.getEntityInsertCount());
+        assertEquals(1, statistics.getEntityDeleteCount());
+    }
+
+    @Test
+    void sinCambios_NingunaSentenciaDeEscritura() {
+        statistics.clear();
+        entrenamientoService.actualizarEntrenamientoDesdeDTO(idEntrenamiento, dto("Pierna", idsEjercicios, 4, 10));
+        em.flush();
+
+        assertEquals(0, statistics.getEntityUpdateCount());
+        assertEquals(0, statistics.getEntityInsertCount());
+        assertEquals(0, statistics.getEntityDeleteCount());
+    }
+}
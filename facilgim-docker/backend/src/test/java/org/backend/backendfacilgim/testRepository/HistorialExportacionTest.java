@@ -0,0 +1,70 @@
+package org.backend.backendfacilgim.testRepository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.backend.backendfacilgim.dto.FilaHistorialDTO;
+import org.backend.backendfacilgim.entity.Entrenamiento;
+import org.backend.backendfacilgim.utilities.ExportadorHistorial;
+import org.backend.backendfacilgim.utilities.FormatoExportacion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class HistorialExportacionTest extends BaseEntrenamientoJpa {
+
+    @BeforeEach
+    void setUp() {
+        persistirEntrenamiento("Segundo", LocalDate.of(2024, 2, 1), 2, 3);
+        persistirEntrenamiento("Primero", LocalDate.of(2024, 1, 1), 3, 2);
+        persistirEntrenamiento("Vacío", LocalDate.of(2024, 3, 1), 0, 0);
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void recorrerHistorial_UnaFilaPorSerieEnOrden() {
+        List<FilaHistorialDTO> filas = new ArrayList<>();
+        entrenamientoService.recorrerHistorial(usuario.getIdUsuario(), filas::add);
+
+        // 3×2 + 2×3 series, más una fila para el entrenamiento sin ejercicios
+        assertEquals(13, filas.size());
+        assertEquals("Primero", filas.get(0).getNombre());
+        assertEquals(1, filas.get(0).getOrden());
+        assertEquals(1, filas.get(0).getNumeroSerie());
+        assertEquals(2, filas.get(1).getNumeroSerie());
+        assertEquals("Vacío", filas.get(12).getNombre());
+        assertNull(filas.get(12).getIdEntrenamientoEjercicio());
+    }
+
+    @Test
+    void exportarNdjson_UnEntrenamientoPorLinea() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        ExportadorHistorial exportador = ExportadorHistorial.crear(FormatoExportacion.NDJSON, salida, objectMapper);
+        entrenamientoService.recorrerHistorial(usuario.getIdUsuario(), exportador);
+        exportador.terminar();
+
+        String[] lineas = salida.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lineas.length);
+        JsonNode primero = objectMapper.readTree(lineas[0]);
+        assertEquals("Primero", primero.get("nombre").asText());
+        assertEquals(3, primero.get("ejercicios").size());
+        assertEquals(2, primero.get("ejercicios").get(2).get("series").size());
+        assertEquals(0, objectMapper.readTree(lineas[2]).get("ejercicios").size());
+    }
+
+    private void persistirEntrenamiento(String nombre, LocalDate fecha, int ejercicios, int seriesPorEjercicio) {
+        Entrenamiento entrenamiento = persistirEntrenamiento(nombre, fecha, usuario);
+        for (int i = 1; i <= ejercicios; i++) {
+            relacionar(entrenamiento, persistirEjercicio(nombre + " ejercicio " + i), i, seriesPorEjercicio);
+        }
+    }
+}
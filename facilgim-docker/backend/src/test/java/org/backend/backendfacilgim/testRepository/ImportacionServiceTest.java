@@ -0,0 +1,190 @@
+package org.backend.backendfacilgim.testRepository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.backend.backendfacilgim.dto.ImportacionDTO;
+import org.backend.backendfacilgim.entity.Ejercicio;
+import org.backend.backendfacilgim.entity.Entrenamiento;
+import org.backend.backendfacilgim.entity.Importacion;
+import org.backend.backendfacilgim.entity.TipoEntrenamiento;
+import org.backend.backendfacilgim.entity.Usuario;
+import org.backend.backendfacilgim.repository.*;
+import org.backend.backendfacilgim.service.implementacion.EntrenamientoServiceImpl;
+import org.backend.backendfacilgim.service.implementacion.ImportacionServiceImpl;
+import org.backend.backendfacilgim.utilities.CatalogoEjercicios;
+import org.backend.backendfacilgim.utilities.CatalogoTiposEntrenamiento;
+import org.backend.backendfacilgim.utilities.ContadorUsosEjercicios;
+import org.backend.backendfacilgim.utilities.FormatoExportacion;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * La importación se ejecuta en el pool del servicio, en otro hilo, así que los tests no se
+ * ejecutan dentro de una transacción: cada lote se confirma y el hilo del test lo ve.
+ */
+@DataJpaTest(properties = {
+        "app.importacion.tamano-lote=2",
+        "app.importacion.directorio=${java.io.tmpdir}/importaciones-test"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ImportacionServiceImpl.class, EntrenamientoServiceImpl.class, ContadorUsosEjercicios.class,
+        ImportacionServiceTest.CatalogoConfig.class})
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+public class ImportacionServiceTest {
+
+    @Autowired
+    private ImportacionServiceImpl servicio;
+
+    @Autowired
+    private ImportacionRepository importacionRepository;
+
+    @Autowired
+    private EntrenamientoRepository entrenamientoRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private EjercicioRepository ejercicioRepository;
+
+    @Autowired
+    private TipoEntrenamientoRepository tipoEntrenamientoRepository;
+
+    private Usuario usuario;
+
+    @BeforeEach
+    void preparar() {
+        usuario = new Usuario();
+        usuario.setUsername("user");
+        usuario.setPassword("pass");
+        usuario.setCorreo("user@example.com");
+        usuario.setNombre("Nombre");
+        usuario.setApellido("Apellido");
+        usuario = usuarioRepository.save(usuario);
+
+        TipoEntrenamiento tipo = new TipoEntrenamiento();
+        tipo.setNombre("Fuerza");
+        tipoEntrenamientoRepository.save(tipo);
+
+        Ejercicio ejercicio = new Ejercicio();
+        ejercicio.setNombre("Sentadilla");
+        ejercicioRepository.save(ejercicio);
+    }
+
+    @AfterEach
+    void limpiar() throws Exception {
+        for (Importacion importacion : importacionRepository.findAll()) {
+            Files.deleteIfExists(Path.of(importacion.getRutaArchivo()));
+        }
+        importacionRepository.deleteAll();
+        entrenamientoRepository.deleteAll();
+        usuarioRepository.deleteAll();
+        ejercicioRepository.deleteAll();
+        tipoEntrenamientoRepository.deleteAll();
+    }
+
+    @Test
+    void reanudar_TrasFalloAMitadDeArchivo_NoDuplicaNiPierdeLotesConfirmados() throws Exception {
+        List<String> lineas = new ArrayList<>();
+        for (int i = 1; i <= 7; i++) {
+            lineas.add(linea("Sesion " + i, i == 5 ? "ayer" : "2024-01-0" + i,
+                    i == 2 ? "Inexistente" : "Sentadilla"));
+        }
+        MockMultipartFile archivo = new MockMultipartFile("archivo", "historial.ndjson",
+                "application/x-ndjson", String.join("\n", lineas).getBytes(StandardCharsets.UTF_8));
+
+        ImportacionDTO iniciada = servicio.iniciarImportacion(usuario.getIdUsuario(), FormatoExportacion.NDJSON, archivo);
+
+        Importacion fallida = esperar(iniciada.getIdImportacion());
+        assertEquals(Importacion.Estado.FALLIDA, fallida.getEstado());
+        assertTrue(fallida.getUltimoError().startsWith("Línea 5"));
+        assertEquals(4, fallida.getEntrenamientosProcesados());
+        assertEquals(3, fallida.getEntrenamientosCreados());
+        assertEquals(1, fallida.getEntrenamientosOmitidos());
+        assertEquals(2, fallida.getLotesConfirmados());
+        assertEquals(List.of("Sesion 1", "Sesion 3", "Sesion 4"), nombresImportados());
+
+        lineas.set(4, linea("Sesion 5", "2024-01-05", "Sentadilla"));
+        Files.write(Path.of(fallida.getRutaArchivo()), String.join("\n", lineas).getBytes(StandardCharsets.UTF_8));
+
+        servicio.reanudarImportacion(iniciada.getIdImportacion());
+
+        Importacion completada = esperar(iniciada.getIdImportacion());
+        assertEquals(Importacion.Estado.COMPLETADA, completada.getEstado());
+        assertEquals(7, completada.getEntrenamientosProcesados());
+        assertEquals(6, completada.getEntrenamientosCreados());
+        assertEquals(1, completada.getEntrenamientosOmitidos());
+        assertEquals(4, completada.getLotesConfirmados());
+        assertEquals(List.of("Sesion 1", "Sesion 3", "Sesion 4", "Sesion 5", "Sesion 6", "Sesion 7"),
+                nombresImportados());
+    }
+
+    /**
+     * Espera a que el pool termine la importación y la devuelve.
+     */
+    private Importacion esperar(Integer idImportacion) throws InterruptedException {
+        long limite = System.nanoTime() + 10_000_000_000L;
+        while (System.nanoTime() < limite) {
+            Importacion importacion = importacionRepository.findById(idImportacion).orElseThrow();
+            if (importacion.getEstado() == Importacion.Estado.COMPLETADA
+                    || importacion.getEstado() == Importacion.Estado.FALLIDA) {
+                return importacion;
+            }
+            Thread.sleep(20);
+        }
+        fail("La importación " + idImportacion + " no ha terminado");
+        return null;
+    }
+
+    private List<String> nombresImportados() {
+        return entrenamientoRepository.findAll().stream()
+                .map(Entrenamiento::getNombre)
+                .sorted()
+                .toList();
+    }
+
+    private static String linea(String nombre, String fecha, String ejercicio) {
+        return "{\"nombre\":\"" + nombre + "\",\"fechaEntrenamiento\":\"" + fecha + "\",\"duracion\":45,"
+                + "\"tipoEntrenamiento\":\"Fuerza\",\"ejercicios\":[{\"nombre\":\"" + ejercicio + "\","
+                + "\"orden\":1,\"series\":[{\"numeroSerie\":1,\"repeticiones\":10,\"peso\":20.0}]}]}";
+    }
+
+    @TestConfiguration
+    static class CatalogoConfig {
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper();
+        }
+
+        @Bean
+        CatalogoEjercicios catalogoEjercicios(EjercicioRepository ejercicioRepository) {
+            return new CatalogoEjercicios(ejercicioRepository, new SimpleMeterRegistry(), new ObjectMapper(), 300);
+        }
+
+        @Bean
+        CatalogoTiposEntrenamiento catalogoTiposEntrenamiento(TipoEntrenamientoRepository tipoEntrenamientoRepository) {
+            return new CatalogoTiposEntrenamiento(tipoEntrenamientoRepository, new SimpleMeterRegistry(),
+                    new ObjectMapper(), 300);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package org.backend.backendfacilgim.testRepository;
+
+import org.backend.backendfacilgim.dto.EntrenamientoResumenDTO;
+import org.backend.backendfacilgim.dto.PaginaDTO;
+import org.backend.backendfacilgim.entity.Usuario;
+import org.backend.backendfacilgim.exception.CustomException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LineaTiempoUsuarioTest extends BaseEntrenamientoJpa {
+
+    @BeforeEach
+    void setUp() {
+        Usuario otro = persistirUsuario("otro");
+
+        // Dos entrenamientos por mes de enero a junio, más uno de otro usuario
+        for (int mes = 1; mes <= 6; mes++) {
+            persistirEntrenamiento("Mes " + mes + "a", LocalDate.of(2024, mes, 10), usuario);
+            persistirEntrenamiento("Mes " + mes + "b", LocalDate.of(2024, mes, 10), usuario);
+        }
+        persistirEntrenamiento("Ajeno", LocalDate.of(2024, 3, 10), otro);
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void lineaTiempo_DelMasRecienteAlMasAntiguo() {
+        List<EntrenamientoResumenDTO> todos = recorrer(null, null, 5);
+
+        assertEquals(12, todos.size());
+        for (int i = 1; i < todos.size(); i++) {
+            EntrenamientoResumenDTO anterior = todos.get(i - 1);
+            EntrenamientoResumenDTO actual = todos.get(i);
+            assertTrue(anterior.getFechaEntrenamiento().isAfter(actual.getFechaEntrenamiento())
+                    || (anterior.getFechaEntrenamiento().equals(actual.getFechaEntrenamiento())
+                        && anterior.getIdEntrenamiento() > actual.getIdEntrenamiento()));
+        }
+        assertTrue(todos.stream().allMatch(e -> e.getIdUsuario().equals(usuario.getIdUsuario())));
+    }
+
+    @Test
+    void lineaTiempo_ConVentanaDeFechas() {
+        List<EntrenamientoResumenDTO> trimestre = recorrer(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 4, 30), 4);
+
+        assertEquals(6, trimestre.size());
+        assertEquals(LocalDate.of(2024, 4, 10), trimestre.get(0).getFechaEntrenamiento());
+        assertEquals(LocalDate.of(2024, 2, 10), trimestre.get(5).getFechaEntrenamiento());
+    }
+
+    @Test
+    void lineaTiempo_UnaConsultaPorPagina() {
+        statistics.clear();
+        entrenamientoService.encontrarEntrenamientoPorIdUsuario(usuario.getIdUsuario(), null, null, null, 5);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void lineaTiempo_VentanaInvertida() {
+        assertThrows(CustomException.class, () -> entrenamientoService.encontrarEntrenamientoPorIdUsuario(
+                usuario.getIdUsuario(), LocalDate.of(2024, 5, 1), LocalDate.of(2024, 1, 1), null, 5));
+    }
+
+    private List<EntrenamientoResumenDTO> recorrer(LocalDate desde, LocalDate hasta, int tamano) {
+        List<EntrenamientoResumenDTO> todos = new ArrayList<>();
+        String cursor = null;
+        do {
+            PaginaDTO<EntrenamientoResumenDTO> pagina = entrenamientoService
+                    .encontrarEntrenamientoPorIdUsuario(usuario.getIdUsuario(), desde, hasta, cursor, tamano);
+            todos.addAll(pagina.getContenido());
+            cursor = pagina.getSiguienteCursor();
+        } while (cursor != null);
+        return todos;
+    }
+}
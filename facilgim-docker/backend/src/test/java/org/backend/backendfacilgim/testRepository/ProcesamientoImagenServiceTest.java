@@ -0,0 +1,164 @@
+package org.backend.backendfacilgim.testRepository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.backend.backendfacilgim.entity.Ejercicio;
+import org.backend.backendfacilgim.entity.TrabajoImagen;
+import org.backend.backendfacilgim.repository.EjercicioRepository;
+import org.backend.backendfacilgim.repository.TrabajoImagenRepository;
+import org.backend.backendfacilgim.service.implementacion.ProcesamientoImagenServiceImpl;
+import org.backend.backendfacilgim.utilities.CatalogoEjercicios;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Los trabajos se procesan en el pool del servicio, en otro hilo, así que los tests no se
+ * ejecutan dentro de una transacción: cada escritura se confirma y el hilo del pool la ve.
+ */
+@DataJpaTest(properties = "app.imagenes.intentos-maximos=2")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ProcesamientoImagenServiceImpl.class, ProcesamientoImagenServiceTest.CatalogoConfig.class})
+public class ProcesamientoImagenServiceTest {
+
+    @TempDir
+    Path carpeta;
+
+    @Autowired
+    private ProcesamientoImagenServiceImpl servicio;
+
+    @Autowired
+    private TrabajoImagenRepository trabajoImagenRepository;
+
+    @Autowired
+    private EjercicioRepository ejercicioRepository;
+
+    @AfterEach
+    void limpiar() {
+        trabajoImagenRepository.deleteAll();
+        ejercicioRepository.deleteAll();
+    }
+
+    @Test
+    void encolar_GeneraLasVersionesYLasAsigna() throws Exception {
+        Path original = imagen("press.png");
+        Ejercicio ejercicio = ejercicio("Press banca", "/uploads/press.png");
+
+        TrabajoImagen trabajo = servicio.encolar(ejercicio.getIdEjercicio(), "/uploads/press.png", original);
+
+        TrabajoImagen terminado = esperar(trabajo.getIdTrabajoImagen());
+        assertEquals(TrabajoImagen.Estado.COMPLETADO, terminado.getEstado());
+        assertEquals(1, terminado.getIntentos());
+        assertNull(terminado.getUltimoError());
+        Ejercicio actualizado = ejercicioRepository.findById(ejercicio.getIdEjercicio()).orElseThrow();
+        assertEquals("/uploads/press_miniatura.png", actualizado.getImagenMiniaturaUrl());
+        assertEquals("/uploads/press_media.png", actualizado.getImagenMediaUrl());
+        assertEquals("/uploads/press_poster.png", actualizado.getImagenPosterUrl());
+        assertTrue(Files.exists(carpeta.resolve("press_miniatura.png")));
+    }
+
+    @Test
+    void encolar_ImagenDanada_MarcaElTrabajoComoFallido() throws Exception {
+        Path original = carpeta.resolve("rota.png");
+        Files.write(original, "no es una imagen".getBytes());
+        Ejercicio ejercicio = ejercicio("Remo", "/uploads/rota.png");
+
+        TrabajoImagen trabajo = servicio.encolar(ejercicio.getIdEjercicio(), "/uploads/rota.png", original);
+
+        TrabajoImagen terminado = esperar(trabajo.getIdTrabajoImagen());
+        assertEquals(TrabajoImagen.Estado.FALLIDO, terminado.getEstado());
+        assertNotNull(terminado.getUltimoError());
+        assertNull(ejercicioRepository.findById(ejercicio.getIdEjercicio()).orElseThrow().getImagenMiniaturaUrl());
+    }
+
+    @Test
+    void encolar_ImagenCambiadaEntretanto_NoSobrescribeLasVersiones() throws Exception {
+        Path original = imagen("vieja.png");
+        Ejercicio ejercicio = ejercicio("Sentadilla", "/uploads/nueva.png");
+
+        TrabajoImagen trabajo = servicio.encolar(ejercicio.getIdEjercicio(), "/uploads/vieja.png", original);
+
+        assertEquals(TrabajoImagen.Estado.COMPLETADO, esperar(trabajo.getIdTrabajoImagen()).getEstado());
+        Ejercicio actual = ejercicioRepository.findById(ejercicio.getIdEjercicio()).orElseThrow();
+        assertEquals("/uploads/nueva.png", actual.getImagenUrl());
+        assertNull(actual.getImagenMiniaturaUrl());
+    }
+
+    @Test
+    void retomarPendientes_TrasAgotarLosIntentos_MarcaComoFallido() throws Exception {
+        Path original = imagen("zancada.png");
+        Ejercicio ejercicio = ejercicio("Zancada", "/uploads/zancada.png");
+        TrabajoImagen interrumpido = new TrabajoImagen();
+        interrumpido.setIdEjercicio(ejercicio.getIdEjercicio());
+        interrumpido.setUrlOriginal("/uploads/zancada.png");
+        interrumpido.setRutaOriginal(original.toString());
+        interrumpido.setEstado(TrabajoImagen.Estado.EN_CURSO);
+        interrumpido.setIntentos(2);
+        interrumpido.setFechaCreacion(LocalDateTime.now());
+        interrumpido.setFechaActualizacion(interrumpido.getFechaCreacion());
+        interrumpido = trabajoImagenRepository.save(interrumpido);
+
+        servicio.retomarPendientes();
+
+        TrabajoImagen terminado = esperar(interrumpido.getIdTrabajoImagen());
+        assertEquals(TrabajoImagen.Estado.FALLIDO, terminado.getEstado());
+        assertEquals(2, terminado.getIntentos());
+        assertEquals("Interrumpido tras 2 intentos", terminado.getUltimoError());
+        assertFalse(Files.exists(carpeta.resolve("zancada_miniatura.png")));
+    }
+
+    /**
+     * Espera a que el pool termine el trabajo y lo devuelve.
+     */
+    private TrabajoImagen esperar(Integer idTrabajo) throws InterruptedException {
+        long limite = System.nanoTime() + 10_000_000_000L;
+        while (System.nanoTime() < limite) {
+            TrabajoImagen trabajo = trabajoImagenRepository.findById(idTrabajo).orElseThrow();
+            if (trabajo.getEstado() == TrabajoImagen.Estado.COMPLETADO
+                    || trabajo.getEstado() == TrabajoImagen.Estado.FALLIDO) {
+                return trabajo;
+            }
+            Thread.sleep(20);
+        }
+        fail("El trabajo " + idTrabajo + " no ha terminado");
+        return null;
+    }
+
+    private Ejercicio ejercicio(String nombre, String imagenUrl) {
+        Ejercicio ejercicio = new Ejercicio();
+        ejercicio.setNombre(nombre);
+        ejercicio.setImagenUrl(imagenUrl);
+        return ejercicioRepository.save(ejercicio);
+    }
+
+    private Path imagen(String nombre) throws IOException {
+        Path ruta = carpeta.resolve(nombre);
+        ImageIO.write(new BufferedImage(400, 200, BufferedImage.TYPE_INT_RGB), "png", ruta.toFile());
+        return ruta;
+    }
+
+    @TestConfiguration
+    static class CatalogoConfig {
+
+        @Bean
+        CatalogoEjercicios catalogoEjercicios(EjercicioRepository ejercicioRepository) {
+            return new CatalogoEjercicios(ejercicioRepository, new SimpleMeterRegistry(), new ObjectMapper(), 300);
+        }
+    }
+}
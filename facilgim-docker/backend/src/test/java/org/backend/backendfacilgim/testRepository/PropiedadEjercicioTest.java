@@ -0,0 +1,65 @@
+package org.backend.backendfacilgim.testRepository;
+
+import org.backend.backendfacilgim.entity.Ejercicio;
+import org.backend.backendfacilgim.entity.Entrenamiento;
+import org.backend.backendfacilgim.entity.Usuario;
+import org.backend.backendfacilgim.repository.EntrenamientoEjercicioRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PropiedadEjercicioTest extends BaseEntrenamientoJpa {
+
+    @Autowired
+    private EntrenamientoEjercicioRepository relRepo;
+
+    private Ejercicio compartido;
+    private Ejercicio ajeno;
+    private Ejercicio sinUso;
+
+    @BeforeEach
+    void setUp() {
+        Usuario otro = persistirUsuario("otro");
+        persistirUsuario("vacio");
+
+        compartido = persistirEjercicio("Press banca");
+        ajeno = persistirEjercicio("Remo");
+        sinUso = persistirEjercicio("Sentadilla");
+
+        Entrenamiento propio = persistirEntrenamiento("Propio", LocalDate.of(2024, 1, 10), usuario);
+        Entrenamiento deOtro = persistirEntrenamiento("De otro", LocalDate.of(2024, 1, 10), otro);
+        relacionar(propio, compartido, 1, 0);
+        relacionar(deOtro, compartido, 1, 0);
+        relacionar(deOtro, ajeno, 1, 0);
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void existe_EjercicioEnEntrenamientoPropio() {
+        assertTrue(relRepo.existeEnEntrenamientoDeUsuario(compartido.getIdEjercicio(), "user"));
+        assertTrue(relRepo.existeEnEntrenamientoDeUsuario(compartido.getIdEjercicio(), "otro"));
+    }
+
+    @Test
+    void noExiste_EjercicioSoloEnEntrenamientoAjeno() {
+        assertFalse(relRepo.existeEnEntrenamientoDeUsuario(ajeno.getIdEjercicio(), "user"));
+        assertFalse(relRepo.existeEnEntrenamientoDeUsuario(sinUso.getIdEjercicio(), "user"));
+        assertFalse(relRepo.existeEnEntrenamientoDeUsuario(compartido.getIdEjercicio(), "vacio"));
+        assertFalse(relRepo.existeEnEntrenamientoDeUsuario(compartido.getIdEjercicio(), "inexistente"));
+    }
+
+    @Test
+    void existe_UnaConsultaSinCargarEntidades() {
+        statistics.clear();
+
+        relRepo.existeEnEntrenamientoDeUsuario(compartido.getIdEjercicio(), "user");
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+}
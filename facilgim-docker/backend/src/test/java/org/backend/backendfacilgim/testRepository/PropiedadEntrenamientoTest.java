@@ -0,0 +1,85 @@
+package org.backend.backendfacilgim.testRepository;
+
+import org.backend.backendfacilgim.entity.Ejercicio;
+import org.backend.backendfacilgim.entity.Entrenamiento;
+import org.backend.backendfacilgim.entity.Usuario;
+import org.backend.backendfacilgim.exception.CustomException;
+import org.backend.backendfacilgim.repository.EntrenamientoEjercicioRepository;
+import org.backend.backendfacilgim.repository.EntrenamientoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PropiedadEntrenamientoTest extends BaseEntrenamientoJpa {
+
+    @Autowired
+    private EntrenamientoRepository entrenamientoRepository;
+
+    @Autowired
+    private EntrenamientoEjercicioRepository relRepo;
+
+    private Usuario otro;
+    private Entrenamiento propio;
+    private Ejercicio ejercicio;
+
+    @BeforeEach
+    void setUp() {
+        otro = persistirUsuario("otro");
+        ejercicio = persistirEjercicio("Press banca");
+        propio = persistirEntrenamiento("Propio", LocalDate.of(2024, 1, 10), usuario);
+        relacionar(propio, ejercicio, 1, 0);
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void existe_SoloParaElPropietario() {
+        assertTrue(entrenamientoRepository.existsByIdEntrenamientoAndUsuario_IdUsuario(
+                propio.getIdEntrenamiento(), usuario.getIdUsuario()));
+        assertFalse(entrenamientoRepository.existsByIdEntrenamientoAndUsuario_IdUsuario(
+                propio.getIdEntrenamiento(), otro.getIdUsuario()));
+        assertFalse(entrenamientoRepository.existsByIdEntrenamientoAndUsuario_IdUsuario(
+                -1, usuario.getIdUsuario()));
+    }
+
+    @Test
+    void existe_UnaConsultaSinCargarEntidades() {
+        statistics.clear();
+
+        entrenamientoRepository.existsByIdEntrenamientoAndUsuario_IdUsuario(
+                propio.getIdEntrenamiento(), usuario.getIdUsuario());
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void quitarEjercicio_PropietarioPorId() {
+        entrenamientoService.quitarEjercicioDeEntrenamiento(
+                propio.getIdEntrenamiento(), ejercicio.getIdEjercicio(), usuario.getIdUsuario());
+        em.flush();
+
+        assertTrue(relRepo.findByEntrenamiento_IdEntrenamientoAndEjercicio_IdEjercicio(
+                propio.getIdEntrenamiento(), ejercicio.getIdEjercicio()).isEmpty());
+    }
+
+    @Test
+    void quitarEjercicio_AjenoOInexistente_LanzaExcepcion() {
+        CustomException ajeno = assertThrows(CustomException.class, () ->
+                entrenamientoService.quitarEjercicioDeEntrenamiento(
+                        propio.getIdEntrenamiento(), ejercicio.getIdEjercicio(), otro.getIdUsuario()));
+        assertTrue(ajeno.getMessage().contains("no pertenece"));
+
+        CustomException inexistente = assertThrows(CustomException.class, () ->
+                entrenamientoService.quitarEjercicioDeEntrenamiento(
+                        -1, ejercicio.getIdEjercicio(), usuario.getIdUsuario()));
+        assertTrue(inexistente.getMessage().contains("no encontrado"));
+
+        assertTrue(relRepo.findByEntrenamiento_IdEntrenamientoAndEjercicio_IdEjercicio(
+                propio.getIdEntrenamiento(), ejercicio.getIdEjercicio()).isPresent());
+    }
+}
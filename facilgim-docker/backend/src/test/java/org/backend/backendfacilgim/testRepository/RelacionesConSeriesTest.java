@@ -0,0 +1,67 @@
+package org.backend.backendfacilgim.testRepository;
+
+import org.backend.backendfacilgim.entity.Ejercicio;
+import org.backend.backendfacilgim.entity.Entrenamiento;
+import org.backend.backendfacilgim.entity.EntrenamientoEjercicio;
+import org.backend.backendfacilgim.repository.EntrenamientoEjercicioRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class RelacionesConSeriesTest extends BaseEntrenamientoJpa {
+
+    @Autowired
+    private EntrenamientoEjercicioRepository relRepo;
+
+    private Entrenamiento pierna;
+
+    @BeforeEach
+    void setUp() {
+        Ejercicio sentadilla = persistirEjercicio("Sentadilla");
+        Ejercicio zancada = persistirEjercicio("Zancada");
+
+        pierna = persistirEntrenamiento("Pierna", LocalDate.of(2024, 1, 10), usuario);
+        relacionar(pierna, zancada, 2, 2);
+        relacionar(pierna, sentadilla, 1, 3);
+        Entrenamiento otro = persistirEntrenamiento("Otro", LocalDate.of(2024, 1, 11), usuario);
+        relacionar(otro, sentadilla, 1, 0);
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void listarConSeriesPorEntrenamiento_OrdenadasYEnUnaConsulta() {
+        statistics.clear();
+
+        List<EntrenamientoEjercicio> relaciones = relRepo.listarConSeriesPorEntrenamiento(pierna.getIdEntrenamiento());
+
+        assertEquals(List.of("Sentadilla", "Zancada"), relaciones.stream()
+                .map(r -> r.getEjercicio().getNombre())
+                .toList());
+        assertEquals(List.of(3, 2), relaciones.stream()
+                .map(r -> r.getSeries().size())
+                .toList());
+        assertEquals("user", relaciones.get(0).getEntrenamiento().getUsuario().getUsername());
+        assertEquals("Fuerza", relaciones.get(0).getEntrenamiento().getTipoEntrenamiento().getNombre());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void listarConSeries_TodasLasRelacionesEnUnaConsulta() {
+        statistics.clear();
+
+        List<EntrenamientoEjercicio> relaciones = relRepo.listarConSeries();
+
+        assertEquals(3, relaciones.size());
+        assertEquals(5, relaciones.stream().mapToInt(r -> r.getSeries().size()).sum());
+        assertEquals(List.of("Pierna", "Pierna", "Otro"), relaciones.stream()
+                .map(r -> r.getEntrenamiento().getNombre())
+                .toList());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
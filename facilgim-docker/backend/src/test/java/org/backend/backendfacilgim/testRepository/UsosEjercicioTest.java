@@ -0,0 +1,86 @@
+package org.backend.backendfacilgim.testRepository;
+
+import org.backend.backendfacilgim.dto.EjercicioCatalogoDTO;
+import org.backend.backendfacilgim.entity.Ejercicio;
+import org.backend.backendfacilgim.entity.Entrenamiento;
+import org.backend.backendfacilgim.repository.EjercicioRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class UsosEjercicioTest extends BaseEntrenamientoJpa {
+
+    @Autowired
+    private EjercicioRepository ejercicioRepository;
+
+    private Ejercicio press;
+    private Ejercicio remo;
+    private Ejercicio sentadilla;
+
+    @BeforeEach
+    void setUp() {
+        press = persistirEjercicio("Press banca");
+        remo = persistirEjercicio("Remo");
+        sentadilla = persistirEjercicio("Sentadilla");
+
+        for (int i = 0; i < 3; i++) {
+            Entrenamiento entrenamiento = persistirEntrenamiento(
+                    "Entrenamiento " + i, LocalDate.of(2024, 1, 10 + i), usuario);
+            relacionar(entrenamiento, press, 1, 0);
+            if (i == 0) {
+                relacionar(entrenamiento, remo, 1, 0);
+            }
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void nuevoEjercicio_SinUsos() {
+        assertEquals(0, usos(press));
+        assertEquals(0, usos(sentadilla));
+    }
+
+    @Test
+    void sumarUsos_ActualizaVariosEjercicios() {
+        assertEquals(2, ejercicioRepository.sumarUsos(List.of(press.getIdEjercicio(), remo.getIdEjercicio()), 2));
+        assertEquals(1, ejercicioRepository.sumarUsos(List.of(remo.getIdEjercicio()), -1));
+        em.clear();
+
+        assertEquals(2, usos(press));
+        assertEquals(1, usos(remo));
+        assertEquals(0, usos(sentadilla));
+    }
+
+    @Test
+    void recalcularUsos_CorrigeSoloLosDesviados() {
+        ejercicioRepository.sumarUsos(List.of(press.getIdEjercicio()), 3);
+        ejercicioRepository.sumarUsos(List.of(sentadilla.getIdEjercicio()), 5);
+
+        assertEquals(2, ejercicioRepository.recalcularUsos());
+        em.clear();
+
+        assertEquals(3, usos(press));
+        assertEquals(1, usos(remo));
+        assertEquals(0, usos(sentadilla));
+        assertEquals(0, ejercicioRepository.recalcularUsos());
+    }
+
+    @Test
+    void listarCatalogo_IncluyeUsos() {
+        ejercicioRepository.recalcularUsos();
+
+        assertEquals(List.of(3L, 1L, 0L), ejercicioRepository.listarCatalogo().stream()
+                .map(EjercicioCatalogoDTO::getUsos)
+                .toList());
+    }
+
+    private long usos(Ejercicio ejercicio) {
+        return em.find(Ejercicio.class, ejercicio.getIdEjercicio()).getUsos();
+    }
+}
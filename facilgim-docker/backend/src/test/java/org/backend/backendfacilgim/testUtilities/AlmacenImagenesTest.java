@@ -0,0 +1,84 @@
+package org.backend.backendfacilgim.testUtilities;
+
+import org.backend.backendfacilgim.entity.ArchivoImagen;
+import org.backend.backendfacilgim.repository.ArchivoImagenRepository;
+import org.backend.backendfacilgim.utilities.AlmacenImagenes;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class AlmacenImagenesTest {
+
+    private static final byte[] CONTENIDO = "GIF89a-sentadilla".getBytes();
+
+    @TempDir
+    Path carpeta;
+
+    private ArchivoImagenRepository archivoImagenRepository;
+    private AlmacenImagenes almacen;
+
+    @BeforeEach
+    void setUp() {
+        archivoImagenRepository = Mockito.mock(ArchivoImagenRepository.class);
+        almacen = new AlmacenImagenes(archivoImagenRepository, carpeta.toString());
+    }
+
+    @Test
+    void guardar_NombrePorHashEnDirectoriosRepartidos() throws IOException {
+        AlmacenImagenes.ImagenGuardada guardada = almacen.guardar(new ByteArrayInputStream(CONTENIDO), "Sentadilla.GIF");
+
+        String hash = guardada.getRuta().substring(6, 70);
+        assertEquals(hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash + ".gif", guardada.getRuta());
+        assertTrue(guardada.isNueva());
+        assertArrayEquals(CONTENIDO, Files.readAllBytes(guardada.getArchivo()));
+        verify(archivoImagenRepository).save(any(ArchivoImagen.class));
+    }
+
+    @Test
+    void guardar_ContenidoRepetido_SeDeduplica() throws IOException {
+        AlmacenImagenes.ImagenGuardada primera = almacen.guardar(new ByteArrayInputStream(CONTENIDO), "a.gif");
+        Mockito.when(archivoImagenRepository.existsById(primera.getRuta())).thenReturn(true);
+
+        AlmacenImagenes.ImagenGuardada segunda = almacen.guardar(new ByteArrayInputStream(CONTENIDO), "b.gif");
+        AlmacenImagenes.ImagenGuardada distinta = almacen.guardar(new ByteArrayInputStream("otra".getBytes()), "a.gif");
+
+        assertEquals(primera.getRuta(), segunda.getRuta());
+        assertFalse(segunda.isNueva());
+        assertNotEquals(primera.getRuta(), distinta.getRuta());
+        verify(archivoImagenRepository, times(2)).save(any(ArchivoImagen.class));
+        try (Stream<Path> archivos = Files.walk(carpeta)) {
+            assertEquals(2, archivos.filter(Files::isRegularFile).count());
+        }
+    }
+
+    @Test
+    void guardar_ExtensionSospechosa_SeDescarta() throws IOException {
+        AlmacenImagenes.ImagenGuardada guardada = almacen.guardar(new ByteArrayInputStream(CONTENIDO), "x.g/../if");
+
+        assertFalse(guardada.getRuta().contains("."));
+    }
+
+    @Test
+    void referencias_SoloParaUrlsDeSubidas() {
+        almacen.sumarReferencia("http://localhost:8080/uploads/ab/cd/abcd.gif");
+        almacen.restarReferencia("http://localhost:8080/uploads/ab/cd/abcd.gif");
+        almacen.sumarReferencia("https://cdn.externo.com/imagen.gif");
+        almacen.sumarReferencia(null);
+
+        verify(archivoImagenRepository).sumarReferencias("ab/cd/abcd.gif", 1);
+        verify(archivoImagenRepository).sumarReferencias("ab/cd/abcd.gif", -1);
+        Mockito.verifyNoMoreInteractions(archivoImagenRepository);
+    }
+}
@@ -0,0 +1,143 @@
+package org.backend.backendfacilgim.testUtilities;
+
+import org.backend.backendfacilgim.security.AnilloClavesJwt;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AnilloClavesJwtTest {
+
+    private static final Instant AHORA = Instant.parse("2025-01-01T10:00:00Z");
+    private static final Duration ROTACION = Duration.ofDays(7);
+    private static final Duration RETRASO = Duration.ofHours(2);
+    private static final Duration VIGENCIA = Duration.ofDays(30);
+
+    @TempDir
+    Path carpeta;
+
+    @Test
+    void primerArranque_CreaUnaClaveQueComparteOtroNodo() {
+        AnilloClavesJwt nodoA = anillo(new MutableClock(AHORA));
+        AnilloClavesJwt nodoB = anillo(new MutableClock(AHORA));
+
+        assertTrue(Files.exists(carpeta.resolve("jwt.p12")));
+        assertEquals(1, nodoA.identificadores().size());
+        assertEquals(nodoA.identificadores(), nodoB.identificadores());
+        assertEquals(nodoA.claveFirma().getId(), nodoB.claveFirma().getId());
+        assertEquals(nodoA.claveFirma().getClave(), nodoB.claveVerificacion(nodoA.claveFirma().getId()));
+    }
+
+    @Test
+    void rotacion_LaClaveNuevaSoloFirmaTrasElRetraso() {
+        MutableClock reloj = new MutableClock(AHORA);
+        AnilloClavesJwt anillo = anillo(reloj);
+        String antigua = anillo.claveFirma().getId();
+
+        reloj.ahora = AHORA.plus(ROTACION);
+        anillo.revisar();
+
+        assertEquals(2, anillo.identificadores().size());
+        String nueva = anillo.identificadores().stream().filter(kid -> !kid.equals(antigua)).findFirst().orElseThrow();
+        assertEquals(antigua, anillo.claveFirma().getId());
+        assertNotNull(anillo.claveVerificacion(nueva));
+
+        reloj.ahora = AHORA.plus(ROTACION).plus(RETRASO);
+        assertEquals(nueva, anillo.claveFirma().getId());
+        assertNotNull(anillo.claveVerificacion(antigua));
+    }
+
+    @Test
+    void kidDesconocido_ReleeElAlmacen() {
+        MutableClock relojA = new MutableClock(AHORA);
+        MutableClock relojB = new MutableClock(AHORA);
+        AnilloClavesJwt nodoA = anillo(relojA);
+        AnilloClavesJwt nodoB = anillo(relojB);
+
+        relojA.ahora = AHORA.plus(ROTACION);
+        nodoA.revisar();
+        String nueva = nodoA.identificadores().stream()
+                .filter(kid -> !nodoB.identificadores().contains(kid)).findFirst().orElseThrow();
+
+        assertNull(nodoB.claveVerificacion(nueva));
+
+        relojB.ahora = AHORA.plusSeconds(30);
+        assertNotNull(nodoB.claveVerificacion(nueva));
+        assertEquals(nodoA.identificadores(), nodoB.identificadores());
+    }
+
+    @Test
+    void claveAntigua_SeRetiraCuandoCaducanSusTokens() {
+        MutableClock reloj = new MutableClock(AHORA);
+        AnilloClavesJwt anillo = anillo(reloj);
+        String antigua = anillo.claveFirma().getId();
+
+        reloj.ahora = AHORA.plus(ROTACION);
+        anillo.revisar();
+        Set<String> tras = anillo.identificadores();
+
+        reloj.ahora = AHORA.plus(ROTACION).plus(RETRASO).plus(VIGENCIA).minusSeconds(1);
+        anillo.revisar();
+        assertTrue(anillo.identificadores().contains(antigua));
+
+        reloj.ahora = AHORA.plus(ROTACION).plus(RETRASO).plus(VIGENCIA);
+        anillo.revisar();
+        assertFalse(anillo.identificadores().contains(antigua));
+        assertTrue(anillo.identificadores().containsAll(tras.stream().filter(kid -> !kid.equals(antigua)).toList()));
+    }
+
+    @Test
+    void claveVerificacion_NulaSiNoExiste() {
+        AnilloClavesJwt anillo = anillo(new MutableClock(AHORA));
+
+        assertNull(anillo.claveVerificacion(null));
+        assertNull(anillo.claveVerificacion("1735725600-0000000000000000"));
+    }
+
+    @Test
+    void sinContrasena_NoArranca() {
+        assertThrows(IllegalStateException.class, () -> new AnilloClavesJwt(carpeta.resolve("jwt.p12"), " ",
+                ROTACION, RETRASO, VIGENCIA, Duration.ofSeconds(30), new MutableClock(AHORA)));
+        assertFalse(Files.exists(carpeta.resolve("jwt.p12")));
+    }
+
+    private AnilloClavesJwt anillo(Clock reloj) {
+        return new AnilloClavesJwt(carpeta.resolve("jwt.p12"), "secreto", ROTACION, RETRASO, VIGENCIA,
+                Duration.ofSeconds(30), reloj);
+    }
+
+    /**
+     * Reloj cuyo instante puede adelantarse durante el test.
+     */
+    private static final class MutableClock extends Clock {
+
+        Instant ahora;
+
+        MutableClock(Instant ahora) {
+            this.ahora = ahora;
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return ahora;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package org.backend.backendfacilgim.testUtilities;
+
+import org.backend.backendfacilgim.security.CacheTokensJwt;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CacheTokensJwtTest {
+
+    private static final Instant AHORA = Instant.parse("2025-01-01T10:00:00Z");
+
+    private final Authentication autenticacion = new UsernamePasswordAuthenticationToken(
+            "user", null, List.of(new SimpleGrantedAuthority("ROLE_USER")));
+
+    @Test
+    void clave_EsEstableYNoContieneElToken() {
+        CacheTokensJwt cache = cache(AHORA, 10);
+
+        assertEquals(cache.clave("a.b.c"), cache.clave("a.b.c"));
+        assertNotEquals(cache.clave("a.b.c"), cache.clave("a.b.d"));
+        assertFalse(cache.clave("a.b.c").contains("a.b.c"));
+    }
+
+    @Test
+    void obtener_DevuelveLaMismaAutenticacion() {
+        CacheTokensJwt cache = cache(AHORA, 10);
+        String clave = cache.clave("token");
+
+        assertNull(cache.obtener(clave));
+        cache.guardar(clave, autenticacion, Date.from(AHORA.plus(Duration.ofDays(30))));
+
+        assertSame(autenticacion, cache.obtener(clave));
+    }
+
+    @Test
+    void entrada_CaducaConElToken() {
+        MutableClock reloj = new MutableClock(AHORA);
+        CacheTokensJwt cache = new CacheTokensJwt(10, Duration.ofMinutes(10), reloj);
+        String clave = cache.clave("token");
+        cache.guardar(clave, autenticacion, Date.from(AHORA.plusSeconds(30)));
+
+        reloj.ahora = AHORA.plusSeconds(29);
+        assertSame(autenticacion, cache.obtener(clave));
+
+        reloj.ahora = AHORA.plusSeconds(30);
+        assertNull(cache.obtener(clave));
+    }
+
+    @Test
+    void tokenCaducado_NoSeGuarda() {
+        CacheTokensJwt cache = cache(AHORA, 10);
+        String clave = cache.clave("token");
+        cache.guardar(clave, autenticacion, Date.from(AHORA.minusSeconds(1)));
+
+        assertEquals(0, cache.tamano());
+    }
+
+    @Test
+    void entrada_CaducaConElTtlDeLaCache() {
+        MutableClock reloj = new MutableClock(AHORA);
+        CacheTokensJwt cache = new CacheTokensJwt(10, Duration.ofMinutes(10), reloj);
+        String clave = cache.clave("token");
+        cache.guardar(clave, autenticacion, Date.from(AHORA.plus(Duration.ofDays(30))));
+
+        reloj.ahora = AHORA.plus(Duration.ofMinutes(9));
+        assertSame(autenticacion, cache.obtener(clave));
+
+        reloj.ahora = AHORA.plus(Duration.ofMinutes(10));
+        assertNull(cache.obtener(clave));
+        assertEquals(0, cache.tamano());
+    }
+
+    @Test
+    void guardar_NoSuperaElMaximo() {
+        CacheTokensJwt cache = cache(AHORA, 100);
+        for (int i = 0; i < 1000; i++) {
+            cache.guardar(cache.clave("token-" + i), autenticacion, null);
+            assertTrue(cache.tamano() <= 100);
+        }
+        assertNotNull(cache.obtener(cache.clave("token-999")));
+    }
+
+    @Test
+    void maximoCero_DesactivaLaCache() {
+        CacheTokensJwt cache = cache(AHORA, 0);
+        String clave = cache.clave("token");
+        cache.guardar(clave, autenticacion, null);
+
+        assertNull(cache.obtener(clave));
+    }
+
+    private static CacheTokensJwt cache(Instant ahora, int maximo) {
+        return new CacheTokensJwt(maximo, Duration.ofMinutes(10), Clock.fixed(ahora, ZoneOffset.UTC));
+    }
+
+    /**
+     * Reloj cuyo instante puede adelantarse durante el test.
+     */
+    private static final class MutableClock extends Clock {
+
+        Instant ahora;
+
+        MutableClock(Instant ahora) {
+            this.ahora = ahora;
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return ahora;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package org.backend.backendfacilgim.testUtilities;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.backend.backendfacilgim.dto.EjercicioCatalogoDTO;
+import org.backend.backendfacilgim.repository.EjercicioRepository;
+import org.backend.backendfacilgim.utilities.CatalogoEjercicios;
+import org.backend.backendfacilgim.utilities.RespuestaSerializada;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class CatalogoEjerciciosTest {
+
+    private EjercicioRepository ejercicioRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private CatalogoEjercicios catalogo;
+
+    @BeforeEach
+    void setUp() {
+        ejercicioRepository = Mockito.mock(EjercicioRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        Mockito.when(ejercicioRepository.listarCatalogo()).thenReturn(List.of(
+                new EjercicioCatalogoDTO(1, "Press banca", null),
+                new EjercicioCatalogoDTO(2, "Sentadilla", "/uploads/sentadilla.png")
+        ));
+        catalogo = new CatalogoEjercicios(ejercicioRepository, meterRegistry, new ObjectMapper(), 300);
+    }
+
+    @Test
+    void lecturasRepetidas_UnaSolaConsulta() {
+        for (int i = 0; i < 10; i++) {
+            assertEquals(2, catalogo.listar().size());
+        }
+        assertEquals("Sentadilla", catalogo.buscar(2).orElseThrow().getNombre());
+        assertTrue(catalogo.buscar(99).isEmpty());
+
+        verify(ejercicioRepository, times(1)).listarCatalogo();
+        assertEquals(1.0, contador("fallo"));
+        assertEquals(11.0, contador("acierto"));
+        assertEquals(2.0, meterRegistry.get("catalogo.ejercicios.tamano").gauge().value());
+    }
+
+    @Test
+    void invalidar_RecargaLaInstantanea() {
+        catalogo.listar();
+        Mockito.when(ejercicioRepository.listarCatalogo()).thenReturn(List.of(
+                new EjercicioCatalogoDTO(1, "Press banca inclinado", null)
+        ));
+
+        catalogo.invalidar();
+
+        assertEquals(1, catalogo.listar().size());
+        assertEquals("Press banca inclinado", catalogo.buscar(1).orElseThrow().getNombre());
+        assertTrue(catalogo.buscar(2).isEmpty());
+        verify(ejercicioRepository, times(2)).listarCatalogo();
+    }
+
+    @Test
+    void respuestaSerializada_EtagPorVersion() {
+        RespuestaSerializada primera = catalogo.respuesta();
+        assertSame(primera, catalogo.respuesta());
+
+        catalogo.invalidar();
+        assertEquals(primera.etag(), catalogo.respuesta().etag());
+
+        Mockito.when(ejercicioRepository.listarCatalogo()).thenReturn(List.of(
+                new EjercicioCatalogoDTO(1, "Press banca", null)
+        ));
+        catalogo.invalidar();
+        assertNotEquals(primera.etag(), catalogo.respuesta().etag());
+    }
+
+    @Test
+    void respuestaSerializada_EtagNoDependeDeLosUsos() {
+        RespuestaSerializada primera = catalogo.respuesta();
+        Mockito.when(ejercicioRepository.listarCatalogo()).thenReturn(List.of(
+                new EjercicioCatalogoDTO(1, "Press banca", null, null, null, null, 7),
+                new EjercicioCatalogoDTO(2, "Sentadilla", "/uploads/sentadilla.png", null, null, null, 3)
+        ));
+
+        catalogo.invalidar();
+
+        assertEquals(primera.etag(), catalogo.respuesta().etag());
+        assertEquals(7, catalogo.populares(1).get(0).getUsos());
+        assertEquals("Press banca", catalogo.populares(1).get(0).getEjercicio().getNombre());
+    }
+
+    @Test
+    void instantaneaCaducada_SeRecarga() {
+        CatalogoEjercicios sinTtl = new CatalogoEjercicios(ejercicioRepository, new SimpleMeterRegistry(), new ObjectMapper(), 0);
+
+        sinTtl.listar();
+        sinTtl.listar();
+
+        verify(ejercicioRepository, times(2)).listarCatalogo();
+    }
+
+    @Test
+    void instantaneaCaducada_LosDemasLectoresNoEsperanALaRecarga() throws Exception {
+        CatalogoEjercicios sinTtl = new CatalogoEjercicios(ejercicioRepository, new SimpleMeterRegistry(), new ObjectMapper(), 0);
+        List<EjercicioCatalogoDTO> anterior = sinTtl.listar();
+
+        CountDownLatch recargando = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        Mockito.when(ejercicioRepository.listarCatalogo()).thenAnswer(inv -> {
+            recargando.countDown();
+            liberar.await();
+            return List.of(new EjercicioCatalogoDTO(1, "Press banca inclinado", null));
+        });
+        ExecutorService hilo = Executors.newSingleThreadExecutor();
+        try {
+            Future<List<EjercicioCatalogoDTO>> recarga = hilo.submit(sinTtl::listar);
+            assertTrue(recargando.await(5, TimeUnit.SECONDS));
+
+            assertSame(anterior, sinTtl.listar());
+
+            liberar.countDown();
+            assertEquals(1, recarga.get(5, TimeUnit.SECONDS).size());
+            verify(ejercicioRepository, times(2)).listarCatalogo();
+        } finally {
+            liberar.countDown();
+            hilo.shutdownNow();
+        }
+    }
+
+    @Test
+    void listaInmutable() {
+        List<EjercicioCatalogoDTO> lista = catalogo.listar();
+        assertThrows(UnsupportedOperationException.class,
+                () -> lista.add(new EjercicioCatalogoDTO(3, "Remo", null)));
+    }
+
+    private double contador(String resultado) {
+        return meterRegistry.get("catalogo.ejercicios.cache").tag("resultado", resultado).counter().count();
+    }
+}
@@ -0,0 +1,111 @@
+package org.backend.backendfacilgim.testUtilities;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.backend.backendfacilgim.exception.LimiteExcedidoException;
+import org.backend.backendfacilgim.security.CifradorContrasenas;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CifradorContrasenasTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void cifrarYVerificar_EnElPool() {
+        CifradorContrasenas cifrador = new CifradorContrasenas(new BCryptPasswordEncoder(4), 2, 4,
+                Duration.ofSeconds(5), meterRegistry);
+
+        String hash = cifrador.encode("secreto");
+
+        assertTrue(cifrador.matches("secreto", hash));
+        assertFalse(cifrador.matches("otro", hash));
+        assertEquals(1, meterRegistry.get("bcrypt.duracion").tag("operacion", "cifrar").timer().count());
+        assertEquals(2, meterRegistry.get("bcrypt.duracion").tag("operacion", "verificar").timer().count());
+        cifrador.detener();
+    }
+
+    @Test
+    void colaLlena_RechazaCon503() throws Exception {
+        CountDownLatch liberar = new CountDownLatch(1);
+        CifradorContrasenas cifrador = new CifradorContrasenas(bloqueante(liberar), 1, 1,
+                Duration.ofSeconds(5), meterRegistry);
+
+        Thread enCurso = new Thread(() -> cifrador.encode("a"));
+        Thread enCola = new Thread(() -> cifrador.encode("b"));
+        enCurso.start();
+        esperarGauge("bcrypt.activos", 1);
+        enCola.start();
+        esperarGauge("bcrypt.cola", 1);
+
+        LimiteExcedidoException previa = assertThrows(LimiteExcedidoException.class, cifrador::comprobarCapacidad);
+        LimiteExcedidoException rechazo = assertThrows(LimiteExcedidoException.class, () -> cifrador.encode("c"));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, previa.getEstado());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, rechazo.getEstado());
+        assertEquals(Integer.valueOf(1), rechazo.getSegundosReintento());
+        assertEquals(2, meterRegistry.get("bcrypt.rechazos").tag("motivo", "cola").counter().count());
+
+        liberar.countDown();
+        enCurso.join();
+        enCola.join();
+        cifrador.comprobarCapacidad();
+        cifrador.detener();
+    }
+
+    @Test
+    void esperaMaxima_RechazaCon503() {
+        CountDownLatch liberar = new CountDownLatch(1);
+        CifradorContrasenas cifrador = new CifradorContrasenas(bloqueante(liberar), 1, 1,
+                Duration.ofMillis(50), meterRegistry);
+
+        LimiteExcedidoException rechazo = assertThrows(LimiteExcedidoException.class, () -> cifrador.encode("a"));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, rechazo.getEstado());
+        assertEquals(1, meterRegistry.get("bcrypt.rechazos").tag("motivo", "espera").counter().count());
+        liberar.countDown();
+        cifrador.detener();
+    }
+
+    @Test
+    void calibrar_RespetaLosLimites() {
+        assertEquals(4, CifradorContrasenas.calibrar(Duration.ZERO, 4, 6));
+        assertEquals(6, CifradorContrasenas.calibrar(Duration.ofHours(1), 4, 6));
+    }
+
+    /**
+     * Codificador que no termina hasta que se libera el latch.
+     */
+    private static PasswordEncoder bloqueante(CountDownLatch liberar) {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence contrasena) {
+                try {
+                    liberar.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return contrasena.toString();
+            }
+
+            @Override
+            public boolean matches(CharSequence contrasena, String cifrada) {
+                return encode(contrasena).equals(cifrada);
+            }
+        };
+    }
+
+    private void esperarGauge(String nombre, double valor) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get(nombre).gauge().value() != valor) {
+            assertTrue(System.nanoTime() < limite, "Tiempo agotado esperando " + nombre);
+            Thread.sleep(5);
+        }
+    }
+}
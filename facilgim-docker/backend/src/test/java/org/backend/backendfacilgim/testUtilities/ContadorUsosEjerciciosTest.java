@@ -0,0 +1,107 @@
+package org.backend.backendfacilgim.testUtilities;
+
+import org.backend.backendfacilgim.repository.EjercicioRepository;
+import org.backend.backendfacilgim.utilities.ContadorUsosEjercicios;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class ContadorUsosEjerciciosTest {
+
+    private EjercicioRepository ejercicioRepository;
+    private ContadorUsosEjercicios contador;
+
+    @BeforeEach
+    void setUp() {
+        ejercicioRepository = Mockito.mock(EjercicioRepository.class);
+        contador = new ContadorUsosEjercicios(ejercicioRepository, Mockito.mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    void volcar_AgrupaPorVariacion() {
+        contador.sumar(1);
+        contador.sumar(1);
+        contador.sumar(2);
+        contador.sumar(2);
+        contador.sumar(3);
+        contador.restar(3);
+        contador.restar(4);
+
+        assertEquals(3, contador.volcar());
+
+        verify(ejercicioRepository).sumarUsos(argThat(ids -> new HashSet<>(ids).equals(Set.of(1, 2))), eq(2L));
+        verify(ejercicioRepository).sumarUsos(List.of(4), -1L);
+        verifyNoMoreInteractions(ejercicioRepository);
+    }
+
+    @Test
+    void volcar_SinVariacionesNoConsulta() {
+        contador.ajustar(Map.of(1, 2L, 2, 1L), Map.of(1, 2L, 2, 1L));
+
+        assertEquals(0, contador.volcar());
+        verifyNoInteractions(ejercicioRepository);
+    }
+
+    @Test
+    void volcar_FalloConservaLasVariaciones() {
+        when(ejercicioRepository.sumarUsos(anyCollection(), anyLong())).thenThrow(new IllegalStateException("caída"));
+        contador.sumar(7);
+        assertEquals(0, contador.volcar());
+
+        reset(ejercicioRepository);
+        contador.sumar(7);
+        assertEquals(1, contador.volcar());
+        verify(ejercicioRepository).sumarUsos(List.of(7), 2L);
+    }
+
+    @Test
+    void ajustar_EnTransaccionEsperaAlCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            contador.sumar(5);
+            assertEquals(0, contador.volcar());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(1, contador.volcar());
+        verify(ejercicioRepository).sumarUsos(List.of(5), 1L);
+    }
+
+    @Test
+    void reconciliar_DescartaLasVariacionesQueCubreElRecuento() {
+        when(ejercicioRepository.recalcularUsos()).thenReturn(3);
+        contador.sumar(1);
+
+        assertEquals(3, contador.reconciliar());
+        assertEquals(0, contador.volcar());
+
+        verify(ejercicioRepository).recalcularUsos();
+        verifyNoMoreInteractions(ejercicioRepository);
+    }
+
+    @Test
+    void reconciliar_FalloConservaLasVariaciones() {
+        when(ejercicioRepository.recalcularUsos()).thenThrow(new IllegalStateException("caída"));
+        contador.sumar(1);
+
+        assertThrows(IllegalStateException.class, () -> contador.reconciliar());
+
+        assertEquals(1, contador.volcar());
+        verify(ejercicioRepository).sumarUsos(List.of(1), 1L);
+    }
+}
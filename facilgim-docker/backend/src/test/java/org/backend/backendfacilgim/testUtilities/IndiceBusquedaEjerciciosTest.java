@@ -0,0 +1,78 @@
+package org.backend.backendfacilgim.testUtilities;
+
+import org.backend.backendfacilgim.dto.EjercicioCatalogoDTO;
+import org.backend.backendfacilgim.utilities.IndiceBusquedaEjercicios;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IndiceBusquedaEjerciciosTest {
+
+    private final IndiceBusquedaEjercicios indice = IndiceBusquedaEjercicios.construir(List.of(
+            new EjercicioCatalogoDTO(1, "Press banca", null),
+            new EjercicioCatalogoDTO(2, "Press banca inclinado", null),
+            new EjercicioCatalogoDTO(3, "Sentadilla", null),
+            new EjercicioCatalogoDTO(4, "Sentadilla búlgara", null),
+            new EjercicioCatalogoDTO(5, "Curl de bíceps", null),
+            new EjercicioCatalogoDTO(6, "Extensión de tríceps", null),
+            new EjercicioCatalogoDTO(7, "Jalón al pecho", null),
+            new EjercicioCatalogoDTO(8, "Peso muerto", null),
+            new EjercicioCatalogoDTO(9, "Press militar", null)
+    ));
+
+    @Test
+    void sinDistinguirTildesNiMayusculas() {
+        assertEquals(List.of(5), ids(indice.buscar("BICEPS", 10)));
+        assertEquals(List.of(7), ids(indice.buscar("jalon", 10)));
+        assertEquals(List.of(1, 2), ids(indice.buscar("PRÉSS BANCA", 10)));
+    }
+
+    @Test
+    void porPrefijoDeLaUltimaPalabra() {
+        assertEquals(List.of(1, 9, 2), ids(indice.buscar("pres", 10)));
+        assertEquals(List.of(9), ids(indice.buscar("press mil", 10)));
+        assertEquals(List.of(6), ids(indice.buscar("extension tri", 10)));
+    }
+
+    @Test
+    void toleraErratas() {
+        assertEquals(List.of(3, 4), ids(indice.buscar("sentadila", 10)));
+        assertEquals(List.of(8), ids(indice.buscar("peso muetro", 10)));
+        assertEquals(List.of(6), ids(indice.buscar("tricpes", 10)));
+    }
+
+    @Test
+    void exactoAntesQueAproximado_YLimite() {
+        List<Integer> resultado = ids(indice.buscar("press banca", 1));
+        assertEquals(List.of(1), resultado);
+    }
+
+    @Test
+    void consultaVaciaOSinCoincidencias() {
+        assertTrue(indice.buscar("  ¡! ", 10).isEmpty());
+        assertTrue(indice.buscar(null, 10).isEmpty());
+        assertTrue(indice.buscar("zzzzzz", 10).isEmpty());
+    }
+
+    @Test
+    void catalogoGrande() {
+        List<EjercicioCatalogoDTO> catalogo = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            catalogo.add(new EjercicioCatalogoDTO(i, "Variante " + i + " de remo con mancuerna", null));
+        }
+        catalogo.add(new EjercicioCatalogoDTO(10_000, "Remo con barra", null));
+        IndiceBusquedaEjercicios grande = IndiceBusquedaEjercicios.construir(catalogo);
+
+        List<EjercicioCatalogoDTO> resultado = grande.buscar("remo barra", 10);
+        assertEquals(1, resultado.size());
+        assertEquals("Remo con barra", resultado.get(0).getNombre());
+        assertEquals(10, grande.buscar("mancuerna", 10).size());
+    }
+
+    private static List<Integer> ids(List<EjercicioCatalogoDTO> ejercicios) {
+        return ejercicios.stream().map(EjercicioCatalogoDTO::getIdEjercicio).toList();
+    }
+}
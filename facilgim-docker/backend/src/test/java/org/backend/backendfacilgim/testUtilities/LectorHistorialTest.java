@@ -0,0 +1,105 @@
+package org.backend.backendfacilgim.testUtilities;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.backend.backendfacilgim.dto.EntrenamientoDTO;
+import org.backend.backendfacilgim.dto.FilaHistorialDTO;
+import org.backend.backendfacilgim.exception.CustomException;
+import org.backend.backendfacilgim.utilities.ExportadorHistorial;
+import org.backend.backendfacilgim.utilities.FormatoExportacion;
+import org.backend.backendfacilgim.utilities.LectorHistorial;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LectorHistorialTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void leerLoExportado_Ndjson() throws Exception {
+        List<EntrenamientoDTO> leidos = exportarYLeer(FormatoExportacion.NDJSON);
+        comprobarHistorial(leidos);
+    }
+
+    @Test
+    void leerLoExportado_Csv() throws Exception {
+        List<EntrenamientoDTO> leidos = exportarYLeer(FormatoExportacion.CSV);
+        comprobarHistorial(leidos);
+    }
+
+    @Test
+    void csvConCampoMultilineaYComillas() throws Exception {
+        String csv = """
+                id_entrenamiento,fecha,nombre,tipo,duracion,orden,ejercicio,numero_serie,repeticiones,peso
+                1,2024-01-01,"Pierna ""dura""
+                y larga",Fuerza,60,1,Sentadilla,1,10,20.5
+                """;
+        List<EntrenamientoDTO> leidos = leer(FormatoExportacion.CSV, csv);
+
+        assertEquals(1, leidos.size());
+        assertEquals("Pierna \"dura\"\ny larga", leidos.get(0).getNombre());
+        assertEquals(20.5, leidos.get(0).getEntrenamientosEjercicios().get(0).getSeries().get(0).getPeso());
+    }
+
+    @Test
+    void csvSinColumnaObligatoria() {
+        CustomException ex = assertThrows(CustomException.class,
+                () -> leer(FormatoExportacion.CSV, "fecha,nombre\n2024-01-01,Pierna\n"));
+        assertTrue(ex.getMessage().contains("id_entrenamiento"));
+    }
+
+    @Test
+    void ndjsonConFechaInvalida_IndicaLaLinea() {
+        String ndjson = "{\"nombre\":\"A\",\"fechaEntrenamiento\":\"2024-01-01\",\"duracion\":30,\"tipoEntrenamiento\":\"Fuerza\"}\n"
+                + "\n"
+                + "{\"nombre\":\"B\",\"fechaEntrenamiento\":\"ayer\",\"duracion\":30,\"tipoEntrenamiento\":\"Fuerza\"}\n";
+        CustomException ex = assertThrows(CustomException.class, () -> leer(FormatoExportacion.NDJSON, ndjson));
+        assertTrue(ex.getMessage().startsWith("Línea 3"));
+    }
+
+    private List<EntrenamientoDTO> exportarYLeer(FormatoExportacion formato) throws Exception {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        ExportadorHistorial exportador = ExportadorHistorial.crear(formato, salida, objectMapper);
+        for (int ejercicio = 1; ejercicio <= 2; ejercicio++) {
+            for (int serie = 1; serie <= 3; serie++) {
+                exportador.accept(new FilaHistorialDTO(1, "Pierna, pesada", LocalDate.of(2024, 1, 1), "Series \"al fallo\"\ncon pausa", 60,
+                        "Fuerza", ejercicio, ejercicio, ejercicio, "Ejercicio " + ejercicio,
+                        ejercicio * 10 + serie, serie, 10, 20.0));
+            }
+        }
+        exportador.accept(new FilaHistorialDTO(2, "Descanso activo", LocalDate.of(2024, 1, 2), null, 30,
+                "Cardio", null, null, null, null, null, null, null, null));
+        exportador.terminar();
+        return leer(formato, salida.toString(StandardCharsets.UTF_8));
+    }
+
+    private void comprobarHistorial(List<EntrenamientoDTO> leidos) {
+        assertEquals(2, leidos.size());
+        EntrenamientoDTO primero = leidos.get(0);
+        assertEquals("Pierna, pesada", primero.getNombre());
+        assertEquals(LocalDate.of(2024, 1, 1), primero.getFechaEntrenamiento());
+        assertEquals("Series \"al fallo\"\ncon pausa", primero.getDescripcion());
+        assertEquals("Fuerza", primero.getTipoEntrenamiento().getNombre());
+        assertEquals(2, primero.getEntrenamientosEjercicios().size());
+        assertEquals("Ejercicio 2", primero.getEntrenamientosEjercicios().get(1).getEjercicio().getNombre());
+        assertEquals(3, primero.getEntrenamientosEjercicios().get(1).getSeries().size());
+        assertNull(leidos.get(1).getDescripcion());
+        assertEquals(0, leidos.get(1).getEntrenamientosEjercicios().size());
+    }
+
+    private List<EntrenamientoDTO> leer(FormatoExportacion formato, String contenido) throws Exception {
+        List<EntrenamientoDTO> leidos = new ArrayList<>();
+        try (LectorHistorial lector = LectorHistorial.abrir(formato,
+                new ByteArrayInputStream(contenido.getBytes(StandardCharsets.UTF_8)), objectMapper)) {
+            lector.forEachRemaining(leidos::add);
+        }
+        return leidos;
+    }
+}
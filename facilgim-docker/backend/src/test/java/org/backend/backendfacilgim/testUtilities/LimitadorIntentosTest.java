@@ -0,0 +1,106 @@
+package org.backend.backendfacilgim.testUtilities;
+
+import org.backend.backendfacilgim.security.LimitadorIntentos;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LimitadorIntentosTest {
+
+    private static final Instant AHORA = Instant.parse("2025-01-01T10:00:00Z");
+
+    @Test
+    void consumir_AdmiteLaCapacidadYLuegoRechaza() {
+        LimitadorIntentos limitador = new LimitadorIntentos(3, Duration.ofSeconds(10), 1000, new MutableClock(AHORA));
+
+        assertEquals(0, limitador.consumir("user"));
+        assertEquals(0, limitador.consumir("user"));
+        assertEquals(0, limitador.consumir("user"));
+        assertEquals(10, limitador.consumir("user"));
+        assertEquals(0, limitador.consumir("otro"));
+    }
+
+    @Test
+    void consumir_ReponeUnaFichaPorIntervalo() {
+        MutableClock reloj = new MutableClock(AHORA);
+        LimitadorIntentos limitador = new LimitadorIntentos(2, Duration.ofSeconds(10), 1000, reloj);
+        limitador.consumir("user");
+        limitador.consumir("user");
+
+        reloj.ahora = AHORA.plusSeconds(4);
+        assertEquals(6, limitador.consumir("user"));
+
+        reloj.ahora = AHORA.plusSeconds(10);
+        assertEquals(0, limitador.consumir("user"));
+        assertTrue(limitador.consumir("user") > 0);
+    }
+
+    @Test
+    void restablecer_DevuelveTodasLasFichas() {
+        LimitadorIntentos limitador = new LimitadorIntentos(1, Duration.ofMinutes(1), 1000, new MutableClock(AHORA));
+        limitador.consumir("user");
+        assertTrue(limitador.consumir("user") > 0);
+
+        limitador.restablecer("user");
+
+        assertEquals(0, limitador.consumir("user"));
+    }
+
+    @Test
+    void purgar_QuitaLosCubosRepuestos() {
+        MutableClock reloj = new MutableClock(AHORA);
+        LimitadorIntentos limitador = new LimitadorIntentos(2, Duration.ofSeconds(10), 1000, reloj);
+        limitador.consumir("a");
+        limitador.consumir("b");
+        limitador.consumir("b");
+
+        reloj.ahora = AHORA.plusSeconds(10);
+        assertEquals(1, limitador.purgar());
+        assertEquals(1, limitador.tamano());
+
+        reloj.ahora = AHORA.plusSeconds(20);
+        assertEquals(1, limitador.purgar());
+        assertEquals(0, limitador.tamano());
+    }
+
+    @Test
+    void consumir_NoSuperaElMaximoDeClaves() {
+        LimitadorIntentos limitador = new LimitadorIntentos(5, Duration.ofMinutes(1), 160, new MutableClock(AHORA));
+        for (int i = 0; i < 10_000; i++) {
+            limitador.consumir("ip-" + i);
+            assertTrue(limitador.tamano() <= 160);
+        }
+    }
+
+    /**
+     * Reloj cuyo instante puede adelantarse durante el test.
+     */
+    private static final class MutableClock extends Clock {
+
+        Instant ahora;
+
+        MutableClock(Instant ahora) {
+            this.ahora = ahora;
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return ahora;
+        }
+    }
+}
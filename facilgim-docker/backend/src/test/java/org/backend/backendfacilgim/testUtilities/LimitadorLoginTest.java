@@ -0,0 +1,87 @@
+package org.backend.backendfacilgim.testUtilities;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.backend.backendfacilgim.exception.LimiteExcedidoException;
+import org.backend.backendfacilgim.security.LimitadorIntentos;
+import org.backend.backendfacilgim.security.LimitadorLogin;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LimitadorLoginTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void ip_XRealIpSoloDesdeLosProxiesConfiables() {
+        LimitadorLogin limitador = limitador(10, 10);
+
+        assertEquals("203.0.113.7", limitador.ip(peticion("172.18.0.5", "203.0.113.7")));
+        assertEquals("172.18.0.6", limitador.ip(peticion("172.18.0.6", "203.0.113.7")));
+        assertEquals("127.0.0.1", limitador.ip(peticion("127.0.0.1", "203.0.113.7")));
+        assertEquals("198.51.100.9", limitador.ip(peticion("198.51.100.9", "203.0.113.7")));
+        assertEquals("172.18.0.5", limitador.ip(peticion("172.18.0.5", null)));
+    }
+
+    @Test
+    void ip_ResuelveLosNombresYIgnoraLosDesconocidos() {
+        LimitadorLogin limitador = new LimitadorLogin(
+                new LimitadorIntentos(10, Duration.ofMinutes(1), 1000, Clock.systemUTC()),
+                new LimitadorIntentos(10, Duration.ofMinutes(1), 1000, Clock.systemUTC()),
+                List.of("localhost", "proxy-inexistente.invalid"), meterRegistry);
+
+        assertEquals("203.0.113.7", limitador.ip(peticion("127.0.0.1", "203.0.113.7")));
+        assertEquals("172.18.0.5", limitador.ip(peticion("172.18.0.5", "203.0.113.7")));
+    }
+
+    @Test
+    void comprobarIp_RechazaCon429TrasLaCapacidad() {
+        LimitadorLogin limitador = limitador(2, 10);
+
+        limitador.comprobarIp(peticion("172.18.0.5", "203.0.113.7"));
+        limitador.comprobarIp(peticion("172.18.0.5", "203.0.113.7"));
+        LimiteExcedidoException rechazo = assertThrows(LimiteExcedidoException.class,
+                () -> limitador.comprobarIp(peticion("172.18.0.5", "203.0.113.7")));
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rechazo.getEstado());
+        assertNotNull(rechazo.getSegundosReintento());
+        limitador.comprobarIp(peticion("172.18.0.5", "203.0.113.8"));
+        assertEquals(1, meterRegistry.get("login.rechazos").tag("motivo", "ip").counter().count());
+    }
+
+    @Test
+    void comprobarUsuario_IgnoraMayusculasYSeRestableceTrasUnLoginCorrecto() {
+        LimitadorLogin limitador = limitador(10, 2);
+
+        limitador.comprobarUsuario("Juan");
+        limitador.comprobarUsuario("juan ");
+        assertThrows(LimiteExcedidoException.class, () -> limitador.comprobarUsuario("JUAN"));
+
+        limitador.restablecerUsuario("juan");
+
+        limitador.comprobarUsuario("juan");
+        assertEquals(1, meterRegistry.get("login.rechazos").tag("motivo", "usuario").counter().count());
+    }
+
+    private LimitadorLogin limitador(int capacidadIp, int capacidadUsuario) {
+        return new LimitadorLogin(
+                new LimitadorIntentos(capacidadIp, Duration.ofMinutes(1), 1000, Clock.systemUTC()),
+                new LimitadorIntentos(capacidadUsuario, Duration.ofMinutes(1), 1000, Clock.systemUTC()),
+                List.of("172.18.0.5"), meterRegistry);
+    }
+
+    private static MockHttpServletRequest peticion(String remota, String ipReal) {
+        MockHttpServletRequest peticion = new MockHttpServletRequest("POST", "/login");
+        peticion.setRemoteAddr(remota);
+        if (ipReal != null) {
+            peticion.addHeader("X-Real-IP", ipReal);
+        }
+        return peticion;
+    }
+}
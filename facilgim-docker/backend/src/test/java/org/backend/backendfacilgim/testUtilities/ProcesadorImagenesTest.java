@@ -0,0 +1,135 @@
+package org.backend.backendfacilgim.testUtilities;
+
+import org.backend.backendfacilgim.utilities.ProcesadorImagenes;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProcesadorImagenesTest {
+
+    @TempDir
+    Path carpeta;
+
+    private final ProcesadorImagenes procesador = new ProcesadorImagenes(40, 100, 1_000_000);
+
+    @Test
+    void imagenEstatica_GeneraTresVersionesEscaladas() throws IOException {
+        Path original = carpeta.resolve("press.png");
+        ImageIO.write(imagen(400, 200, Color.RED), "png", original.toFile());
+
+        ProcesadorImagenes.Derivadas derivadas = procesador.generar(original);
+
+        assertEquals("press_miniatura.png", derivadas.getMiniatura());
+        assertEquals("press_media.png", derivadas.getMedia());
+        assertEquals("press_poster.png", derivadas.getPoster());
+        BufferedImage miniatura = ImageIO.read(carpeta.resolve(derivadas.getMiniatura()).toFile());
+        assertEquals(40, miniatura.getWidth());
+        assertEquals(20, miniatura.getHeight());
+        assertEquals(100, ImageIO.read(carpeta.resolve(derivadas.getMedia()).toFile()).getWidth());
+    }
+
+    @Test
+    void gifAnimado_ConservaFotogramasYPosterEstatico() throws IOException {
+        Path original = carpeta.resolve("sentadilla.gif");
+        escribirGif(original, imagen(300, 300, Color.RED), imagen(300, 300, Color.BLUE), imagen(300, 300, Color.GREEN));
+
+        ProcesadorImagenes.Derivadas derivadas = procesador.generar(original);
+
+        assertEquals("sentadilla_miniatura.gif", derivadas.getMiniatura());
+        assertEquals(3, fotogramas(carpeta.resolve(derivadas.getMiniatura())));
+        assertEquals(3, fotogramas(carpeta.resolve(derivadas.getMedia())));
+
+        BufferedImage poster = ImageIO.read(carpeta.resolve(derivadas.getPoster()).toFile());
+        assertEquals(100, poster.getWidth());
+        Color centro = new Color(poster.getRGB(50, 50));
+        assertTrue(centro.getRed() > 200 && centro.getBlue() < 50, "El póster debe ser el primer fotograma");
+    }
+
+    @Test
+    void archivoDanado_LanzaIOException() throws IOException {
+        Path original = carpeta.resolve("roto.gif");
+        Files.write(original, "GIF89a...".getBytes());
+
+        assertThrows(IOException.class, () -> procesador.generar(original));
+    }
+
+    @Test
+    void gifConLienzoEnorme_SeRechazaSinDecodificarlo() throws IOException {
+        Path original = carpeta.resolve("bomba.gif");
+        escribirGif(original, imagen(10, 10, Color.RED));
+        // Cabecera GIF: el lienzo lógico se declara en los bytes 6-9 (ancho y alto, little-endian)
+        byte[] bytes = Files.readAllBytes(original);
+        bytes[6] = (byte) 0xFF;
+        bytes[7] = (byte) 0xFF;
+        bytes[8] = (byte) 0xFF;
+        bytes[9] = (byte) 0xFF;
+        Files.write(original, bytes);
+
+        IOException ex = assertThrows(IOException.class, () -> procesador.generar(original));
+
+        assertTrue(ex.getMessage().contains("65535x65535"), ex.getMessage());
+        assertFalse(Files.exists(carpeta.resolve("bomba_miniatura.gif")));
+        assertFalse(Files.exists(carpeta.resolve("bomba_poster.png")));
+    }
+
+    @Test
+    void imagenEstaticaDemasiadoGrande_SeRechaza() throws IOException {
+        Path original = carpeta.resolve("grande.png");
+        ImageIO.write(imagen(400, 200, Color.RED), "png", original.toFile());
+        ProcesadorImagenes limitado = new ProcesadorImagenes(40, 100, 50_000);
+
+        IOException ex = assertThrows(IOException.class, () -> limitado.generar(original));
+
+        assertTrue(ex.getMessage().contains("400x200"), ex.getMessage());
+        assertFalse(Files.exists(carpeta.resolve("grande_media.png")));
+    }
+
+    private static BufferedImage imagen(int ancho, int alto, Color color) {
+        BufferedImage imagen = new BufferedImage(ancho, alto, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = imagen.createGraphics();
+        g.setColor(color);
+        g.fillRect(0, 0, ancho, alto);
+        g.dispose();
+        return imagen;
+    }
+
+    private static void escribirGif(Path destino, BufferedImage... fotogramas) throws IOException {
+        ImageWriter escritor = ImageIO.getImageWritersByFormatName("gif").next();
+        try (ImageOutputStream salida = ImageIO.createImageOutputStream(destino.toFile())) {
+            escritor.setOutput(salida);
+            escritor.prepareWriteSequence(null);
+            for (BufferedImage fotograma : fotogramas) {
+                escritor.writeToSequence(new IIOImage(fotograma, null,
+                        escritor.getDefaultImageMetadata(ImageTypeSpecifier.createFromRenderedImage(fotograma), null)), null);
+            }
+            escritor.endWriteSequence();
+        } finally {
+            escritor.dispose();
+        }
+    }
+
+    private static int fotogramas(Path gif) throws IOException {
+        try (ImageInputStream entrada = ImageIO.createImageInputStream(gif.toFile())) {
+            ImageReader lector = ImageIO.getImageReaders(entrada).next();
+            lector.setInput(entrada);
+            int total = lector.getNumImages(true);
+            lector.dispose();
+            return total;
+        }
+    }
+}
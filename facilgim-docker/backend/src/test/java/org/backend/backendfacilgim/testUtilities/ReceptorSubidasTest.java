@@ -0,0 +1,111 @@
+package org.backend.backendfacilgim.testUtilities;
+
+import org.backend.backendfacilgim.exception.LimiteExcedidoException;
+import org.backend.backendfacilgim.utilities.AlmacenImagenes;
+import org.backend.backendfacilgim.utilities.ReceptorSubidas;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+
+public class ReceptorSubidasTest {
+
+    private static final AlmacenImagenes.ImagenGuardada GUARDADA =
+            new AlmacenImagenes.ImagenGuardada("ab/cd/abcd.gif", Path.of("uploads/ab/cd/abcd.gif"), true);
+
+    private AlmacenImagenes almacenImagenes;
+    private ReceptorSubidas receptor;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        almacenImagenes = Mockito.mock(AlmacenImagenes.class);
+        Mockito.when(almacenImagenes.guardar(any(), any())).thenAnswer(inv -> {
+            inv.<InputStream>getArgument(0).readAllBytes();
+            return GUARDADA;
+        });
+        receptor = new ReceptorSubidas(almacenImagenes, 1, 100);
+    }
+
+    @Test
+    void recibir_JsonEImagen() throws Exception {
+        ReceptorSubidas.SubidaEjercicio subida = receptor.recibir(peticion("{\"nombre\":\"Remo\"}", new byte[50]));
+
+        assertEquals("{\"nombre\":\"Remo\"}", subida.getEjercicioJson());
+        assertSame(GUARDADA, subida.getImagen());
+        Mockito.verify(almacenImagenes).guardar(any(), eq("remo.gif"));
+    }
+
+    @Test
+    void recibir_ImagenVacia_NoSeGuarda() throws Exception {
+        ReceptorSubidas.SubidaEjercicio subida = receptor.recibir(peticion("{\"nombre\":\"Remo\"}", new byte[0]));
+
+        assertNull(subida.getImagen());
+        Mockito.verifyNoInteractions(almacenImagenes);
+    }
+
+    @Test
+    void recibir_ImagenDemasiadoGrande_413() {
+        LimiteExcedidoException e = assertThrows(LimiteExcedidoException.class,
+                () -> receptor.recibir(peticion("{}", new byte[101])));
+
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, e.getEstado());
+    }
+
+    @Test
+    void recibir_CupoLleno_429() throws Exception {
+        CountDownLatch dentro = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        Mockito.when(almacenImagenes.guardar(any(), any())).thenAnswer(inv -> {
+            dentro.countDown();
+            liberar.await(5, TimeUnit.SECONDS);
+            return GUARDADA;
+        });
+        CompletableFuture<ReceptorSubidas.SubidaEjercicio> primera =
+                CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return receptor.recibir(peticion("{}", new byte[10]));
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+        assertTrue(dentro.await(5, TimeUnit.SECONDS));
+
+        LimiteExcedidoException e = assertThrows(LimiteExcedidoException.class,
+                () -> receptor.recibir(peticion("{}", new byte[10])));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, e.getEstado());
+        assertEquals(1, e.getSegundosReintento());
+
+        liberar.countDown();
+        assertSame(GUARDADA, primera.get(5, TimeUnit.SECONDS).getImagen());
+        assertNotNull(receptor.recibir(peticion("{}", new byte[0])));
+    }
+
+    private static MockHttpServletRequest peticion(String json, byte[] imagen) {
+        String limite = "----limite";
+        byte[] cabecera = ("--" + limite + "\r\nContent-Disposition: form-data; name=\"ejercicio\"\r\n\r\n" + json + "\r\n"
+                + "--" + limite + "\r\nContent-Disposition: form-data; name=\"imagen\"; filename=\"remo.gif\"\r\n"
+                + "Content-Type: image/gif\r\n\r\n").getBytes(StandardCharsets.UTF_8);
+        byte[] cierre = ("\r\n--" + limite + "--\r\n").getBytes(StandardCharsets.UTF_8);
+        byte[] cuerpo = new byte[cabecera.length + imagen.length + cierre.length];
+        System.arraycopy(cabecera, 0, cuerpo, 0, cabecera.length);
+        System.arraycopy(imagen, 0, cuerpo, cabecera.length, imagen.length);
+        System.arraycopy(cierre, 0, cuerpo, cabecera.length + imagen.length, cierre.length);
+
+        MockHttpServletRequest peticion = new MockHttpServletRequest("POST", "/api/ejercicios");
+        peticion.setContentType("multipart/form-data; boundary=" + limite);
+        peticion.setContent(cuerpo);
+        return peticion;
+    }
+}
@@ -0,0 +1,129 @@
+package org.backend.backendfacilgim.testUtilities;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.backend.backendfacilgim.dto.EjercicioCatalogoDTO;
+import org.backend.backendfacilgim.entity.ArchivoImagen;
+import org.backend.backendfacilgim.repository.ArchivoImagenRepository;
+import org.backend.backendfacilgim.repository.EjercicioRepository;
+import org.backend.backendfacilgim.utilities.RecolectorSubidas;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verify;
+
+public class RecolectorSubidasTest {
+
+    @TempDir
+    Path carpeta;
+
+    private EjercicioRepository ejercicioRepository;
+    private ArchivoImagenRepository archivoImagenRepository;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        ejercicioRepository = Mockito.mock(EjercicioRepository.class);
+        archivoImagenRepository = Mockito.mock(ArchivoImagenRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+
+        EjercicioCatalogoDTO remo = new EjercicioCatalogoDTO(1, "Remo", "http://localhost:8080/uploads/ab/cd/vivo.gif");
+        remo.setImagenMediaUrl("http://localhost:8080/uploads/ab/cd/vivo_media.gif");
+        Mockito.when(ejercicioRepository.listarCatalogo()).thenReturn(List.of(remo));
+    }
+
+    @Test
+    void huerfanosAntiguos_SeEliminan() throws IOException {
+        crear("ab/cd/vivo.gif", true);
+        crear("ab/cd/vivo_miniatura.gif", true);
+        crear("ab/cd/vivo_poster.png", true);
+        crear("ab/cd/muerto.gif", true);
+        crear("ab/cd/muerto_media.gif", true);
+        crear(".tmp/subida-1.tmp", true);
+        crear("ab/cd/reciente.gif", false);
+        ArchivoImagen registro = new ArchivoImagen("ab/cd/muerto.gif", "muerto", 100, 0, LocalDateTime.now());
+        Mockito.when(archivoImagenRepository.findById("ab/cd/muerto.gif")).thenReturn(Optional.of(registro));
+
+        RecolectorSubidas.Pasada pasada = recolector(false).pasada();
+
+        assertEquals(3, pasada.getRetirados());
+        assertEquals(300, pasada.getBytesLiberados());
+        assertTrue(Files.exists(carpeta.resolve("ab/cd/vivo.gif")));
+        assertTrue(Files.exists(carpeta.resolve("ab/cd/vivo_miniatura.gif")));
+        assertTrue(Files.exists(carpeta.resolve("ab/cd/vivo_poster.png")));
+        assertTrue(Files.exists(carpeta.resolve("ab/cd/reciente.gif")));
+        assertFalse(Files.exists(carpeta.resolve("ab/cd/muerto.gif")));
+        assertFalse(Files.exists(carpeta.resolve(".tmp/subida-1.tmp")));
+        assertEquals(300.0, meterRegistry.get("subidas.gc.bytes.liberados").counter().count());
+        verify(archivoImagenRepository).delete(registro);
+    }
+
+    @Test
+    void archivoConReferencias_SeConserva() throws IOException {
+        crear("ef/01/compartido.gif", true);
+        Mockito.when(archivoImagenRepository.findByReferenciasGreaterThan(0)).thenReturn(List.of(
+                new ArchivoImagen("ef/01/compartido.gif", "compartido", 100, 2, LocalDateTime.now())));
+
+        assertEquals(0, recolector(false).pasada().getRetirados());
+        assertTrue(Files.exists(carpeta.resolve("ef/01/compartido.gif")));
+    }
+
+    @Test
+    void cuarentena_MueveYDespuesElimina() throws IOException {
+        crear("ab/cd/muerto.gif", true);
+
+        RecolectorSubidas.Pasada primera = recolector(true).pasada();
+
+        assertEquals(1, primera.getRetirados());
+        assertEquals(0, primera.getBytesLiberados());
+        assertFalse(Files.exists(carpeta.resolve("ab/cd/muerto.gif")));
+        Path enCuarentena = carpeta.resolve(".cuarentena/ab/cd/muerto.gif");
+        assertTrue(Files.exists(enCuarentena));
+        assertEquals(1.0, meterRegistry.get("subidas.gc.archivos").tag("accion", "cuarentena").counter().count());
+
+        Files.setLastModifiedTime(enCuarentena, FileTime.from(Instant.now().minus(Duration.ofDays(8))));
+        RecolectorSubidas.Pasada segunda = recolector(true).pasada();
+
+        assertEquals(100, segunda.getBytesLiberados());
+        assertFalse(Files.exists(enCuarentena));
+    }
+
+    @Test
+    void maximoPorPasada_ElRestoEnLaSiguiente() throws IOException {
+        for (int i = 0; i < 5; i++) {
+            crear("ab/cd/muerto" + i + ".gif", true);
+        }
+        RecolectorSubidas recolector = new RecolectorSubidas(ejercicioRepository, archivoImagenRepository,
+                meterRegistry, carpeta.toString(), 24, false, 168, 2);
+
+        assertEquals(2, recolector.pasada().getRetirados());
+        assertEquals(2, recolector.pasada().getRetirados());
+        assertEquals(1, recolector.pasada().getRetirados());
+    }
+
+    private RecolectorSubidas recolector(boolean cuarentena) {
+        return new RecolectorSubidas(ejercicioRepository, archivoImagenRepository,
+                meterRegistry, carpeta.toString(), 24, cuarentena, 168, 1000);
+    }
+
+    private void crear(String ruta, boolean antiguo) throws IOException {
+        Path archivo = carpeta.resolve(ruta);
+        Files.createDirectories(archivo.getParent());
+        Files.write(archivo, new byte[100]);
+        if (antiguo) {
+            Files.setLastModifiedTime(archivo, FileTime.from(Instant.now().minus(Duration.ofDays(2))));
+        }
+    }
+}
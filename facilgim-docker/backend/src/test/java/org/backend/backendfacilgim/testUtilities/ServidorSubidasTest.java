@@ -0,0 +1,146 @@
+package org.backend.backendfacilgim.testUtilities;
+
+import org.backend.backendfacilgim.utilities.ServidorSubidas;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ServidorSubidasTest {
+
+    private static final String HASH = "3fa2" + "0".repeat(60);
+    private static final String RUTA = "3f/a2/" + HASH + ".gif";
+    private static final byte[] CONTENIDO = "GIF89a0123456789".getBytes();
+
+    @TempDir
+    Path carpeta;
+
+    private ServidorSubidas servidor;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Files.createDirectories(carpeta.resolve("3f/a2"));
+        Files.write(carpeta.resolve(RUTA), CONTENIDO);
+        servidor = new ServidorSubidas(carpeta.toString());
+    }
+
+    @Test
+    void direccionadoPorContenido_Inmutable() throws IOException {
+        MockHttpServletResponse respuesta = servir(RUTA, new MockHttpServletRequest("GET", "/uploads/" + RUTA));
+
+        assertEquals(200, respuesta.getStatus());
+        assertArrayEquals(CONTENIDO, respuesta.getContentAsByteArray());
+        assertEquals("\"" + HASH + "\"", respuesta.getHeader(HttpHeaders.ETAG));
+        assertTrue(respuesta.getHeader(HttpHeaders.CACHE_CONTROL).contains("immutable"));
+        assertEquals("bytes", respuesta.getHeader(HttpHeaders.ACCEPT_RANGES));
+        assertEquals(CONTENIDO.length, respuesta.getContentLength());
+    }
+
+    @Test
+    void ifNoneMatch_NoModificado() throws IOException {
+        MockHttpServletRequest peticion = new MockHttpServletRequest("GET", "/uploads/" + RUTA);
+        peticion.addHeader(HttpHeaders.IF_NONE_MATCH, "\"" + HASH + "\"");
+
+        MockHttpServletResponse respuesta = servir(RUTA, peticion);
+
+        assertEquals(304, respuesta.getStatus());
+        assertEquals(0, respuesta.getContentAsByteArray().length);
+    }
+
+    @Test
+    void rango_ContenidoParcial() throws IOException {
+        MockHttpServletRequest peticion = new MockHttpServletRequest("GET", "/uploads/" + RUTA);
+        peticion.addHeader(HttpHeaders.RANGE, "bytes=6-9");
+
+        MockHttpServletResponse respuesta = servir(RUTA, peticion);
+
+        assertEquals(206, respuesta.getStatus());
+        assertEquals("bytes 6-9/" + CONTENIDO.length, respuesta.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals("0123", respuesta.getContentAsString());
+    }
+
+    @Test
+    void rangoSufijo_UltimosBytes() throws IOException {
+        MockHttpServletRequest peticion = new MockHttpServletRequest("GET", "/uploads/" + RUTA);
+        peticion.addHeader(HttpHeaders.RANGE, "bytes=-3");
+
+        MockHttpServletResponse respuesta = servir(RUTA, peticion);
+
+        assertEquals(206, respuesta.getStatus());
+        assertEquals("789", respuesta.getContentAsString());
+    }
+
+    @Test
+    void rangoFueraDelArchivo_NoSatisfacible() throws IOException {
+        MockHttpServletRequest peticion = new MockHttpServletRequest("GET", "/uploads/" + RUTA);
+        peticion.addHeader(HttpHeaders.RANGE, "bytes=500-");
+
+        MockHttpServletResponse respuesta = servir(RUTA, peticion);
+
+        assertEquals(416, respuesta.getStatus());
+        assertEquals("bytes */" + CONTENIDO.length, respuesta.getHeader(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    void ifRangeObsoleto_ArchivoCompleto() throws IOException {
+        MockHttpServletRequest peticion = new MockHttpServletRequest("GET", "/uploads/" + RUTA);
+        peticion.addHeader(HttpHeaders.RANGE, "bytes=0-3");
+        peticion.addHeader(HttpHeaders.IF_RANGE, "\"otro\"");
+
+        MockHttpServletResponse respuesta = servir(RUTA, peticion);
+
+        assertEquals(200, respuesta.getStatus());
+        assertEquals(CONTENIDO.length, respuesta.getContentAsByteArray().length);
+    }
+
+    @Test
+    void varianteGzip_SiElClienteLaAcepta() throws IOException {
+        byte[] comprimido = "comprimido".getBytes();
+        Files.write(carpeta.resolve(RUTA + ".gz"), comprimido);
+        MockHttpServletRequest peticion = new MockHttpServletRequest("GET", "/uploads/" + RUTA);
+        peticion.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
+
+        MockHttpServletResponse respuesta = servir(RUTA, peticion);
+
+        assertEquals("gzip", respuesta.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("\"" + HASH + "-gz\"", respuesta.getHeader(HttpHeaders.ETAG));
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, respuesta.getHeader(HttpHeaders.VARY));
+        assertArrayEquals(comprimido, respuesta.getContentAsByteArray());
+    }
+
+    @Test
+    void archivoAntiguo_SeRevalida() throws IOException {
+        Files.write(carpeta.resolve("1712000000000_press.png"), CONTENIDO);
+
+        MockHttpServletResponse respuesta = servir("1712000000000_press.png",
+                new MockHttpServletRequest("GET", "/uploads/1712000000000_press.png"));
+
+        assertEquals(200, respuesta.getStatus());
+        assertEquals("no-cache", respuesta.getHeader(HttpHeaders.CACHE_CONTROL));
+        assertNotNull(respuesta.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void rutasFueraDelDirectorio_NoEncontrado() throws IOException {
+        Files.createDirectories(carpeta.resolve(".tmp"));
+        Files.write(carpeta.resolve(".tmp/subida-1.tmp"), CONTENIDO);
+
+        assertEquals(404, servir("../secreto.txt", new MockHttpServletRequest()).getStatus());
+        assertEquals(404, servir(".tmp/subida-1.tmp", new MockHttpServletRequest()).getStatus());
+        assertEquals(404, servir("3f/a2/no-existe.gif", new MockHttpServletRequest()).getStatus());
+    }
+
+    private MockHttpServletResponse servir(String ruta, MockHttpServletRequest peticion) throws IOException {
+        MockHttpServletResponse respuesta = new MockHttpServletResponse();
+        servidor.servir(ruta, peticion, respuesta);
+        return respuesta;
+    }
+}
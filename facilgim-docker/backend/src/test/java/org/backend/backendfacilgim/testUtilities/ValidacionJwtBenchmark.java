@@ -0,0 +1,108 @@
+package org.backend.backendfacilgim.testUtilities;
+
+import io.jsonwebtoken.Jwts;
+import jakarta.servlet.FilterChain;
+import org.backend.backendfacilgim.security.AnilloClavesJwt;
+import org.backend.backendfacilgim.security.CacheTokensJwt;
+import org.backend.backendfacilgim.security.filter.JwtValidationFilter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.FileSystemUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.backend.backendfacilgim.security.TokenJwtConfig.*;
+
+/**
+ * Benchmark JMH de la validación del token JWT en {@link JwtValidationFilter}: el mismo token
+ * repetido, como hace un cliente durante una sesión, con y sin {@link CacheTokensJwt}.
+ * <p>
+ * No lo ejecuta surefire; lanzarlo con {@link #main(String[])} desde el IDE o, tras
+ * {@code ./mvnw test-compile}, con {@code org.openjdk.jmh.Main ValidacionJwtBenchmark} sobre
+ * el classpath de test.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidacionJwtBenchmark {
+
+    private final FilterChain cadena = (peticion, respuesta) -> { };
+
+    private Path carpeta;
+    private String token;
+    private JwtValidationFilter sinCache;
+    private JwtValidationFilter conCache;
+
+    @Setup
+    public void preparar() throws Exception {
+        carpeta = Files.createTempDirectory("jwt-bench");
+        AnilloClavesJwt anillo = new AnilloClavesJwt(carpeta.resolve("jwt.p12"), "bench", Duration.ofDays(7),
+                Duration.ofHours(2), VIGENCIA_TOKEN, Duration.ofSeconds(30), Clock.systemUTC());
+        AnilloClavesJwt.ClaveJwt clave = anillo.claveFirma();
+        token = Jwts.builder()
+                .header().keyId(clave.getId()).and()
+                .subject("bench")
+                .claim("authorities", List.of("ROLE_USER", "ROLE_ADMIN"))
+                .claim("username", "bench")
+                .expiration(new Date(System.currentTimeMillis() + VIGENCIA_TOKEN.toMillis()))
+                .signWith(clave.getClave())
+                .compact();
+
+        sinCache = filtro(anillo, 0);
+        conCache = filtro(anillo, 10_000);
+    }
+
+    @TearDown
+    public void limpiar() throws Exception {
+        FileSystemUtils.deleteRecursively(carpeta);
+    }
+
+    @Benchmark
+    public Authentication validarSinCache() throws Exception {
+        return validar(sinCache);
+    }
+
+    @Benchmark
+    public Authentication validarConCache() throws Exception {
+        return validar(conCache);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(ValidacionJwtBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    /**
+     * Pasa una petición con el token por el filtro.
+     *
+     * @return La autenticación que deja el filtro en el contexto.
+     */
+    private Authentication validar(JwtValidationFilter filtro) throws Exception {
+        MockHttpServletRequest peticion = new MockHttpServletRequest("GET", "/api/ejercicios");
+        peticion.addHeader(HEADER_AUTHORIZATION, PREFIX_TOKEN + token);
+        filtro.doFilter(peticion, new MockHttpServletResponse(), cadena);
+
+        Authentication autenticacion = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return autenticacion;
+    }
+
+    private static JwtValidationFilter filtro(AnilloClavesJwt anillo, int maximo) {
+        return new JwtValidationFilter(autenticacion -> autenticacion, anillo,
+                new CacheTokensJwt(maximo, Duration.ofMinutes(10), Clock.systemUTC()));
+    }
+}